@@ -0,0 +1,183 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ClusterNodeのクラスターにコマンドを送るクライアント
+ *
+ * ノードと同じHashRingでセッションの担当ノードを求めて直接送るため、通常は1往復で応答が返る。
+ * 担当ノードに接続できない場合はそのノードを外したリングで待機ノードに送り直し、
+ * ERR not-owner が返った場合は応答に含まれる担当ノードに送り直す。
+ * ノードが障害を検知して引き継ぎを終えるまでの間は、retryMillis の範囲で待ちながら再送する。
+ *
+ * スレッドセーフではない（複数のスレッドから使う場合は、スレッドごとに作成する）
+ */
+public class ClusterClient implements AutoCloseable {
+
+    // 再送するまでの待ち時間（ミリ秒）
+    private static final long RETRY_INTERVAL_MILLIS = 50;
+    // 接続と応答を待つ時間の上限（ミリ秒）
+    private static final int TIMEOUT_MILLIS = 1000;
+
+    // 全てのメンバーのアドレス
+    private final Map<String, InetSocketAddress> members;
+    // 応答が返らない場合に再送を続ける時間（ミリ秒）
+    private final long retryMillis;
+    // ノードごとの接続
+    private final Map<String, ClusterConnection> connections = new HashMap<>();
+    // 接続できなかったノードと、その時刻（System.nanoTime基準）
+    private final Map<String, Long> unreachable = new HashMap<>();
+
+    // 接続できるノードで作ったリング（接続できないノードが変わった時に作り直す）
+    private HashRing ring;
+
+    /*
+     * コンストラクタ
+     *
+     * @param members 全てのメンバーのIDとアドレス（ノードと同じ一覧を指定する）
+     *
+     * @param retryMillis 応答が返らない場合に再送を続ける時間（ミリ秒）。ノードの障害検知より長くする
+     */
+    public ClusterClient(Map<String, InetSocketAddress> members, long retryMillis) {
+        this.members = new LinkedHashMap<>(members);
+        this.retryMillis = retryMillis;
+        this.ring = new HashRing(members.keySet(), HashRing.DEFAULT_VIRTUAL_NODES);
+    }
+
+    /*
+     * クライアントのエントリーポイント
+     * コマンドを送り、応答を表示する（例: a=127.0.0.1:7101,b=127.0.0.1:7102 start work）
+     *
+     * @param args メンバーの一覧、コマンド、セッションID
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("使い方: ClusterClient <ID=ホスト:ポート,...> <コマンド> <セッションID>");
+            return;
+        }
+        try (ClusterClient client = new ClusterClient(ClusterNode.parseMembers(args[0]), 5000)) {
+            System.out.println(client.send(args[1], args[2]));
+        }
+    }
+
+    /*
+     * セッションへのコマンドを担当ノードに送り、応答を受け取るメソッド
+     *
+     * @param command コマンド（start / stop / reset / status）
+     *
+     * @param sessionId セッションID
+     *
+     * @return 応答の1行（改行を含まない）
+     *
+     * @throws IOException retryMillis の間にどのノードからも応答が得られなかった場合
+     */
+    public String send(String command, String sessionId) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryMillis);
+        String redirect = null;
+        while (true) {
+            String target = (redirect != null) ? redirect : currentRing().primary(sessionId);
+            redirect = null;
+            String reply;
+            try {
+                reply = connection(target).request(command + " " + sessionId);
+            } catch (IOException e) {
+                disconnect(target);
+                unreachable.put(target, System.nanoTime());
+                ring = null; // 接続できないノードを外して作り直す
+                if (System.nanoTime() - deadline > 0) {
+                    throw e;
+                }
+                continue;
+            }
+            if (!reply.startsWith("ERR not-owner ")) {
+                return reply;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                return reply;
+            }
+            String owner = reply.substring("ERR not-owner ".length());
+            if (owner.equals(target) || !members.containsKey(owner) || unreachable.containsKey(owner)) {
+                pause(); // 担当ノードがまだ障害を検知していない
+            } else {
+                redirect = owner;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (String nodeId : new ArrayList<>(connections.keySet())) {
+            disconnect(nodeId);
+        }
+    }
+
+    /*
+     * 接続できるノードで作ったリングを取得するメソッド
+     * 接続できなかったノードは retryMillis が経過したら再び候補に戻す（再起動したノードのため）
+     */
+    private HashRing currentRing() {
+        long now = System.nanoTime();
+        if (unreachable.values().removeIf(since -> now - since > TimeUnit.MILLISECONDS.toNanos(retryMillis))) {
+            ring = null;
+        }
+        if (ring == null) {
+            List<String> reachable = new ArrayList<>();
+            for (String nodeId : members.keySet()) {
+                if (!unreachable.containsKey(nodeId)) {
+                    reachable.add(nodeId);
+                }
+            }
+            if (reachable.isEmpty()) {
+                unreachable.clear(); // 全てのノードに接続できない場合は、全てのノードを試し直す
+                reachable.addAll(members.keySet());
+                pause();
+            }
+            ring = new HashRing(reachable, HashRing.DEFAULT_VIRTUAL_NODES);
+        }
+        return ring;
+    }
+
+    /*
+     * ノードへの接続を取得するメソッド（接続していない場合は接続する）
+     */
+    private ClusterConnection connection(String nodeId) throws IOException {
+        ClusterConnection connection = connections.get(nodeId);
+        if (connection == null) {
+            connection = new ClusterConnection(members.get(nodeId), TIMEOUT_MILLIS);
+            connections.put(nodeId, connection);
+        }
+        return connection;
+    }
+
+    /*
+     * ノードへの接続を閉じるメソッド
+     */
+    private void disconnect(String nodeId) {
+        ClusterConnection connection = connections.remove(nodeId);
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // 既に切断されている
+            }
+        }
+    }
+
+    /*
+     * 再送する前に少し待つメソッド
+     */
+    private static void pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RETRY_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 中断状態を再設定
+        }
+    }
+}
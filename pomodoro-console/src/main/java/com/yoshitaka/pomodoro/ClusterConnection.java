@@ -0,0 +1,102 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * クラスターのノードに1行の要求を送り、1行の応答を受け取る接続
+ * ClusterClientと、ノード間の通信（死活監視・複製・引き継ぎ）で使用する
+ *
+ * 応答しないノードで呼び出し元が止まらないよう、接続と応答の待ち時間に上限を設ける。
+ * スレッドセーフではない（1つのスレッドから使用する）
+ */
+final class ClusterConnection implements AutoCloseable {
+
+    // ノードとの接続
+    private final Socket socket;
+    // 応答の読み込み
+    private final BufferedReader reader;
+    // 要求の書き込み
+    private final Writer writer;
+
+    /*
+     * ノードに接続するコンストラクタ
+     *
+     * @param address ノードのアドレス
+     *
+     * @param timeoutMillis 接続と応答を待つ時間の上限（ミリ秒）
+     */
+    ClusterConnection(InetSocketAddress address, int timeoutMillis) throws IOException {
+        this.socket = new Socket();
+        try {
+            socket.connect(address, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /*
+     * 要求を1つ送り、応答を受け取るメソッド
+     *
+     * @param line 要求の1行（改行を含まない）
+     *
+     * @return 応答の1行（改行を含まない）
+     *
+     * @throws IOException 接続が閉じられた、または応答が時間内に届かなかった場合
+     */
+    String request(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+        String reply = reader.readLine();
+        if (reply == null) {
+            throw new IOException("ノードが接続を閉じました");
+        }
+        return reply;
+    }
+
+    /*
+     * 複数の要求をまとめて送り、全ての応答を受け取るメソッド
+     * 1件ずつ応答を待たないため、要求の数が多くても往復の待ち時間は1回分で済む
+     *
+     * @param lines 要求の一覧（改行を含まない）
+     *
+     * @return 要求と同じ順の応答
+     *
+     * @throws IOException 接続が閉じられた、または応答が時間内に届かなかった場合
+     */
+    List<String> requestAll(List<String> lines) throws IOException {
+        for (String line : lines) {
+            writer.write(line);
+            writer.write('\n');
+        }
+        writer.flush();
+        List<String> replies = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String reply = reader.readLine();
+            if (reply == null) {
+                throw new IOException("ノードが接続を閉じました");
+            }
+            replies.add(reply);
+        }
+        return replies;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
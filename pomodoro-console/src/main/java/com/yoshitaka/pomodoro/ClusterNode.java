@@ -0,0 +1,808 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * タイマーのセッションを複数のノード（JVM）に分散して動かすクラスターの1ノード
+ *
+ * セッションIDのコンシステントハッシュ（HashRing）で、セッションごとに担当（プライマリ）と待機（スタンバイ）の
+ * ノードを決める。担当ノードはタイマーを動かし、状態が変わるたびに「状態・残り時間・総時間」を待機ノードに複製する。
+ * 残り時間は完了予定時刻として扱えるため、tickごとの複製は不要で、待機ノードは受信時刻から残り時間を計算できる。
+ * 担当ノードが応答しなくなると、待機ノードが担当になり、複製から残り時間を保ったままタイマーを引き継ぐ。
+ *
+ * プロトコル（TCP、1行1要求、UTF-8）:
+ * クライアント向け: start / stop / reset / status <セッションID>
+ *   応答: OK <セッションID> <状態> <残りミリ秒> <総ミリ秒>    担当でない場合: ERR not-owner <担当ノードID>
+ * ノード間: ping / replicate / adopt / drop <セッションID> [<状態> <残りミリ秒> <総ミリ秒>]
+ * 監視用: info    応答: OK <ノードID> <担当セッション数> <複製数> <稼働中のノード数>
+ *
+ * このクラスの特徴：
+ * 1. 要求は1つのスレッドがSelectorで処理する（PomodoroDaemonと同じ）
+ * 2. 全てのセッションのタイマーを1つのスレッドで動かす（セッションごとのスレッドは作らない）
+ * 3. 死活監視・複製・引き継ぎのノード間通信は1つのスレッドで順に行う
+ *    複製は待機ノードごとにまとめて送り、応答を1件ずつ待たない（状態の変化が多くても往復は1回で済む）
+ *
+ * メンバーは起動時に指定した一覧で固定し、応答しなくなったノードをリングから外す。
+ * 各ノードが障害を検知するまでの短い間（ハートビートの間隔 × FAILURE_THRESHOLD）は、
+ * ノードによって担当の判断が異なることがあるため、ClusterClientは ERR not-owner を受けると再送する。
+ *
+ * 起動方法（ノードごとに別のJVMで起動する）:
+ * java -cp pomodoro-console/target/pomodoro-app.jar com.yoshitaka.pomodoro.ClusterNode a
+ * a=127.0.0.1:7101,b=127.0.0.1:7102,c=127.0.0.1:7103
+ */
+public class ClusterNode implements Runnable, AutoCloseable {
+
+    // セッションの長さ（秒）を指定するシステムプロパティ
+    static final String DURATION_PROPERTY = "pomodoro.cluster.seconds";
+    // ハートビートの間隔のデフォルト値（ミリ秒）
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 200;
+    // 連続して何回応答がなければ、ノードをリングから外すか
+    static final int FAILURE_THRESHOLD = 3;
+    // ポモドーロの作業時間（25分）
+    private static final int WORK_MINUTES = 25;
+    // セッションIDの最大文字数
+    private static final int MAX_SESSION_ID_LENGTH = 64;
+
+    // このノードのID
+    private final String nodeId;
+    // 全てのメンバー（このノードを含む）のアドレス
+    private final Map<String, InetSocketAddress> members;
+    // 新しいセッションの継続時間
+    private final Duration duration;
+    // ハートビートの間隔（ミリ秒）
+    private final long heartbeatMillis;
+    // 接続を受け付けるサーバーソケット
+    private final ServerSocketChannel server;
+    // 全ての接続を監視するセレクター
+    private final Selector selector;
+    // 全てのセッションのタイマーを動かすスレッド
+    private final ScheduledExecutorService timerDriver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // ノード間の通信（死活監視・複製・引き継ぎ）を行うスレッド
+    private final ScheduledExecutorService replicator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-replicator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 他のノード（ノード間の通信のスレッドのみが使用する）
+    private final Map<String, Peer> peers = new LinkedHashMap<>();
+    // このノードが担当しているセッション
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // 他のノードから複製されたセッションの状態
+    private final Map<String, Replica> replicas = new ConcurrentHashMap<>();
+    // 待機ノードへの複製を待っているセッションID（同じセッションの複製は1回にまとめる）
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // 複製の送信を依頼済みかどうか
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // 稼働中のノードで作ったリング（ノード間の通信のスレッドが作り直す）
+    private volatile HashRing ring;
+    // ノードの終了状態を管理する volatile 変数
+    private volatile boolean shouldExit = false;
+
+    /*
+     * コンストラクタ
+     * 自分のアドレスで待ち受けを始め、他のノードの死活監視を開始する
+     *
+     * @param nodeId このノードのID（members に含まれている必要がある）
+     *
+     * @param members 全てのメンバーのIDとアドレス（全てのノードで同じ一覧を指定する）
+     *
+     * @param duration 新しいセッションの継続時間
+     *
+     * @param heartbeatMillis ハートビートの間隔（ミリ秒）
+     */
+    public ClusterNode(String nodeId, Map<String, InetSocketAddress> members, Duration duration,
+            long heartbeatMillis) throws IOException {
+        if (!members.containsKey(nodeId)) {
+            throw new IllegalArgumentException("unknown node: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.members = Collections.unmodifiableMap(new LinkedHashMap<>(members));
+        this.duration = duration;
+        this.heartbeatMillis = heartbeatMillis;
+        for (Map.Entry<String, InetSocketAddress> member : members.entrySet()) {
+            if (!member.getKey().equals(nodeId)) {
+                peers.put(member.getKey(), new Peer(member.getValue()));
+            }
+        }
+        this.ring = new HashRing(members.keySet(), HashRing.DEFAULT_VIRTUAL_NODES); // 最初は全てのノードが稼働中とみなす
+        this.server = ServerSocketChannel.open();
+        this.server.bind(members.get(nodeId));
+        this.server.configureBlocking(false);
+        this.selector = Selector.open();
+        this.server.register(selector, SelectionKey.OP_ACCEPT);
+        this.replicator.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * ノードのエントリーポイント
+     *
+     * @param args ノードIDと、全てのメンバー（例: a=127.0.0.1:7101,b=127.0.0.1:7102）
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("使い方: ClusterNode <ノードID> <ID=ホスト:ポート,...>");
+            return;
+        }
+        Duration duration = Duration.ofSeconds(Long.getLong(DURATION_PROPERTY, WORK_MINUTES * 60L));
+        try (ClusterNode node = new ClusterNode(args[0], parseMembers(args[1]), duration,
+                DEFAULT_HEARTBEAT_MILLIS)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(node::stop)); // Ctrl+Cでも終了処理を行う
+            System.out.println("クラスターノードを起動しました: " + args[0] + " " + node.members.get(args[0]));
+            node.run();
+        }
+    }
+
+    /*
+     * メンバーの一覧を解析するメソッド
+     *
+     * @param spec 「ID=ホスト:ポート」をカンマで区切った文字列
+     *
+     * @return IDとアドレスの対応（指定した順）
+     *
+     * @throws IllegalArgumentException 形式が正しくない場合
+     */
+    public static Map<String, InetSocketAddress> parseMembers(String spec) {
+        Map<String, InetSocketAddress> members = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            int equals = entry.indexOf('=');
+            int colon = entry.lastIndexOf(':');
+            if (equals <= 0 || colon < equals) {
+                throw new IllegalArgumentException("invalid member: " + entry);
+            }
+            String host = entry.substring(equals + 1, colon);
+            int port = Integer.parseInt(entry.substring(colon + 1));
+            members.put(entry.substring(0, equals).trim(), new InetSocketAddress(host, port));
+        }
+        return members;
+    }
+
+    /*
+     * このノードのIDを取得するメソッド
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /*
+     * 要求を処理するメソッド（stop()が呼ばれるまで戻らない）
+     */
+    @Override
+    public void run() {
+        while (!shouldExit) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.err.println("接続の待機に失敗しました: " + e.getMessage());
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        LineConnection connection = (LineConnection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush(key);
+                        }
+                    }
+                } catch (IOException e) {
+                    LineConnection.closeQuietly(key); // クライアントが切断した
+                }
+            }
+        }
+    }
+
+    /*
+     * ノードを停止するメソッド（run()を実行しているスレッド以外から呼び出す）
+     */
+    public void stop() {
+        shouldExit = true;
+        selector.wakeup();
+    }
+
+    /*
+     * タイマーとノード間の通信を止め、全ての接続を閉じるメソッド
+     * 他のノードからは、応答しなくなったノードとして扱われる
+     */
+    @Override
+    public void close() throws IOException {
+        if (!selector.isOpen()) {
+            return; // 既に終了している
+        }
+        shouldExit = true;
+        replicator.shutdownNow();
+        timerDriver.shutdownNow();
+        for (Peer peer : peers.values()) {
+            peer.disconnect();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        server.close();
+    }
+
+    /*
+     * 1行の要求を処理して応答を返すメソッド（セレクターのスレッドから呼び出される）
+     *
+     * @param line 要求の1行
+     *
+     * @return 応答の1行（改行を含まない）
+     */
+    String handleCommand(String line) {
+        String[] words = line.trim().split("\\s+");
+        String command = words[0];
+        switch (command) {
+            case "ping":
+                return "OK pong " + nodeId;
+            case "info":
+                return "OK " + nodeId + " " + sessions.size() + " " + replicas.size() + " " + ring.size();
+            case "start":
+            case "stop":
+            case "reset":
+            case "status":
+                if (words.length != 2) {
+                    return "ERR usage: " + command + " <session>";
+                }
+                return handleSessionCommand(command, words[1]);
+            case "replicate":
+            case "adopt":
+                if (words.length != 5) {
+                    return "ERR usage: " + command + " <session> <state> <remaining> <total>";
+                }
+                Replica replica;
+                try {
+                    replica = Replica.parse(words, System.nanoTime());
+                } catch (IllegalArgumentException e) {
+                    return "ERR " + e.getMessage();
+                }
+                if (command.equals("adopt")) {
+                    adopt(words[1], replica);
+                } else {
+                    replicas.put(words[1], replica);
+                }
+                return "OK";
+            case "drop":
+                if (words.length != 2) {
+                    return "ERR usage: drop <session>";
+                }
+                replicas.remove(words[1]);
+                return "OK";
+            default:
+                return "ERR unknown command: " + command;
+        }
+    }
+
+    /*
+     * クライアントからのセッションへの要求を処理するメソッド
+     * 担当でないセッションの要求は、担当ノードを返して断る
+     */
+    private String handleSessionCommand(String command, String id) {
+        if (id.length() > MAX_SESSION_ID_LENGTH) {
+            return "ERR session id too long";
+        }
+        String owner = ring.primary(id);
+        if (!nodeId.equals(owner)) {
+            return "ERR not-owner " + owner;
+        }
+        Session session;
+        if (command.equals("start")) {
+            session = sessions.computeIfAbsent(id, key -> new Session(key, duration, duration));
+            session.start();
+        } else {
+            session = sessions.get(id);
+            if (session != null && command.equals("stop")) {
+                session.pause();
+            } else if (session != null && command.equals("reset")) {
+                session.reset();
+            }
+        }
+        if (session == null) {
+            // まだ開始されていないセッションは、開始前の状態として応答する
+            long totalMillis = duration.toMillis();
+            return "OK " + id + " " + TimerService.State.IDLE + " " + totalMillis + " " + totalMillis;
+        }
+        return "OK " + id + " " + session.describe();
+    }
+
+    /*
+     * 他のノードから引き継いだセッションを、担当として動かし始めるメソッド
+     * 既に動いているセッションがある場合は、そちらを優先する
+     */
+    private void adopt(String id, Replica replica) {
+        Session existing = sessions.get(id);
+        if (existing != null && existing.getState() != TimerService.State.IDLE) {
+            return;
+        }
+        Session adopted = restore(id, replica);
+        sessions.put(id, adopted);
+        replicas.remove(id);
+        if (existing != null) {
+            existing.close();
+        }
+        adopted.resume(replica.state);
+    }
+
+    /*
+     * 複製された状態から、現在の残り時間のセッションを作るメソッド（状態は Session.resume で戻す）
+     */
+    private Session restore(String id, Replica replica) {
+        return new Session(id, Duration.ofMillis(replica.totalMillis),
+                Duration.ofMillis(replica.remainingMillisAt(System.nanoTime())));
+    }
+
+    /*
+     * 状態が変わったセッションを、待機ノードに複製するよう依頼するメソッド
+     * 送る直前の状態を送るため、依頼が溜まっていても待機ノードの残り時間はずれない
+     */
+    private void replicate(String id) {
+        dirty.add(id);
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                replicator.execute(this::flushReplicas);
+            } catch (RejectedExecutionException e) {
+                // 既に閉じている
+            }
+        }
+    }
+
+    /*
+     * 複製を待っているセッションの状態を、待機ノードごとにまとめて送るメソッド（ノード間の通信のスレッドで実行する）
+     */
+    private void flushReplicas() {
+        flushScheduled.set(false); // これ以降の依頼は、次の送信で送る
+        HashRing current = ring;
+        Map<String, List<String>> batches = new HashMap<>();
+        for (Iterator<String> ids = dirty.iterator(); ids.hasNext();) {
+            String id = ids.next();
+            ids.remove();
+            Session session = sessions.get(id);
+            List<String> owners = current.owners(id, 2);
+            if (session == null || owners.size() < 2 || !owners.get(0).equals(nodeId)) {
+                continue; // 待機ノードがいない、または担当ではなくなった（引き継ぎで送る）
+            }
+            batches.computeIfAbsent(owners.get(1), standby -> new ArrayList<>())
+                    .add("replicate " + id + " " + session.describe());
+        }
+        for (Map.Entry<String, List<String>> batch : batches.entrySet()) {
+            try {
+                peers.get(batch.getKey()).requestAll(batch.getValue());
+            } catch (IOException e) {
+                // 待機ノードが応答しない（死活監視でリングから外れた後に、新しい待機ノードに送り直す）
+            }
+        }
+    }
+
+    /*
+     * 他のノードの死活を確認するメソッド（ノード間の通信のスレッドで定期的に実行する）
+     */
+    private void heartbeat() {
+        boolean changed = false;
+        for (Peer peer : peers.values()) {
+            try {
+                peer.request("ping");
+                peer.failures = 0;
+                if (!peer.up) {
+                    peer.up = true;
+                    changed = true;
+                }
+            } catch (IOException e) {
+                peer.failures++;
+                if (peer.up && peer.failures >= FAILURE_THRESHOLD) {
+                    peer.up = false;
+                    changed = true;
+                }
+            }
+        }
+        if (changed) {
+            rebalance();
+        }
+    }
+
+    /*
+     * 稼働中のノードでリングを作り直し、担当の変わったセッションを引き継ぐメソッド（ノード間の通信のスレッドで実行する）
+     * 1. 担当になったセッションを複製から復元して動かす
+     * 2. 担当でなくなったセッションを新しい担当ノードに渡す
+     * 3. 待機ノードが変わったセッションを、新しい待機ノードに複製する
+     */
+    private void rebalance() {
+        List<String> alive = new ArrayList<>();
+        for (String member : members.keySet()) {
+            Peer peer = peers.get(member);
+            if (peer == null || peer.up) {
+                alive.add(member);
+            }
+        }
+        HashRing previous = ring;
+        HashRing updated = new HashRing(alive, HashRing.DEFAULT_VIRTUAL_NODES);
+
+        // リングを公開する前に復元する（公開した時点で、このノードに要求が届き始めるため）
+        for (Map.Entry<String, Replica> entry : replicas.entrySet()) {
+            String id = entry.getKey();
+            if (nodeId.equals(updated.primary(id))) {
+                replicas.remove(id);
+                if (!sessions.containsKey(id)) {
+                    Session restored = restore(id, entry.getValue());
+                    sessions.put(id, restored);
+                    restored.resume(entry.getValue().state);
+                }
+            }
+        }
+        ring = updated;
+
+        Map<String, List<String>> drops = new HashMap<>();
+        for (Session session : sessions.values()) {
+            List<String> owners = updated.owners(session.id, 2);
+            if (!owners.get(0).equals(nodeId)) {
+                handOff(session, owners.get(0));
+                continue;
+            }
+            List<String> before = previous.owners(session.id, 2);
+            String oldStandby = (before.size() > 1) ? before.get(1) : null;
+            String newStandby = (owners.size() > 1) ? owners.get(1) : null;
+            if (oldStandby != null && !oldStandby.equals(newStandby) && !oldStandby.equals(nodeId)
+                    && peers.get(oldStandby).up) {
+                drops.computeIfAbsent(oldStandby, standby -> new ArrayList<>()).add("drop " + session.id);
+            }
+            dirty.add(session.id); // 新しい待機ノードに送り直す
+        }
+        for (Map.Entry<String, List<String>> batch : drops.entrySet()) {
+            try {
+                peers.get(batch.getKey()).requestAll(batch.getValue()); // 古い複製から復元されないようにする
+            } catch (IOException e) {
+                // 応答しない場合は、次の死活監視でリングから外れる
+            }
+        }
+        flushReplicas();
+    }
+
+    /*
+     * 担当でなくなったセッションを新しい担当ノードに渡すメソッド（ノード間の通信のスレッドで実行する）
+     * 渡せなかった場合は、次にリングが変わるまでこのノードで動かし続ける
+     */
+    private void handOff(Session session, String owner) {
+        try {
+            String reply = peers.get(owner).request("adopt " + session.id + " " + session.describe());
+            if (reply.equals("OK")) {
+                sessions.remove(session.id);
+                session.close();
+            }
+        } catch (IOException e) {
+            // 新しい担当ノードが応答しない
+        }
+    }
+
+    /*
+     * 新しい接続を受け付けるメソッド
+     */
+    private void accept() throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        client.socket().setTcpNoDelay(true);
+        client.register(selector, SelectionKey.OP_READ, new LineConnection(this::handleCommand));
+    }
+
+    /*
+     * 他のノードへの接続と、死活監視の状態（ノード間の通信のスレッドのみが使用する）
+     */
+    private final class Peer {
+
+        // ノードのアドレス
+        private final InetSocketAddress address;
+        // ノードへの接続（最初の要求で接続し、失敗したら次の要求で接続し直す）
+        private ClusterConnection connection;
+        // 連続して応答がなかった回数
+        private int failures;
+        // リングに含めているかどうか
+        private boolean up = true;
+
+        Peer(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        /*
+         * 要求を1つ送り、応答を受け取るメソッド
+         */
+        String request(String line) throws IOException {
+            if (connection == null) {
+                connection = new ClusterConnection(address, (int) heartbeatMillis);
+            }
+            try {
+                return connection.request(line);
+            } catch (IOException e) {
+                disconnect();
+                throw e;
+            }
+        }
+
+        /*
+         * 複数の要求をまとめて送り、全ての応答を受け取るメソッド
+         */
+        List<String> requestAll(List<String> lines) throws IOException {
+            if (connection == null) {
+                connection = new ClusterConnection(address, (int) heartbeatMillis);
+            }
+            try {
+                return connection.requestAll(lines);
+            } catch (IOException e) {
+                disconnect();
+                throw e;
+            }
+        }
+
+        /*
+         * 接続を閉じるメソッド
+         */
+        void disconnect() {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (IOException e) {
+                    // 既に切断されている
+                }
+                connection = null;
+            }
+        }
+    }
+
+    /*
+     * 待機ノードが受け取った、ある時点のセッションの状態
+     * 実行中の場合、受信時刻と残り時間から完了予定時刻を求められる（StateSyncCodec.Frameと同じ考え方）
+     */
+    private static final class Replica {
+
+        // 状態
+        private final TimerService.State state;
+        // 受信時の残り時間（ミリ秒）
+        private final long remainingMillis;
+        // 総時間（ミリ秒）
+        private final long totalMillis;
+        // 受信時刻（System.nanoTime基準）
+        private final long receivedNanos;
+
+        Replica(TimerService.State state, long remainingMillis, long totalMillis, long receivedNanos) {
+            this.state = state;
+            this.remainingMillis = remainingMillis;
+            this.totalMillis = totalMillis;
+            this.receivedNanos = receivedNanos;
+        }
+
+        /*
+         * 「replicate / adopt <セッションID> <状態> <残りミリ秒> <総ミリ秒>」を解析するメソッド
+         *
+         * @throws IllegalArgumentException 形式が正しくない場合
+         */
+        static Replica parse(String[] words, long receivedNanos) {
+            TimerService.State state = TimerService.State.valueOf(words[2]);
+            long remaining = Long.parseLong(words[3]);
+            long total = Long.parseLong(words[4]);
+            if (remaining < 0 || total < remaining) {
+                throw new IllegalArgumentException("invalid remaining time");
+            }
+            return new Replica(state, remaining, total, receivedNanos);
+        }
+
+        /*
+         * 指定した時刻での残り時間を計算するメソッド
+         * 実行中は受信時の残り時間から経過時間を引き、それ以外は受信時の残り時間をそのまま返す
+         */
+        long remainingMillisAt(long nowNanos) {
+            if (state == TimerService.State.RUNNING) {
+                return Math.max(remainingMillis - TimeUnit.NANOSECONDS.toMillis(nowNanos - receivedNanos), 0);
+            }
+            return remainingMillis;
+        }
+    }
+
+    /*
+     * このノードが担当している1つのセッション
+     * リセットや完了のたびにTimerServiceを作り直すため、世代ごとのリスナーで古いタイマーからの通知を無視する
+     */
+    private final class Session {
+
+        // セッションID
+        private final String id;
+        // 総時間
+        private final Duration total;
+        // 現在のタイマー
+        private TimerService service;
+        // タイマーを動かす処理の世代（再開やリセットで古い処理を止めるために使用する）
+        private long chain;
+
+        Session(String id, Duration total, Duration remaining) {
+            this.id = id;
+            this.total = total;
+            renew(remaining);
+        }
+
+        /*
+         * タイマーを開始または再開するメソッド
+         */
+        synchronized void start() {
+            if (service.getState() == TimerService.State.IDLE) {
+                service.beginNow();
+            } else if (service.getState() == TimerService.State.PAUSED) {
+                service.start();
+            } else {
+                return; // 既に実行中
+            }
+            long current = ++chain;
+            TimerService running = service;
+            execute(() -> drive(running, current));
+        }
+
+        /*
+         * タイマーを一時停止するメソッド（タイマーを動かす処理は、次の起床で止まる）
+         */
+        synchronized void pause() {
+            service.pause();
+        }
+
+        /*
+         * タイマーを止めて、開始前の状態に戻すメソッド
+         */
+        synchronized void reset() {
+            close();
+            renew(total);
+            replicate(id);
+        }
+
+        /*
+         * 引き継いだ時の状態に戻すメソッド（一時停止中だった場合は、開始してすぐに一時停止する）
+         */
+        synchronized void resume(TimerService.State state) {
+            if (state != TimerService.State.IDLE) {
+                start();
+            }
+            if (state == TimerService.State.PAUSED) {
+                pause();
+            }
+            replicate(id);
+        }
+
+        /*
+         * タイマーを止めるメソッド（他のノードに渡した場合とリセットで使用する）
+         */
+        synchronized void close() {
+            service.cancel();
+            chain++;
+        }
+
+        /*
+         * 現在の状態を取得するメソッド
+         */
+        TimerService.State getState() {
+            return service().getState();
+        }
+
+        /*
+         * 現在の状態を「<状態> <残りミリ秒> <総ミリ秒>」の形式で取得するメソッド
+         */
+        String describe() {
+            TimerService current = service();
+            long totalMillis = TimeUnit.SECONDS.toMillis(current.getTotalSeconds());
+            return current.getState() + " " + Math.min(current.getRemainingMillis(), totalMillis) + " " + totalMillis;
+        }
+
+        /*
+         * 現在のタイマーを取得するメソッド
+         */
+        private synchronized TimerService service() {
+            return service;
+        }
+
+        /*
+         * 期限を迎えた通知を行い、次に通知が必要な時刻に再度呼ばれるよう予約するメソッド（タイマーのスレッドで実行する）
+         * 一時停止された場合と完了した場合は予約しない（再開時に start() が新しく始める）
+         */
+        private void drive(TimerService running, long current) {
+            synchronized (this) {
+                if (running != service || current != chain) {
+                    return; // リセット・再開された後の古い処理
+                }
+            }
+            long waitNanos = running.advance(System.nanoTime());
+            if (waitNanos == TimerService.FINISHED || waitNanos == Long.MAX_VALUE) {
+                return;
+            }
+            try {
+                timerDriver.schedule(() -> drive(running, current), waitNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // 既に閉じている
+            }
+        }
+
+        /*
+         * タイマーのスレッドで処理を実行するメソッド
+         */
+        private void execute(Runnable task) {
+            try {
+                timerDriver.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 既に閉じている
+            }
+        }
+
+        /*
+         * 指定した残り時間で新しいTimerServiceを作成するメソッド
+         */
+        private void renew(Duration remaining) {
+            Generation generation = new Generation();
+            TimerService renewed = new TimerService(total, remaining, generation);
+            generation.source = renewed;
+            service = renewed;
+        }
+
+        /*
+         * 1つのTimerServiceからの通知を受け取るリスナー
+         * 状態が変わった時だけ待機ノードに複製すればよいので、tickは受け取らない
+         */
+        private final class Generation implements TimerListener {
+
+            // このリスナーを登録したタイマー
+            private TimerService source;
+
+            @Override
+            public void onTick(long remainingSeconds, long totalSeconds) {
+            }
+
+            @Override
+            public void onFinish() {
+                synchronized (Session.this) {
+                    if (service != source) {
+                        return; // リセット済みの古いタイマー
+                    }
+                    renew(total); // 次のポモドーロに備えて開始前の状態に戻す
+                }
+                replicate(id);
+            }
+
+            @Override
+            public void onStateChange() {
+                if (service() == source) {
+                    replicate(id);
+                }
+            }
+
+            @Override
+            public TickResolution tickResolution() {
+                return TickResolution.FINISH_ONLY;
+            }
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.yoshitaka.pomodoro;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * コンソールへの表示を管理するクラス
+ * ANSIエスケープシーケンスを使用して、画面の部分的な更新やカーソル制御を行う
+ *
+ * このクラスは、ターミナル上でポモドーロタイマーの画面を表示する役割を担う
+ * 画面全体をクリアせずに、必要な部分だけを更新することで、
+ * ユーザーが入力中のコマンドを消してしまうことなく、リアルタイムで情報を更新できるようにする
+ */
+public class Display {
+
+    /*
+     * ANSIエスケープコード - ターミナルの表示制御に使用する特殊な文字列
+     * これらの文字列を出力することで、カーソルの位置を移動したり、画面をクリアしたりできるようにする
+     */
+    private static final String CURSOR_UP = "\u001b[A"; // カーソルを1行上に移動
+    private static final String CURSOR_DOWN = "\u001b[B"; // カーソルを1行下に移動
+    private static final String CLEAR_LINE = "\u001b[2K"; // 現在の行をクリア
+    private static final String SAVE_CURSOR = "\u001b[s"; // 現在のカーソル位置を保存
+    private static final String RESTORE_CURSOR = "\u001b[u"; // 保存したカーソル位置に戻る
+    private static final String HIDE_CURSOR = "\u001b[?25l"; // カーソルを非表示にする
+    private static final String SHOW_CURSOR = "\u001b[?25h"; // カーソルを表示する
+    private static final String CURSOR_HOME = "\u001b[H"; // カーソルを画面の左上に移動
+
+    /*
+     * 履歴に表示する日時の形式
+     */
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    /*
+     * Phase Areaの現在の状態を追跡するためのフィールド
+     * 同じメッセージを重複して表示しないように、前回表示したメッセージを記録する
+     */
+    private String currentPhaseMessage = "";
+
+    /*
+     * 高解像度モードの描画に使用するバッファ
+     * 100ミリ秒ごとに描画するため、描画のたびに文字列を生成しないよう再利用する
+     */
+    private final FrameBuffer fineFrame = new FrameBuffer(256);
+
+    /*
+     * タイマー画面の更新に使用するバッファと、Phase Areaのメッセージのキャッシュ
+     * 毎秒の更新でオブジェクトを生成しないようにする（AllocationBudgetTestで確認している）
+     */
+    private final FrameBuffer timerFrame = new FrameBuffer(512);
+    private String cachedPhaseLabel;
+    private long cachedPhaseMinutes;
+    private boolean cachedPhaseRunning;
+    private CyclePlan.Step cachedPhaseStep;
+
+    /*
+     * 現在表示しているサイクルのフェーズ（フェーズを指定せずに描画した場合はnull）
+     */
+    private CyclePlan.Step currentStep;
+
+    /*
+     * 画面全体をクリアするメソッド
+     * アプリケーション開始時や画面切り替え時に使用する
+     */
+    private void clearConsole() {
+        System.out.print("\u001b[H\u001b[2J"); // カーソルを左上に移動して画面全体をクリア
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+    }
+
+    /*
+     * 待機状態のメインメニューを表示するメソッド
+     * アプリケーション起動時やタイマー終了後に表示される
+     */
+    public synchronized void showMainMenu() {
+        TimerEvents.Span start = TimerEvents.startDisplayFrame(); // 描画時間の計測を開始
+        clearConsole(); // 画面をクリア
+        System.out.print(SHOW_CURSOR); // カーソルを再表示（ユーザーが入力できるように）
+        System.out.println("--------------------------------------------------");
+        System.out.println("ポモドーロアプリを起動しました。");
+        System.out.println("メニューを入力してください。");
+        System.out.println("開始: start / 終了: end");
+        System.out.println("履歴: history [#タグ] [日数]");
+        System.out.println("--------------------------------------------------");
+        System.out.print("> "); // コマンド入力プロンプト
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+        TimerEvents.displayFrame(start, "showMainMenu");
+    }
+
+    /*
+     * 履歴の検索結果を表示するメソッド
+     * メインメニューの代わりに表示し、続けてコマンドを入力できるようにする
+     *
+     * @param tag 検索したタグ（nullの場合は全てのセッション）
+     *
+     * @param days 検索した日数（0の場合は全期間）
+     *
+     * @param count 見つかったセッションの数
+     *
+     * @param focusSeconds 見つかったセッションの、集中した秒数の合計
+     *
+     * @param recent 表示するセッション（新しい順）
+     *
+     * @param byTag タグごとの集中した秒数の合計（タグを指定した場合は空）
+     */
+    public synchronized void showHistory(String tag, long days, long count, long focusSeconds,
+            List<SessionHistory.Entry> recent, Map<String, Long> byTag) {
+        clearConsole(); // 画面をクリア
+        System.out.print(SHOW_CURSOR);
+        System.out.println("--------------------------------------------------");
+        System.out.printf("履歴: %s（%s）%n", (tag != null) ? tag : "全て", (days > 0) ? "直近" + days + "日" : "全期間");
+        System.out.printf("%d件・合計 %s%n", count, formatFocus(focusSeconds));
+        for (SessionHistory.Entry entry : recent) {
+            StringBuilder line = new StringBuilder();
+            line.append(HISTORY_TIME.format(Instant.ofEpochMilli(entry.getStartedAtMillis())))
+                    .append("  ").append(entry.getFocusSeconds() / 60).append("分");
+            if (!entry.getTask().isEmpty()) {
+                line.append("  ").append(entry.getTask());
+            }
+            for (String entryTag : entry.getTags()) {
+                line.append(" #").append(entryTag);
+            }
+            System.out.println(line);
+        }
+        if (!byTag.isEmpty()) {
+            System.out.println("タグごとの合計:");
+            for (Map.Entry<String, Long> total : byTag.entrySet()) {
+                System.out.printf("  #%s  %s%n", total.getKey(), formatFocus(total.getValue()));
+            }
+        }
+        System.out.println("--------------------------------------------------");
+        System.out.println("開始: start / 終了: end");
+        System.out.println("履歴: history [#タグ] [日数]");
+        System.out.print("> "); // コマンド入力プロンプト
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+    }
+
+    /*
+     * 履歴が無効であることを表示するメソッド
+     *
+     * @param property 履歴の保存先を指定するシステムプロパティ
+     */
+    public synchronized void showHistoryDisabled(String property) {
+        showMainMenu();
+        System.out.printf("%n履歴は無効です。-D%s=<ディレクトリ> で保存先を指定してください。%n> ", property);
+        System.out.flush();
+    }
+
+    /*
+     * 集中した時間を「N時間MM分」の形式にするメソッド
+     *
+     * @param seconds 秒数
+     *
+     * @return 整形した文字列
+     */
+    static String formatFocus(long seconds) {
+        return String.format("%d時間%02d分", seconds / 3600, seconds / 60 % 60);
+    }
+
+    /*
+     * タイマー実行中の画面を初めて描画するメソッド
+     * このメソッドは、後続の updateTimerScreen のために描画領域を確保する
+     * 画面のレイアウトを決めて、各エリアの位置を固定する
+     */
+    public void drawInitialTimerScreen() {
+        drawInitialTimerScreen(null);
+    }
+
+    /*
+     * サイクルのフェーズを指定して、タイマー実行中の画面を初めて描画するメソッド
+     * フェーズが切り替わるたびに呼び出し、Phase Areaにフェーズとサイクルの中の位置を表示する
+     *
+     * @param step 表示するフェーズ（nullの場合は25分の作業として表示する）
+     */
+    public synchronized void drawInitialTimerScreen(CyclePlan.Step step) {
+        TimerEvents.Span start = TimerEvents.startDisplayFrame(); // 描画時間の計測を開始
+        currentStep = step;
+        String phaseLabel = (step != null)
+                ? phaseLabel(step.getDuration().toMinutes(), TimerService.State.RUNNING)
+                : "作業を開始します。（25分）";
+        clearConsole(); // 画面をクリア
+        System.out.print(HIDE_CURSOR); // カーソルを非表示（点滅を防ぐため）
+        System.out.println("--------------------------------------------------");
+        System.out.println(phaseLabel); // Phase Area - 初期メッセージを表示
+        System.out.println(""); // Timer Area - 残り時間とプログレスバーを表示する領域
+        System.out.println(""); // Menu Area - 操作メニューを表示する領域
+        System.out.println("--------------------------------------------------");
+        System.out.print(SHOW_CURSOR + "> "); // カーソルを再表示してプロンプトを出力
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+        currentPhaseMessage = phaseLabel; // 初期状態を設定（重複表示を防ぐため）
+        TimerEvents.displayFrame(start, "drawInitialTimerScreen");
+    }
+
+    /*
+     * タイマー画面を更新するメソッド
+     * フェーズ、残り時間、メニューなどを表示
+     * カーソル制御により、ユーザーの入力を妨げずに画面を更新する
+     *
+     * このメソッドの重要なポイント：
+     * 1. カーソル位置を保存してから画面を更新
+     * 2. 各エリアを個別に更新（重複表示を防ぐ）
+     * 3. 更新後にカーソル位置を復元
+     * 4. 毎秒呼ばれるため、文字列を生成せずに再利用するバッファで1フレーム分を組み立てて出力
+     *
+     * @param remainingSeconds 残り秒数
+     *
+     * @param totalSeconds 総秒数（通常は1500秒 = 25分）
+     *
+     * @param state タイマーの現在の状態 (RUNNING=実行中, PAUSED=一時停止中)
+     */
+    public synchronized void updateTimerScreen(long remainingSeconds, long totalSeconds, TimerService.State state) {
+        TimerEvents.Span start = TimerEvents.startDisplayFrame(); // 描画時間の計測を開始
+        FrameBuffer frame = timerFrame.clear();
+        frame.append(SAVE_CURSOR); // 現在のカーソル位置を保存
+        frame.append(HIDE_CURSOR); // カーソルを非表示（更新中のちらつきを防ぐ）
+
+        // Phase Areaのメッセージを取得（状態と総時間が変わった時だけ生成する）
+        String phaseLabel = phaseLabel(TimeUnit.SECONDS.toMinutes(totalSeconds), state);
+
+        // Phase Areaのメッセージが変更された場合のみ更新（重複表示を防ぐ）
+        if (!phaseLabel.equals(currentPhaseMessage)) {
+            // 画面の2行目（Phase Area）に直接移動
+            frame.append(CURSOR_HOME); // 画面の左上に移動
+            frame.append(CURSOR_DOWN); // 1行目（区切り線）をスキップして2行目に移動
+            frame.append(CLEAR_LINE).append('\r').append(phaseLabel); // 行をクリアしてから新しいメッセージを表示
+            currentPhaseMessage = phaseLabel; // 現在のメッセージを記録
+        }
+
+        // Timer Areaを更新（残り時間とプログレスバーを表示）
+        frame.append(CURSOR_HOME); // 画面の左上に移動
+        frame.append(CURSOR_DOWN).append(CURSOR_DOWN); // Phase Areaの次の行（3行目）に移動
+        double progress = (totalSeconds > 0) ? (double) (totalSeconds - remainingSeconds) / totalSeconds : 0; // 進捗率を計算
+        frame.append(CLEAR_LINE).append('\r').append("残り "); // 行をクリアしてからタイマー情報を表示
+        frame.appendPadded(TimeUnit.SECONDS.toMinutes(remainingSeconds), 2).append(':')
+                .appendPadded(remainingSeconds % 60, 2); // 残り時間を MM:SS 形式で書き込む
+        frame.append(" [");
+        int offset = frame.reserve(ProgressBar.WIDTH);
+        ProgressBar.render(progress, frame.array(), offset); // プログレスバーを直接書き込む
+        frame.append("] ").appendPadded((int) (progress * 100), 1).append('%');
+
+        // Menu Areaを更新（操作メニューを表示）
+        frame.append(CURSOR_HOME); // 画面の左上に移動
+        frame.append(CURSOR_DOWN).append(CURSOR_DOWN).append(CURSOR_DOWN); // Timer Areaの次の行（4行目）に移動
+        String menuLine;
+        if (state == TimerService.State.RUNNING) {
+            menuLine = "停止: stop / リセット: reset / 終了: end"; // 実行中のメニュー
+        } else { // PAUSED
+            menuLine = "開始: start / リセット: reset / 終了: end"; // 一時停止中のメニュー
+        }
+        frame.append(CLEAR_LINE).append('\r').append(menuLine); // 行をクリアしてから新しいメニューを表示
+
+        frame.append(RESTORE_CURSOR); // 保存したカーソル位置に戻る
+        frame.append(SHOW_CURSOR); // カーソルを再表示
+        frame.writeTo(System.out); // 1フレーム分をまとめて出力
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+        TimerEvents.displayFrame(start, "updateTimerScreen");
+    }
+
+    /*
+     * Phase Areaに表示するメッセージを取得するメソッド
+     * 毎秒呼ばれるため、状態・総時間・フェーズが前回と同じ場合は前回生成したメッセージを返す
+     * フェーズを表示している場合は、フェーズの名前とサイクルの中の位置（何回目の作業か）も表示する
+     *
+     * @param totalMinutes 総時間（分）
+     *
+     * @param state タイマーの現在の状態
+     *
+     * @return Phase Areaのメッセージ
+     */
+    private String phaseLabel(long totalMinutes, TimerService.State state) {
+        boolean running = (state == TimerService.State.RUNNING);
+        if (cachedPhaseLabel == null || cachedPhaseMinutes != totalMinutes || cachedPhaseRunning != running
+                || cachedPhaseStep != currentStep) {
+            CyclePlan.Step step = currentStep;
+            String name = (step != null) ? step.getPhase().getLabel() : "作業";
+            String verb = running ? "開始します" : "停止しました"; // 実行中・一時停止中
+            if (step != null) {
+                cachedPhaseLabel = String.format("%sを%s。（%d分・%d/%d）", name, verb, totalMinutes, step.getRound(),
+                        step.getRounds()); // 例: 短い休憩を開始します。（5分・2/4）
+            } else {
+                cachedPhaseLabel = String.format("%sを%s。（%d分）", name, verb, totalMinutes);
+            }
+            cachedPhaseMinutes = totalMinutes;
+            cachedPhaseRunning = running;
+            cachedPhaseStep = step;
+        }
+        return cachedPhaseLabel;
+    }
+
+    /*
+     * 高解像度モードで、Timer Areaの残り時間とプログレスバーだけを更新するメソッド
+     * 100ミリ秒ごとに呼び出されるため、文字列を生成せずに再利用するバッファで描画する
+     * 表示形式は updateTimerScreen と同じで、残り時間が MM:SS.t 形式になり、
+     * プログレスバーが1文字の8分の1単位で進む（ProgressBar.renderSmooth）
+     *
+     * @param remainingMillis 残り時間（ミリ秒）
+     *
+     * @param totalMillis 総時間（ミリ秒）
+     */
+    public synchronized void updateFineTimer(long remainingMillis, long totalMillis) {
+        TimerEvents.Span start = TimerEvents.startDisplayFrame(); // 描画時間の計測を開始
+        long tenths = (remainingMillis + 99) / 100; // 0.1秒単位に切り上げる（秒の表示と同じく切り上げ）
+        double progress = (totalMillis > 0) ? (double) (totalMillis - remainingMillis) / totalMillis : 0; // 進捗率を計算
+
+        FrameBuffer frame = fineFrame.clear();
+        frame.append(SAVE_CURSOR).append(HIDE_CURSOR); // カーソル位置を保存して非表示にする
+        frame.append(CURSOR_HOME).append(CURSOR_DOWN).append(CURSOR_DOWN); // Timer Area（3行目）に移動
+        frame.append(CLEAR_LINE).append('\r').append("残り ");
+        frame.appendPadded(tenths / 600, 2).append(':').appendPadded(tenths / 10 % 60, 2).append('.')
+                .appendPadded(tenths % 10, 1); // MM:SS.t
+        frame.append(" [");
+        int offset = frame.reserve(ProgressBar.WIDTH);
+        ProgressBar.renderSmooth(progress, frame.array(), offset); // 1文字の8分の1単位で進むプログレスバーを直接書き込む
+        frame.append("] ").appendPadded((int) (progress * 100), 1).append('%');
+        frame.append(RESTORE_CURSOR).append(SHOW_CURSOR); // カーソル位置を復元して再表示
+        frame.writeTo(System.out);
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+        TimerEvents.displayFrame(start, "updateFineTimer");
+    }
+
+    /*
+     * 画面上部のメッセージエリアに一時的なメッセージを表示するプライベートメソッド
+     * 完了メッセージやリセットメッセージなど、短時間表示するメッセージに使用する
+     *
+     * @param message 表示するメッセージ
+     *
+     * @param seconds 表示する秒数。0以下の場合は消去しない
+     */
+    private synchronized void showMessage(String message, int seconds) {
+        TimerEvents.Span start = TimerEvents.startDisplayFrame(); // 描画時間の計測を開始
+        System.out.print(SAVE_CURSOR); // 現在のカーソル位置を保存
+        System.out.print(HIDE_CURSOR); // カーソルを非表示
+        // メッセージエリアに移動（プロンプトから5行上）
+        System.out.print(CURSOR_UP + CURSOR_UP + CURSOR_UP + CURSOR_UP + CURSOR_UP);
+        System.out.print(CLEAR_LINE + "\r" + message); // 行をクリアしてからメッセージを表示
+        System.out.print(RESTORE_CURSOR); // カーソル位置を復元
+        System.out.print(SHOW_CURSOR); // カーソルを再表示
+        System.out.flush(); // 出力バッファを強制的にフラッシュ
+        TimerEvents.displayFrame(start, "showMessage"); // 表示したままにする待機時間は含めない
+
+        if (seconds > 0) { // 指定された秒数後にメッセージを消去
+            sleep(seconds); // 指定された秒数だけ待機
+            // メッセージを消去
+            System.out.print(SAVE_CURSOR); // カーソル位置を保存
+            System.out.print(HIDE_CURSOR); // カーソルを非表示
+            System.out.print(CURSOR_UP + CURSOR_UP + CURSOR_UP + CURSOR_UP + CURSOR_UP); // メッセージエリアに移動
+            System.out.print(CLEAR_LINE + "\r"); // 行をクリア（メッセージを消去）
+            System.out.print(RESTORE_CURSOR); // カーソル位置を復元
+            System.out.print(SHOW_CURSOR); // カーソルを再表示
+            System.out.flush(); // 出力バッファを強制的にフラッシュ
+        }
+    }
+
+    /*
+     * ポモドーロ完了メッセージを表示するメソッド
+     * フェーズが完了した時に呼び出される（休憩の場合は休憩の終わり、長い休憩の場合はサイクルの完了を表示する）
+     */
+    public void showCompletionMessage() {
+        CyclePlan.Step step;
+        synchronized (this) {
+            step = currentStep;
+        }
+        CyclePlan.Phase phase = (step != null) ? step.getPhase() : CyclePlan.Phase.WORK;
+        switch (phase) {
+            case SHORT_BREAK:
+                showMessage("休憩が終わりました。次の作業を始めます。", 2);
+                break;
+            case LONG_BREAK:
+                showMessage("サイクルが完了しました！", 2);
+                break;
+            default:
+                showMessage("ポモドーロが完了しました！", 2); // 2秒間表示してから消去
+                break;
+        }
+    }
+
+    /*
+     * アラームのしきい値に到達したことを示すメッセージを表示するメソッド
+     * タイマースレッドから呼び出されるため、待機せずに表示したままにする（次のメッセージで上書きされる）
+     *
+     * @param thresholdSeconds 到達したしきい値（残り秒数）
+     */
+    public void showAlarmMessage(long thresholdSeconds) {
+        long minutes = TimeUnit.SECONDS.toMinutes(thresholdSeconds);
+        long seconds = thresholdSeconds % 60;
+        String message;
+        if (seconds == 0) {
+            message = String.format("残り%d分です。", minutes); // 例: 残り5分です。
+        } else if (minutes == 0) {
+            message = String.format("残り%d秒です。", seconds); // 例: 残り30秒です。
+        } else {
+            message = String.format("残り%d分%d秒です。", minutes, seconds); // 例: 残り12分30秒です。
+        }
+        showMessage(message, 0);
+    }
+
+    /*
+     * フライトレコーダーの記録を書き出したことを示すメッセージを表示するメソッド
+     *
+     * @param file 書き出したファイル
+     */
+    public void showFlightDumpMessage(Path file) {
+        showMessage(String.format("動作記録を %s に書き出しました。", file), 2); // 2秒間表示してから消去
+    }
+
+    /*
+     * リセットメッセージを表示するメソッド
+     * タイマーがリセットされた時に呼び出される
+     */
+    public void showResetMessage() {
+        showMessage("リセットしました。", 1); // 1秒間表示してから消去
+    }
+
+    /*
+     * 無効なコマンドが入力されたことを示すメッセージを表示するメソッド
+     * ユーザーが存在しないコマンドを入力した時に呼び出される
+     *
+     * @param command 入力された無効なコマンド
+     */
+    public void showInvalidCommand(String command) {
+        showMessage(String.format("'%s' は無効なコマンドです。", command), 1); // 1秒間表示してから消去
+    }
+
+    /*
+     * 指定された秒数だけ処理を停止するプライベートメソッド
+     * メッセージ表示時の待機時間に使用する
+     *
+     * @param seconds 停止する秒数
+     */
+    private void sleep(int seconds) {
+        try {
+            TimeUnit.SECONDS.sleep(seconds); // 指定された秒数だけ待機
+        } catch (InterruptedException e) {
+            // スレッドが割り込まれた場合は、割り込みフラグを再設定
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/*
+ * 画面の1フレーム分の文字を組み立てて出力するバッファ
+ *
+ * String.formatや文字列の連結で毎回文字列を作る代わりに、同じ文字配列に書き込み、
+ * 同じバイト配列にエンコードしてから出力する。
+ * 100ミリ秒ごとに描画する高解像度モードでも、描画のたびにオブジェクトを生成しない
+ *
+ * 1つのDisplayの中で、synchronizedメソッドからのみ使用する（スレッドセーフではない）
+ */
+final class FrameBuffer {
+
+    // フレームの文字
+    private final char[] chars;
+    // charsをエンコーダーに渡すためのビュー
+    private final CharBuffer charView;
+    // エンコードしたフレーム
+    private final byte[] bytes;
+    // bytesをエンコーダーに渡すためのビュー
+    private final ByteBuffer byteView;
+    // 標準出力と同じ文字コードのエンコーダー
+    private final CharsetEncoder encoder;
+    // 書き込んだ文字数
+    private int length;
+
+    /*
+     * コンストラクタ
+     *
+     * @param capacity 1フレームの最大文字数
+     */
+    FrameBuffer(int capacity) {
+        this.chars = new char[capacity];
+        this.charView = CharBuffer.wrap(chars);
+        this.encoder = Charset.defaultCharset().newEncoder() // PrintStreamのデフォルトと同じ文字コード
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = new byte[(int) Math.ceil(capacity * (double) encoder.maxBytesPerChar())];
+        this.byteView = ByteBuffer.wrap(bytes);
+    }
+
+    /*
+     * 書き込んだ内容を破棄して、新しいフレームを始めるメソッド
+     */
+    FrameBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    /*
+     * 文字列を書き込むメソッド（文字列はコピーされるだけで、新しいオブジェクトは生成しない）
+     */
+    FrameBuffer append(String text) {
+        text.getChars(0, text.length(), chars, length);
+        length += text.length();
+        return this;
+    }
+
+    /*
+     * 1文字を書き込むメソッド
+     */
+    FrameBuffer append(char c) {
+        chars[length++] = c;
+        return this;
+    }
+
+    /*
+     * 整数を、指定した桁数になるまで0で埋めて書き込むメソッド（String.format("%02d") と同じ）
+     *
+     * @param value 書き込む値（負の場合は符号を付ける）
+     *
+     * @param minDigits 最小の桁数
+     */
+    FrameBuffer appendPadded(long value, int minDigits) {
+        if (value < 0) {
+            chars[length++] = '-';
+            minDigits--; // String.formatと同じく、符号も桁数に含める
+            if (value == Long.MIN_VALUE) {
+                append("9223372036854775808");
+                return this;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < minDigits; i++) {
+            chars[length++] = '0';
+        }
+        int end = length + digits;
+        for (int i = end - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length = end;
+        return this;
+    }
+
+    /*
+     * 指定した文字数の領域を確保し、その開始位置を返すメソッド
+     * ProgressBar.render のように、配列に直接書き込む処理に渡すために使用する
+     *
+     * @param count 確保する文字数
+     *
+     * @return 確保した領域の開始位置
+     */
+    int reserve(int count) {
+        int offset = length;
+        length += count;
+        return offset;
+    }
+
+    /*
+     * フレームの文字配列を取得するメソッド（reserveで確保した領域への書き込み用）
+     */
+    char[] array() {
+        return chars;
+    }
+
+    /*
+     * フレームをエンコードして出力するメソッド
+     *
+     * @param out 出力先
+     */
+    void writeTo(PrintStream out) {
+        charView.clear().limit(length);
+        byteView.clear();
+        encoder.reset();
+        encoder.encode(charView, byteView, true);
+        encoder.flush(byteView);
+        out.write(bytes, 0, byteView.position());
+    }
+
+    /*
+     * フレームの内容を文字列として取得するメソッド（テスト用）
+     */
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,143 @@
+package com.yoshitaka.pomodoro;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * セッションIDを担当ノードに割り当てるコンシステントハッシュのリング
+ *
+ * ノードごとに複数の仮想ノードをリング上に配置し、セッションIDのハッシュ値から時計回りに最初に見つかった
+ * ノードを担当（プライマリ）、その次に見つかった別のノードを待機（スタンバイ）とする。
+ * ノードが1つ増減しても、担当が変わるのはそのノードが担当していた（または担当する）セッションだけで済む。
+ *
+ * 作成後は変更しない（メンバーが変わった場合は新しいリングを作る）ため、複数のスレッドから同時に参照できる。
+ */
+public final class HashRing {
+
+    // 1ノードあたりの仮想ノード数のデフォルト値（多いほど偏りが小さくなる）
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    // 仮想ノードのハッシュ値（昇順）
+    private final long[] points;
+    // 仮想ノードのハッシュ値に対応するノードID
+    private final String[] owners;
+    // ノード数
+    private final int nodeCount;
+
+    /*
+     * コンストラクタ
+     *
+     * @param nodeIds ノードIDの一覧
+     *
+     * @param virtualNodes 1ノードあたりの仮想ノード数
+     */
+    public HashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        int size = nodeIds.size() * virtualNodes;
+        long[] hashes = new long[size];
+        String[] ids = new String[size];
+        int index = 0;
+        for (String nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                hashes[index] = hash(nodeId + "#" + i);
+                ids[index] = nodeId;
+                index++;
+            }
+        }
+        // ハッシュ値の順に並べ替える（同じハッシュ値の場合はノードIDの順にして、どのノードでも同じリングにする）
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> (hashes[a] != hashes[b]) ? Long.compare(hashes[a], hashes[b])
+                : ids[a].compareTo(ids[b]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = ids[order[i]];
+        }
+        this.nodeCount = nodeIds.size();
+    }
+
+    /*
+     * セッションを担当するノードを取得するメソッド
+     *
+     * @param key セッションID
+     *
+     * @return 担当するノードのID。ノードがない場合はnull
+     */
+    public String primary(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        return owners[firstIndex(hash(key))];
+    }
+
+    /*
+     * セッションを担当するノードを、優先順に指定した数だけ取得するメソッド
+     * 先頭が担当（プライマリ）、2番目以降が待機（スタンバイ）になる
+     *
+     * @param key セッションID
+     *
+     * @param count 取得するノードの数（ノード数より多い場合はノード数まで）
+     *
+     * @return 重複のないノードIDの一覧
+     */
+    public List<String> owners(String key, int count) {
+        int limit = Math.min(count, nodeCount);
+        List<String> result = new ArrayList<>(limit);
+        if (limit == 0) {
+            return result;
+        }
+        int start = firstIndex(hash(key));
+        for (int i = 0; i < points.length && result.size() < limit; i++) {
+            String owner = owners[(start + i) % points.length];
+            if (!result.contains(owner)) {
+                result.add(owner);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * リング上のノード数を取得するメソッド
+     */
+    public int size() {
+        return nodeCount;
+    }
+
+    /*
+     * ハッシュ値から時計回りに最初の仮想ノードの位置を求めるメソッド
+     */
+    private int firstIndex(long hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1; // 挿入位置（次に大きい仮想ノード）
+        }
+        return (index == points.length) ? 0 : index; // 末尾を超えたら先頭に戻る
+    }
+
+    /*
+     * 文字列のハッシュ値を求めるメソッド
+     * String.hashCodeは似たIDが近い値になり偏るため、FNV-1aの後にビットを攪拌する
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+}
@@ -0,0 +1,106 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/*
+ * 1行1コマンドのプロトコルで、1つの接続の送受信を行うクラス（PomodoroDaemon・ClusterNodeのSelectorのスレッドが使用する）
+ * 改行までを1つの要求として処理し、応答は書き込めるだけ書き込んで残りは次の書き込み可能時に送る
+ *
+ * SelectionKeyの添付オブジェクトとして登録し、読み込み可能になったら read、書き込み可能になったら flush を呼び出す
+ */
+final class LineConnection {
+
+    // 1行の最大バイト数（これを超える要求は拒否する）
+    static final int MAX_LINE_BYTES = 256;
+
+    // 1行の要求を処理して、応答の1行を返す処理
+    private final Function<String, String> handler;
+    // 受信中の要求
+    private final ByteBuffer input = ByteBuffer.allocate(MAX_LINE_BYTES);
+    // 送信待ちの応答
+    private ByteBuffer output = ByteBuffer.allocate(MAX_LINE_BYTES);
+
+    /*
+     * コンストラクタ
+     *
+     * @param handler 1行の要求を処理して、応答の1行（改行なし）を返す処理
+     */
+    LineConnection(Function<String, String> handler) {
+        this.handler = handler;
+    }
+
+    /*
+     * 受信したデータから1行ずつ要求を取り出して処理するメソッド
+     */
+    void read(SelectionKey key) throws IOException {
+        int read = ((SocketChannel) key.channel()).read(input);
+        if (read < 0) {
+            flush(key);
+            closeQuietly(key); // 相手が送信を終えた
+            return;
+        }
+        input.flip();
+        int lineStart = 0;
+        for (int i = 0; i < input.limit(); i++) {
+            if (input.get(i) == '\n') {
+                String line = new String(input.array(), lineStart, i - lineStart, StandardCharsets.UTF_8);
+                if (!line.isBlank()) {
+                    reply(handler.apply(line));
+                }
+                lineStart = i + 1;
+            }
+        }
+        input.position(lineStart);
+        input.compact();
+        if (!input.hasRemaining()) {
+            reply("ERR line too long");
+            input.clear();
+        }
+        flush(key);
+    }
+
+    /*
+     * 応答を送信待ちに追加するメソッド
+     */
+    private void reply(String line) {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (output.remaining() < bytes.length) {
+            ByteBuffer larger = ByteBuffer.allocate(output.capacity() + Math.max(bytes.length, MAX_LINE_BYTES));
+            output.flip();
+            larger.put(output);
+            output = larger;
+        }
+        output.put(bytes);
+    }
+
+    /*
+     * 送信待ちの応答を書き込めるだけ書き込むメソッド
+     */
+    void flush(SelectionKey key) throws IOException {
+        output.flip();
+        ((SocketChannel) key.channel()).write(output);
+        boolean pending = output.hasRemaining();
+        output.compact();
+        if (key.isValid()) {
+            // 書ききれなかった場合だけ、書き込み可能になったことを通知してもらう
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /*
+     * 接続を閉じるメソッド（閉じる時の例外は無視する）
+     */
+    static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // 既に切断されている
+        }
+    }
+}
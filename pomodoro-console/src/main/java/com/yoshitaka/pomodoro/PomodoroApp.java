@@ -0,0 +1,858 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ポモドーロタイマーアプリケーションのメインクラス
+ * ユーザーインタラクションとアプリケーション全体のフローを管理する
+ *
+ * このクラスは以下の役割を担う：
+ * 1. アプリケーションの起動と終了の制御
+ * 2. ユーザーからのコマンド入力の処理
+ * 3. タイマーの開始・停止・リセットの管理
+ * 4. 画面表示の更新指示
+ *
+ * startで、作業・短い休憩・長い休憩からなる1サイクル（CyclePlan）を開始する。
+ * フェーズはCycleEngineが1つのタイマースレッドで続けて動かし、完了するたびに次のフェーズの画面に切り替える
+ */
+public class PomodoroApp implements Runnable, TimerListener {
+
+    // 作業の長さ（分）を指定するシステムプロパティ
+    private static final String WORK_PROPERTY = "pomodoro.work";
+    // 短い休憩の長さ（分）を指定するシステムプロパティ
+    private static final String SHORT_BREAK_PROPERTY = "pomodoro.break.short";
+    // 長い休憩の長さ（分）を指定するシステムプロパティ
+    private static final String LONG_BREAK_PROPERTY = "pomodoro.break.long";
+    // 長い休憩までの作業の回数を指定するシステムプロパティ
+    private static final String ROUNDS_PROPERTY = "pomodoro.rounds";
+    // タイマーイベントの書き出し先ディレクトリを指定するシステムプロパティ
+    private static final String EXPORT_DIR_PROPERTY = "pomodoro.export.dir";
+    // 書き出しファイルをgzip圧縮するかどうかを指定するシステムプロパティ
+    private static final String EXPORT_GZIP_PROPERTY = "pomodoro.export.gzip";
+    // タイマーの状態を他のプロセスと共有するファイルを指定するシステムプロパティ
+    static final String SHARED_FILE_PROPERTY = "pomodoro.shared.file";
+    // タイマーの状態をリモートのビューアーに配信するTCPポートを指定するシステムプロパティ
+    private static final String SYNC_PORT_PROPERTY = "pomodoro.sync.port";
+    // 「残りN分」の通知タイミングを指定するシステムプロパティ（残り秒数またはhalfをカンマ区切りで指定）
+    private static final String ALARMS_PROPERTY = "pomodoro.alarms";
+    // 通知タイミングのデフォルト値（残り5分と残り1分）
+    private static final String DEFAULT_ALARMS = "300,60";
+    // 100ミリ秒ごとに MM:SS.t 形式で表示する高解像度モードを有効にするシステムプロパティ
+    private static final String FINE_PROPERTY = "pomodoro.fine";
+    // 完了したセッションの履歴を保存するディレクトリを指定するシステムプロパティ
+    private static final String HISTORY_DIR_PROPERTY = "pomodoro.history.dir";
+    // historyコマンドで表示するセッションの数
+    private static final int HISTORY_LINES = 10;
+    // タイマースレッドの遅れとみなすしきい値（ミリ秒）を指定するシステムプロパティ（0で監視しない）
+    private static final String STALL_PROPERTY = "pomodoro.stall.millis";
+    // タイマーを実行するスレッドの名前（終了後にスレッドが残っていないかを確認しやすくするため）
+    static final String TIMER_THREAD_NAME = "pomodoro-timer";
+    // フライトレコーダーの書き出しファイル名に付ける日時の形式
+    private static final DateTimeFormatter DUMP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // 画面表示を管理するオブジェクト
+    private final Display display = new Display();
+    // タイマーの動作を管理するオブジェクト
+    private TimerService timerService;
+    // 1サイクルの予定（ストレステストでは短くする）
+    private CyclePlan cyclePlan = createCyclePlan();
+    // 現在のサイクル（各フェーズのタイマーを1つのスレッドで続けて動かす）
+    private CycleEngine cycleEngine;
+    // バックグラウンドでタイマーを実行するためのスレッドプール
+    private ExecutorService executorService;
+    // タイマーイベントをファイルに書き出すエクスポーター（プロパティ未指定の場合はnull）
+    private final TimerEventExporter eventExporter = createEventExporter();
+    // 書き出すイベントに付与するセッションID
+    private long sessionCounter = 0;
+    // タイマーの状態を他のプロセスと共有する領域（プロパティ未指定の場合はnull）
+    private final SharedTimerState sharedState = createSharedState();
+    // タイマーの状態をリモートのビューアーに配信するサーバー（プロパティ未指定の場合はnull）
+    private final StateSyncServer syncServer = createSyncServer();
+    // 完了したセッションの履歴（プロパティ未指定の場合はnull）
+    private final SessionHistory history = createHistory();
+    // 現在のサイクルのタスク名とタグ（start の後ろに指定する）
+    private String currentTask = "";
+    private List<String> currentTags = Collections.emptyList();
+    // 現在のフェーズを開始した日時（エポックミリ秒）
+    private long phaseStartedAtMillis;
+    // タイマースレッドの遅れを監視するウォッチドッグ（最初のタイマーを登録する時に作成する。無効な場合はnull）
+    private TickWatchdog watchdog;
+
+    // 高解像度モードかどうか
+    private final boolean fineMode = Boolean.getBoolean(FINE_PROPERTY);
+
+    // アプリケーションの終了状態を管理する volatile 変数
+    // volatileキーワードにより、複数のスレッドから安全にアクセスできる
+    private volatile boolean shouldExit = false;
+    // タイマーがアクティブかどうかを管理するフラグ
+    // タイマーが動作中かどうかを追跡する
+    private volatile boolean timerIsActive = false;
+
+    /*
+     * アプリケーションのエントリーポイント
+     * プログラムが開始されると最初に呼び出されるメソッドで
+     */
+    public static void main(String[] args) {
+        // 予期しない例外でスレッドが終了した場合は、直前の動作記録を書き出す
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            dumpFlightRecorder();
+            e.printStackTrace();
+        });
+        new PomodoroApp().run(); // 新しいPomodoroAppインスタンスを作成して実行
+    }
+
+    /*
+     * アプリケーションのメイン実行メソッド
+     * Runnableインターフェースを実装しているため、このメソッドが呼び出される
+     */
+    @Override
+    public void run() {
+        initialize(); // アプリケーションの初期化
+        display.showMainMenu(); // メインメニューを表示
+
+        // ユーザー入力を受け付けるスレッドを作成
+        // 別スレッドでユーザー入力を待機することで、メインスレッドをブロックしない
+        Thread inputThread = new Thread(() -> {
+            try (Scanner scanner = new Scanner(System.in)) { // 標準入力からスキャナーを作成
+                while (!shouldExit) { // アプリケーションが終了していない間はループ
+                    if (scanner.hasNextLine()) { // 入力があるかチェック
+                        handleCommand(scanner.nextLine().trim()); // 入力されたコマンドを処理
+                    }
+                }
+            }
+        });
+        inputThread.setDaemon(true); // デーモンスレッドに設定（メインスレッド終了時に自動終了）
+        inputThread.start(); // 入力スレッドを開始
+
+        // shouldExitフラグが立つまでメインスレッドを維持
+        // メインスレッドが終了するとアプリケーション全体が終了するため、ループで待機
+        while (!shouldExit) {
+            pollSharedCommands(); // 他のプロセスから届いたコマンドを処理
+            try {
+                TimeUnit.MILLISECONDS.sleep(100); // 100ミリ秒待機（CPU使用率を下げる）
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // 割り込みフラグを再設定
+                break; // ループを抜けて終了処理へ
+            }
+        }
+        shutdown(); // アプリケーションの終了処理
+    }
+
+    /*
+     * ユーザーから入力されたコマンドを処理するメソッド
+     * 複数のスレッドからアクセスされるため synchronized で同期を取る
+     * 最初の単語をコマンドとし、残りを引数とする（引数を使うのは start と history だけ）
+     *
+     * @param command ユーザーが入力したコマンド文字列
+     */
+    private synchronized void handleCommand(String command) {
+        if (shouldExit) // アプリケーションが終了予定の場合は何もしない
+            return;
+
+        TimerEvents.Span start = TimerEvents.startCommand(); // 処理時間の計測を開始
+        int space = command.indexOf(' ');
+        String name = (space < 0) ? command : command.substring(0, space);
+        String args = (space < 0) ? "" : command.substring(space + 1).trim();
+        switch (name) {
+            case "start":
+                handleStart(args); // タイマー開始処理
+                break;
+            case "history":
+                if (timerIsActive) {
+                    display.showInvalidCommand(command); // タイマー実行中は画面を切り替えない
+                } else {
+                    handleHistory(args); // 履歴の表示
+                }
+                break;
+            case "stop":
+                // タイマーがアクティブかつ実行中の場合のみ停止
+                if (timerIsActive && timerService.getState() == TimerService.State.RUNNING) {
+                    timerService.pause(); // タイマーを一時停止
+                }
+                break;
+            case "reset":
+                // タイマーがアクティブな場合のみリセット
+                if (timerIsActive) {
+                    timerIsActive = false; // タイマーを非アクティブに設定
+                    resetTimer(); // タイマーをリセット
+                    display.showResetMessage(); // リセットメッセージを表示
+                    display.showMainMenu(); // メインメニューに戻る
+                }
+                break;
+            case "end":
+                shouldExit = true; // アプリケーション終了フラグを立てる
+                break;
+            case "dump":
+                // フライトレコーダーの記録をファイルに書き出す
+                Path file = dumpFlightRecorder();
+                if (file != null) {
+                    display.showFlightDumpMessage(file);
+                } else {
+                    display.showInvalidCommand(command); // フライトレコーダーが無効
+                }
+                break;
+            default:
+                // 無効なコマンドの場合の処理
+                if (!command.isEmpty()) { // 空文字列でない場合のみ処理
+                    if (timerIsActive) {
+                        display.showInvalidCommand(command); // タイマー実行中は無効コマンドメッセージを表示
+                    } else {
+                        // メインメニュー表示中に無効なコマンドが打たれた場合、メニューを再描画
+                        display.showMainMenu();
+                    }
+                }
+                break;
+        }
+        TimerEvents.command(start, command); // 処理にかかった時間を記録
+    }
+
+    /*
+     * タイマー開始処理を行うメソッド
+     * タイマーの状態に応じて新規開始または再開を行う
+     * 新規開始の場合は、引数をタスク名とタグ（#で始まる単語）として履歴に記録する
+     * 例: start 設計レビュー #仕事 #review
+     *
+     * @param args start の後ろに入力された文字列（再開の場合は無視する）
+     */
+    private synchronized void handleStart(String args) {
+        TimerService.State currentState = timerService.getState(); // 現在のタイマー状態を取得
+        if (currentState == TimerService.State.IDLE && !timerIsActive) {
+            // タイマーが停止状態の場合：新規開始（フェーズの切り替え中はサイクルを続ける）
+            timerIsActive = true; // タイマーをアクティブに設定
+            resetTimer(); // 新規開始のためにタイマーをリセット
+            parseTask(args); // タスク名とタグを記録
+            phaseStartedAtMillis = System.currentTimeMillis();
+            display.drawInitialTimerScreen(cycleEngine.getCurrentStep()); // 最初のフェーズの画面を初期描画
+            executorService = Executors.newSingleThreadExecutor(
+                    runnable -> new Thread(runnable, TIMER_THREAD_NAME)); // 単一スレッドの実行サービスを作成
+            CycleEngine engine = cycleEngine;
+            // 実行サービスがタイマーを開始する前に打たれたstopを取りこぼさないよう、ここで開始する
+            timerService.beginNow();
+            executorService.submit(() -> runTimer(engine)); // サイクルの全てのフェーズを同じスレッドで実行
+        } else if (currentState == TimerService.State.PAUSED) {
+            // タイマーが一時停止状態の場合：再開
+            timerService.start(); // PAUSEDからの再開
+        }
+    }
+
+    /*
+     * start の引数を、タスク名とタグに分けて現在のサイクルに設定するメソッド
+     *
+     * @param args start の後ろに入力された文字列
+     */
+    private void parseTask(String args) {
+        List<String> task = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        for (String word : args.split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            try {
+                if (word.startsWith("#")) {
+                    tags.add(SessionHistory.normalizeTag(word));
+                    continue;
+                }
+            } catch (IllegalArgumentException e) {
+                // タグにできない単語（#だけなど）はタスク名の一部とする
+            }
+            task.add(word);
+        }
+        currentTask = String.join(" ", task);
+        currentTags = tags;
+    }
+
+    /*
+     * 履歴を検索して表示するメソッド
+     * 例: history（全期間）、history 30（直近30日）、history #仕事 30（直近30日の#仕事）
+     *
+     * @param args history の後ろに入力された文字列（#で始まるタグと日数、どちらも省略可）
+     */
+    private void handleHistory(String args) {
+        if (history == null) {
+            display.showHistoryDisabled(HISTORY_DIR_PROPERTY);
+            return;
+        }
+        String tag = null;
+        long days = 0;
+        for (String word : args.split("\\s+")) {
+            if (word.startsWith("#")) {
+                tag = word;
+            } else if (!word.isEmpty()) {
+                try {
+                    days = Long.parseLong(word);
+                } catch (NumberFormatException e) {
+                    display.showMainMenu(); // 無効な引数の場合はメニューを再描画
+                    return;
+                }
+            }
+        }
+        long to = System.currentTimeMillis() + 1; // 今完了したセッションまで含める
+        long from = (days > 0) ? to - TimeUnit.DAYS.toMillis(days) : Long.MIN_VALUE;
+        try {
+            long[] ids = history.latest(tag, from, to, HISTORY_LINES);
+            List<SessionHistory.Entry> recent = new ArrayList<>();
+            for (int i = ids.length - 1; i >= 0; i--) {
+                recent.add(history.get(ids[i])); // 新しい順
+            }
+            Map<String, Long> byTag = (tag == null) ? history.focusSecondsByTag(from, to) : Map.of();
+            display.showHistory(tag, days, history.count(tag, from, to), history.focusSeconds(tag, from, to), recent,
+                    byTag);
+        } catch (IllegalArgumentException e) {
+            display.showMainMenu(); // 無効なタグ
+        } catch (IOException e) {
+            System.err.println("履歴を読み込めませんでした: " + e.getMessage());
+        }
+    }
+
+    /*
+     * 完了した作業のフェーズを履歴に保存するメソッド（休憩は保存しない）
+     *
+     * @param step 完了したフェーズ
+     *
+     * @param finishedAtMillis 完了した時刻（エポックミリ秒）
+     */
+    private void recordSession(CyclePlan.Step step, long finishedAtMillis) {
+        if (history == null || step.getPhase() != CyclePlan.Phase.WORK) {
+            return;
+        }
+        try {
+            history.append(currentTask, currentTags, phaseStartedAtMillis, finishedAtMillis,
+                    step.getDuration().getSeconds());
+        } catch (IOException e) {
+            System.err.println("履歴を保存できませんでした: " + e.getMessage());
+        }
+    }
+
+    /*
+     * タイマーを実行するメソッド（バックグラウンドのスレッドで実行される）
+     * ExecutorServiceに渡したタスクの例外は表示されないため、
+     * 異常終了した場合はここで直前の動作記録を書き出す
+     *
+     * @param engine 実行するサイクル
+     */
+    private static void runTimer(CycleEngine engine) {
+        try {
+            engine.run();
+        } catch (RuntimeException | Error e) {
+            dumpFlightRecorder();
+            throw e;
+        }
+    }
+
+    /*
+     * フライトレコーダーの記録を作業ディレクトリのファイルに書き出すメソッド
+     *
+     * @return 書き出したファイル（フライトレコーダーが無効、または書き出しに失敗した場合はnull）
+     */
+    static Path dumpFlightRecorder() {
+        FlightRecorderRing ring = TimerEvents.getRing();
+        if (ring == null) {
+            return null;
+        }
+        Path file = Path.of(String.format("pomodoro-flight-%d-%s.txt", ProcessHandle.current().pid(),
+                LocalDateTime.now().format(DUMP_TIMESTAMP)));
+        try {
+            ring.dump(file);
+            return file;
+        } catch (IOException e) {
+            System.err.println("フライトレコーダーを書き出せませんでした: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /*
+     * アプリケーションの初期化を行うメソッド
+     * タイマーサービスを初期状態に設定する
+     */
+    private synchronized void initialize() {
+        resetTimer(); // タイマーをリセットして初期状態にする
+    }
+
+    /*
+     * タイマーをリセットするメソッド
+     * 既存の実行サービスを停止し、新しいサイクルを作成する
+     * リセットした後も古いタイマーからの通知が届くことがあるため、リスナーはタイマーごと（Session）・
+     * サイクルごと（Cycle）に作り、古いタイマーからの通知で新しいタイマーの画面や状態を変えないようにする
+     */
+    private synchronized void resetTimer() {
+        if (executorService != null && !executorService.isShutdown()) {
+            executorService.shutdownNow(); // 既存の実行サービスを強制終了
+        }
+        if (cycleEngine != null) {
+            cycleEngine.cancel(); // 次のフェーズに進まないようにする
+        }
+        if (timerService != null) {
+            timerService.cancel(); // 完了を待っているFutureをキャンセル
+        }
+        Cycle cycle = new Cycle();
+        cycleEngine = new CycleEngine(cyclePlan, cycle); // 新しいサイクルを作成
+        cycle.source = cycleEngine;
+        attach(cycleEngine.getCurrent()); // 最初のフェーズのタイマー
+    }
+
+    /*
+     * フェーズのタイマーを現在のタイマーにして、リスナーと監視役を登録するメソッド
+     *
+     * @param service フェーズのタイマー（まだ開始していないもの）
+     */
+    private synchronized void attach(TimerService service) {
+        Session session = new Session();
+        session.source = service;
+        watch(service); // 前のフェーズのタイマーの監視を終了して、このタイマーを監視する
+        timerService = service;
+        service.addListener(session);
+        registerAlarms(service); // 「残りN分」の通知を登録
+        if (eventExporter != null) {
+            eventExporter.attach(service, ++sessionCounter); // イベントの書き出しを登録
+        }
+        if (sharedState != null) {
+            sharedState.attach(service); // 他のプロセスへの状態の公開を登録
+        }
+        if (syncServer != null) {
+            syncServer.attach(service); // リモートのビューアーへの配信を登録
+        }
+    }
+
+    /*
+     * システムプロパティに応じて、タイマースレッドの遅れの監視対象をタイマーに切り替えるメソッド
+     * 例: -Dpomodoro.stall.millis=500 で0.5秒以上の遅れを検知する（0で監視しない）
+     *
+     * @param service 監視するタイマー
+     */
+    private void watch(TimerService service) {
+        if (watchdog == null) {
+            long millis = Long.getLong(STALL_PROPERTY, TickWatchdog.DEFAULT_THRESHOLD.toMillis());
+            if (millis <= 0) {
+                return; // 監視は無効
+            }
+            watchdog = new TickWatchdog(Duration.ofMillis(millis));
+        } else if (timerService != null) {
+            watchdog.unwatch(timerService);
+        }
+        watchdog.watch(service);
+    }
+
+    /*
+     * 共有領域を通じて他のプロセス（ビューアー）から届いたコマンドを処理するメソッド
+     */
+    private void pollSharedCommands() {
+        if (sharedState == null) {
+            return;
+        }
+        SharedTimerState.Command command;
+        while ((command = sharedState.poll()) != null) {
+            handleCommand(command.getText()); // 入力されたコマンドと同じように処理
+        }
+    }
+
+    /*
+     * システムプロパティに応じて、タイマーの状態を共有する領域を作成するメソッド
+     *
+     * @return 共有領域（ファイルが指定されていない場合はnull）
+     */
+    private static SharedTimerState createSharedState() {
+        String file = System.getProperty(SHARED_FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return null; // 共有は無効
+        }
+        try {
+            return SharedTimerState.create(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("タイマーの状態を共有できませんでした: " + e.getMessage());
+            return null; // 共有なしで起動を続ける
+        }
+    }
+
+    /*
+     * システムプロパティに応じて、タイマーの状態をリモートのビューアーに配信するサーバーを作成するメソッド
+     *
+     * @return サーバー（ポートが指定されていない場合はnull）
+     */
+    private static StateSyncServer createSyncServer() {
+        Integer port = Integer.getInteger(SYNC_PORT_PROPERTY);
+        if (port == null) {
+            return null; // 配信は無効
+        }
+        try {
+            return new StateSyncServer(new InetSocketAddress(port), StateSyncServer.DEFAULT_HEARTBEAT_MILLIS);
+        } catch (IOException e) {
+            System.err.println("タイマーの状態を配信できませんでした: " + e.getMessage());
+            return null; // 配信なしで起動を続ける
+        }
+    }
+
+    /*
+     * システムプロパティに応じて、完了したセッションの履歴を開くメソッド
+     *
+     * @return 履歴（保存先が指定されていない場合はnull）
+     */
+    private static SessionHistory createHistory() {
+        String directory = System.getProperty(HISTORY_DIR_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return null; // 履歴は無効
+        }
+        try {
+            return new SessionHistory(Path.of(directory));
+        } catch (IOException e) {
+            System.err.println("履歴を開けませんでした: " + e.getMessage());
+            return null; // 履歴なしで起動を続ける
+        }
+    }
+
+    /*
+     * システムプロパティに応じて、1サイクルの予定を作成するメソッド
+     * 例: -Dpomodoro.work=50 -Dpomodoro.break.short=10 -Dpomodoro.break.long=30 -Dpomodoro.rounds=3
+     *
+     * @return サイクルの予定（指定が不正な場合はデフォルトの予定）
+     */
+    private static CyclePlan createCyclePlan() {
+        try {
+            return new CyclePlan(
+                    Duration.ofMinutes(Long.getLong(WORK_PROPERTY, CyclePlan.DEFAULT_WORK.toMinutes())),
+                    Duration.ofMinutes(Long.getLong(SHORT_BREAK_PROPERTY, CyclePlan.DEFAULT_SHORT_BREAK.toMinutes())),
+                    Duration.ofMinutes(Long.getLong(LONG_BREAK_PROPERTY, CyclePlan.DEFAULT_LONG_BREAK.toMinutes())),
+                    Integer.getInteger(ROUNDS_PROPERTY, CyclePlan.DEFAULT_ROUNDS));
+        } catch (IllegalArgumentException e) {
+            System.err.println("無効なサイクルの指定を無視しました: " + e.getMessage());
+            return CyclePlan.standard();
+        }
+    }
+
+    /*
+     * システムプロパティで指定された通知タイミングをタイマーに登録するメソッド
+     * 例: -Dpomodoro.alarms=300,60,half で残り5分・残り1分・半分経過を通知する
+     *
+     * @param service アラームを登録するタイマーサービス
+     */
+    private static void registerAlarms(TimerService service) {
+        for (String alarm : System.getProperty(ALARMS_PROPERTY, DEFAULT_ALARMS).split(",")) {
+            String value = alarm.trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (value.equals("half")) {
+                service.addHalfwayAlarm(); // 半分経過
+                continue;
+            }
+            try {
+                service.addAlarm(Long.parseLong(value)); // 残り秒数
+            } catch (NumberFormatException e) {
+                System.err.println("無効なアラーム指定を無視しました: " + value);
+            }
+        }
+    }
+
+    /*
+     * システムプロパティに応じてイベントエクスポーターを作成するメソッド
+     *
+     * @return エクスポーター（書き出し先が指定されていない場合はnull）
+     */
+    private static TimerEventExporter createEventExporter() {
+        String directory = System.getProperty(EXPORT_DIR_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return null; // 書き出しは無効
+        }
+        try {
+            if (Boolean.getBoolean(EXPORT_GZIP_PROPERTY)) {
+                return new TimerEventExporter(Path.of(directory), 64L * 1024 * 1024, true, 1000, 1 << 16);
+            }
+            return new TimerEventExporter(Path.of(directory));
+        } catch (IOException e) {
+            System.err.println("イベントの書き出しを開始できませんでした: " + e.getMessage());
+            return null; // 書き出しなしで起動を続ける
+        }
+    }
+
+    /*
+     * アプリケーションの終了処理を行うメソッド
+     * リソースのクリーンアップと終了メッセージの表示を行う
+     */
+    private synchronized void shutdown() {
+        if (executorService != null && !executorService.isShutdown()) {
+            executorService.shutdownNow(); // 実行サービスを強制終了
+        }
+        if (cycleEngine != null) {
+            cycleEngine.cancel(); // 次のフェーズに進まないようにする
+        }
+        if (timerService != null) {
+            timerService.cancel(); // 完了を待っているFutureをキャンセル
+        }
+        if (watchdog != null) {
+            watchdog.close(); // 監視スレッドを終了
+        }
+        if (eventExporter != null) {
+            try {
+                eventExporter.close(); // 残っているイベントを書き出して終了
+            } catch (IOException e) {
+                System.err.println("イベントの書き出しに失敗しました: " + e.getMessage());
+            }
+        }
+        if (sharedState != null) {
+            try {
+                sharedState.close(); // 共有ファイルを閉じる
+            } catch (IOException e) {
+                System.err.println("共有ファイルを閉じられませんでした: " + e.getMessage());
+            }
+        }
+        if (syncServer != null) {
+            try {
+                syncServer.close(); // ビューアーとの接続を閉じる
+            } catch (IOException e) {
+                System.err.println("配信を終了できませんでした: " + e.getMessage());
+            }
+        }
+        if (history != null) {
+            try {
+                history.close(); // 履歴のファイルを閉じる
+            } catch (IOException e) {
+                System.err.println("履歴を閉じられませんでした: " + e.getMessage());
+            }
+        }
+        // アプリケーション終了時にクリーンな状態で終了メッセージを表示
+        System.out.print("\n"); // 改行を出力
+        System.out.println("アプリを終了しました。"); // 終了メッセージを表示
+    }
+
+    /*
+     * 画面表示を更新するプライベートメソッド
+     * タイマーがアクティブな場合のみ画面を更新する
+     */
+    private void updateDisplay() {
+        if (timerService != null && timerIsActive) { // タイマーサービスが存在し、アクティブな場合
+            display.updateTimerScreen(timerService.getRemainingSeconds(), timerService.getTotalSeconds(),
+                    timerService.getState()); // 残り時間、総時間、状態を表示に反映
+            if (fineMode) {
+                // 一時停止中も0.1秒単位の残り時間を表示する
+                display.updateFineTimer(timerService.getRemainingMillis(),
+                        TimeUnit.SECONDS.toMillis(timerService.getTotalSeconds()));
+            }
+        }
+    }
+
+    /*
+     * TimerListenerインターフェースの実装メソッド
+     * タイマーが1秒経過するたびに呼び出される
+     *
+     * @param remainingSeconds 残り秒数
+     *
+     * @param totalSeconds 総秒数
+     */
+    @Override
+    public synchronized void onTick(long remainingSeconds, long totalSeconds) {
+        if (!fineMode) { // 高解像度モードではonFineTickで描画する
+            updateDisplay(); // 画面表示を更新
+        }
+    }
+
+    /*
+     * TimerListenerインターフェースの実装メソッド
+     * 高解像度モードの場合、100ミリ秒ごとに呼び出される
+     *
+     * @param remainingMillis 残り時間（ミリ秒）
+     *
+     * @param totalMillis 総時間（ミリ秒）
+     */
+    @Override
+    public synchronized void onFineTick(long remainingMillis, long totalMillis) {
+        if (timerIsActive) {
+            display.updateFineTimer(remainingMillis, totalMillis); // 残り時間とプログレスバーだけを更新
+        }
+    }
+
+    /*
+     * TimerListenerインターフェースの実装メソッド
+     * 高解像度モードの場合は100ミリ秒ごと、それ以外は1秒ごとのtickを要求する
+     */
+    @Override
+    public TickResolution tickResolution() {
+        return fineMode ? TickResolution.FINE : TickResolution.SECOND;
+    }
+
+    /*
+     * TimerListenerインターフェースの実装メソッド
+     * フェーズのタイマーが完了した時に呼び出される
+     * 次のフェーズにはCycleEngineが続けて移り、履歴への保存は onPhaseFinish で行うため、ここでは完了メッセージだけを表示する
+     */
+    @Override
+    public synchronized void onFinish() {
+        display.showCompletionMessage(); // 完了メッセージを表示
+    }
+
+    /*
+     * フェーズが完了した時に呼び出されるメソッド（CycleEngineのスレッドから、次のフェーズに移る前に呼ばれる）
+     * 完了したフェーズと完了予定時刻はCycleEngineから渡されるため、TickWatchdogによってSessionが
+     * 別スレッドに移され、onFinish が次のフェーズに移った後に届いても、正しく履歴に保存できる
+     *
+     * @param step 完了したフェーズ
+     *
+     * @param finishedAtNanos 完了した時刻（System.nanoTime基準の完了予定時刻）
+     */
+    private synchronized void onPhaseFinish(CyclePlan.Step step, long finishedAtNanos) {
+        long lateMillis = TimeUnit.NANOSECONDS.toMillis(Math.max(System.nanoTime() - finishedAtNanos, 0));
+        recordSession(step, System.currentTimeMillis() - lateMillis);
+    }
+
+    /*
+     * 次のフェーズに移る時に呼び出されるメソッド（タイマースレッドから呼ばれる）
+     * 次のフェーズのタイマーを現在のタイマーにして、画面をそのフェーズに切り替える
+     *
+     * @param step 次のフェーズ
+     *
+     * @param service 次のフェーズのタイマー
+     */
+    private synchronized void onNextPhase(CyclePlan.Step step, TimerService service) {
+        attach(service);
+        phaseStartedAtMillis = System.currentTimeMillis();
+        display.drawInitialTimerScreen(step); // フェーズとサイクルの中の位置を表示
+    }
+
+    /*
+     * サイクルの最後のフェーズが完了した時に呼び出されるメソッド（タイマースレッドから呼ばれる）
+     */
+    private synchronized void onCycleFinish() {
+        timerIsActive = false; // タイマーを非アクティブに設定
+        resetTimer(); // タイマーをリセット
+        display.showMainMenu(); // メインメニューに戻る
+    }
+
+    /*
+     * TimerListenerインターフェースの実装メソッド
+     * 登録したアラームのしきい値に到達した時に呼び出される
+     *
+     * @param thresholdSeconds 到達したしきい値（残り秒数）
+     *
+     * @param remainingSeconds 残り秒数
+     */
+    @Override
+    public synchronized void onAlarm(long thresholdSeconds, long remainingSeconds) {
+        if (timerIsActive) {
+            display.showAlarmMessage(thresholdSeconds); // 「残りN分です。」を表示
+        }
+    }
+
+    /*
+     * TimerListenerインターフェースの実装メソッド
+     * タイマーの状態が変更された時に呼び出される（開始・停止・一時停止など）
+     */
+    @Override
+    public synchronized void onStateChange() {
+        updateDisplay(); // 画面表示を更新
+    }
+
+    /*
+     * 1つのサイクルからのフェーズの切り替えを受け取り、そのサイクルが現在のサイクルの場合だけアプリに渡すリスナー
+     * リセットした後の古いサイクルが次のフェーズに移っても、新しいサイクルの画面や状態を書き換えないようにする
+     */
+    private final class Cycle implements CycleListener {
+
+        // 通知元のサイクル（作成直後に設定する）
+        private CycleEngine source;
+
+        @Override
+        public void onPhaseFinish(CyclePlan.Step step, long finishedAtNanos) {
+            synchronized (PomodoroApp.this) {
+                if (source == cycleEngine) {
+                    PomodoroApp.this.onPhaseFinish(step, finishedAtNanos);
+                }
+            }
+        }
+
+        @Override
+        public void onNextPhase(CyclePlan.Step step, TimerService service) {
+            synchronized (PomodoroApp.this) {
+                if (source == cycleEngine) {
+                    PomodoroApp.this.onNextPhase(step, service);
+                }
+            }
+        }
+
+        @Override
+        public void onCycleFinish() {
+            synchronized (PomodoroApp.this) {
+                if (source == cycleEngine) {
+                    PomodoroApp.this.onCycleFinish();
+                }
+            }
+        }
+    }
+
+    /*
+     * 1つのタイマーサービスからの通知を受け取り、そのタイマーが現在のタイマーの場合だけアプリに渡すリスナー
+     *
+     * リセットや新規開始でタイマーサービスを作り直しても、古いタイマーのスレッドは
+     * 通知の途中（アプリのロックの取得待ちなど）にいることがある。
+     * 古いタイマーからのtickや状態変更は無視し、新しいタイマーの画面や状態を書き換えないようにする。
+     * ただし、完了は実際にタイマーが0秒に到達したことを表すため、古いタイマーでも完了メッセージだけは表示する。
+     */
+    private final class Session implements TimerListener {
+
+        // 通知元のタイマーサービス（作成直後に設定する）
+        private TimerService source;
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            synchronized (PomodoroApp.this) {
+                if (source == timerService) {
+                    PomodoroApp.this.onTick(remainingSeconds, totalSeconds);
+                }
+            }
+        }
+
+        @Override
+        public void onFineTick(long remainingMillis, long totalMillis) {
+            synchronized (PomodoroApp.this) {
+                if (source == timerService) {
+                    PomodoroApp.this.onFineTick(remainingMillis, totalMillis);
+                }
+            }
+        }
+
+        @Override
+        public void onFinish() {
+            synchronized (PomodoroApp.this) {
+                if (source == timerService) {
+                    PomodoroApp.this.onFinish();
+                } else {
+                    display.showCompletionMessage(); // 完了と同時にリセット・新規開始された（画面はそのままにする）
+                }
+            }
+        }
+
+        @Override
+        public void onAlarm(long thresholdSeconds, long remainingSeconds) {
+            synchronized (PomodoroApp.this) {
+                if (source == timerService) {
+                    PomodoroApp.this.onAlarm(thresholdSeconds, remainingSeconds);
+                }
+            }
+        }
+
+        @Override
+        public void onStateChange() {
+            synchronized (PomodoroApp.this) {
+                if (source == timerService) {
+                    PomodoroApp.this.onStateChange();
+                }
+            }
+        }
+
+        @Override
+        public TickResolution tickResolution() {
+            // タイマーのロックを持ったまま呼ばれるため、アプリのロックは取らない
+            return PomodoroApp.this.tickResolution();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * タイマーをバックグラウンドで動かし、Unixドメインソケットでコマンドを受け付けるデーモン
+ *
+ * PomodoroAppでは、操作のたびにJVMを起動して端末を占有する必要がある。
+ * デーモンを1度起動しておけば、bin/pomodoroctl（nc / socat で1行送るだけのスクリプト）から
+ * JVMの起動なしにコマンドを送り、すぐに応答を受け取れる。
+ *
+ * プロトコル（1行1コマンド、UTF-8）:
+ * 要求: <コマンド> [タイマー名]    コマンドは start / stop / reset / status / shutdown。タイマー名の省略時は default
+ * 応答: OK <タイマー名> <状態> <残りミリ秒> <総ミリ秒>    または    ERR <理由>
+ *
+ * このクラスの特徴：
+ * 1. 1つのスレッドがSelectorで全ての接続を処理する（接続ごとのスレッドは作らない）
+ * 2. status は、状態が変わった時に公開したスナップショットから計算して応答する
+ *    （TimerServiceのロックを取らず、タイマースレッドに一切触れない）
+ * 3. タイマー名ごとに独立したTimerServiceを動かせる
+ *
+ * 起動方法:
+ * java -cp pomodoro-console/target/pomodoro-app.jar com.yoshitaka.pomodoro.PomodoroDaemon /tmp/pomodoro.sock
+ */
+public class PomodoroDaemon implements Runnable, AutoCloseable {
+
+    // ソケットファイルのパスを指定するシステムプロパティ
+    static final String SOCKET_PROPERTY = "pomodoro.daemon.socket";
+    // タイマー名を省略した場合のタイマー名
+    static final String DEFAULT_TIMER = "default";
+    // ポモドーロの作業時間（25分）
+    private static final int WORK_MINUTES = 25;
+    // Ctrl+Cなどで終了する時に、終了処理を待つ最大の秒数
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    // ソケットファイルのパス
+    private final Path socketPath;
+    // 各タイマーの継続時間
+    private final Duration duration;
+    // 接続を受け付けるサーバーソケット
+    private final ServerSocketChannel server;
+    // 全ての接続を監視するセレクター
+    private final Selector selector;
+    // タイマーを実行するスレッドプール（タイマーごとに1スレッド）
+    private final ExecutorService timerExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pomodoro-daemon-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // タイマー名ごとのタイマー
+    private final Map<String, HostedTimer> timers = new ConcurrentHashMap<>();
+
+    // デーモンの終了状態を管理する volatile 変数
+    private volatile boolean shouldExit = false;
+
+    /*
+     * コンストラクタ
+     * ソケットファイルが残っている場合、応答するデーモンがいなければ削除してから作り直す
+     *
+     * @param socketPath ソケットファイルのパス
+     *
+     * @param duration 各タイマーの継続時間
+     */
+    public PomodoroDaemon(Path socketPath, Duration duration) throws IOException {
+        this.socketPath = socketPath;
+        this.duration = duration;
+        if (Files.exists(socketPath)) {
+            if (isListening(socketPath)) {
+                throw new IOException("デーモンは既に起動しています: " + socketPath);
+            }
+            Files.delete(socketPath); // 前回異常終了した時のソケットファイル
+        }
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.server.bind(UnixDomainSocketAddress.of(socketPath));
+        this.server.configureBlocking(false);
+        this.selector = Selector.open();
+        this.server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /*
+     * デーモンのエントリーポイント
+     *
+     * @param args ソケットファイルのパス（省略時は pomodoro.daemon.socket プロパティ、またはデフォルトのパス）
+     */
+    public static void main(String[] args) throws IOException {
+        Path socketPath = Path.of((args.length > 0) ? args[0]
+                : System.getProperty(SOCKET_PROPERTY, defaultSocketPath()));
+        // close() まで終わったことを終了処理のスレッドに知らせる
+        CountDownLatch closed = new CountDownLatch(1);
+        try (PomodoroDaemon daemon = new PomodoroDaemon(socketPath, Duration.ofMinutes(WORK_MINUTES))) {
+            // Ctrl+Cでも終了処理を行う。フックが戻るとJVMが止まるため、close() が終わるまで待つ
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                daemon.stop();
+                try {
+                    closed.await(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            System.out.println("デーモンを起動しました: " + socketPath);
+            daemon.run();
+        } finally {
+            closed.countDown();
+        }
+        System.out.println("デーモンを終了しました。");
+    }
+
+    /*
+     * デフォルトのソケットファイルのパスを取得するメソッド
+     * XDG_RUNTIME_DIR（ユーザーごとの一時ディレクトリ）があればその中、なければ一時ディレクトリに作成する
+     */
+    static String defaultSocketPath() {
+        String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+        String directory = (runtimeDirectory != null) ? runtimeDirectory : System.getProperty("java.io.tmpdir");
+        return Path.of(directory, "pomodoro.sock").toString();
+    }
+
+    /*
+     * 接続とコマンドを処理するメソッド（shutdownコマンドかstop()が呼ばれるまで戻らない）
+     */
+    @Override
+    public void run() {
+        while (!shouldExit) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.err.println("接続の待機に失敗しました: " + e.getMessage());
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        LineConnection connection = (LineConnection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush(key);
+                        }
+                    }
+                } catch (IOException e) {
+                    LineConnection.closeQuietly(key); // クライアントが切断した
+                }
+            }
+        }
+    }
+
+    /*
+     * デーモンを停止するメソッド（run()を実行しているスレッド以外から呼び出す）
+     */
+    public void stop() {
+        shouldExit = true;
+        selector.wakeup();
+    }
+
+    /*
+     * タイマーを全て止め、ソケットを閉じてソケットファイルを削除するメソッド
+     */
+    @Override
+    public void close() throws IOException {
+        if (!selector.isOpen()) {
+            return; // 既に終了している
+        }
+        shouldExit = true;
+        timerExecutor.shutdownNow();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        server.close();
+        Files.deleteIfExists(socketPath);
+    }
+
+    /*
+     * 1行のコマンドを処理して応答を返すメソッド（セレクターのスレッドから呼び出される）
+     *
+     * @param line 要求の1行
+     *
+     * @return 応答の1行（改行を含まない）
+     */
+    String handleCommand(String line) {
+        String[] words = line.trim().split("\\s+");
+        String command = words[0];
+        if (words.length > 2) {
+            return "ERR too many arguments";
+        }
+        String name = (words.length > 1) ? words[1] : DEFAULT_TIMER;
+        HostedTimer timer;
+        switch (command) {
+            case "start":
+                timer = timers.computeIfAbsent(name, HostedTimer::new);
+                timer.start();
+                break;
+            case "stop":
+                timer = timers.get(name);
+                if (timer != null) {
+                    timer.pause();
+                }
+                break;
+            case "reset":
+                timer = timers.get(name);
+                if (timer != null) {
+                    timer.reset();
+                }
+                break;
+            case "status":
+                timer = timers.get(name);
+                break;
+            case "shutdown":
+                shouldExit = true;
+                return "OK shutdown";
+            default:
+                return "ERR unknown command: " + command;
+        }
+        if (timer == null) {
+            // まだ開始されていないタイマーは、開始前の状態として応答する
+            long totalMillis = duration.toMillis();
+            return "OK " + name + " " + TimerService.State.IDLE + " " + totalMillis + " " + totalMillis;
+        }
+        return timer.status.format(name, System.nanoTime());
+    }
+
+    /*
+     * 新しい接続を受け付けるメソッド
+     */
+    private void accept() throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        client.register(selector, SelectionKey.OP_READ, new LineConnection(this::handleCommand));
+    }
+
+    /*
+     * 指定したソケットファイルで応答するデーモンがいるかどうかを確認するメソッド
+     */
+    private static boolean isListening(Path socketPath) {
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            channel.close(); // 接続できたことだけを確認する
+        } catch (IOException e) {
+            // 接続はできている
+        }
+        return true;
+    }
+
+    /*
+     * status に応答するための、ある時点のタイマーの状態
+     * 状態が変わった時だけ作り直し、残り時間は公開時刻からの経過時間で計算する
+     */
+    private static final class Status {
+
+        // 状態
+        private final TimerService.State state;
+        // 公開時の残り時間（ミリ秒）
+        private final long remainingMillis;
+        // 総時間（ミリ秒）
+        private final long totalMillis;
+        // 公開時刻（System.nanoTime基準）
+        private final long publishedNanos;
+
+        Status(TimerService.State state, long remainingMillis, long totalMillis, long publishedNanos) {
+            this.state = state;
+            this.remainingMillis = remainingMillis;
+            this.totalMillis = totalMillis;
+            this.publishedNanos = publishedNanos;
+        }
+
+        /*
+         * 指定した時刻での状態を応答の1行にするメソッド
+         */
+        String format(String name, long nowNanos) {
+            long remaining = remainingMillis;
+            if (state == TimerService.State.RUNNING) {
+                remaining = Math.max(remainingMillis - TimeUnit.NANOSECONDS.toMillis(nowNanos - publishedNanos), 0);
+            }
+            return "OK " + name + " " + state + " " + remaining + " " + totalMillis;
+        }
+    }
+
+    /*
+     * デーモンが動かす1つのタイマー
+     * リセットや完了のたびにTimerServiceを作り直すため、世代ごとのリスナーで古いタイマーからの通知を無視する
+     */
+    private final class HostedTimer {
+
+        // タイマー名
+        private final String name;
+        // 現在のタイマー（タイマースレッドからも参照する）
+        private volatile TimerService service;
+        // タイマーを実行しているタスク
+        private Future<?> task;
+        // status に応答するための状態（タイマースレッドが書き込み、セレクターのスレッドが読む）
+        private volatile Status status;
+
+        HostedTimer(String name) {
+            this.name = name;
+            renew();
+        }
+
+        /*
+         * タイマーを開始または再開するメソッド
+         */
+        synchronized void start() {
+            if (service.getState() == TimerService.State.IDLE) {
+                // スレッドが動き出す前に届いたstopを取りこぼさず、応答にも開始後の状態を返すため、ここで開始する
+                service.beginNow();
+                task = timerExecutor.submit(service); // 新規開始
+            } else {
+                service.start(); // 一時停止中の場合は再開
+            }
+        }
+
+        /*
+         * タイマーを一時停止するメソッド
+         */
+        synchronized void pause() {
+            service.pause();
+        }
+
+        /*
+         * タイマーを止めて、開始前の状態に戻すメソッド
+         */
+        synchronized void reset() {
+            service.cancel(); // 完了を待っているFutureをキャンセル
+            if (task != null) {
+                task.cancel(true); // タイマースレッドを中断する
+                task = null;
+            }
+            renew();
+        }
+
+        /*
+         * 新しいTimerServiceを作成し、開始前の状態を公開するメソッド
+         */
+        private void renew() {
+            Generation generation = new Generation();
+            TimerService renewed = new TimerService(duration, generation);
+            generation.source = renewed;
+            service = renewed;
+            publish(renewed);
+        }
+
+        /*
+         * 現在の状態を status として公開するメソッド
+         */
+        private void publish(TimerService source) {
+            status = new Status(source.getState(), source.getRemainingMillis(),
+                    TimeUnit.SECONDS.toMillis(source.getTotalSeconds()), System.nanoTime());
+        }
+
+        /*
+         * 1つのTimerServiceからの通知を受け取るリスナー
+         * 状態が変わった時だけ通知を受け取れればよいので、tickは受け取らない
+         */
+        private final class Generation implements TimerListener {
+
+            // このリスナーを登録したタイマー
+            private TimerService source;
+
+            @Override
+            public void onTick(long remainingSeconds, long totalSeconds) {
+            }
+
+            @Override
+            public void onFinish() {
+                synchronized (HostedTimer.this) {
+                    if (service != source) {
+                        return; // リセット済みの古いタイマー
+                    }
+                    System.out.println("ポモドーロが完了しました: " + name);
+                    task = null;
+                    renew(); // 次のポモドーロに備えて開始前の状態に戻す
+                }
+            }
+
+            @Override
+            public void onStateChange() {
+                if (service == source) {
+                    publish(source);
+                }
+            }
+
+            @Override
+            public TickResolution tickResolution() {
+                return TickResolution.FINISH_ONLY;
+            }
+        }
+    }
+}
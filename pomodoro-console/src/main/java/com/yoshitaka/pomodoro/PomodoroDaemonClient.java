@@ -0,0 +1,77 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/*
+ * PomodoroDaemonにコマンドを送るクライアント
+ *
+ * 1つの接続で複数のコマンドを続けて送れるため、他のJavaプログラムやテストからデーモンを操作する場合に使用する。
+ * 端末から操作する場合は、JVMを起動しなくて済む bin/pomodoroctl を使う。
+ */
+public class PomodoroDaemonClient implements AutoCloseable {
+
+    // デーモンとの接続
+    private final SocketChannel channel;
+    // 応答の受信バッファ
+    private final ByteBuffer input = ByteBuffer.allocate(1024);
+
+    /*
+     * デーモンに接続するコンストラクタ
+     *
+     * @param socketPath デーモンのソケットファイルのパス
+     */
+    public PomodoroDaemonClient(Path socketPath) throws IOException {
+        this.channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+    }
+
+    /*
+     * クライアントのエントリーポイント
+     * 引数をコマンドとして送り、応答を表示する（例: start / status work）
+     *
+     * @param args コマンドとタイマー名
+     */
+    public static void main(String[] args) throws IOException {
+        Path socketPath = Path.of(System.getProperty(PomodoroDaemon.SOCKET_PROPERTY,
+                PomodoroDaemon.defaultSocketPath()));
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            System.out.println(client.send(String.join(" ", args)));
+        }
+    }
+
+    /*
+     * コマンドを1つ送り、応答を受け取るメソッド
+     *
+     * @param command コマンド（例: "start"、"status work"）
+     *
+     * @return 応答の1行（改行を含まない）
+     */
+    public String send(String command) throws IOException {
+        ByteBuffer request = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8));
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+        while (true) {
+            for (int i = 0; i < input.position(); i++) {
+                if (input.get(i) == '\n') {
+                    String line = new String(input.array(), 0, i, StandardCharsets.UTF_8);
+                    input.flip().position(i + 1);
+                    input.compact(); // 受け取った1行をバッファから取り除く
+                    return line;
+                }
+            }
+            if (channel.read(input) < 0) {
+                throw new IOException("デーモンが接続を閉じました");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,106 @@
+package com.yoshitaka.pomodoro;
+
+/**
+ * コンソール用の進捗バーを生成するユーティリティクラス
+ *
+ * このクラスは、タイマーの進捗を視覚的に表現するための
+ * テキストベースのプログレスバーを生成する
+ *
+ * 使用例：
+ * - 進捗率0.0の場合: "[------------------------------]"
+ * - 進捗率0.5の場合: "[###############---------------]"
+ * - 進捗率1.0の場合: "[##############################]"
+ */
+public class ProgressBar {
+
+    // プログレスバーの長さ（文字数）
+    private static final int BAR_LENGTH = 30;
+    // ブラケットを含めたプログレスバー全体の文字数
+    static final int WIDTH = BAR_LENGTH + 2;
+    // 1文字を分割する数（renderSmoothで、1文字を8分の1ずつ埋める）
+    private static final int STEPS_PER_CHAR = 8;
+    // 埋まっている部分の文字
+    private static final char FULL_BLOCK = '\u2588'; // █
+    // 1文字の途中まで埋まっている部分の文字（添え字が8分のいくつか。0は空白）
+    private static final char[] PARTIAL_BLOCKS = {
+            ' ', '\u258F', '\u258E', '\u258D', '\u258C', '\u258B', '\u258A', '\u2589' // ▏▎▍▌▋▊▉
+    };
+
+    /**
+     * 進捗率に基づいてプログレスバーの文字列を生成するメソッド
+     *
+     * このメソッドは、0.0から1.0の進捗率を受け取り、
+     * 完了部分を'#'、未完了部分を'-'で表現した
+     * プログレスバー文字列を返す
+     *
+     * @param progress 進捗率 (0.0 ~ 1.0)
+     *                 - 0.0: 開始時（0%完了）
+     *                 - 1.0: 完了時（100%完了）
+     * @return プログレスバーの文字列 (例: "[##########----------]")
+     */
+    public static String generate(double progress) {
+        char[] bar = new char[WIDTH];
+        render(progress, bar, 0); // プログレスバーを配列に書き込む
+        return new String(bar); // 完成したプログレスバー文字列を返す
+    }
+
+    /**
+     * 進捗率に基づいてプログレスバーを文字配列に直接書き込むメソッド
+     *
+     * generate と同じ内容を書き込むが、文字列を生成しないため、
+     * 高解像度モードのように頻繁に描画する場合に使用する
+     *
+     * @param progress 進捗率 (0.0 ~ 1.0、範囲外の値は切り詰める)
+     * @param buffer   書き込み先の配列
+     * @param offset   書き込みを開始する位置
+     * @return 書き込んだ後の位置 (offset + WIDTH)
+     */
+    static int render(double progress, char[] buffer, int offset) {
+        // 進捗率に基づいて、完了部分の文字数を計算
+        int completedChars = Math.max(0, Math.min(BAR_LENGTH, (int) (progress * BAR_LENGTH)));
+
+        int position = offset;
+        buffer[position++] = '[';
+        for (int i = 0; i < BAR_LENGTH; i++) {
+            buffer[position++] = (i < completedChars) ? '#' : '-'; // 完了部分を'#'、残り部分を'-'で埋める
+        }
+        buffer[position++] = ']'; // 終了ブラケットを追加する
+        return position;
+    }
+
+    /**
+     * 進捗率に基づいて、1文字の8分の1単位で埋まるプログレスバーを文字配列に直接書き込むメソッド
+     *
+     * 高解像度モード（100ミリ秒ごとの描画）で使用する。'#'のバーは1文字単位でしか進まず、
+     * 25分のタイマーでは50秒に1回しか動かないため、ブロック要素の文字（█ と ▏〜▉）で
+     * 1文字の途中までを表し、約6秒ごとに伸びるようにする。未完了部分は空白で表す
+     *
+     * 使用例：
+     * - 進捗率0.5の場合: "[███████████████               ]"
+     * - 進捗率0.525の場合: "[███████████████▊              ]"
+     *
+     * @param progress 進捗率 (0.0 ~ 1.0、範囲外の値は切り詰める)
+     * @param buffer   書き込み先の配列
+     * @param offset   書き込みを開始する位置
+     * @return 書き込んだ後の位置 (offset + WIDTH)
+     */
+    static int renderSmooth(double progress, char[] buffer, int offset) {
+        int totalSteps = BAR_LENGTH * STEPS_PER_CHAR;
+        int completedSteps = Math.max(0, Math.min(totalSteps, (int) (progress * totalSteps)));
+        int fullChars = completedSteps / STEPS_PER_CHAR;
+
+        int position = offset;
+        buffer[position++] = '[';
+        for (int i = 0; i < BAR_LENGTH; i++) {
+            if (i < fullChars) {
+                buffer[position++] = FULL_BLOCK;
+            } else if (i == fullChars) {
+                buffer[position++] = PARTIAL_BLOCKS[completedSteps % STEPS_PER_CHAR]; // 途中まで埋まっている1文字
+            } else {
+                buffer[position++] = ' ';
+            }
+        }
+        buffer[position++] = ']';
+        return position;
+    }
+}
@@ -0,0 +1,835 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * 完了したセッション（作業）を、タスク名・タグとともにファイルに保存し、タグや期間で検索・集計するクラス
+ *
+ * ディレクトリに以下のファイルを作成する（いずれも追記のみで、書き換えない）：
+ * - sessions.log : セッションの本体（開始・完了日時、集中した秒数、タスク名、タグID）
+ * - sessions.idx : 時刻インデックス（セッションIDごとに固定長24バイト：完了日時・sessions.logの位置・集中した秒数の累計）
+ * - tags.txt : タグの辞書（1行に1つ、行番号がタグID）
+ * - tags/<タグID>.ids : タグごとの転置インデックス（セッションIDの差分と集中した秒数を可変長整数で並べたもの）
+ *
+ * セッションIDは追加した順の連番で、完了日時の順にも並ぶ。そのため期間は時刻インデックスの二分探索でIDの範囲に変換でき、
+ * 期間全体の集中した時間は累計の差で求められる。タグの検索・集計はそのタグの転置インデックスだけを読めばよく、
+ * sessions.log を先頭から読むことはない（読むのは表示するセッションの本体だけ）。
+ *
+ * 書き込みは sessions.log → 転置インデックス → sessions.idx の順に行い、sessions.idx に書いた時点で確定とする。
+ * 途中で終了した場合は、次に開く時に確定していない末尾を切り詰める。書き込みに失敗した場合は、その場で書いた分を切り詰め、
+ * メモリ上の状態（件数・転置インデックスの長さなど）も進めない。同じディレクトリを複数のプロセスで同時に開くことはできない。
+ */
+public class SessionHistory implements AutoCloseable {
+
+    // 各ファイルの名前
+    private static final String LOG_FILE = "sessions.log";
+    private static final String INDEX_FILE = "sessions.idx";
+    private static final String TAGS_FILE = "tags.txt";
+    private static final String POSTINGS_DIR = "tags";
+    private static final String POSTINGS_SUFFIX = ".ids";
+    // 時刻インデックスの1件あたりのバイト数（完了日時・sessions.logの位置・集中した秒数の累計）
+    private static final int INDEX_ENTRY_BYTES = 24;
+    // 可変長整数の最大バイト数
+    private static final int MAX_VARINT_BYTES = 10;
+    // 転置インデックスの読み始めの位置を覚えておく間隔（件数）
+    private static final int SKIP_INTERVAL = 1024;
+
+    /*
+     * 保存された1件のセッション
+     */
+    public static final class Entry {
+
+        private final long id;
+        private final String task;
+        private final List<String> tags;
+        private final long startedAtMillis;
+        private final long finishedAtMillis;
+        private final long focusSeconds;
+
+        Entry(long id, String task, List<String> tags, long startedAtMillis, long finishedAtMillis,
+                long focusSeconds) {
+            this.id = id;
+            this.task = task;
+            this.tags = Collections.unmodifiableList(tags);
+            this.startedAtMillis = startedAtMillis;
+            this.finishedAtMillis = finishedAtMillis;
+            this.focusSeconds = focusSeconds;
+        }
+
+        // セッションID（追加した順の連番）
+        public long getId() {
+            return id;
+        }
+
+        // タスク名（指定しなかった場合は空文字列）
+        public String getTask() {
+            return task;
+        }
+
+        // タグ（先頭の#は含まない）
+        public List<String> getTags() {
+            return tags;
+        }
+
+        // 開始日時（エポックミリ秒）
+        public long getStartedAtMillis() {
+            return startedAtMillis;
+        }
+
+        // 完了日時（エポックミリ秒）
+        public long getFinishedAtMillis() {
+            return finishedAtMillis;
+        }
+
+        // 集中した秒数（一時停止していた時間は含まない）
+        public long getFocusSeconds() {
+            return focusSeconds;
+        }
+    }
+
+    // 保存先ディレクトリ
+    private final Path directory;
+    // セッションの本体
+    private final FileChannel log;
+    // 時刻インデックス
+    private final FileChannel index;
+    // タグの辞書
+    private final FileChannel tagsFile;
+    // タグIDごとの名前と転置インデックス
+    private final List<String> tagNames = new ArrayList<>();
+    private final List<Posting> postings = new ArrayList<>();
+    // タグの名前からタグIDを引くマップ
+    private final Map<String, Integer> tagIds = new HashMap<>();
+    // 時刻インデックスの読み書きに使う一時領域
+    private final ByteBuffer entryBuffer = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+
+    // 確定したセッションの数（次のセッションID）
+    private long count;
+    // sessions.log の確定した長さ
+    private long logSize;
+    // tags.txt の確定した長さ
+    private long tagsSize;
+    // 最後のセッションの、時刻インデックス上の完了日時
+    private long lastIndexedMillis = Long.MIN_VALUE;
+    // 最後のセッションまでの、集中した秒数の累計
+    private long cumulativeFocusSeconds;
+
+    /*
+     * 保存先ディレクトリを開くコンストラクタ（存在しない場合は作成する）
+     *
+     * @param directory 保存先ディレクトリ
+     */
+    public SessionHistory(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        Files.createDirectories(directory.resolve(POSTINGS_DIR));
+        this.index = open(directory.resolve(INDEX_FILE));
+        this.log = open(directory.resolve(LOG_FILE));
+        this.tagsFile = open(directory.resolve(TAGS_FILE));
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /*
+     * 確定していない末尾を切り詰め、タグの辞書と転置インデックスを読み込むメソッド
+     */
+    private void recover() throws IOException {
+        count = index.size() / INDEX_ENTRY_BYTES;
+        index.truncate(count * INDEX_ENTRY_BYTES); // 途中まで書かれたインデックス
+        if (count > 0) {
+            readEntry(count - 1);
+            lastIndexedMillis = entryBuffer.getLong(0);
+            long offset = entryBuffer.getLong(8);
+            cumulativeFocusSeconds = entryBuffer.getLong(16);
+            logSize = offset + Integer.BYTES + readInt(log, offset);
+        }
+        if (log.size() < logSize) {
+            throw new IOException(LOG_FILE + " is shorter than " + INDEX_FILE + ": " + log.size());
+        }
+        log.truncate(logSize); // インデックスに書く前に終了したセッション
+
+        byte[] tags = read(tagsFile, 0, (int) tagsSize(tagsFile));
+        int lineStart = 0;
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == '\n') {
+                String name = new String(tags, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                int id = tagNames.size();
+                tagNames.add(name);
+                tagIds.put(name, id);
+                postings.add(new Posting(postingFile(id), count));
+                lineStart = i + 1;
+            }
+        }
+        tagsSize = lineStart;
+        tagsFile.truncate(tagsSize); // 改行まで書かれていないタグ
+    }
+
+    /*
+     * 完了したセッションを追加するメソッド
+     *
+     * @param task タスク名（空文字列可）
+     *
+     * @param tags タグ（先頭の#は省略可。重複は1つにまとめる）
+     *
+     * @param startedAtMillis 開始日時（エポックミリ秒）
+     *
+     * @param finishedAtMillis 完了日時（エポックミリ秒）
+     *
+     * @param focusSeconds 集中した秒数
+     *
+     * @return 追加したセッションのID
+     */
+    public synchronized long append(String task, Collection<String> tags, long startedAtMillis,
+            long finishedAtMillis, long focusSeconds) throws IOException {
+        if (focusSeconds < 0) {
+            throw new IllegalArgumentException("focusSeconds must not be negative: " + focusSeconds);
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String tag : tags) {
+            names.add(normalizeTag(tag));
+        }
+        byte[] taskBytes = task.getBytes(StandardCharsets.UTF_8);
+        long id = count;
+
+        int[] ids = new int[names.size()];
+        int n = 0;
+        for (String name : names) {
+            ids[n++] = tagId(name);
+        }
+
+        // セッションの本体: [長さ][開始日時][完了日時][集中した秒数][タスク名の長さ][タスク名][タグの数][タグID...]
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + 2 * Long.BYTES
+                + (3 + ids.length) * MAX_VARINT_BYTES + taskBytes.length);
+        record.position(Integer.BYTES);
+        record.putLong(startedAtMillis).putLong(finishedAtMillis);
+        putVarint(record, focusSeconds);
+        putVarint(record, taskBytes.length);
+        record.put(taskBytes);
+        putVarint(record, ids.length);
+        for (int tagId : ids) {
+            putVarint(record, tagId);
+        }
+        record.putInt(0, record.position() - Integer.BYTES);
+        record.flip();
+        int recordBytes = record.remaining();
+        write(log, record, logSize);
+
+        // 完了日時が前のセッションより前になった場合（時計の巻き戻りなど）も、インデックス上は順に並べる
+        long indexedMillis = Math.max(finishedAtMillis, lastIndexedMillis);
+        int[] postingBytes = new int[ids.length];
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                postingBytes[i] = postings.get(ids[i]).append(id, focusSeconds);
+            }
+            entryBuffer.clear();
+            entryBuffer.putLong(indexedMillis).putLong(logSize).putLong(cumulativeFocusSeconds + focusSeconds);
+            entryBuffer.flip();
+            write(index, entryBuffer, id * INDEX_ENTRY_BYTES); // ここで確定
+        } catch (IOException | RuntimeException e) {
+            rollback(id, ids, e);
+            throw e;
+        }
+
+        // 全て書き終えてから、メモリ上の状態を進める
+        for (int i = 0; i < ids.length; i++) {
+            postings.get(ids[i]).commit(id, postingBytes[i]);
+        }
+        count++;
+        logSize += recordBytes;
+        lastIndexedMillis = indexedMillis;
+        cumulativeFocusSeconds += focusSeconds;
+        return id;
+    }
+
+    /*
+     * 追加に失敗したセッションの、転置インデックスと時刻インデックスに書いた分を切り詰めるメソッド
+     * 残しておくと、後から同じIDで追加したセッションと重なったり、開き直した時に確定したセッションとして読まれたりする
+     *
+     * @param id 追加に失敗したセッションのID
+     *
+     * @param ids 追加に失敗したセッションのタグID
+     *
+     * @param failure 追加に失敗した原因（切り詰めに失敗した場合は、その例外を追加する）
+     */
+    private void rollback(long id, int[] ids, Exception failure) {
+        try {
+            for (int tagId : ids) {
+                postings.get(tagId).rollback();
+            }
+            index.truncate(id * INDEX_ENTRY_BYTES);
+        } catch (IOException e) {
+            failure.addSuppressed(e); // 切り詰められなかった末尾は、次に開く時に切り詰める
+        }
+    }
+
+    /*
+     * 期間内に完了したセッションのIDを検索するメソッド
+     *
+     * @param tag タグ（nullの場合は全てのセッション）
+     *
+     * @param fromMillis 期間の開始（エポックミリ秒、含む）
+     *
+     * @param toMillis 期間の終了（エポックミリ秒、含まない）
+     *
+     * @return セッションID（古い順）
+     */
+    public synchronized long[] find(String tag, long fromMillis, long toMillis) throws IOException {
+        long lo = lowerBound(fromMillis);
+        long hi = Math.max(lo, lowerBound(toMillis));
+        if (tag == null) {
+            long[] ids = new long[Math.toIntExact(hi - lo)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = lo + i;
+            }
+            return ids;
+        }
+        Posting posting = posting(tag);
+        if (posting == null) {
+            return new long[0];
+        }
+        return posting.scan(lo, hi, Integer.MAX_VALUE).ids;
+    }
+
+    /*
+     * 期間内に完了したセッションのうち、新しいものから limit 件のIDを検索するメソッド
+     * 期間内の全てのIDを配列にしないため、件数の多い期間でも一覧の表示に必要な分だけで済む
+     *
+     * @param tag タグ（nullの場合は全てのセッション）
+     *
+     * @param fromMillis 期間の開始（エポックミリ秒、含む）
+     *
+     * @param toMillis 期間の終了（エポックミリ秒、含まない）
+     *
+     * @param limit 最大件数
+     *
+     * @return セッションID（古い順）
+     */
+    public synchronized long[] latest(String tag, long fromMillis, long toMillis, int limit) throws IOException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        long lo = lowerBound(fromMillis);
+        long hi = Math.max(lo, lowerBound(toMillis));
+        if (tag == null) {
+            long[] ids = new long[(int) Math.min(hi - lo, limit)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = hi - ids.length + i;
+            }
+            return ids;
+        }
+        Posting posting = posting(tag);
+        if (posting == null) {
+            return new long[0];
+        }
+        return posting.scan(lo, hi, limit).ids;
+    }
+
+    /*
+     * 期間内に完了したセッションの件数を取得するメソッド
+     *
+     * @param tag タグ（nullの場合は全てのセッション）
+     *
+     * @param fromMillis 期間の開始（エポックミリ秒、含む）
+     *
+     * @param toMillis 期間の終了（エポックミリ秒、含まない）
+     *
+     * @return 件数
+     */
+    public synchronized long count(String tag, long fromMillis, long toMillis) throws IOException {
+        long lo = lowerBound(fromMillis);
+        long hi = Math.max(lo, lowerBound(toMillis));
+        if (tag == null) {
+            return hi - lo; // IDの範囲の幅だけで求める
+        }
+        Posting posting = posting(tag);
+        return (posting != null) ? posting.scan(lo, hi, 0).count : 0;
+    }
+
+    /*
+     * 期間内に完了したセッションの、集中した秒数の合計を取得するメソッド
+     *
+     * @param tag タグ（nullの場合は全てのセッション）
+     *
+     * @param fromMillis 期間の開始（エポックミリ秒、含む）
+     *
+     * @param toMillis 期間の終了（エポックミリ秒、含まない）
+     *
+     * @return 集中した秒数の合計
+     */
+    public synchronized long focusSeconds(String tag, long fromMillis, long toMillis) throws IOException {
+        long lo = lowerBound(fromMillis);
+        long hi = Math.max(lo, lowerBound(toMillis));
+        if (tag == null) {
+            return cumulativeFocus(hi) - cumulativeFocus(lo); // 累計の差だけで求める
+        }
+        Posting posting = posting(tag);
+        return (posting != null) ? posting.scan(lo, hi, 0).focusSeconds : 0;
+    }
+
+    /*
+     * 期間内に完了したセッションの、タグごとの集中した秒数の合計を取得するメソッド
+     *
+     * @param fromMillis 期間の開始（エポックミリ秒、含む）
+     *
+     * @param toMillis 期間の終了（エポックミリ秒、含まない）
+     *
+     * @return タグごとの集中した秒数の合計（期間内にセッションがないタグは含まない。タグを追加した順）
+     */
+    public synchronized Map<String, Long> focusSecondsByTag(long fromMillis, long toMillis) throws IOException {
+        long lo = lowerBound(fromMillis);
+        long hi = Math.max(lo, lowerBound(toMillis));
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (int i = 0; i < postings.size(); i++) {
+            Scan scan = postings.get(i).scan(lo, hi, 0);
+            if (scan.count > 0) {
+                totals.put(tagNames.get(i), scan.focusSeconds);
+            }
+        }
+        return totals;
+    }
+
+    /*
+     * セッションを取得するメソッド
+     *
+     * @param id セッションID
+     *
+     * @return セッション
+     */
+    public synchronized Entry get(long id) throws IOException {
+        if (id < 0 || id >= count) {
+            throw new IllegalArgumentException("no such session: " + id);
+        }
+        readEntry(id);
+        long offset = entryBuffer.getLong(8);
+        ByteBuffer record = ByteBuffer.wrap(read(log, offset + Integer.BYTES, readInt(log, offset)));
+        long startedAt = record.getLong();
+        long finishedAt = record.getLong();
+        long focus = getVarint(record);
+        byte[] task = new byte[(int) getVarint(record)];
+        record.get(task);
+        int tagCount = (int) getVarint(record);
+        List<String> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(tagNames.get((int) getVarint(record)));
+        }
+        return new Entry(id, new String(task, StandardCharsets.UTF_8), tags, startedAt, finishedAt, focus);
+    }
+
+    /*
+     * 保存されたセッションの数を取得するメソッド
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /*
+     * 保存先ディレクトリを取得するメソッド
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /*
+     * タグの表記をそろえるメソッド（先頭の#を取り除く）
+     *
+     * @param tag タグ
+     *
+     * @return 先頭の#を除いたタグ
+     */
+    static String normalizeTag(String tag) {
+        String name = tag.startsWith("#") ? tag.substring(1) : tag;
+        if (name.isEmpty() || name.codePoints().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("invalid tag: '" + tag + "'");
+        }
+        return name;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Posting posting : postings) {
+            failure = closeQuietly(posting.channel, failure);
+        }
+        failure = closeQuietly(tagsFile, failure);
+        failure = closeQuietly(log, failure);
+        failure = closeQuietly(index, failure);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /*
+     * タグIDを取得するメソッド（初めてのタグは辞書に追加する）
+     */
+    private int tagId(String name) throws IOException {
+        Integer id = tagIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = tagNames.size();
+        Posting posting = new Posting(postingFile(newId), count); // 失敗した場合は、辞書に追加しない
+        byte[] line = (name + "\n").getBytes(StandardCharsets.UTF_8);
+        write(tagsFile, ByteBuffer.wrap(line), tagsSize);
+        tagsSize += line.length;
+        tagNames.add(name);
+        tagIds.put(name, newId);
+        postings.add(posting);
+        return newId;
+    }
+
+    /*
+     * タグの転置インデックスを取得するメソッド（存在しないタグの場合はnull）
+     */
+    private Posting posting(String tag) {
+        Integer id = tagIds.get(normalizeTag(tag));
+        return (id != null) ? postings.get(id) : null;
+    }
+
+    /*
+     * 完了日時が millis 以降の最初のセッションIDを、時刻インデックスの二分探索で求めるメソッド
+     */
+    private long lowerBound(long millis) throws IOException {
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            readEntry(mid);
+            if (entryBuffer.getLong(0) < millis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * 最初から id の直前のセッションまでの、集中した秒数の累計を取得するメソッド
+     */
+    private long cumulativeFocus(long id) throws IOException {
+        if (id == 0) {
+            return 0;
+        }
+        readEntry(id - 1);
+        return entryBuffer.getLong(16);
+    }
+
+    /*
+     * 時刻インデックスの1件を entryBuffer に読み込むメソッド
+     */
+    private void readEntry(long id) throws IOException {
+        entryBuffer.clear();
+        readFully(index, entryBuffer, id * INDEX_ENTRY_BYTES);
+    }
+
+    private Path postingFile(int tagId) {
+        return directory.resolve(POSTINGS_DIR).resolve(tagId + POSTINGS_SUFFIX);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static long tagsSize(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(TAGS_FILE + " is too large: " + size);
+        }
+        return size;
+    }
+
+    private static int readInt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, buffer, position);
+        return buffer.getInt(0);
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer, position);
+        return buffer.array();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("unexpected end of history file at " + position);
+            }
+            position += read;
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static IOException closeQuietly(FileChannel channel, IOException failure) {
+        if (channel == null) {
+            return failure;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                return e;
+            }
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    /*
+     * 0以上の整数を、7ビットずつ可変長で書き込むメソッド
+     */
+    static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /*
+     * 可変長で書き込んだ整数を読み込むメソッド
+     */
+    static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    /*
+     * 転置インデックスを読んだ結果（期間内の新しいセッションID・件数と、集中した秒数の合計）
+     */
+    private static final class Scan {
+
+        private static final Scan EMPTY = new Scan(new long[0], 0, 0);
+
+        private final long[] ids;
+        private final int count;
+        private final long focusSeconds;
+
+        Scan(long[] ids, int count, long focusSeconds) {
+            this.ids = ids;
+            this.count = count;
+            this.focusSeconds = focusSeconds;
+        }
+    }
+
+    /*
+     * 1つのタグの転置インデックス
+     * [前のIDとの差分][集中した秒数] を可変長整数で並べる。IDは昇順に追加されるため、差分は小さく1〜2バイトに収まることが多い
+     * 差分は先頭から順にしか復元できないため、SKIP_INTERVAL 件ごとに「直前のID・ファイル上の位置」をメモリに覚えておき、
+     * 期間を指定した検索では期間の直前の位置から読み始める（直近1か月などの検索で、古い部分を読まずに済む）
+     */
+    private static final class Posting {
+
+        // ファイル
+        private final Path file;
+        // 追記に使うチャネル（初めて追記する時に開く）
+        private FileChannel channel;
+        // 確定した長さ
+        private long size;
+        // 最後に追加したセッションID（まだない場合は-1）
+        private long lastId = -1;
+        // 追加したセッションの数
+        private int length;
+        // SKIP_INTERVAL 件ごとの、直前のセッションIDとファイル上の位置
+        private long[] skipIds = new long[8];
+        private long[] skipOffsets = new long[8];
+        private int skips;
+        // 追記に使う一時領域
+        private final ByteBuffer buffer = ByteBuffer.allocate(2 * MAX_VARINT_BYTES);
+
+        /*
+         * 転置インデックスを読み込み、確定していないセッションID（count以上）から後ろを切り詰めるコンストラクタ
+         */
+        Posting(Path file, long count) throws IOException {
+            this.file = file;
+            if (!Files.exists(file)) {
+                return;
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            long id = -1;
+            while (bytes.hasRemaining()) {
+                try {
+                    id += getVarint(bytes);
+                    getVarint(bytes);
+                } catch (RuntimeException e) {
+                    break; // 途中まで書かれた末尾
+                }
+                if (id >= count) {
+                    break; // sessions.idx に書く前に終了したセッション
+                }
+                skip(lastId, size);
+                lastId = id;
+                length++;
+                size = bytes.position();
+            }
+            if (size < bytes.limit()) {
+                try (FileChannel truncating = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    truncating.truncate(size);
+                }
+            }
+        }
+
+        /*
+         * セッションを確定した長さの後ろに書き込むメソッド（commit を呼ぶまでは、検索の対象にならない）
+         *
+         * @return 書き込んだバイト数
+         */
+        int append(long id, long focusSeconds) throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            buffer.clear();
+            putVarint(buffer, id - lastId);
+            putVarint(buffer, focusSeconds);
+            buffer.flip();
+            int bytes = buffer.remaining();
+            write(channel, buffer, size);
+            return bytes;
+        }
+
+        /*
+         * append で書き込んだセッションを確定するメソッド
+         *
+         * @param id 書き込んだセッションID
+         *
+         * @param bytes append で書き込んだバイト数
+         */
+        void commit(long id, int bytes) {
+            skip(lastId, size);
+            size += bytes;
+            lastId = id;
+            length++;
+        }
+
+        /*
+         * append で書き込んだ、確定していない末尾を切り詰めるメソッド
+         */
+        void rollback() throws IOException {
+            if (channel != null) {
+                channel.truncate(size);
+            }
+        }
+
+        /*
+         * 次に追加するセッションが SKIP_INTERVAL 件ごとの区切りであれば、読み始めの位置として覚えておくメソッド
+         *
+         * @param previousId 直前のセッションID
+         *
+         * @param offset 次に追加するセッションのファイル上の位置
+         */
+        private void skip(long previousId, long offset) {
+            if (length % SKIP_INTERVAL != 0) {
+                return;
+            }
+            if (skips == skipIds.length) {
+                skipIds = Arrays.copyOf(skipIds, skips * 2);
+                skipOffsets = Arrays.copyOf(skipOffsets, skips * 2);
+            }
+            skipIds[skips] = previousId;
+            skipOffsets[skips] = offset;
+            skips++;
+        }
+
+        /*
+         * セッションIDが [lo, hi) のセッションを読み出すメソッド
+         * ファイルは lo の直前の区切りから、hi 以降だけが続く最初の区切りまでを読む
+         *
+         * @param limit 結果に含めるIDの最大件数（新しいものから。件数と集中した秒数は全てを数える）
+         */
+        Scan scan(long lo, long hi, int limit) throws IOException {
+            if (length == 0 || lo >= hi || lastId < lo) {
+                return Scan.EMPTY;
+            }
+            // 直前のIDが lo より前の区切りのうち、最後のものから読み始める（最初の区切りは常に -1）
+            int from = 0;
+            int to = skips - 1;
+            while (from < to) {
+                int mid = (from + to + 1) >>> 1;
+                if (skipIds[mid] < lo) {
+                    from = mid;
+                } else {
+                    to = mid - 1;
+                }
+            }
+            // 直前のIDが hi - 1 以上の区切りのうち、最初のものの手前まで読む（その区切りから後ろは全て hi 以降）
+            int end = from + 1;
+            int last = skips;
+            while (end < last) {
+                int mid = (end + last) >>> 1;
+                if (skipIds[mid] >= hi - 1) {
+                    last = mid;
+                } else {
+                    end = mid + 1;
+                }
+            }
+            long offset = skipOffsets[from];
+            long endOffset = (end < skips) ? skipOffsets[end] : size;
+            ByteBuffer bytes;
+            try (FileChannel reading = FileChannel.open(file, StandardOpenOption.READ)) {
+                bytes = ByteBuffer.wrap(read(reading, offset, Math.toIntExact(endOffset - offset)));
+            }
+            // 新しいものから limit 件だけを、循環するバッファに残す
+            int capacity = (int) Math.min(Math.min(length - from * SKIP_INTERVAL, hi - lo), limit);
+            long[] ring = new long[capacity];
+            int found = 0;
+            long focus = 0;
+            long id = skipIds[from];
+            while (bytes.hasRemaining()) {
+                id += getVarint(bytes);
+                long seconds = getVarint(bytes);
+                if (id >= hi) {
+                    break;
+                }
+                if (id >= lo) {
+                    if (capacity > 0) {
+                        ring[found % capacity] = id;
+                    }
+                    found++;
+                    focus += seconds;
+                }
+            }
+            long[] ids = ring;
+            if (found < capacity) {
+                ids = Arrays.copyOf(ring, found);
+            } else if (found > capacity && capacity > 0) {
+                int head = found % capacity; // 最も古いID
+                ids = new long[capacity];
+                System.arraycopy(ring, head, ids, 0, capacity - head);
+                System.arraycopy(ring, 0, ids, capacity - head, head);
+            }
+            return new Scan(ids, found, focus);
+        }
+    }
+}
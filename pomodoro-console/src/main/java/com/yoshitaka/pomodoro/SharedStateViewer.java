@@ -0,0 +1,124 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 別プロセスのPomodoroAppが公開しているタイマーを表示・操作するビューアー
+ *
+ * 自分ではタイマーを動かさず、共有ファイル（SharedTimerState）をマップして状態を読むだけなので、
+ * 同じタイマーを複数のターミナルで開いても、表示がずれることはない。
+ * 入力した start / stop / reset はオーナーのプロセスに送られ、end でビューアーだけが終了する。
+ *
+ * 起動方法:
+ * java -Dpomodoro.shared.file=/tmp/pomodoro.shm -jar pomodoro-console/target/pomodoro-app.jar （オーナー）
+ * java -cp pomodoro-console/target/pomodoro-app.jar com.yoshitaka.pomodoro.SharedStateViewer /tmp/pomodoro.shm （ビューアー）
+ */
+public class SharedStateViewer implements Runnable {
+
+    // 画面を更新する間隔（ミリ秒）
+    private static final long REFRESH_INTERVAL_MILLIS = 100;
+
+    // 画面表示を管理するオブジェクト
+    private final Display display = new Display();
+    // オーナーが公開している共有領域
+    private final SharedTimerState sharedState;
+
+    // ビューアーの終了状態を管理する volatile 変数
+    private volatile boolean shouldExit = false;
+
+    /*
+     * コンストラクタ
+     *
+     * @param sharedState オーナーが公開している共有領域
+     */
+    public SharedStateViewer(SharedTimerState sharedState) {
+        this.sharedState = sharedState;
+    }
+
+    /*
+     * ビューアーのエントリーポイント
+     *
+     * @param args 共有ファイルのパス（省略時は pomodoro.shared.file プロパティの値）
+     */
+    public static void main(String[] args) throws IOException {
+        String path = (args.length > 0) ? args[0] : System.getProperty(PomodoroApp.SHARED_FILE_PROPERTY);
+        if (path == null) {
+            System.err.println("共有ファイルのパスを指定してください。");
+            return;
+        }
+        try (SharedTimerState sharedState = SharedTimerState.open(Path.of(path))) {
+            new SharedStateViewer(sharedState).run();
+        }
+    }
+
+    /*
+     * 入力スレッドを起動し、共有領域の状態を定期的に画面へ反映するメソッド
+     */
+    @Override
+    public void run() {
+        Thread inputThread = new Thread(() -> {
+            try (Scanner scanner = new Scanner(System.in)) {
+                while (!shouldExit && scanner.hasNextLine()) {
+                    handleCommand(scanner.nextLine().trim());
+                }
+            }
+        });
+        inputThread.setDaemon(true); // デーモンスレッドに設定（メインスレッド終了時に自動終了）
+        inputThread.start();
+
+        long renderedSequence = -1; // 最後に描画した時のシーケンス番号
+        long renderedSeconds = -1; // 最後に描画した残り秒数
+        TimerService.State renderedState = null; // 最後に描画した状態
+        while (!shouldExit) {
+            SharedTimerState.Snapshot snapshot = sharedState.read(); // システムコールなしで読み込む
+            long remainingSeconds = snapshot.remainingSeconds(System.currentTimeMillis());
+            if (snapshot.getState() == TimerService.State.IDLE) {
+                if (renderedState != TimerService.State.IDLE) {
+                    display.showMainMenu(); // 待機中はメインメニューを表示
+                }
+            } else {
+                if (renderedState == null || renderedState == TimerService.State.IDLE) {
+                    display.drawInitialTimerScreen(); // タイマー画面に切り替える
+                }
+                if (snapshot.getSequence() != renderedSequence || remainingSeconds != renderedSeconds) {
+                    display.updateTimerScreen(remainingSeconds, snapshot.getTotalSeconds(), snapshot.getState());
+                }
+            }
+            renderedState = snapshot.getState();
+            renderedSequence = snapshot.getSequence();
+            renderedSeconds = remainingSeconds;
+            try {
+                TimeUnit.MILLISECONDS.sleep(REFRESH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // 割り込みフラグを再設定
+                break;
+            }
+        }
+        System.out.print("\n");
+        System.out.println("ビューアーを終了しました。");
+    }
+
+    /*
+     * 入力されたコマンドをオーナーに送るメソッド
+     *
+     * @param command 入力されたコマンド文字列
+     */
+    private void handleCommand(String command) {
+        if (command.equals("end")) {
+            shouldExit = true; // ビューアーのみ終了する
+            return;
+        }
+        if (command.isEmpty()) {
+            return;
+        }
+        SharedTimerState.Command shared = SharedTimerState.Command.fromText(command);
+        if (shared == null) {
+            display.showInvalidCommand(command);
+        } else if (!sharedState.send(shared)) {
+            display.showInvalidCommand(command); // オーナーが応答していない（コマンドが溜まっている）
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * タイマーの状態を複数のプロセスで共有するための、メモリマップドファイル上の共有領域
+ *
+ * 1つのプロセス（オーナー）がタイマーを動かし、状態をファイルに公開する。
+ * 他のプロセス（ビューアー）は同じファイルをマップするだけで、システムコールなしに状態を読める。
+ *
+ * このクラスの特徴：
+ * 1. 状態はシーケンスロック（seqlock）方式で公開する
+ *    - 書き込み中はシーケンス番号が奇数になり、読み込み側は前後で番号が変わっていなければ採用する
+ *    - 読み込み側はロックを取らないため、何プロセスから読んでもオーナーを妨げない
+ * 2. 残り時間は「完了予定時刻（エポックミリ秒）」として公開し、ビューアー側で計算する
+ *    - tickごとに書き込む必要がなく、状態が変わった時だけ公開すればよい
+ * 3. ビューアーからのコマンド（start / stop / reset）は、同じ領域内の小さなリングバッファで送る
+ *
+ * レイアウト（各項目は8バイト）：
+ * 0: マジックナンバー / 8: シーケンス番号 / 16: 状態 / 24: 完了予定時刻 / 32: 残り時間（ミリ秒）
+ * 40: 総時間（秒） / 48: 公開時刻 / 56: オーナーのプロセスID
+ * 64: コマンドの書き込み位置 / 72: コマンドの読み出し位置 / 80〜: コマンドのスロット（シーケンス番号 + コマンド）
+ */
+public class SharedTimerState implements AutoCloseable {
+
+    /*
+     * ビューアーからオーナーに送るコマンド
+     */
+    public enum Command {
+        START("start"), STOP("stop"), RESET("reset");
+
+        // PomodoroApp.handleCommandに渡すコマンド文字列
+        private final String text;
+
+        Command(String text) {
+            this.text = text;
+        }
+
+        /*
+         * PomodoroApp.handleCommandに渡すコマンド文字列を取得するメソッド
+         */
+        public String getText() {
+            return text;
+        }
+
+        /*
+         * コマンド文字列からコマンドを取得するメソッド
+         *
+         * @return 対応するコマンド。該当しない場合はnull
+         */
+        public static Command fromText(String text) {
+            for (Command command : values()) {
+                if (command.text.equals(text)) {
+                    return command;
+                }
+            }
+            return null;
+        }
+    }
+
+    // ファイルの先頭に書き込むマジックナンバー（"POMOSHM" + レイアウトのバージョン1）
+    private static final long MAGIC = 0x504F4D4F53484D01L;
+    // 各項目のオフセット
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int STATE_OFFSET = 16;
+    private static final int DEADLINE_OFFSET = 24;
+    private static final int REMAINING_OFFSET = 32;
+    private static final int TOTAL_OFFSET = 40;
+    private static final int PUBLISHED_OFFSET = 48;
+    private static final int OWNER_PID_OFFSET = 56;
+    private static final int COMMAND_TAIL_OFFSET = 64;
+    private static final int COMMAND_HEAD_OFFSET = 72;
+    private static final int COMMAND_SLOTS_OFFSET = 80;
+    // コマンドのスロット数（2のべき乗）と1スロットの大きさ
+    private static final int COMMAND_SLOTS = 64;
+    private static final int COMMAND_SLOT_BYTES = 16;
+    // ファイルの大きさ（1ページ）
+    private static final int FILE_SIZE = 4096;
+    // マップした領域をlong単位でアトミックに読み書きするためのVarHandle
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    // 状態の配列（ordinalから引くため、values()の複製を避けてキャッシュする）
+    private static final TimerService.State[] STATES = TimerService.State.values();
+
+    // マップしたファイルの領域
+    private final MappedByteBuffer buffer;
+    // マップに使用したファイルチャネル
+    private final FileChannel channel;
+
+    private SharedTimerState(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /*
+     * オーナーとして共有ファイルを作成（または再初期化）するメソッド
+     * 既存のファイルがある場合も同じファイルを使い回すため、開いたままのビューアーにも新しい状態が見える
+     *
+     * @param path 共有ファイルのパス
+     *
+     * @return 共有領域
+     */
+    public static SharedTimerState create(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        SharedTimerState shared = new SharedTimerState(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                FILE_SIZE));
+        shared.initialize();
+        return shared;
+    }
+
+    /*
+     * ビューアーとして既存の共有ファイルを開くメソッド
+     *
+     * @param path 共有ファイルのパス
+     *
+     * @return 共有領域
+     */
+    public static SharedTimerState open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < FILE_SIZE) {
+            channel.close();
+            throw new IOException("not a shared timer file: " + path);
+        }
+        SharedTimerState shared = new SharedTimerState(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                FILE_SIZE));
+        if ((long) LONGS.getAcquire(shared.buffer, MAGIC_OFFSET) != MAGIC) {
+            shared.close();
+            throw new IOException("not a shared timer file: " + path);
+        }
+        return shared;
+    }
+
+    /*
+     * 共有領域を初期状態にするメソッド（オーナーのみ）
+     */
+    private void initialize() {
+        LONGS.setVolatile(buffer, MAGIC_OFFSET, 0L); // 初期化中はビューアーに使わせない
+        LONGS.setVolatile(buffer, COMMAND_TAIL_OFFSET, 0L);
+        LONGS.setVolatile(buffer, COMMAND_HEAD_OFFSET, 0L);
+        for (int i = 0; i < COMMAND_SLOTS; i++) {
+            LONGS.setVolatile(buffer, slotOffset(i), (long) i); // 全スロットを書き込み可能にする
+        }
+        LONGS.setVolatile(buffer, OWNER_PID_OFFSET, ProcessHandle.current().pid());
+        publish(TimerService.State.IDLE, 0, 0);
+        LONGS.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+    }
+
+    /*
+     * タイマーサービスの状態を共有領域に公開するリスナーを登録するメソッド（オーナーのみ）
+     * 登録した時点の状態もすぐに公開する
+     *
+     * @param service 公開するタイマーサービス
+     *
+     * @return 登録したリスナー
+     */
+    public TimerListener attach(TimerService service) {
+        TimerListener listener = new Publisher(service);
+        service.addListener(listener);
+        publish(service);
+        return listener;
+    }
+
+    /*
+     * タイマーサービスの現在の状態を公開するメソッド（オーナーのみ）
+     */
+    void publish(TimerService service) {
+        TimerService.State state = service.getState();
+        publish(state, service.getRemainingMillis(), service.getTotalSeconds());
+    }
+
+    /*
+     * 状態をシーケンスロック方式で書き込むメソッド（オーナーのみ）
+     * オーナーは1スレッドずつ書き込むよう、synchronizedで排他する
+     *
+     * @param state 状態
+     *
+     * @param remainingMillis 残り時間（ミリ秒）
+     *
+     * @param totalSeconds 総時間（秒）
+     */
+    synchronized void publish(TimerService.State state, long remainingMillis, long totalSeconds) {
+        long now = System.currentTimeMillis();
+        long sequence = (long) LONGS.getOpaque(buffer, SEQUENCE_OFFSET);
+        LONGS.setOpaque(buffer, SEQUENCE_OFFSET, sequence + 1); // 奇数: 書き込み中
+        VarHandle.storeStoreFence(); // 番号の更新より前に各項目が書き込まれないようにする
+        LONGS.set(buffer, STATE_OFFSET, (long) state.ordinal());
+        LONGS.set(buffer, DEADLINE_OFFSET, now + remainingMillis);
+        LONGS.set(buffer, REMAINING_OFFSET, remainingMillis);
+        LONGS.set(buffer, TOTAL_OFFSET, totalSeconds);
+        LONGS.set(buffer, PUBLISHED_OFFSET, now);
+        LONGS.setRelease(buffer, SEQUENCE_OFFSET, sequence + 2); // 偶数: 書き込み完了
+    }
+
+    /*
+     * 公開されている状態を読み込むメソッド（ビューアー）
+     * 書き込み中だった場合や、読み込み中に書き換えられた場合は読み直す
+     *
+     * @return 状態のスナップショット
+     */
+    public Snapshot read() {
+        while (true) {
+            long before = (long) LONGS.getAcquire(buffer, SEQUENCE_OFFSET);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait(); // 書き込み中
+                continue;
+            }
+            long state = (long) LONGS.get(buffer, STATE_OFFSET);
+            long deadline = (long) LONGS.get(buffer, DEADLINE_OFFSET);
+            long remaining = (long) LONGS.get(buffer, REMAINING_OFFSET);
+            long total = (long) LONGS.get(buffer, TOTAL_OFFSET);
+            VarHandle.loadLoadFence(); // 各項目を読んでから番号を読み直す
+            long after = (long) LONGS.getOpaque(buffer, SEQUENCE_OFFSET);
+            if (before == after && state >= 0 && state < STATES.length) {
+                return new Snapshot(before, STATES[(int) state], deadline, remaining, total);
+            }
+        }
+    }
+
+    /*
+     * オーナーのプロセスIDを取得するメソッド
+     */
+    public long getOwnerPid() {
+        return (long) LONGS.getAcquire(buffer, OWNER_PID_OFFSET);
+    }
+
+    /*
+     * オーナーにコマンドを送るメソッド（ビューアー、複数プロセスから同時に呼び出し可能）
+     *
+     * @param command 送るコマンド
+     *
+     * @return 送れた場合 true、リングバッファが満杯の場合 false
+     */
+    public boolean send(Command command) {
+        while (true) {
+            long position = (long) LONGS.getAcquire(buffer, COMMAND_TAIL_OFFSET);
+            int slot = slotOffset((int) (position & (COMMAND_SLOTS - 1)));
+            long sequence = (long) LONGS.getAcquire(buffer, slot);
+            long difference = sequence - position;
+            if (difference == 0) {
+                // スロットが空いているので、書き込み位置の確保を試みる
+                if (LONGS.compareAndSet(buffer, COMMAND_TAIL_OFFSET, position, position + 1)) {
+                    LONGS.set(buffer, slot + 8, (long) command.ordinal());
+                    LONGS.setRelease(buffer, slot, position + 1); // 読み出し可能にする
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // オーナーが読み出していない（満杯）
+            }
+            // 他のプロセスに先を越された場合は再試行
+        }
+    }
+
+    /*
+     * ビューアーから届いたコマンドを1つ取り出すメソッド（オーナーのみ）
+     *
+     * @return 届いたコマンド。ない場合はnull
+     */
+    public Command poll() {
+        long position = (long) LONGS.getOpaque(buffer, COMMAND_HEAD_OFFSET);
+        int slot = slotOffset((int) (position & (COMMAND_SLOTS - 1)));
+        if ((long) LONGS.getAcquire(buffer, slot) != position + 1) {
+            return null; // まだ書き込まれていない
+        }
+        long command = (long) LONGS.get(buffer, slot + 8);
+        LONGS.setRelease(buffer, slot, position + COMMAND_SLOTS); // 次の周回で書き込み可能にする
+        LONGS.setRelease(buffer, COMMAND_HEAD_OFFSET, position + 1);
+        Command[] commands = Command.values();
+        return (command >= 0 && command < commands.length) ? commands[(int) command] : null;
+    }
+
+    /*
+     * 共有ファイルを閉じるメソッド
+     * マップした領域はガベージコレクションで解放される
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+     * コマンドのスロットのオフセットを求めるメソッド
+     */
+    private static int slotOffset(int index) {
+        return COMMAND_SLOTS_OFFSET + index * COMMAND_SLOT_BYTES;
+    }
+
+    /*
+     * 共有領域から読み込んだ状態のスナップショット
+     */
+    public static final class Snapshot {
+
+        // 公開時のシーケンス番号（状態が変わったかどうかの判定に使用）
+        private final long sequence;
+        // 状態
+        private final TimerService.State state;
+        // 完了予定時刻（エポックミリ秒、RUNNING中のみ有効）
+        private final long deadlineEpochMillis;
+        // 公開時の残り時間（ミリ秒）
+        private final long remainingMillis;
+        // 総時間（秒）
+        private final long totalSeconds;
+
+        Snapshot(long sequence, TimerService.State state, long deadlineEpochMillis, long remainingMillis,
+                long totalSeconds) {
+            this.sequence = sequence;
+            this.state = state;
+            this.deadlineEpochMillis = deadlineEpochMillis;
+            this.remainingMillis = remainingMillis;
+            this.totalSeconds = totalSeconds;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public TimerService.State getState() {
+            return state;
+        }
+
+        public long getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        /*
+         * 指定した時刻での残り時間を計算するメソッド
+         * 実行中は完了予定時刻から計算し、それ以外は公開時の残り時間をそのまま返す
+         *
+         * @param nowEpochMillis 現在時刻（エポックミリ秒）
+         *
+         * @return 残り時間（ミリ秒）
+         */
+        public long remainingMillis(long nowEpochMillis) {
+            if (state == TimerService.State.RUNNING) {
+                return Math.max(deadlineEpochMillis - nowEpochMillis, 0);
+            }
+            return remainingMillis;
+        }
+
+        /*
+         * 指定した時刻での残り時間を秒単位で計算するメソッド（1秒未満は切り上げ）
+         */
+        public long remainingSeconds(long nowEpochMillis) {
+            return (remainingMillis(nowEpochMillis) + 999) / 1000;
+        }
+    }
+
+    /*
+     * タイマーサービスの状態変化を共有領域に公開するリスナー
+     * ビューアーは完了予定時刻から残り時間を計算するため、tickごとに公開する必要はない
+     */
+    private final class Publisher implements TimerListener {
+
+        // 公開するタイマーサービス
+        private final TimerService service;
+
+        Publisher(TimerService service) {
+            this.service = service;
+        }
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            // 完了予定時刻を公開済みのため、tickでは何もしない
+        }
+
+        @Override
+        public void onFinish() {
+            publish(TimerService.State.IDLE, 0, service.getTotalSeconds());
+        }
+
+        @Override
+        public void onStateChange() {
+            publish(service);
+        }
+
+        @Override
+        public TickResolution tickResolution() {
+            return TickResolution.FINISH_ONLY; // tickは不要
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * StateSyncServerから状態を受信し、カウントダウンを自分で計算するビューアー
+ *
+ * サーバーから届くのは状態変化とハートビートだけなので、残り時間は
+ * 「最後に受信したフレームの残り時間 − 受信してからの経過時間」で計算する。
+ * 古いシーケンス番号のフレーム（順序が入れ替わったもの）は無視する。
+ *
+ * 起動方法:
+ * java -Dpomodoro.sync.port=7070 -jar pomodoro-console/target/pomodoro-app.jar （サーバー）
+ * java -cp pomodoro-console/target/pomodoro-app.jar com.yoshitaka.pomodoro.StateSyncClient localhost 7070 （ビューアー）
+ */
+public class StateSyncClient implements Runnable, AutoCloseable {
+
+    // 画面を更新する間隔（ミリ秒）
+    private static final long REFRESH_INTERVAL_MILLIS = 100;
+
+    // サーバーとの接続
+    private final SocketChannel channel;
+    // 最後に受信したフレームと受信時刻
+    private volatile Received latest;
+    // 受信したフレームの数
+    private volatile long receivedFrames;
+
+    /*
+     * サーバーに接続するコンストラクタ
+     *
+     * @param address サーバーのアドレス
+     */
+    public StateSyncClient(InetSocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        this.channel.socket().setTcpNoDelay(true);
+    }
+
+    /*
+     * ビューアーのエントリーポイント
+     *
+     * @param args サーバーのホスト名とポート番号
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("サーバーのホスト名とポート番号を指定してください。");
+            return;
+        }
+        Display display = new Display();
+        try (StateSyncClient client = new StateSyncClient(new InetSocketAddress(args[0], Integer.parseInt(args[1])))) {
+            Thread receiver = new Thread(client, "state-sync-receiver");
+            receiver.setDaemon(true);
+            receiver.start();
+            TimerService.State renderedState = null; // 最後に描画した時の状態
+            long renderedSeconds = -1; // 最後に描画した残り秒数
+            while (receiver.isAlive()) {
+                TimerService.State state = client.getState();
+                long remainingSeconds = (client.getRemainingMillis() + 999) / 1000;
+                if (state == TimerService.State.IDLE) {
+                    if (renderedState != TimerService.State.IDLE) {
+                        display.showMainMenu(); // 待機中はメインメニューを表示
+                    }
+                } else if (state != null) {
+                    if (renderedState == null || renderedState == TimerService.State.IDLE) {
+                        display.drawInitialTimerScreen(); // タイマー画面に切り替える
+                    }
+                    if (state != renderedState || remainingSeconds != renderedSeconds) {
+                        display.updateTimerScreen(remainingSeconds, client.getTotalSeconds(), state);
+                    }
+                }
+                renderedState = state;
+                renderedSeconds = remainingSeconds;
+                try {
+                    TimeUnit.MILLISECONDS.sleep(REFRESH_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // 割り込みフラグを再設定
+                    break;
+                }
+            }
+        }
+        System.out.print("\n");
+        System.out.println("サーバーとの接続が終了しました。");
+    }
+
+    /*
+     * サーバーからフレームを受信し続けるメソッド（接続が閉じられるまで戻らない）
+     */
+    @Override
+    public void run() {
+        ByteBuffer buffer = ByteBuffer.allocate(StateSyncCodec.FRAME_BYTES * 64);
+        try {
+            while (channel.read(buffer) >= 0) {
+                long receivedNanos = System.nanoTime();
+                buffer.flip();
+                StateSyncCodec.Frame frame;
+                while ((frame = StateSyncCodec.decode(buffer)) != null) {
+                    apply(frame, receivedNanos);
+                }
+                buffer.compact(); // 途中までのフレームは次の受信まで残す
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 切断された、または形式の正しくないフレームを受信した
+        }
+    }
+
+    /*
+     * 受信したフレームを反映するメソッド
+     */
+    private void apply(StateSyncCodec.Frame frame, long receivedNanos) {
+        receivedFrames++;
+        Received current = latest;
+        if (current != null && frame.getSequence() < current.frame.getSequence()) {
+            return; // 古い状態のフレーム
+        }
+        latest = new Received(frame, receivedNanos);
+    }
+
+    /*
+     * 現在の状態を取得するメソッド
+     *
+     * @return 状態（まだ受信していない場合はnull）
+     */
+    public TimerService.State getState() {
+        Received current = latest;
+        return (current != null) ? current.frame.getState() : null;
+    }
+
+    /*
+     * 最後に受信したフレームから、現在の残り時間を計算するメソッド
+     *
+     * @return 残り時間（ミリ秒、まだ受信していない場合は0）
+     */
+    public long getRemainingMillis() {
+        Received current = latest;
+        if (current == null) {
+            return 0;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current.receivedNanos);
+        return current.frame.remainingMillisAfter(elapsedMillis);
+    }
+
+    /*
+     * 総時間を取得するメソッド
+     *
+     * @return 総時間（秒、まだ受信していない場合は0）
+     */
+    public long getTotalSeconds() {
+        Received current = latest;
+        return (current != null) ? current.frame.getTotalSeconds() : 0;
+    }
+
+    /*
+     * 最後に受信した状態のシーケンス番号を取得するメソッド
+     *
+     * @return シーケンス番号（まだ受信していない場合は-1）
+     */
+    public int getSequence() {
+        Received current = latest;
+        return (current != null) ? current.frame.getSequence() : -1;
+    }
+
+    /*
+     * 受信したフレームの数を取得するメソッド
+     */
+    public long getReceivedFrames() {
+        return receivedFrames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+     * 受信したフレームと受信時刻の組
+     */
+    private static final class Received {
+
+        private final StateSyncCodec.Frame frame;
+        private final long receivedNanos;
+
+        Received(StateSyncCodec.Frame frame, long receivedNanos) {
+            this.frame = frame;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.yoshitaka.pomodoro;
+
+import java.nio.ByteBuffer;
+
+/*
+ * リモートのビューアーにタイマーの状態を送るための、固定長のバイナリ形式
+ *
+ * tickごとに残り時間を送る代わりに、「状態」「残り時間（＝送信時点から見た完了予定時刻）」「総時間」
+ * 「シーケンス番号」を、状態が変わった時と定期的なハートビートの時だけ送る。
+ * 受信側は受信時刻と残り時間から完了予定時刻を求め、カウントダウンを自分で計算する。
+ * 完了予定時刻をエポックミリ秒ではなく送信時点からの残り時間で送るため、サーバーとクライアントの時計がずれていても
+ * 誤差は片道の通信時間だけで済む。
+ *
+ * フレーム（16バイト、ビッグエンディアン）：
+ * 0: マジックナンバー（2バイト） / 2: 種類（1バイト） / 3: 状態（1バイト） / 4: シーケンス番号（4バイト）
+ * 8: 残り時間（ミリ秒、4バイト） / 12: 総時間（秒、4バイト）
+ */
+public final class StateSyncCodec {
+
+    // 1フレームのバイト数
+    public static final int FRAME_BYTES = 16;
+    // フレームの先頭に書き込むマジックナンバー（"PS"）
+    private static final short MAGIC = 0x5053;
+    // 状態の配列（状態の番号から引くため、values()の複製を避けてキャッシュする）
+    private static final TimerService.State[] STATES = TimerService.State.values();
+
+    /*
+     * フレームの種類
+     */
+    public enum Type {
+        STATE, // 状態が変わった（シーケンス番号が増える）
+        HEARTBEAT // 定期的な再送（状態は変わっていない。残り時間のずれの補正と、途中から接続したクライアント用）
+    }
+
+    // 種類の配列
+    private static final Type[] TYPES = Type.values();
+
+    private StateSyncCodec() {
+    }
+
+    /*
+     * フレームをバッファに書き込むメソッド
+     *
+     * @param frame 書き込むフレーム
+     *
+     * @param buffer 書き込み先（FRAME_BYTES 以上の空きが必要）
+     */
+    public static void encode(Frame frame, ByteBuffer buffer) {
+        buffer.putShort(MAGIC);
+        buffer.put((byte) frame.type.ordinal());
+        buffer.put((byte) frame.state.ordinal());
+        buffer.putInt(frame.sequence);
+        buffer.putInt((int) Math.min(frame.remainingMillis, Integer.MAX_VALUE));
+        buffer.putInt((int) Math.min(frame.totalSeconds, Integer.MAX_VALUE));
+    }
+
+    /*
+     * バッファからフレームを1つ読み込むメソッド
+     *
+     * @param buffer 読み込み元
+     *
+     * @return 読み込んだフレーム。1フレーム分のデータが揃っていない場合はnull（バッファの位置は変わらない）
+     *
+     * @throws IllegalArgumentException フレームの形式が正しくない場合
+     */
+    public static Frame decode(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_BYTES) {
+            return null;
+        }
+        short magic = buffer.getShort();
+        int type = buffer.get();
+        int state = buffer.get();
+        int sequence = buffer.getInt();
+        int remainingMillis = buffer.getInt();
+        int totalSeconds = buffer.getInt();
+        if (magic != MAGIC || type < 0 || type >= TYPES.length || state < 0 || state >= STATES.length
+                || remainingMillis < 0 || totalSeconds < 0) {
+            throw new IllegalArgumentException("invalid state sync frame");
+        }
+        return new Frame(TYPES[type], STATES[state], sequence, remainingMillis, totalSeconds);
+    }
+
+    /*
+     * 1つのフレーム
+     */
+    public static final class Frame {
+
+        // 種類
+        private final Type type;
+        // 状態
+        private final TimerService.State state;
+        // シーケンス番号（状態が変わるたびに増える）
+        private final int sequence;
+        // 送信時点の残り時間（ミリ秒）
+        private final long remainingMillis;
+        // 総時間（秒）
+        private final long totalSeconds;
+
+        public Frame(Type type, TimerService.State state, int sequence, long remainingMillis, long totalSeconds) {
+            this.type = type;
+            this.state = state;
+            this.sequence = sequence;
+            this.remainingMillis = remainingMillis;
+            this.totalSeconds = totalSeconds;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public TimerService.State getState() {
+            return state;
+        }
+
+        public int getSequence() {
+            return sequence;
+        }
+
+        public long getRemainingMillis() {
+            return remainingMillis;
+        }
+
+        public long getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        /*
+         * 受信してから経過した時間をもとに、現在の残り時間を計算するメソッド
+         * 実行中は受信時の残り時間から経過時間を引き、それ以外は受信時の残り時間をそのまま返す
+         *
+         * @param elapsedMillis 受信してから経過した時間（ミリ秒）
+         *
+         * @return 残り時間（ミリ秒）
+         */
+        public long remainingMillisAfter(long elapsedMillis) {
+            if (state == TimerService.State.RUNNING) {
+                return Math.max(remainingMillis - elapsedMillis, 0);
+            }
+            return remainingMillis;
+        }
+    }
+}
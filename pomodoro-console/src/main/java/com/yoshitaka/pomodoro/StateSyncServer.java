@@ -0,0 +1,254 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * タイマーの状態をTCPでリモートのビューアー（StateSyncClient）に配信するサーバー
+ *
+ * tickごとに送るのではなく、状態が変わった時と、一定間隔のハートビートの時だけ
+ * StateSyncCodecのフレーム（16バイト）を送る。ビューアーはフレームからカウントダウンを自分で計算する。
+ * 25分のセッションで送るフレームは、1秒ごとに送る場合の約1500件に対して、ハートビートが30秒間隔なら約50件になる。
+ *
+ * 送信は1つの送信スレッドで行い、タイマースレッドは送信を依頼するだけで待たない。
+ * 受信が追いつかず、送信バッファが一杯になったクライアントは切断する。
+ */
+public class StateSyncServer implements AutoCloseable {
+
+    // ハートビートの間隔のデフォルト値（ミリ秒）
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 30_000;
+
+    // 接続を受け付けるサーバーソケット
+    private final ServerSocketChannel server;
+    // 接続中のクライアント
+    private final CopyOnWriteArrayList<SocketChannel> clients = new CopyOnWriteArrayList<>();
+    // フレームを送信するスレッド（ハートビートの送信も行う）
+    private final ScheduledExecutorService sender;
+    // 接続を受け付けるスレッド
+    private final Thread acceptor;
+    // 送信用のバッファ（送信スレッドのみが使用する）
+    private final ByteBuffer frameBuffer = ByteBuffer.allocate(StateSyncCodec.FRAME_BYTES);
+    // 送信したフレームの数（クライアントごとに数える）
+    private final AtomicLong sentFrames = new AtomicLong();
+
+    // 配信するタイマーサービス（未登録の場合はnull）
+    private volatile TimerService service;
+    // 状態が変わるたびに増えるシーケンス番号
+    private volatile int sequence;
+
+    /*
+     * サーバーを起動するコンストラクタ
+     *
+     * @param address 待ち受けるアドレス（ポート番号0の場合は空いているポートを使用する）
+     *
+     * @param heartbeatMillis ハートビートの間隔（ミリ秒）
+     */
+    public StateSyncServer(InetSocketAddress address, long heartbeatMillis) throws IOException {
+        this.server = ServerSocketChannel.open();
+        this.server.bind(address);
+        this.sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-sync-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender.scheduleAtFixedRate(() -> broadcast(StateSyncCodec.Type.HEARTBEAT), heartbeatMillis,
+                heartbeatMillis, TimeUnit.MILLISECONDS);
+        this.acceptor = new Thread(this::acceptLoop, "state-sync-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /*
+     * 待ち受けているポート番号を取得するメソッド
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1; // 既に閉じている
+        }
+    }
+
+    /*
+     * 配信するタイマーサービスを登録するメソッド
+     * リセットでタイマーサービスを作り直した場合は、新しいタイマーサービスで再度呼び出す
+     *
+     * @param service 配信するタイマーサービス
+     *
+     * @return 登録したリスナー（配信をやめる場合にremoveListenerに渡す）
+     */
+    public TimerListener attach(TimerService service) {
+        this.service = service;
+        TimerListener listener = new Publisher(service);
+        service.addListener(listener);
+        publish();
+        return listener;
+    }
+
+    /*
+     * 状態が変わったことを全てのクライアントに配信するメソッド
+     * コマンドのスレッドとタイマースレッドの両方から呼ばれるため、シーケンス番号の更新を排他する
+     */
+    synchronized void publish() {
+        sequence++;
+        try {
+            sender.execute(() -> broadcast(StateSyncCodec.Type.STATE));
+        } catch (RejectedExecutionException e) {
+            // 既に閉じている
+        }
+    }
+
+    /*
+     * 送信したフレームの数を取得するメソッド（クライアントごとに数える）
+     */
+    public long getSentFrames() {
+        return sentFrames.get();
+    }
+
+    /*
+     * 送信したバイト数を取得するメソッド
+     */
+    public long getSentBytes() {
+        return sentFrames.get() * StateSyncCodec.FRAME_BYTES;
+    }
+
+    /*
+     * 接続中のクライアントの数を取得するメソッド
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sender.shutdownNow();
+        server.close(); // 受け付けスレッドも終了する
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        clients.clear();
+    }
+
+    /*
+     * 接続を受け付け、現在の状態を送ってから配信先に加えるメソッド（受け付けスレッドで実行する）
+     */
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel client = server.accept();
+                client.configureBlocking(false);
+                client.socket().setTcpNoDelay(true);
+                sender.execute(() -> {
+                    if (send(client, currentFrame(StateSyncCodec.Type.STATE))) {
+                        clients.add(client); // 最初の状態を送ってから配信先に加える
+                    }
+                });
+            } catch (IOException | RejectedExecutionException e) {
+                return; // サーバーソケットが閉じられた
+            }
+        }
+    }
+
+    /*
+     * 現在の状態を全てのクライアントに送るメソッド（送信スレッドで実行する）
+     */
+    private void broadcast(StateSyncCodec.Type type) {
+        StateSyncCodec.Frame frame = currentFrame(type);
+        if (frame == null) {
+            return;
+        }
+        for (SocketChannel client : clients) {
+            if (!send(client, frame)) {
+                clients.remove(client);
+            }
+        }
+    }
+
+    /*
+     * 1つのクライアントにフレームを送るメソッド（送信スレッドで実行する）
+     *
+     * @return 送信できた場合 true。切断された、または送信バッファが一杯の場合は接続を閉じて false
+     */
+    private boolean send(SocketChannel client, StateSyncCodec.Frame frame) {
+        if (frame == null) {
+            return true; // まだタイマーが登録されていない（登録時に配信する）
+        }
+        frameBuffer.clear();
+        StateSyncCodec.encode(frame, frameBuffer);
+        frameBuffer.flip();
+        try {
+            client.write(frameBuffer);
+            if (frameBuffer.hasRemaining()) {
+                client.close(); // 受信が追いついていない
+                return false;
+            }
+            sentFrames.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            try {
+                client.close();
+            } catch (IOException ignored) {
+                // 既に切断されている
+            }
+            return false;
+        }
+    }
+
+    /*
+     * 送信時点の状態からフレームを作るメソッド
+     */
+    private StateSyncCodec.Frame currentFrame(StateSyncCodec.Type type) {
+        TimerService current = service;
+        if (current == null) {
+            return null;
+        }
+        return new StateSyncCodec.Frame(type, current.getState(), sequence, current.getRemainingMillis(),
+                current.getTotalSeconds());
+    }
+
+    /*
+     * タイマーサービスの状態変化を配信するリスナー
+     */
+    private final class Publisher implements TimerListener {
+
+        // 配信するタイマーサービス
+        private final TimerService source;
+
+        Publisher(TimerService source) {
+            this.source = source;
+        }
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            // 残り時間はクライアントが計算するため、tickでは何も送らない
+        }
+
+        @Override
+        public void onFinish() {
+            if (service == source) {
+                publish();
+            }
+        }
+
+        @Override
+        public void onStateChange() {
+            if (service == source) {
+                publish();
+            }
+        }
+
+        @Override
+        public TickResolution tickResolution() {
+            return TickResolution.FINISH_ONLY; // tickは不要
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * タイマーイベント（tick・開始・一時停止・再開・完了）をJSONLファイルへ書き出すクラス
+ *
+ * TimerListenerのコールバック内で直接ファイルに書き込むと、タイマースレッドが
+ * ディスクI/Oで止まってしまう。そこで、このクラスでは以下の構成をとる：
+ * 1. タイマースレッドはロックフリーのリングバッファにイベントを積むだけ
+ * 2. バックグラウンドの書き出しスレッドがまとめて取り出し、JSONL形式で書き込む
+ * 3. 一定サイズを超えたらファイルをローテーションする（gzip圧縮も選択可能）
+ * 4. 一定間隔でフラッシュし、書き込んだ内容をディスクに反映する
+ *
+ * バッファが満杯の場合、イベントは破棄されて破棄件数がカウントされる
+ * （タイマースレッドを待たせないことを優先するため）
+ */
+public class TimerEventExporter implements AutoCloseable {
+
+    /*
+     * 書き出すイベントの種類
+     */
+    public enum EventType {
+        START("start"), // タイマー開始
+        TICK("tick"), // 1秒経過
+        PAUSE("pause"), // 一時停止
+        RESUME("resume"), // 再開
+        FINISH("finish"); // 完了
+
+        // JSONに書き出す名前（ASCIIのバイト列）
+        private final byte[] jsonName;
+
+        EventType(String jsonName) {
+            this.jsonName = jsonName.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // デフォルトのリングバッファのスロット数
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    // デフォルトのローテーションサイズ（64MB）
+    private static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    // デフォルトのフラッシュ間隔（ミリ秒）
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    // 1回の取り出しで処理する最大イベント数
+    private static final int BATCH_SIZE = 4096;
+    // イベントがない時の待機時間の下限と上限（ナノ秒）
+    private static final long MIN_IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // イベント種別の配列（ordinalから引くため、values()の複製を避けてキャッシュする）
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    // JSONの各項目の区切り部分（ASCIIのバイト列）
+    private static final byte[] TS_PREFIX = "{\"ts\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SESSION_PREFIX = ",\"session\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TYPE_PREFIX = ",\"type\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REMAINING_PREFIX = "\",\"remaining\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOTAL_PREFIX = ",\"total\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LINE_SUFFIX = "}\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    // 出力先ディレクトリ
+    private final Path directory;
+    // 1ファイルあたりの最大バイト数（超えたらローテーション）
+    private final long maxFileBytes;
+    // gzip圧縮するかどうか
+    private final boolean gzip;
+    // フラッシュ間隔（ナノ秒）
+    private final long flushIntervalNanos;
+    // タイマースレッドと書き出しスレッドの間でイベントを受け渡すバッファ
+    private final TimerEventRing ring;
+    // バックグラウンドで書き込みを行うスレッド
+    private final Thread writerThread;
+    // 書き出し済みのイベント数
+    private final AtomicLong exportedCount = new AtomicLong();
+    // バッファ満杯で破棄したイベント数
+    private final AtomicLong droppedCount = new AtomicLong();
+    // 1行分のJSONを組み立てるためのバッファ（書き出しスレッド専用）
+    private final byte[] line = new byte[256];
+    // 整数を文字に変換するための一時領域（書き出しスレッド専用）
+    private final byte[] digitBuffer = new byte[20];
+    // リングバッファから取り出したイベントを書き出すコールバック（ループごとの生成を避けるため保持する）
+    private final TimerEventRing.EventConsumer eventWriter = this::writeEvent;
+
+    // 終了要求フラグ
+    private volatile boolean closed = false;
+    // 書き出しスレッドで発生した例外（close時に呼び出し元へ伝える）
+    private volatile IOException failure;
+
+    // 現在書き込み中のファイル
+    private OutputStream out;
+    // 現在のファイルに書き込んだバイト数
+    private long currentFileBytes;
+    // ファイル名の連番
+    private int fileIndex;
+    // 最後にフラッシュした時刻
+    private long lastFlushNanos;
+    // 前回のフラッシュ以降に書き込みがあったかどうか
+    private boolean dirty;
+
+    /*
+     * デフォルト設定でエクスポーターを作成するコンストラクタ
+     *
+     * @param directory 出力先ディレクトリ
+     */
+    public TimerEventExporter(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_FILE_BYTES, false, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_CAPACITY);
+    }
+
+    /*
+     * 設定を指定してエクスポーターを作成するコンストラクタ
+     *
+     * @param directory 出力先ディレクトリ
+     *
+     * @param maxFileBytes 1ファイルあたりの最大バイト数
+     *
+     * @param gzip trueの場合、gzip圧縮して書き出す
+     *
+     * @param flushIntervalMillis フラッシュ間隔（ミリ秒）
+     *
+     * @param capacity リングバッファのスロット数
+     */
+    public TimerEventExporter(Path directory, long maxFileBytes, boolean gzip, long flushIntervalMillis,
+            int capacity) throws IOException {
+        if (maxFileBytes <= 0) {
+            throw new IllegalArgumentException("maxFileBytes must be positive: " + maxFileBytes);
+        }
+        this.directory = Files.createDirectories(directory); // 出力先ディレクトリを作成
+        this.maxFileBytes = maxFileBytes;
+        this.gzip = gzip;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.ring = new TimerEventRing(capacity);
+        this.writerThread = new Thread(this::writeLoop, "timer-event-exporter");
+        this.writerThread.setDaemon(true); // アプリケーションの終了を妨げない
+        this.writerThread.start();
+    }
+
+    /*
+     * タイマーサービスにイベント書き出し用のリスナーを登録するメソッド
+     *
+     * @param service 監視するタイマーサービス
+     *
+     * @param sessionId JSONに書き出すセッションID
+     *
+     * @return 登録したリスナー（removeListenerで解除する場合に使用）
+     */
+    public TimerListener attach(TimerService service, long sessionId) {
+        TimerListener listener = new SessionListener(service, sessionId);
+        service.addListener(listener);
+        return listener;
+    }
+
+    /*
+     * イベントを1件バッファに積むメソッド
+     * どのスレッドからでも呼び出せ、ブロックしない
+     *
+     * @return バッファに積めた場合 true、満杯で破棄した場合 false
+     */
+    public boolean publish(EventType type, long sessionId, long remainingSeconds, long totalSeconds) {
+        if (ring.offer(type.ordinal(), sessionId, System.currentTimeMillis(), remainingSeconds, totalSeconds)) {
+            return true;
+        }
+        droppedCount.incrementAndGet(); // 満杯のため破棄
+        return false;
+    }
+
+    /*
+     * 書き出し済みのイベント数を取得するメソッド
+     */
+    public long getExportedCount() {
+        return exportedCount.get();
+    }
+
+    /*
+     * バッファ満杯で破棄されたイベント数を取得するメソッド
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /*
+     * 残っているイベントをすべて書き出してから、エクスポーターを終了するメソッド
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread); // 待機中の書き出しスレッドを起こす
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 割り込みフラグを再設定
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /*
+     * 書き出しスレッドのメインループ
+     * イベントがあればまとめて書き出し、なければ徐々に待機時間を延ばしながら待つ
+     */
+    private void writeLoop() {
+        long idleNanos = MIN_IDLE_NANOS;
+        lastFlushNanos = System.nanoTime();
+        try {
+            while (true) {
+                boolean closing = closed; // 取り出し前に終了要求を確認（取りこぼし防止）
+                int drained = ring.drain(eventWriter, BATCH_SIZE);
+                exportedCount.addAndGet(drained);
+                long now = System.nanoTime();
+                if (dirty && now - lastFlushNanos >= flushIntervalNanos) {
+                    out.flush(); // フラッシュ間隔が経過したらディスクに反映
+                    dirty = false;
+                    lastFlushNanos = now;
+                }
+                if (drained > 0) {
+                    idleNanos = MIN_IDLE_NANOS; // イベントがあった場合は待機時間をリセット
+                    continue;
+                }
+                if (closing) {
+                    break; // 終了要求後にバッファが空になったら終了
+                }
+                LockSupport.parkNanos(idleNanos);
+                idleNanos = Math.min(idleNanos * 2, MAX_IDLE_NANOS); // 待機時間を延ばす
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (UncheckedIOException e) {
+            failure = e.getCause();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    /*
+     * イベント1件をJSONの1行として書き出すメソッド（書き出しスレッド専用）
+     * 文字列を経由せず、ASCIIのバイト列として直接組み立てる
+     */
+    private void writeEvent(int type, long sessionId, long timestamp, long remainingSeconds, long totalSeconds) {
+        int length = 0;
+        length = appendBytes(TS_PREFIX, length);
+        length = appendLong(timestamp, length);
+        length = appendBytes(SESSION_PREFIX, length);
+        length = appendLong(sessionId, length);
+        length = appendBytes(TYPE_PREFIX, length);
+        length = appendBytes(EVENT_TYPES[type].jsonName, length);
+        length = appendBytes(REMAINING_PREFIX, length);
+        length = appendLong(remainingSeconds, length);
+        length = appendBytes(TOTAL_PREFIX, length);
+        length = appendLong(totalSeconds, length);
+        length = appendBytes(LINE_SUFFIX, length);
+        try {
+            if (out == null || currentFileBytes + length > maxFileBytes) {
+                rotate(); // ファイルがまだないか、サイズ上限を超える場合は次のファイルへ
+            }
+            out.write(line, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // コールバックからは検査例外を投げられないため包む
+        }
+        currentFileBytes += length;
+        dirty = true;
+    }
+
+    /*
+     * 行バッファにバイト列を追加するメソッド
+     *
+     * @return 追加後の行の長さ
+     */
+    private int appendBytes(byte[] bytes, int length) {
+        System.arraycopy(bytes, 0, line, length, bytes.length);
+        return length + bytes.length;
+    }
+
+    /*
+     * 行バッファに整数を10進数の文字として追加するメソッド
+     *
+     * @return 追加後の行の長さ
+     */
+    private int appendLong(long value, int length) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return appendBytes(LONG_MIN_VALUE, length);
+            }
+            line[length++] = '-';
+            value = -value;
+        }
+        // 下の桁から一時領域に書き、逆順にコピーする
+        int digits = 0;
+        do {
+            digitBuffer[digits++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        while (digits > 0) {
+            line[length++] = digitBuffer[--digits];
+        }
+        return length;
+    }
+
+    /*
+     * 現在のファイルを閉じて、新しいファイルを開くメソッド
+     */
+    private void rotate() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        String fileName = String.format("timer-events-%d-%05d.jsonl%s", System.currentTimeMillis(), fileIndex++,
+                gzip ? ".gz" : "");
+        OutputStream file = Files.newOutputStream(directory.resolve(fileName));
+        if (gzip) {
+            // syncFlushを有効にして、flushした内容をすぐに読めるようにする
+            // 書き出しが圧縮処理に律速されないよう、圧縮レベルは速度優先にする
+            GZIPOutputStream compressed = new GZIPOutputStream(file, 1 << 16, true) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+            out = new BufferedOutputStream(compressed, 1 << 16);
+        } else {
+            out = new BufferedOutputStream(file, 1 << 16);
+        }
+        currentFileBytes = 0;
+    }
+
+    /*
+     * 現在のファイルを閉じるメソッド
+     */
+    private void closeWriter() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        out = null;
+    }
+
+    /*
+     * タイマーサービス1つ分のイベントをバッファに積むリスナー
+     * onStateChangeには引数がないため、サービスの状態と前回の状態から開始・一時停止・再開を判別する
+     */
+    private final class SessionListener implements TimerListener {
+
+        // 監視対象のタイマーサービス
+        private final TimerService service;
+        // セッションID
+        private final long sessionId;
+        // 前回通知時の状態
+        private volatile TimerService.State lastState = TimerService.State.IDLE;
+
+        SessionListener(TimerService service, long sessionId) {
+            this.service = service;
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            publish(EventType.TICK, sessionId, remainingSeconds, totalSeconds);
+        }
+
+        @Override
+        public void onFinish() {
+            lastState = TimerService.State.IDLE;
+            publish(EventType.FINISH, sessionId, 0, service.getTotalSeconds());
+        }
+
+        @Override
+        public void onStateChange() {
+            TimerService.State state = service.getState();
+            EventType type;
+            if (state == TimerService.State.PAUSED) {
+                type = EventType.PAUSE;
+            } else if (state == TimerService.State.RUNNING) {
+                type = (lastState == TimerService.State.PAUSED) ? EventType.RESUME : EventType.START;
+            } else {
+                return; // IDLEへの変化は完了通知で扱う
+            }
+            lastState = state;
+            publish(type, sessionId, service.getRemainingSeconds(), service.getTotalSeconds());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.yoshitaka.pomodoro;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * タイマーイベントを受け渡すためのロックフリーなリングバッファ
+ * 複数のスレッド（タイマースレッド・入力スレッド）から書き込み、
+ * 1つの書き出しスレッドがまとめて読み出す（MPSC: Multi Producer Single Consumer）
+ *
+ * このクラスの特徴：
+ * 1. イベントをオブジェクトではなくプリミティブ配列に格納するため、書き込み時にメモリ確保が発生しない
+ * 2. 各スロットのシーケンス番号で「書き込み済み」「読み出し済み」を判定する（Vyukov方式）
+ * 3. 満杯の場合は待たずに false を返す（タイマースレッドを止めないため）
+ */
+final class TimerEventRing {
+
+    /*
+     * リングバッファから取り出したイベントを受け取るためのコールバック
+     */
+    interface EventConsumer {
+        void accept(int type, long sessionId, long timestamp, long remainingSeconds, long totalSeconds);
+    }
+
+    // スロット数（2のべき乗）
+    private final int capacity;
+    // インデックス計算用のマスク（capacity - 1）
+    private final int mask;
+    // 各スロットのシーケンス番号（書き込み可能・読み出し可能の判定に使用）
+    private final AtomicLongArray sequences;
+    // イベントの各項目を格納する配列
+    private final int[] types;
+    private final long[] sessionIds;
+    private final long[] timestamps;
+    private final long[] remainings;
+    private final long[] totals;
+    // 次に書き込む位置（複数スレッドからCASで更新）
+    private final AtomicLong tail = new AtomicLong();
+    // 次に読み出す位置（読み出しスレッドのみが更新）
+    private long head;
+
+    /*
+     * コンストラクタ
+     *
+     * @param requestedCapacity 希望するスロット数（2のべき乗に切り上げる）
+     */
+    TimerEventRing(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2: " + requestedCapacity);
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1; // 2のべき乗に切り上げ
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i); // 初期状態では全スロットが書き込み可能
+        }
+        this.types = new int[capacity];
+        this.sessionIds = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.remainings = new long[capacity];
+        this.totals = new long[capacity];
+    }
+
+    /*
+     * イベントを1件書き込むメソッド（複数スレッドから呼び出し可能）
+     *
+     * @return 書き込めた場合 true、バッファが満杯の場合 false
+     */
+    boolean offer(int type, long sessionId, long timestamp, long remainingSeconds, long totalSeconds) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long sequence = sequences.getAcquire(index);
+            long difference = sequence - position;
+            if (difference == 0) {
+                // スロットが空いているので、書き込み位置の確保を試みる
+                if (tail.compareAndSet(position, position + 1)) {
+                    types[index] = type;
+                    sessionIds[index] = sessionId;
+                    timestamps[index] = timestamp;
+                    remainings[index] = remainingSeconds;
+                    totals[index] = totalSeconds;
+                    sequences.setRelease(index, position + 1); // 読み出し可能にする
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // 読み出しが追いついていない（満杯）
+            }
+            // 他のスレッドに先を越された場合は再試行
+        }
+    }
+
+    /*
+     * 溜まっているイベントを最大 maxEvents 件取り出すメソッド（読み出しスレッド専用）
+     *
+     * @return 取り出したイベント数
+     */
+    int drain(EventConsumer consumer, int maxEvents) {
+        long position = head;
+        int count = 0;
+        while (count < maxEvents) {
+            int index = (int) (position & mask);
+            if (sequences.getAcquire(index) != position + 1) {
+                break; // まだ書き込まれていない
+            }
+            consumer.accept(types[index], sessionIds[index], timestamps[index], remainings[index], totals[index]);
+            sequences.setRelease(index, position + capacity); // 次の周回で書き込み可能にする
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /*
+     * スロット数を取得するメソッド
+     */
+    int capacity() {
+        return capacity;
+    }
+}
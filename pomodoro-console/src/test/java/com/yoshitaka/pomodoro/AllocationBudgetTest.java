@@ -0,0 +1,107 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 毎秒のtickの処理（TimerService → PomodoroApp.onTick → Display.updateTimerScreen → ProgressBar）で
+ * 確保されるメモリの量を計測し、予算を超えた場合に失敗するテスト
+ *
+ * 長時間動かし続けるプロセスで、tickのたびに文字列などを生成してGCを発生させないようにするためのもの。
+ * スレッドごとの確保量（com.sun.management.ThreadMXBean）で計測する。
+ * Mockitoのモックが書き換えたクラスでは確保量が変わるため、pom.xmlの設定で他のテストとは別のJVMで実行する。
+ */
+class AllocationBudgetTest {
+
+    // 1tickあたりに確保してよいバイト数（の平均）
+    // オブジェクトは最小でも16バイトなので、1未満であればtickごとには何も確保していない
+    // （JITコンパイルなどで、まれに確保される分は許容する）
+    private static final double BYTES_PER_TICK_BUDGET = 1;
+    // JITコンパイルやクラスの初期化を済ませるために、計測前に実行するtickの数
+    private static final int WARMUP_TICKS = 2_000;
+    // 計測するtickの数
+    private static final int MEASURED_TICKS = 2_000;
+
+    private final PrintStream originalOut = System.out;
+    private com.sun.management.ThreadMXBean threads;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        assumeTrue(TimerEvents.startTick() == null); // JFRの記録中やフライトレコーダーの有効時は計測の記録で確保する
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // 出力先での確保を計測に含めない
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    @DisplayName("tickごとの画面更新で、メモリを確保しないこと")
+    void testTickPath_StaysWithinBudget() throws Exception {
+        PomodoroApp app = new PomodoroApp();
+        TimerService service = new TimerService(Duration.ofHours(2), app);
+        setField(app, "timerService", service);
+        setField(app, "timerIsActive", true);
+        service.beginNow();
+
+        long base = System.nanoTime();
+        long now = base;
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            now += TimeUnit.SECONDS.toNanos(1);
+            service.advance(now);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            now += TimeUnit.SECONDS.toNanos(1);
+            service.advance(now);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        double perTick = (double) allocated / MEASURED_TICKS;
+        assertTrue(perTick <= BYTES_PER_TICK_BUDGET,
+                String.format("tickごとに %.1f バイト確保している（予算: %.0f バイト）", perTick, BYTES_PER_TICK_BUDGET));
+    }
+
+    @Test
+    @DisplayName("画面の描画を直接呼び出した場合も、メモリを確保しないこと")
+    void testUpdateTimerScreen_StaysWithinBudget() {
+        Display display = new Display();
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            display.updateTimerScreen(1500 - i % 1500, 1500, TimerService.State.RUNNING);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            display.updateTimerScreen(1500 - i % 1500, 1500, TimerService.State.RUNNING);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        double perTick = (double) allocated / MEASURED_TICKS;
+        assertTrue(perTick <= BYTES_PER_TICK_BUDGET,
+                String.format("描画ごとに %.1f バイト確保している（予算: %.0f バイト）", perTick, BYTES_PER_TICK_BUDGET));
+    }
+
+    private void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,143 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ノード数を変えながらクラスター（ClusterNode）にセッションを作成し、容量の伸び方を計測する負荷試験ツール
+ *
+ * ノードごとに別のJVMをループバックで起動し、以下の値を計測する：
+ * - セッションの開始コマンドのスループット（全ノードの合計）
+ * - ノードごとの担当セッション数と複製数
+ * - 容量の倍率: 全セッション数 ÷ 最も多く担当しているノードのセッション数
+ *   （1ノードが動かせるセッション数が同じなら、クラスター全体で1ノードの何倍のセッションを動かせるか）
+ *
+ * ノードのJVMに同じクラスパスを渡すため、新しいJVMで実行する。
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する（事前に ./mvnw install -DskipTests が必要）
+ *
+ * ./mvnw -pl pomodoro-console test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath com.yoshitaka.pomodoro.ClusterLoadTest --nodes 1,2,4 --sessions 20000"
+ *
+ * オプション:
+ * --nodes ノード数（カンマ区切りで複数指定すると順に計測する）
+ * --sessions 作成するセッション数
+ * --clients コマンドを送るクライアントのスレッド数
+ */
+public class ClusterLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int[] nodeCounts = { 1, 2, 4 };
+        int sessions = 20_000;
+        int clients = 8;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--nodes":
+                    String[] values = args[i + 1].split(",");
+                    nodeCounts = new int[values.length];
+                    for (int j = 0; j < values.length; j++) {
+                        nodeCounts[j] = Integer.parseInt(values[j].trim());
+                    }
+                    break;
+                case "--sessions":
+                    sessions = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+        System.out.println("nodes  sessions  start/s   max-per-node  capacity-x  per-node (primary/replica)");
+        for (int nodeCount : nodeCounts) {
+            run(nodeCount, sessions, clients);
+        }
+    }
+
+    // 指定した数のノードを起動して計測する
+    private static void run(int nodeCount, int sessions, int clients) throws Exception {
+        Map<String, InetSocketAddress> members = new LinkedHashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                members.put("node" + i, new InetSocketAddress("127.0.0.1", socket.getLocalPort()));
+            }
+        }
+        StringBuilder spec = new StringBuilder();
+        members.forEach((id, address) -> spec.append(spec.length() > 0 ? "," : "").append(id).append('=')
+                .append(address.getHostString()).append(':').append(address.getPort()));
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (String id : members.keySet()) {
+                processes.add(launch(id, spec.toString()));
+            }
+            TimeUnit.MILLISECONDS.sleep(ClusterNode.DEFAULT_HEARTBEAT_MILLIS * 2); // 全てのノードが互いを確認するまで待つ
+
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            List<Future<?>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                int first = c;
+                int step = clients;
+                results.add(executor.submit(() -> {
+                    try (ClusterClient client = new ClusterClient(members, 5000)) {
+                        for (int s = first; s < sessions; s += step) {
+                            client.send("start", "session-" + s);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+            TimeUnit.MILLISECONDS.sleep(500); // 複製が届くのを待つ
+
+            StringBuilder perNode = new StringBuilder();
+            long max = 0;
+            for (String id : members.keySet()) {
+                try (ClusterConnection connection = new ClusterConnection(members.get(id), 1000)) {
+                    String[] info = connection.request("info").split(" ");
+                    max = Math.max(max, Long.parseLong(info[2]));
+                    perNode.append(' ').append(info[2]).append('/').append(info[3]);
+                }
+            }
+            System.out.printf("%5d  %8d  %7.0f  %12d  %10.2f %s%n", nodeCount, sessions,
+                    sessions / (elapsed / 1e9), max, (double) sessions / max, perNode);
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // 別のJVMでノードを起動し、待ち受けを始めるまで待つ
+    private static Process launch(String id, String spec) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ClusterNode.class.getName(), id, spec)
+                .redirectErrorStream(true)
+                .start();
+        BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = output.readLine();
+        if (line == null || !line.contains(id)) {
+            throw new IOException("ノードを起動できませんでした: " + line);
+        }
+        return process;
+    }
+}
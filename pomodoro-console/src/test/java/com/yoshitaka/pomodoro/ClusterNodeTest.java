@@ -0,0 +1,179 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ClusterNodeクラスとClusterClientクラスのテスト
+ * ループバックで3つのノードを起動し、1つを止めた時にタイマーが残り時間を保ったまま引き継がれることを検証
+ */
+class ClusterNodeTest {
+
+    private static final long HEARTBEAT_MILLIS = 50;
+    private static final int SESSIONS = 30;
+
+    private final List<ClusterNode> nodes = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ClusterNode node : nodes) {
+            node.stop();
+            node.close();
+        }
+        for (Thread thread : threads) {
+            thread.join(1000);
+        }
+        for (Process process : processes) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    @Test
+    @DisplayName("担当でないノードにコマンドを送ると、担当ノードが返ること")
+    void testNotOwner() throws Exception {
+        Map<String, InetSocketAddress> members = members(3);
+        startNodes(members);
+        HashRing ring = new HashRing(members.keySet(), HashRing.DEFAULT_VIRTUAL_NODES);
+        String owner = ring.primary("work");
+        String other = members.keySet().stream().filter(id -> !id.equals(owner)).findFirst().orElseThrow();
+        try (ClusterConnection connection = new ClusterConnection(members.get(other), 1000)) {
+            assertEquals("ERR not-owner " + owner, connection.request("start work"));
+        }
+        try (ClusterClient client = new ClusterClient(members, 1000)) {
+            assertTrue(client.send("start", "work").startsWith("OK work RUNNING "));
+            assertEquals("OK other IDLE 60000 60000", client.send("status", "other"));
+        }
+    }
+
+    @Test
+    @DisplayName("ノードを止めると、そのノードのタイマーが待機ノードに残り時間を保ったまま引き継がれること")
+    void testFailover_InProcess() throws Exception {
+        Map<String, InetSocketAddress> members = members(3);
+        startNodes(members);
+        try (ClusterClient client = new ClusterClient(members, 3000)) {
+            Map<String, String> before = startSessions(client);
+            long capturedAt = System.nanoTime();
+            String failed = new HashRing(members.keySet(), HashRing.DEFAULT_VIRTUAL_NODES).primary("session-0");
+            ClusterNode node = nodes.get(new ArrayList<>(members.keySet()).indexOf(failed));
+            node.stop();
+            node.close();
+            assertHandedOver(client, before, capturedAt);
+        }
+    }
+
+    @Test
+    @DisplayName("別々のJVMで起動したノードの1つを強制終了しても、タイマーが引き継がれること")
+    void testFailover_Processes() throws Exception {
+        Map<String, InetSocketAddress> members = members(3);
+        StringBuilder spec = new StringBuilder();
+        members.forEach((id, address) -> spec.append(spec.length() > 0 ? "," : "").append(id).append('=')
+                .append(address.getHostString()).append(':').append(address.getPort()));
+        for (String id : members.keySet()) {
+            processes.add(launch(id, spec.toString()));
+        }
+        try (ClusterClient client = new ClusterClient(members, 3000)) {
+            Map<String, String> before = startSessions(client);
+            long capturedAt = System.nanoTime();
+            String failed = new HashRing(members.keySet(), HashRing.DEFAULT_VIRTUAL_NODES).primary("session-0");
+            processes.get(new ArrayList<>(members.keySet()).indexOf(failed)).destroyForcibly().waitFor();
+            assertHandedOver(client, before, capturedAt);
+        }
+    }
+
+    // 偶数番目のセッションは実行中、奇数番目は一時停止中にして、その時点の応答を返す
+    private static Map<String, String> startSessions(ClusterClient client) throws Exception {
+        for (int i = 0; i < SESSIONS; i++) {
+            assertTrue(client.send("start", "session-" + i).startsWith("OK session-" + i + " RUNNING "));
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        for (int i = 1; i < SESSIONS; i += 2) {
+            client.send("stop", "session-" + i);
+        }
+        TimeUnit.MILLISECONDS.sleep(200); // 複製が届くのを待つ
+        Map<String, String> replies = new HashMap<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            replies.put("session-" + i, client.send("status", "session-" + i));
+        }
+        return replies;
+    }
+
+    // 止めたノードのセッションを含め、全てのセッションの状態と残り時間が保たれていることを確認する
+    private static void assertHandedOver(ClusterClient client, Map<String, String> before, long capturedAt)
+            throws Exception {
+        TimeUnit.MILLISECONDS.sleep(HEARTBEAT_MILLIS * (ClusterNode.FAILURE_THRESHOLD + 4));
+        for (int i = 0; i < SESSIONS; i++) {
+            String id = "session-" + i;
+            String[] previous = before.get(id).split(" ");
+            long requestedAt = System.nanoTime();
+            String[] current = client.send("status", id).split(" ");
+            assertEquals(previous[2], current[2], id); // 状態が変わらない
+            long previousRemaining = Long.parseLong(previous[3]);
+            long remaining = Long.parseLong(current[3]);
+            if (current[2].equals("PAUSED")) {
+                assertTrue(Math.abs(previousRemaining - remaining) < 50, id + " " + remaining);
+            } else {
+                // 止める前の応答から経過した分だけ減っている（待機ノードは受信時刻から残り時間を計算する）
+                long expected = previousRemaining - TimeUnit.NANOSECONDS.toMillis(requestedAt - capturedAt);
+                assertTrue(Math.abs(remaining - expected) < 300, id + " expected " + expected + " but " + remaining);
+            }
+        }
+    }
+
+    private void startNodes(Map<String, InetSocketAddress> members) throws IOException {
+        for (String id : members.keySet()) {
+            ClusterNode node = new ClusterNode(id, members, Duration.ofSeconds(60), HEARTBEAT_MILLIS);
+            Thread thread = new Thread(node, "cluster-node-" + id);
+            thread.start();
+            nodes.add(node);
+            threads.add(thread);
+        }
+    }
+
+    // 別のJVMでノードを起動し、待ち受けを始めるまで待つ
+    private static Process launch(String id, String spec) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        Process process = new ProcessBuilder(java, "-cp", classpath.replace(File.pathSeparator + File.pathSeparator,
+                File.pathSeparator), "-D" + ClusterNode.DURATION_PROPERTY + "=60", ClusterNode.class.getName(), id, spec)
+                .redirectErrorStream(true)
+                .start();
+        BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = output.readLine();
+        assertTrue(line != null && line.contains(id), String.valueOf(line));
+        return process;
+    }
+
+    // ループバックの空いているポートでメンバーの一覧を作る
+    private static Map<String, InetSocketAddress> members(int count) throws IOException {
+        Map<String, InetSocketAddress> members = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                members.put("node" + i, new InetSocketAddress("127.0.0.1", socket.getLocalPort()));
+            }
+        }
+        return members;
+    }
+}
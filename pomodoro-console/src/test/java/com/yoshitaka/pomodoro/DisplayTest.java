@@ -75,10 +75,24 @@ class DisplayTest {
         String output = outContent.toString();
         // キャリッジリターン（\r）が含まれていることを確認（改行は含まれない）
         assertTrue(output.contains("\r作業を停止しました。（25分）"));
-        assertTrue(output.contains("\r残り 15:00"));
+        assertTrue(output.contains("\r残り 15:00 [[############------------------]] 40%"));
         assertTrue(output.contains("\r開始: start / リセット: reset / 終了: end"));
     }
 
+    @Test
+    @DisplayName("サイクルのフェーズと、何回目の作業かが表示されること")
+    void testUpdateTimerScreen_CyclePhase() {
+        CyclePlan plan = CyclePlan.standard();
+        display.drawInitialTimerScreen(plan.getStep(2));
+        assertTrue(outContent.toString().contains("作業を開始します。（25分・2/4）"));
+
+        display.drawInitialTimerScreen(plan.getStep(3));
+        display.updateTimerScreen(299, 300, TimerService.State.PAUSED);
+        String output = outContent.toString();
+        assertTrue(output.contains("\r短い休憩を停止しました。（5分・2/4）"));
+        assertTrue(output.contains("\r残り 04:59"));
+    }
+
     @Test
     @DisplayName("完了メッセージが正しく表示されること")
     void testShowCompletionMessage() {
@@ -88,6 +102,30 @@ class DisplayTest {
         assertTrue(output.contains("\rポモドーロが完了しました!"));
     }
 
+    @Test
+    @DisplayName("アラームメッセージが残り時間に応じて表示されること")
+    void testShowAlarmMessage() {
+        display.showAlarmMessage(300);
+        display.showAlarmMessage(30);
+        display.showAlarmMessage(750);
+        String output = outContent.toString();
+        assertTrue(output.contains("\r残り5分です。"));
+        assertTrue(output.contains("\r残り30秒です。"));
+        assertTrue(output.contains("\r残り12分30秒です。"));
+    }
+
+    @Test
+    @DisplayName("高解像度モードで残り時間が MM:SS.t 形式で表示されること")
+    void testUpdateFineTimer() {
+        display.updateFineTimer(1_499_950, 1_500_000); // 0.1秒未満は切り上げ
+        display.updateFineTimer(61_234, 1_500_000);
+        display.updateFineTimer(500, 1000);
+        String output = outContent.toString();
+        assertTrue(output.contains("\r残り 25:00.0 [[" + " ".repeat(30) + "]] 0%"));
+        assertTrue(output.contains("\r残り 01:01.3 [[" + "█".repeat(28) + "▊ ]] 95%")); // 28文字と8分の6
+        assertTrue(output.contains("\r残り 00:00.5 [[" + "█".repeat(15) + " ".repeat(15) + "]] 50%"));
+    }
+
     @Test
     @DisplayName("リセットメッセージが正しく表示されること")
     void testShowResetMessage() {
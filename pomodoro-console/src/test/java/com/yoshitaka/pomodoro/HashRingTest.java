@@ -0,0 +1,66 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HashRingクラスのテスト
+ */
+class HashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    @DisplayName("担当と待機は別のノードで、担当は先頭のノードと一致すること")
+    void testOwners_Distinct() {
+        HashRing ring = new HashRing(List.of("a", "b", "c"), HashRing.DEFAULT_VIRTUAL_NODES);
+        for (int i = 0; i < 1000; i++) {
+            String key = "session-" + i;
+            List<String> owners = ring.owners(key, 2);
+            assertEquals(2, owners.size());
+            assertEquals(ring.primary(key), owners.get(0));
+            assertNotEquals(owners.get(0), owners.get(1));
+        }
+        assertEquals(3, ring.owners("session-0", 5).size()); // ノード数より多くは返さない
+        assertNull(new HashRing(List.of(), 1).primary("session-0"));
+    }
+
+    @Test
+    @DisplayName("セッションがノード間に偏りなく分散されること")
+    void testBalance() {
+        HashRing ring = new HashRing(List.of("a", "b", "c", "d"), HashRing.DEFAULT_VIRTUAL_NODES);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.primary("session-" + i), 1, Integer::sum);
+        }
+        double mean = KEYS / 4.0;
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - mean) < mean * 0.2, counts.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("ノードを外すと、そのノードのセッションだけが待機ノードに移ること")
+    void testRemoveNode_MovesOnlyItsSessions() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), HashRing.DEFAULT_VIRTUAL_NODES);
+        HashRing after = new HashRing(List.of("a", "c"), HashRing.DEFAULT_VIRTUAL_NODES);
+        for (int i = 0; i < KEYS; i++) {
+            String key = "session-" + i;
+            List<String> owners = before.owners(key, 2);
+            if (owners.get(0).equals("b")) {
+                assertEquals(owners.get(1), after.primary(key)); // 待機ノードが引き継ぐ
+            } else {
+                assertEquals(owners.get(0), after.primary(key)); // 他のセッションは動かない
+            }
+        }
+    }
+}
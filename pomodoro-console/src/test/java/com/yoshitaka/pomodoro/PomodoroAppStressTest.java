@@ -0,0 +1,268 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * PomodoroAppの状態遷移のストレステスト
+ *
+ * 複数のスレッドから start / stop / reset / end と無効なコマンドをランダムな順序で送り、
+ * タイマースレッドからの完了（作業時間0秒のタイマーはすぐに完了する）と競合させる。
+ * 1ラウンドごとに以下を確認する：
+ * - デッドロックしない（すべてのスレッドが時間内に終わる）
+ * - 完了を取りこぼさない・重複しない（0秒に到達したタイマーの数と完了メッセージの数が一致する）
+ * - 古いタイマーの完了で新しいタイマーを止めない（途中で止まったタイマーの数が、resetとendの数を超えない）
+ * - 古い残り時間を表示しない（1つのセッションの中で、表示する残り時間が増えない）
+ * - 終了後にタイマーのスレッドが残らず、すべてのタイマーの完了のFutureが完了かキャンセルになる
+ *
+ * 時間がかかるため通常のテストでは実行しない。実行する場合：
+ * ./mvnw test -Pstress（コマンド数は -Dpomodoro.stress.iterations=N で変更できる）
+ */
+@Tag("stress")
+class PomodoroAppStressTest {
+
+    // 送信するコマンドの総数を指定するシステムプロパティ
+    private static final String ITERATIONS_PROPERTY = "pomodoro.stress.iterations";
+    // コマンドを送るスレッドの数
+    private static final int THREADS = 4;
+    // 1ラウンドで送るコマンドの数
+    private static final int COMMANDS_PER_ROUND = 4_000;
+    // ランダムに送るコマンド
+    private static final String[] COMMANDS = { "start", "start", "stop", "reset", "typo" };
+
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // 終了メッセージなどを表示しない
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    @DisplayName("ランダムな順序のコマンドと完了が競合しても、状態の不変条件が保たれること")
+    void testRandomInterleavings() throws Exception {
+        long iterations = Long.getLong(ITERATIONS_PROPERTY, 20_000);
+        long rounds = Math.max(1, iterations / COMMANDS_PER_ROUND);
+        for (long round = 0; round < rounds; round++) {
+            // 大半のラウンドはすぐに完了する0秒のタイマー、一部は一時停止・再開が効く1秒のタイマーを使う
+            Duration work = (round % 4 == 3) ? Duration.ofSeconds(1) : Duration.ZERO;
+            runRound(work, round % 2 == 0);
+        }
+    }
+
+    /*
+     * 1ラウンドを実行し、不変条件を確認するメソッド
+     *
+     * @param work 各フェーズの長さ
+     *
+     * @param sendEnd ラウンドの途中でendを送るかどうか
+     */
+    private void runRound(Duration work, boolean sendEnd) throws Exception {
+        PomodoroApp app = new PomodoroApp();
+        RecordingDisplay display = new RecordingDisplay(app);
+        setField(app, "display", display);
+        setField(app, "cyclePlan", new CyclePlan(work, work, work, 2));
+        invoke(app, "initialize");
+        Method handleCommand = PomodoroApp.class.getDeclaredMethod("handleCommand", String.class);
+        handleCommand.setAccessible(true);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int endAt = sendEnd ? ThreadLocalRandom.current().nextInt(COMMANDS_PER_ROUND / THREADS) : -1;
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean endSender = (t == 0);
+            Thread sender = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    for (int i = 0; i < COMMANDS_PER_ROUND / THREADS; i++) {
+                        String command = (endSender && i == endAt) ? "end" : COMMANDS[random.nextInt(COMMANDS.length)];
+                        handleCommand.invoke(app, command);
+                    }
+                } catch (InvocationTargetException e) {
+                    failure.compareAndSet(null, e.getCause());
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "stress-sender-" + t);
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join(TimeUnit.SECONDS.toMillis(30));
+            if (sender.isAlive()) {
+                fail("コマンドの処理が終わらない（デッドロックの可能性）: " + describeDeadlock());
+            }
+        }
+        assertNull(failure.get(), () -> "コマンドの処理中に例外が発生した: " + failure.get());
+
+        invoke(app, "shutdown");
+        waitForTimerThreads();
+
+        // すべてのタイマーの完了のFutureが、完了かキャンセルのどちらかになっている
+        int finished = 0;
+        int cancelled = 0;
+        for (TimerService service : display.sessions) {
+            assertTrue(service.getCompletion().isDone(), "完了もキャンセルもされていないタイマーがある");
+            if (service.getCompletion().isCancelled()) {
+                cancelled++;
+            } else {
+                finished++;
+            }
+        }
+        assertEquals(finished, display.completionMessages.get(), "0秒に到達したタイマーと完了メッセージの数が一致しない");
+        // 途中で止まるのは、resetされたタイマーと、終了時に実行中だったタイマーだけ
+        assertTrue(cancelled <= display.resetMessages.get() + 1,
+                "reset以外で止まったタイマーがある: " + cancelled + " > " + display.resetMessages.get() + " + 1");
+        assertNull(display.violation.get(), () -> display.violation.get());
+    }
+
+    /*
+     * タイマーのスレッドがすべて終了するまで待つメソッド
+     */
+    private static void waitForTimerThreads() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            List<String> alive = new ArrayList<>();
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().equals(PomodoroApp.TIMER_THREAD_NAME) && thread.isAlive()) {
+                    alive.add(thread.getState() + " " + Arrays.toString(thread.getStackTrace()));
+                }
+            }
+            if (alive.isEmpty()) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                fail("終了後もタイマーのスレッドが残っている: " + alive);
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /*
+     * デッドロックしているスレッドを説明する文字列を作るメソッド
+     */
+    private static String describeDeadlock() {
+        long[] ids = ManagementFactory.getThreadMXBean().findDeadlockedThreads();
+        if (ids == null) {
+            return "デッドロックは検出されなかった";
+        }
+        return Arrays.toString(ManagementFactory.getThreadMXBean().getThreadInfo(ids, true, true));
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static void invoke(Object target, String name) throws Exception {
+        Method method = target.getClass().getDeclaredMethod(name);
+        method.setAccessible(true);
+        method.invoke(target);
+    }
+
+    /*
+     * 何も表示せず、表示の呼び出しを記録して不変条件を確認するDisplay
+     * Displayのメソッドはすべてアプリのロックを持った状態で呼ばれる
+     */
+    private static final class RecordingDisplay extends Display {
+
+        // 表示を呼び出すアプリ（現在のタイマーを読み取るため）
+        private final PomodoroApp app;
+        // 開始したタイマー
+        private final ConcurrentLinkedQueue<TimerService> sessions = new ConcurrentLinkedQueue<>();
+        // 完了メッセージを表示した回数
+        private final AtomicInteger completionMessages = new AtomicInteger();
+        // リセットメッセージを表示した回数
+        private final AtomicInteger resetMessages = new AtomicInteger();
+        // 最初に見つかった不変条件の違反
+        private final AtomicReference<String> violation = new AtomicReference<>();
+        // 現在のセッションで最後に表示した残り秒数
+        private long lastRemainingSeconds = Long.MAX_VALUE;
+
+        RecordingDisplay(PomodoroApp app) {
+            this.app = app;
+        }
+
+        @Override
+        public void drawInitialTimerScreen(CyclePlan.Step step) {
+            sessions.add(currentTimer()); // 新しいタイマー（フェーズ）が作られた直後に呼ばれる
+            lastRemainingSeconds = Long.MAX_VALUE;
+        }
+
+        @Override
+        public void updateTimerScreen(long remainingSeconds, long totalSeconds, TimerService.State state) {
+            if (remainingSeconds > lastRemainingSeconds) {
+                violation.compareAndSet(null, "残り時間が増えた: " + lastRemainingSeconds + " -> " + remainingSeconds);
+            }
+            if (remainingSeconds > totalSeconds) {
+                violation.compareAndSet(null, "残り時間が総時間を超えた: " + remainingSeconds + " > " + totalSeconds);
+            }
+            lastRemainingSeconds = remainingSeconds;
+        }
+
+        @Override
+        public void showCompletionMessage() {
+            completionMessages.incrementAndGet();
+        }
+
+        @Override
+        public void showMainMenu() {
+        }
+
+        @Override
+        public void updateFineTimer(long remainingMillis, long totalMillis) {
+        }
+
+        @Override
+        public void showAlarmMessage(long thresholdSeconds) {
+        }
+
+        @Override
+        public void showResetMessage() {
+            resetMessages.incrementAndGet();
+        }
+
+        @Override
+        public void showInvalidCommand(String command) {
+        }
+
+        private TimerService currentTimer() {
+            try {
+                Field field = PomodoroApp.class.getDeclaredField("timerService");
+                field.setAccessible(true);
+                return (TimerService) field.get(app);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
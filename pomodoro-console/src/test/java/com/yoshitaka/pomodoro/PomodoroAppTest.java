@@ -0,0 +1,156 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PomodoroAppTest {
+
+    @Mock
+    private Display mockDisplay;
+
+    @Mock
+    private TimerService mockTimerService;
+
+    private PomodoroApp app;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        app = new PomodoroApp();
+
+        // リフレクションを使ってモックを注入
+        setField(app, "display", mockDisplay);
+        setField(app, "timerService", mockTimerService);
+    }
+
+    @Test
+    @DisplayName("startコマンド（PAUSED時）でタイマーが再開されること")
+    void testHandleCommand_start_from_paused() throws Exception {
+        when(mockTimerService.getState()).thenReturn(TimerService.State.PAUSED);
+        setField(app, "timerIsActive", true);
+
+        callHandleCommand("start");
+
+        verify(mockTimerService).start();
+    }
+
+    @Test
+    @DisplayName("stopコマンドでタイマーが一時停止されること")
+    void testHandleCommand_stop() throws Exception {
+        when(mockTimerService.getState()).thenReturn(TimerService.State.RUNNING);
+        setField(app, "timerIsActive", true);
+
+        callHandleCommand("stop");
+
+        verify(mockTimerService).pause();
+    }
+
+    @Test
+    @DisplayName("resetコマンドでリセットメッセージが表示されること")
+    void testHandleCommand_reset() throws Exception {
+        setField(app, "timerIsActive", true);
+
+        callHandleCommand("reset");
+
+        verify(mockDisplay).showResetMessage();
+        verify(mockDisplay).showMainMenu();
+    }
+
+    @Test
+    @DisplayName("無効なコマンドでエラーメッセージが表示されること")
+    void testHandleCommand_invalid() throws Exception {
+        setField(app, "timerIsActive", true);
+
+        callHandleCommand("invalid_command");
+
+        verify(mockDisplay).showInvalidCommand("invalid_command");
+    }
+
+    @Test
+    @DisplayName("historyコマンドで、タグと日数で絞り込んだ履歴が表示されること")
+    void testHandleCommand_history(@TempDir Path tempDir) throws Exception {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            long now = System.currentTimeMillis();
+            history.append("設計", List.of("work"), now - 1_500_000, now - 1000, 1500);
+            history.append("復習", List.of("study"), now - 1_500_000, now - 1000, 1500);
+            setField(app, "history", history);
+
+            callHandleCommand("history #work 7");
+
+            verify(mockDisplay).showHistory(eq("#work"), eq(7L), eq(1L), eq(1500L),
+                    argThat(entries -> entries.size() == 1 && entries.get(0).getTask().equals("設計")), eq(Map.of()));
+        }
+    }
+
+    @Test
+    @DisplayName("履歴の保存先が指定されていない場合、historyコマンドで無効であることが表示されること")
+    void testHandleCommand_history_disabled() throws Exception {
+        callHandleCommand("history");
+
+        verify(mockDisplay).showHistoryDisabled("pomodoro.history.dir");
+    }
+
+    @Test
+    @DisplayName("画面の更新でタイマースレッドが何度も遅れても、完了した作業が履歴に保存されること")
+    void testSessionRecordedAfterRepeatedStalls(@TempDir Path tempDir) throws Exception {
+        when(mockTimerService.getState()).thenReturn(TimerService.State.IDLE);
+        doAnswer(invocation -> {
+            TimeUnit.MILLISECONDS.sleep(450); // 毎回しきい値を超えてタイマースレッドを止める
+            return null;
+        }).when(mockDisplay).updateTimerScreen(anyLong(), anyLong(), any());
+        try (SessionHistory history = new SessionHistory(tempDir);
+                TickWatchdog watchdog = new TickWatchdog(Duration.ofMillis(200))) {
+            setField(app, "history", history);
+            setField(app, "watchdog", watchdog);
+            setField(app, "cyclePlan", new CyclePlan(Duration.ofSeconds(4), Duration.ZERO, Duration.ofSeconds(30), 1));
+
+            callHandleCommand("start 設計 #work");
+            try {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+                while (history.size() == 0) {
+                    assertTrue(System.nanoTime() < deadline, "履歴に保存されない");
+                    TimeUnit.MILLISECONDS.sleep(50);
+                }
+            } finally {
+                callHandleCommand("reset"); // タイマースレッドを終了
+            }
+
+            assertTrue(watchdog.getStallCount() >= TickWatchdog.SLOW_STRIKES, "遅れ: " + watchdog.getStallCount());
+            assertEquals(1, watchdog.getOffloadedCount()); // 画面を更新するリスナーは別スレッドに移される
+            assertEquals(1, history.size());
+            assertEquals("設計", history.get(0).getTask());
+            assertEquals(List.of("work"), history.get(0).getTags());
+        }
+    }
+
+    // privateメソッドをリフレクションで呼び出すヘルパー
+    private void callHandleCommand(String command) throws Exception {
+        Method method = PomodoroApp.class.getDeclaredMethod("handleCommand", String.class);
+        method.setAccessible(true);
+        method.invoke(app, command);
+    }
+
+    // privateフィールドに値を設定するヘルパー
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
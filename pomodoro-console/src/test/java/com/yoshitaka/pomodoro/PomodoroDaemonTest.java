@@ -0,0 +1,123 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PomodoroDaemonクラスのテスト
+ * 一時ディレクトリにソケットを作成し、PomodoroDaemonClientで実際に通信して検証
+ */
+class PomodoroDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path socketPath;
+    private PomodoroDaemon daemon;
+    private Thread daemonThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        socketPath = tempDir.resolve("pomodoro.sock");
+        daemon = new PomodoroDaemon(socketPath, Duration.ofSeconds(1));
+        daemonThread = new Thread(daemon);
+        daemonThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        daemon.stop();
+        daemonThread.join();
+        daemon.close();
+    }
+
+    @Test
+    @DisplayName("start / stop / reset / status で状態が変わり、応答に反映されること")
+    void testCommands() throws IOException {
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            assertEquals("OK default IDLE 1000 1000", client.send("status"));
+            assertTrue(client.send("start").startsWith("OK default RUNNING "));
+            String paused = client.send("stop");
+            assertTrue(paused.startsWith("OK default PAUSED "), paused);
+            long remaining = Long.parseLong(paused.split(" ")[3]);
+            assertTrue(remaining > 0 && remaining <= 1000);
+            assertEquals(paused, client.send("status")); // 一時停止中は残り時間が変わらない
+            assertEquals("OK default IDLE 1000 1000", client.send("reset"));
+        }
+    }
+
+    @Test
+    @DisplayName("タイマー名ごとに独立したタイマーが動くこと")
+    void testNamedTimers() throws IOException {
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            client.send("start work");
+            assertTrue(client.send("status work").startsWith("OK work RUNNING "));
+            assertEquals("OK default IDLE 1000 1000", client.send("status"));
+        }
+    }
+
+    @Test
+    @DisplayName("タイマーが完了すると、開始前の状態に戻ること")
+    void testFinish() throws Exception {
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            client.send("start");
+            TimeUnit.MILLISECONDS.sleep(1500);
+            assertEquals("OK default IDLE 1000 1000", client.send("status"));
+        }
+    }
+
+    @Test
+    @DisplayName("無効なコマンドにはERRが返ること")
+    void testInvalidCommand() throws IOException {
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            assertEquals("ERR unknown command: foo", client.send("foo"));
+            assertEquals("ERR too many arguments", client.send("start a b"));
+        }
+    }
+
+    @Test
+    @DisplayName("status の応答が10ミリ秒より十分短い時間で返ること")
+    void testStatusLatency() throws IOException {
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            client.send("start");
+            long[] latencies = new long[1000];
+            for (int i = 0; i < latencies.length; i++) {
+                long start = System.nanoTime();
+                client.send("status");
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            assertTrue(latencies[latencies.length / 2] < TimeUnit.MILLISECONDS.toNanos(1),
+                    "median " + latencies[latencies.length / 2] + "ns");
+        }
+    }
+
+    @Test
+    @DisplayName("同じソケットで2つ目のデーモンは起動できず、終了後はソケットファイルが削除されること")
+    void testSocketLifecycle() throws Exception {
+        assertThrows(IOException.class, () -> new PomodoroDaemon(socketPath, Duration.ofSeconds(1)));
+
+        try (PomodoroDaemonClient client = new PomodoroDaemonClient(socketPath)) {
+            assertEquals("OK shutdown", client.send("shutdown"));
+        }
+        daemonThread.join(1000);
+        assertFalse(daemonThread.isAlive());
+        daemon.close();
+        assertFalse(Files.exists(socketPath));
+    }
+}
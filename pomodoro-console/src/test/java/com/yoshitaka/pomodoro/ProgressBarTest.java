@@ -30,6 +30,31 @@ class ProgressBarTest {
         assertEquals("[" + "#".repeat(30) + "]", ProgressBar.generate(1.0));
     }
 
+    @Test
+    @DisplayName("配列に書き込んだ場合、generateと同じ内容になること")
+    void testRender_SameAsGenerate() {
+        char[] buffer = new char[ProgressBar.WIDTH + 2];
+        int end = ProgressBar.render(0.33, buffer, 1);
+        assertEquals(ProgressBar.WIDTH + 1, end);
+        assertEquals(ProgressBar.generate(0.33), new String(buffer, 1, ProgressBar.WIDTH));
+    }
+
+    @Test
+    @DisplayName("高解像度用のバーは、1文字の8分の1単位で進むこと")
+    void testRenderSmooth_Eighths() {
+        assertEquals("[" + " ".repeat(30) + "]", renderSmooth(0.0));
+        assertEquals("[▏" + " ".repeat(29) + "]", renderSmooth(1.0 / 240)); // 25分のタイマーで6.25秒
+        assertEquals("[" + "█".repeat(15) + "▌" + " ".repeat(14) + "]", renderSmooth(0.5 + 4.0 / 240));
+        assertEquals("[" + "█".repeat(30) + "]", renderSmooth(1.0));
+        assertEquals("[" + "█".repeat(30) + "]", renderSmooth(1.5)); // 範囲外は切り詰める
+    }
+
+    private static String renderSmooth(double progress) {
+        char[] buffer = new char[ProgressBar.WIDTH];
+        assertEquals(ProgressBar.WIDTH, ProgressBar.renderSmooth(progress, buffer, 0));
+        return new String(buffer);
+    }
+
     @Test
     @DisplayName("進捗33%の場合、バーが正しく計算されること")
     void testGenerate_ThirdProgress() {
@@ -0,0 +1,90 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionHistoryの検索・集計にかかる時間を計測するベンチマーク
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する
+ *
+ * ./mvnw -pl pomodoro-console test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath com.yoshitaka.pomodoro.SessionHistoryBenchmark"
+ *
+ * 引数: [セッション数] [タグの種類]
+ */
+public class SessionHistoryBenchmark {
+
+    // 2016-01-01T00:00:00Z から、1セッションあたり平均5分ずつ進める（100万セッションで約10年分）
+    private static final long BASE = 1_451_606_400_000L;
+    private static final long STEP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long MONTH_MILLIS = TimeUnit.DAYS.toMillis(30);
+    // 各クエリを繰り返す回数
+    private static final int REPEAT = 20;
+
+    public static void main(String[] args) throws Exception {
+        int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int tagKinds = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+
+        Path directory = Files.createTempDirectory("session-history-benchmark");
+        System.out.printf("sessions=%d tags=%d dir=%s%n", sessions, tagKinds, directory);
+
+        Random random = new Random(42);
+        long finished = BASE;
+        long start = System.nanoTime();
+        try (SessionHistory history = new SessionHistory(directory)) {
+            for (int i = 0; i < sessions; i++) {
+                finished += 1 + random.nextInt((int) (2 * STEP_MILLIS));
+                String first = "tag" + random.nextInt(tagKinds);
+                String second = "tag" + random.nextInt(tagKinds);
+                history.append("task " + i, List.of(first, second), finished - 1_500_000, finished, 1500);
+            }
+        }
+        System.out.printf("append: %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        start = System.nanoTime();
+        try (SessionHistory history = new SessionHistory(directory)) {
+            System.out.printf("open: %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            long now = finished + 1;
+            long lastMonth = now - MONTH_MILLIS;
+
+            measure("find #tag0 last month", () -> history.find("tag0", lastMonth, now).length);
+            measure("focus #tag0 all time", () -> history.focusSeconds("tag0", Long.MIN_VALUE, Long.MAX_VALUE));
+            measure("focus all last month", () -> history.focusSeconds(null, lastMonth, now));
+            measure("focus by tag all time", () -> {
+                Map<String, Long> totals = history.focusSecondsByTag(Long.MIN_VALUE, Long.MAX_VALUE);
+                return totals.size();
+            });
+            measure("count #tag0 last month", () -> history.count("tag0", lastMonth, now));
+            measure("get latest 10", () -> {
+                long[] ids = history.latest(null, lastMonth, now, 10);
+                for (long id : ids) {
+                    history.get(id);
+                }
+                return history.count(null, lastMonth, now);
+            });
+        }
+    }
+
+    // クエリを繰り返し実行し、1回あたりの時間の中央値を表示する
+    private static void measure(String name, Query query) throws IOException {
+        long[] nanos = new long[REPEAT];
+        long result = 0;
+        for (int i = 0; i < REPEAT; i++) {
+            long start = System.nanoTime();
+            result = query.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-24s median=%.3f ms (result=%d)%n", name, nanos[REPEAT / 2] / 1e6, result);
+    }
+
+    private interface Query {
+        long run() throws IOException;
+    }
+}
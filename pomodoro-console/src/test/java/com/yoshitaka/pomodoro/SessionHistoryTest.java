@@ -0,0 +1,226 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SessionHistoryクラスのテスト
+ */
+class SessionHistoryTest {
+
+    // 2026-01-01T00:00:00Z（エポックミリ秒）
+    private static final long BASE = 1_767_225_600_000L;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("追加したセッションが、タスク名・タグ・日時・集中した秒数とともに取得できること")
+    void testAppendAndGet() throws IOException {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            assertEquals(0, history.append("設計レビュー", List.of("#仕事", "review", "仕事"), BASE, BASE + 1_500_000, 1500));
+            assertEquals(1, history.append("", List.of(), BASE + DAY, BASE + DAY + 1_500_000, 1500));
+
+            SessionHistory.Entry first = history.get(0);
+            assertEquals("設計レビュー", first.getTask());
+            assertEquals(List.of("仕事", "review"), first.getTags()); // #を除き、重複をまとめる
+            assertEquals(BASE, first.getStartedAtMillis());
+            assertEquals(BASE + 1_500_000, first.getFinishedAtMillis());
+            assertEquals(1500, first.getFocusSeconds());
+            assertEquals(List.of(), history.get(1).getTags());
+            assertEquals(2, history.size());
+            assertThrows(IllegalArgumentException.class, () -> history.get(2));
+            assertThrows(IllegalArgumentException.class, () -> history.append("", List.of("#"), BASE, BASE, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("タグと期間でセッションを検索し、集中した時間を集計できること")
+    void testFindAndTotals() throws IOException {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            for (int day = 0; day < 60; day++) {
+                long finished = BASE + day * DAY;
+                List<String> tags = (day % 3 == 0) ? List.of("work", "deep") : List.of("work");
+                history.append("task " + day, (day % 2 == 0) ? tags : List.of("study"), finished - 1_500_000,
+                        finished, 1500);
+            }
+
+            long from = BASE + 30 * DAY;
+            long to = BASE + 40 * DAY;
+            assertArrayEquals(new long[] { 30, 31, 32, 33, 34, 35, 36, 37, 38, 39 }, history.find(null, from, to));
+            assertArrayEquals(new long[] { 30, 32, 34, 36, 38 }, history.find("#work", from, to));
+            assertArrayEquals(new long[] { 30, 36 }, history.find("deep", from, to));
+            assertArrayEquals(new long[0], history.find("unknown", from, to));
+            assertArrayEquals(new long[0], history.find("work", to, from));
+
+            assertEquals(10 * 1500, history.focusSeconds(null, from, to));
+            assertEquals(5 * 1500, history.focusSeconds("work", from, to));
+            assertEquals(30 * 1500, history.focusSeconds("study", Long.MIN_VALUE, Long.MAX_VALUE));
+            assertEquals(Map.of("work", 5L * 1500, "deep", 2L * 1500, "study", 5L * 1500),
+                    history.focusSecondsByTag(from, to));
+            assertEquals("task 36", history.get(history.find("deep", from, to)[1]).getTask());
+
+            assertEquals(10, history.count(null, from, to));
+            assertEquals(5, history.count("work", from, to));
+            assertEquals(0, history.count("unknown", from, to));
+            assertArrayEquals(new long[] { 37, 38, 39 }, history.latest(null, from, to, 3));
+            assertArrayEquals(new long[] { 34, 36, 38 }, history.latest("work", from, to, 3));
+            assertArrayEquals(new long[] { 30, 36 }, history.latest("deep", from, to, 10));
+            assertArrayEquals(new long[0], history.latest("work", from, to, 0));
+            assertThrows(IllegalArgumentException.class, () -> history.latest(null, from, to, -1));
+        }
+    }
+
+    @Test
+    @DisplayName("開き直しても履歴が残り、続けて追加できること")
+    void testReopen() throws IOException {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            history.append("a", List.of("x"), BASE, BASE + 1000, 1);
+        }
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            assertEquals(1, history.size());
+            history.append("b", List.of("y", "x"), BASE + 2000, BASE + 3000, 2);
+        }
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            assertArrayEquals(new long[] { 0, 1 }, history.find("x", Long.MIN_VALUE, Long.MAX_VALUE));
+            assertEquals(List.of("y", "x"), history.get(1).getTags());
+            assertEquals(3, history.focusSeconds(null, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    @DisplayName("書き込みの途中で終了した場合は、確定していない末尾を切り詰めて開けること")
+    void testRecoverTornWrite() throws IOException {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            history.append("a", List.of("x"), BASE, BASE + 1000, 1);
+        }
+        // 2件目を書いている途中で終了した状態（本体と転置インデックスだけ書かれ、時刻インデックスは途中まで）
+        append(tempDir.resolve("sessions.log"), new byte[] { 0, 0, 0, 9, 1, 2, 3 });
+        append(tempDir.resolve("tags").resolve("0.ids"), new byte[] { 1, 5 });
+        append(tempDir.resolve("sessions.idx"), new byte[] { 1, 2, 3 });
+        append(tempDir.resolve("tags.txt"), "途中".getBytes(StandardCharsets.UTF_8));
+
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            assertEquals(1, history.size());
+            assertArrayEquals(new long[] { 0 }, history.find("x", Long.MIN_VALUE, Long.MAX_VALUE));
+            assertEquals(1, history.append("b", List.of("z"), BASE + 2000, BASE + 3000, 2));
+            assertEquals(List.of("z"), history.get(1).getTags());
+            assertEquals("b", history.get(1).getTask());
+            assertEquals(1, history.focusSeconds("x", Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    @DisplayName("転置インデックスの途中から読み始める検索でも、開き直した後でも、同じ結果になること")
+    void testFindAcrossSkips() throws IOException {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            for (int i = 0; i < 5000; i++) {
+                history.append("", (i % 2 == 0) ? List.of("even") : List.of("odd"), BASE + i, BASE + i, i);
+            }
+            assertFind(history);
+        }
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            assertFind(history);
+        }
+    }
+
+    private static void assertFind(SessionHistory history) throws IOException {
+        long[] ids = history.find("even", BASE + 3001, BASE + 3011);
+        assertArrayEquals(new long[] { 3002, 3004, 3006, 3008, 3010 }, ids);
+        assertEquals(3002 + 3004 + 3006 + 3008 + 3010, history.focusSeconds("even", BASE + 3001, BASE + 3011));
+        assertEquals(2500, history.find("odd", Long.MIN_VALUE, Long.MAX_VALUE).length);
+        assertArrayEquals(new long[] { 4999 }, history.find("odd", BASE + 4998, BASE + 5000));
+        assertArrayEquals(new long[] { 4995, 4997, 4999 }, history.latest("odd", Long.MIN_VALUE, Long.MAX_VALUE, 3));
+        assertEquals(2500, history.count("odd", Long.MIN_VALUE, Long.MAX_VALUE));
+
+        // 区切り（偶数は2048・4096件目から）をまたぐ期間や、区切りちょうどで終わる期間
+        int[][] ranges = { { 2040, 2060 }, { 2000, 2049 }, { 2047, 2049 }, { 0, 2048 }, { 2048, 4097 }, { 4096, 5000 } };
+        for (int[] range : ranges) {
+            List<Long> expected = new ArrayList<>();
+            long focus = 0;
+            for (long id = range[0]; id < range[1]; id++) {
+                if (id % 2 == 0) {
+                    expected.add(id);
+                    focus += id;
+                }
+            }
+            long[] found = history.find("even", BASE + range[0], BASE + range[1]);
+            assertEquals(expected, Arrays.stream(found).boxed().toList(), Arrays.toString(range));
+            assertEquals(focus, history.focusSeconds("even", BASE + range[0], BASE + range[1]));
+            assertEquals(expected.size(), history.count("even", BASE + range[0], BASE + range[1]));
+        }
+    }
+
+    @Test
+    @DisplayName("時計が巻き戻っても、期間の検索からセッションが漏れないこと")
+    void testClockGoesBackwards() throws IOException {
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            history.append("a", List.of(), BASE, BASE + 10_000, 10);
+            history.append("b", List.of(), BASE, BASE + 5_000, 10); // 前のセッションより前に完了した
+
+            assertArrayEquals(new long[] { 0, 1 }, history.find(null, BASE, BASE + 10_001));
+            assertEquals(BASE + 5_000, history.get(1).getFinishedAtMillis()); // 本体には実際の日時が残る
+        }
+    }
+
+    @Test
+    @DisplayName("転置インデックスへの書き込みに失敗しても、追加しなかったセッションやタグが残らず、続けて追加できること")
+    void testAppendFailureRollsBack() throws IOException {
+        Path tagsDir = tempDir.resolve("tags");
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            history.append("a", List.of("x", "y"), BASE, BASE + 1000, 1);
+        }
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            // タグxの転置インデックスには書けるが、タグyの転置インデックスを開けずに失敗する
+            Path moved = Files.move(tagsDir.resolve("1.ids"), tempDir.resolve("1.ids"));
+            Files.createDirectory(tagsDir.resolve("1.ids"));
+            assertThrows(IOException.class, () -> history.append("b", List.of("x", "y"), BASE + 2000, BASE + 3000, 2));
+            Files.delete(tagsDir.resolve("1.ids"));
+            Files.move(moved, tagsDir.resolve("1.ids"));
+
+            // 初めてのタグzの転置インデックスを作れずに失敗する
+            Files.createDirectory(tagsDir.resolve("2.ids"));
+            assertThrows(IOException.class, () -> history.append("b", List.of("x", "z"), BASE + 2000, BASE + 3000, 2));
+            Files.delete(tagsDir.resolve("2.ids"));
+
+            assertEquals(1, history.size());
+            assertArrayEquals(new long[] { 0 }, history.find("x", Long.MIN_VALUE, Long.MAX_VALUE));
+            assertEquals(1, history.append("c", List.of("x"), BASE + 4000, BASE + 5000, 4));
+            assertEquals(2, history.append("d", List.of("y", "z"), BASE + 6000, BASE + 7000, 8));
+            assertFailureRolledBack(history);
+        }
+        try (SessionHistory history = new SessionHistory(tempDir)) {
+            assertFailureRolledBack(history);
+        }
+    }
+
+    private static void assertFailureRolledBack(SessionHistory history) throws IOException {
+        assertEquals(3, history.size());
+        assertArrayEquals(new long[] { 0, 1 }, history.find("x", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertArrayEquals(new long[] { 0, 2 }, history.find("y", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertArrayEquals(new long[] { 2 }, history.find("z", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(1 + 4, history.focusSeconds("x", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals("c", history.get(1).getTask());
+        assertEquals(List.of("y", "z"), history.get(2).getTags());
+    }
+
+    private static void append(Path file, byte[] bytes) throws IOException {
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
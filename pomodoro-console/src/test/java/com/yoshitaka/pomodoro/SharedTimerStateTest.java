@@ -0,0 +1,116 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SharedTimerStateクラスのテスト
+ * 同じファイルを2回マップして、オーナーとビューアーを同一プロセス内で再現する
+ */
+class SharedTimerStateTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("オーナーが公開した状態をビューアーが読めること")
+    void testPublishAndRead() throws IOException {
+        Path file = tempDir.resolve("timer.shm");
+        try (SharedTimerState owner = SharedTimerState.create(file);
+                SharedTimerState viewer = SharedTimerState.open(file)) {
+            owner.publish(TimerService.State.PAUSED, 900_000, 1500);
+
+            SharedTimerState.Snapshot snapshot = viewer.read();
+            assertEquals(TimerService.State.PAUSED, snapshot.getState());
+            assertEquals(1500, snapshot.getTotalSeconds());
+            assertEquals(900, snapshot.remainingSeconds(System.currentTimeMillis() + 10_000)); // 一時停止中は減らない
+            assertEquals(ProcessHandle.current().pid(), viewer.getOwnerPid());
+        }
+    }
+
+    @Test
+    @DisplayName("実行中はビューアー側で完了予定時刻から残り時間を計算できること")
+    void testRunningExtrapolation() throws IOException {
+        Path file = tempDir.resolve("timer.shm");
+        try (SharedTimerState owner = SharedTimerState.create(file);
+                SharedTimerState viewer = SharedTimerState.open(file)) {
+            owner.publish(TimerService.State.RUNNING, 60_000, 60);
+
+            SharedTimerState.Snapshot snapshot = viewer.read();
+            long now = System.currentTimeMillis();
+            assertTrue(snapshot.remainingSeconds(now) <= 60);
+            assertTrue(snapshot.remainingSeconds(now + 30_000) <= 30);
+            assertEquals(0, snapshot.remainingSeconds(now + 120_000));
+        }
+    }
+
+    @Test
+    @DisplayName("ビューアーから送ったコマンドをオーナーが順番に受け取れること")
+    void testCommands() throws IOException {
+        Path file = tempDir.resolve("timer.shm");
+        try (SharedTimerState owner = SharedTimerState.create(file);
+                SharedTimerState viewer = SharedTimerState.open(file)) {
+            assertNull(owner.poll());
+            assertTrue(viewer.send(SharedTimerState.Command.START));
+            assertTrue(viewer.send(SharedTimerState.Command.STOP));
+
+            assertEquals(SharedTimerState.Command.START, owner.poll());
+            assertEquals(SharedTimerState.Command.STOP, owner.poll());
+            assertNull(owner.poll());
+
+            // スロット数を超えて送ると、読み出されるまで拒否される
+            int sent = 0;
+            while (viewer.send(SharedTimerState.Command.RESET)) {
+                sent++;
+            }
+            assertEquals(64, sent);
+            assertEquals(SharedTimerState.Command.RESET, owner.poll());
+            assertTrue(viewer.send(SharedTimerState.Command.RESET));
+        }
+    }
+
+    @Test
+    @DisplayName("書き込み中の状態を読み込んでも、項目が混ざったスナップショットにならないこと")
+    void testSeqlockConsistency() throws Exception {
+        Path file = tempDir.resolve("timer.shm");
+        try (SharedTimerState owner = SharedTimerState.create(file);
+                SharedTimerState viewer = SharedTimerState.open(file)) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread writer = new Thread(() -> {
+                long i = 0;
+                while (running.get()) {
+                    i++;
+                    // 残り時間（ミリ秒）と総時間（秒）が常に対応するように書き込む
+                    owner.publish(TimerService.State.PAUSED, i * 1000, i);
+                }
+            });
+            writer.start();
+            for (int i = 0; i < 100_000; i++) {
+                SharedTimerState.Snapshot snapshot = viewer.read();
+                assertEquals(snapshot.getTotalSeconds(), snapshot.remainingSeconds(0));
+            }
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    @DisplayName("共有ファイルではないファイルを開こうとすると例外になること")
+    void testOpen_InvalidFile() throws IOException {
+        Path file = Files.write(tempDir.resolve("other.txt"), new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> SharedTimerState.open(file));
+        assertFalse(Files.size(file) > 3); // 既存のファイルを書き換えない
+    }
+}
@@ -0,0 +1,69 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * StateSyncCodecクラスのテスト
+ */
+class StateSyncCodecTest {
+
+    @Test
+    @DisplayName("書き込んだフレームが同じ内容で読み込めること")
+    void testRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(StateSyncCodec.FRAME_BYTES * 2);
+        StateSyncCodec.encode(new StateSyncCodec.Frame(StateSyncCodec.Type.STATE, TimerService.State.RUNNING, 7,
+                1_499_321, 1500), buffer);
+        StateSyncCodec.encode(new StateSyncCodec.Frame(StateSyncCodec.Type.HEARTBEAT, TimerService.State.PAUSED, 8,
+                600_000, 1500), buffer);
+        assertEquals(StateSyncCodec.FRAME_BYTES * 2, buffer.position());
+        buffer.flip();
+
+        StateSyncCodec.Frame first = StateSyncCodec.decode(buffer);
+        assertEquals(StateSyncCodec.Type.STATE, first.getType());
+        assertEquals(TimerService.State.RUNNING, first.getState());
+        assertEquals(7, first.getSequence());
+        assertEquals(1_499_321, first.getRemainingMillis());
+        assertEquals(1500, first.getTotalSeconds());
+
+        StateSyncCodec.Frame second = StateSyncCodec.decode(buffer);
+        assertEquals(StateSyncCodec.Type.HEARTBEAT, second.getType());
+        assertEquals(TimerService.State.PAUSED, second.getState());
+        assertNull(StateSyncCodec.decode(buffer)); // これ以上のフレームはない
+    }
+
+    @Test
+    @DisplayName("1フレーム分揃っていない場合はnullを返し、バッファの位置が変わらないこと")
+    void testDecode_Partial() {
+        ByteBuffer buffer = ByteBuffer.allocate(StateSyncCodec.FRAME_BYTES - 1);
+        buffer.position(buffer.limit());
+        buffer.flip();
+        assertNull(StateSyncCodec.decode(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("マジックナンバーが異なる場合は例外が発生すること")
+    void testDecode_InvalidMagic() {
+        ByteBuffer buffer = ByteBuffer.allocate(StateSyncCodec.FRAME_BYTES);
+        assertThrows(IllegalArgumentException.class, () -> StateSyncCodec.decode(buffer));
+    }
+
+    @Test
+    @DisplayName("実行中は経過時間だけ残り時間が減り、一時停止中は減らないこと")
+    void testRemainingMillisAfter() {
+        StateSyncCodec.Frame running = new StateSyncCodec.Frame(StateSyncCodec.Type.STATE,
+                TimerService.State.RUNNING, 1, 10_000, 1500);
+        StateSyncCodec.Frame paused = new StateSyncCodec.Frame(StateSyncCodec.Type.STATE,
+                TimerService.State.PAUSED, 2, 10_000, 1500);
+        assertEquals(7_500, running.remainingMillisAfter(2_500));
+        assertEquals(0, running.remainingMillisAfter(20_000));
+        assertEquals(10_000, paused.remainingMillisAfter(2_500));
+    }
+}
@@ -0,0 +1,140 @@
+package com.yoshitaka.pomodoro;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状態同期（状態変化＋ハートビート）と、tickごとの配信を比較するデモ
+ * ループバックでサーバーとクライアントを起動し、1セッションあたりのフレーム数・バイト数と、
+ * クライアントが計算した残り時間の誤差を計測する
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する
+ *
+ * ./mvnw -pl pomodoro-console test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.yoshitaka.pomodoro.StateSyncComparison
+ *
+ * 引数: [セッションの秒数] [ハートビートの間隔（ミリ秒）] [クライアント数]
+ */
+public class StateSyncComparison {
+
+    // 25分のセッションの秒数（換算表示用）
+    private static final long POMODORO_SECONDS = TimeUnit.MINUTES.toSeconds(25);
+    // 1セッションで状態が変わる回数（開始・一時停止・再開・完了）
+    private static final long STATE_CHANGES = 4;
+
+    public static void main(String[] args) throws Exception {
+        long seconds = (args.length > 0) ? Long.parseLong(args[0]) : 20;
+        long heartbeatMillis = (args.length > 1) ? Long.parseLong(args[1]) : 5000;
+        int clients = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+        System.out.printf("session=%ds heartbeat=%dms clients=%d%n", seconds, heartbeatMillis, clients);
+
+        Result sync = run(false, seconds, heartbeatMillis, clients);
+        Result perTick = run(true, seconds, heartbeatMillis, clients);
+
+        // 25分のセッションで1クライアントに送るフレーム数の見積もり（状態変化＋ハートビートまたはtick）
+        long syncEstimate = STATE_CHANGES + TimeUnit.SECONDS.toMillis(POMODORO_SECONDS) / heartbeatMillis;
+        long perTickEstimate = STATE_CHANGES + POMODORO_SECONDS;
+
+        System.out.printf("%-10s %8s %8s %14s %14s %12s%n", "mode", "frames", "bytes", "frames/25min", "bytes/25min",
+                "max error");
+        print("sync", sync, syncEstimate);
+        print("per-tick", perTick, perTickEstimate);
+    }
+
+    private static void print(String mode, Result result, long framesPerPomodoro) {
+        System.out.printf("%-10s %8d %8d %14d %14d %10dms%n", mode, result.frames, result.bytes, framesPerPomodoro,
+                framesPerPomodoro * StateSyncCodec.FRAME_BYTES, result.maxErrorMillis);
+    }
+
+    /*
+     * 1セッション分を実行する（途中で1秒間一時停止する）
+     * perTickがtrueの場合は、状態変化に加えてtickごとにフレームを送る
+     */
+    private static Result run(boolean perTick, long seconds, long heartbeatMillis, int clientCount)
+            throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (StateSyncServer server = new StateSyncServer(new InetSocketAddress("127.0.0.1", 0), heartbeatMillis)) {
+            TimerService service = new TimerService(Duration.ofSeconds(seconds), null);
+            server.attach(service);
+            if (perTick) {
+                service.addListener(new TickStreamer(server)); // 比較用：tickごとに配信する
+            }
+            StateSyncClient[] clients = new StateSyncClient[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                clients[i] = new StateSyncClient(new InetSocketAddress("127.0.0.1", server.getPort()));
+                Thread receiver = new Thread(clients[i]);
+                receiver.setDaemon(true);
+                receiver.start();
+            }
+            while (server.getClientCount() < clientCount) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+
+            executor.submit(service);
+            long maxError = 0;
+            long pauseAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds) / 2;
+            boolean paused = false;
+            while (service.getState() != TimerService.State.IDLE || !paused) {
+                if (!paused && System.nanoTime() >= pauseAt) {
+                    service.pause();
+                    TimeUnit.SECONDS.sleep(1);
+                    service.start();
+                    paused = true;
+                }
+                TimeUnit.MILLISECONDS.sleep(50);
+                if (service.getState() == TimerService.State.RUNNING) {
+                    long actual = service.getRemainingMillis();
+                    for (StateSyncClient client : clients) {
+                        maxError = Math.max(maxError, Math.abs(client.getRemainingMillis() - actual));
+                    }
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(100); // 完了のフレームが届くのを待つ
+            for (StateSyncClient client : clients) {
+                client.close();
+            }
+            return new Result(server.getSentFrames(), server.getSentBytes(), maxError);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * tickごとにフレームを送る、比較用のリスナー
+     */
+    private static class TickStreamer implements TimerListener {
+
+        private final StateSyncServer server;
+
+        TickStreamer(StateSyncServer server) {
+            this.server = server;
+        }
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            server.publish();
+        }
+
+        @Override
+        public void onFinish() {
+        }
+
+        @Override
+        public void onStateChange() {
+        }
+    }
+
+    private static class Result {
+        final long frames;
+        final long bytes;
+        final long maxErrorMillis;
+
+        Result(long frames, long bytes, long maxErrorMillis) {
+            this.frames = frames;
+            this.bytes = bytes;
+            this.maxErrorMillis = maxErrorMillis;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StateSyncServerクラスとStateSyncClientクラスのテスト
+ * ループバックでサーバーとクライアントを起動して検証
+ */
+class StateSyncServerTest {
+
+    @Test
+    @DisplayName("状態変化だけが配信され、クライアントが残り時間を自分で計算できること")
+    void testSyncWithoutTicks() throws Exception {
+        try (StateSyncServer server = new StateSyncServer(new InetSocketAddress("127.0.0.1", 0), 60_000)) {
+            TimerService service = new TimerService(Duration.ofSeconds(2), null);
+            server.attach(service);
+            try (StateSyncClient client = new StateSyncClient(new InetSocketAddress("127.0.0.1", server.getPort()))) {
+                Thread receiver = new Thread(client);
+                receiver.start();
+                waitUntil(() -> client.getState() == TimerService.State.IDLE);
+                assertEquals(2, client.getTotalSeconds());
+
+                Thread timer = new Thread(service);
+                timer.start();
+                waitUntil(() -> client.getState() == TimerService.State.RUNNING);
+                TimeUnit.MILLISECONDS.sleep(500);
+                // tickを受信していなくても、残り時間は減っていく
+                long remaining = client.getRemainingMillis();
+                assertTrue(Math.abs(remaining - service.getRemainingMillis()) < 100, "remaining " + remaining);
+
+                service.pause();
+                waitUntil(() -> client.getState() == TimerService.State.PAUSED);
+                assertTrue(Math.abs(client.getRemainingMillis() - service.getRemainingMillis()) < 50);
+                service.start();
+
+                timer.join();
+                waitUntil(() -> client.getState() == TimerService.State.IDLE);
+                // 最初の状態・開始・一時停止・再開・完了の5フレームだけ（2秒間のtickは送られない）
+                assertEquals(5, client.getReceivedFrames());
+                // 送信数は書き込みの後に数えるため、クライアントが受信してから少し遅れることがある
+                waitUntil(() -> server.getSentFrames() >= 5);
+                assertEquals(5 * StateSyncCodec.FRAME_BYTES, server.getSentBytes());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("状態が変わらなくても、ハートビートで定期的に再送されること")
+    void testHeartbeat() throws Exception {
+        try (StateSyncServer server = new StateSyncServer(new InetSocketAddress("127.0.0.1", 0), 100)) {
+            server.attach(new TimerService(Duration.ofSeconds(2), null));
+            try (StateSyncClient client = new StateSyncClient(new InetSocketAddress("127.0.0.1", server.getPort()))) {
+                Thread receiver = new Thread(client);
+                receiver.start();
+                waitUntil(() -> client.getReceivedFrames() >= 4);
+                assertEquals(1, client.getSequence()); // ハートビートではシーケンス番号は増えない
+            }
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}
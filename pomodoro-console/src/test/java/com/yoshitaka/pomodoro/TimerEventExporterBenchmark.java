@@ -0,0 +1,66 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimerEventExporterのスループットを計測するベンチマーク
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する
+ *
+ * ./mvnw -pl pomodoro-console test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.yoshitaka.pomodoro.TimerEventExporterBenchmark
+ *
+ * 引数: [イベント数] [書き込みスレッド数] [gzip(true/false)]
+ */
+public class TimerEventExporterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long events = (args.length > 0) ? Long.parseLong(args[0]) : 10_000_000L;
+        int producers = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        boolean gzip = (args.length > 2) && Boolean.parseBoolean(args[2]);
+
+        Path directory = Files.createTempDirectory("timer-event-benchmark");
+        System.out.printf("events=%d producers=%d gzip=%b dir=%s%n", events, producers, gzip, directory);
+
+        // ウォームアップ（JITコンパイルを済ませる）
+        run(directory.resolve("warmup"), events / 10, producers, gzip);
+        // 本計測
+        long elapsedNanos = run(directory.resolve("measure"), events, producers, gzip);
+
+        double eventsPerSecond = events / (elapsedNanos / 1e9);
+        System.out.printf("elapsed=%d ms throughput=%.0f events/s%n",
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), eventsPerSecond);
+    }
+
+    // 指定件数のイベントを書き出し、すべて書き終わるまでの時間を返す
+    private static long run(Path directory, long events, int producers, boolean gzip)
+            throws IOException, InterruptedException {
+        TimerEventExporter exporter = new TimerEventExporter(directory, 256L * 1024 * 1024, gzip, 1000, 1 << 16);
+        long perProducer = events / producers;
+        Thread[] threads = new Thread[producers];
+        long start = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            final long sessionId = p;
+            threads[p] = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    // 計測では破棄させずに全件書き出すため、満杯の場合は空くまで待つ
+                    while (!exporter.publish(TimerEventExporter.EventType.TICK, sessionId, i, perProducer)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        exporter.close(); // 残りのイベントを書き出して終了
+        long elapsed = System.nanoTime() - start;
+        if (exporter.getExportedCount() != perProducer * producers) {
+            throw new IllegalStateException("exported " + exporter.getExportedCount() + " events");
+        }
+        return elapsed;
+    }
+}
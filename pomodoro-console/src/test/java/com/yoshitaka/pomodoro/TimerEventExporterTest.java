@@ -0,0 +1,146 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TimerEventExporterクラスのテスト
+ */
+class TimerEventExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("イベントがJSONLとして1行ずつ書き出されること")
+    void testPublish_WritesJsonLines() throws IOException {
+        try (TimerEventExporter exporter = new TimerEventExporter(tempDir)) {
+            exporter.publish(TimerEventExporter.EventType.START, 7, 1500, 1500);
+            exporter.publish(TimerEventExporter.EventType.TICK, 7, 1499, 1500);
+            exporter.publish(TimerEventExporter.EventType.FINISH, 7, 0, 1500);
+        }
+
+        List<String> lines = readAllLines(false);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"session\":7,\"type\":\"start\",\"remaining\":1500,\"total\":1500"));
+        assertTrue(lines.get(1).contains("\"type\":\"tick\",\"remaining\":1499"));
+        assertTrue(lines.get(2).contains("\"type\":\"finish\",\"remaining\":0"));
+    }
+
+    @Test
+    @DisplayName("サイズ上限を超えるとファイルがローテーションされること")
+    void testRotation() throws IOException {
+        try (TimerEventExporter exporter = new TimerEventExporter(tempDir, 200, false, 1000, 1024)) {
+            for (int i = 0; i < 10; i++) {
+                exporter.publish(TimerEventExporter.EventType.TICK, 1, 100 - i, 100);
+            }
+        }
+
+        assertTrue(listFiles().size() > 1); // 複数のファイルに分割されている
+        assertEquals(10, readAllLines(false).size()); // イベントは失われていない
+    }
+
+    @Test
+    @DisplayName("gzip圧縮を有効にすると圧縮ファイルとして書き出されること")
+    void testGzip() throws IOException {
+        try (TimerEventExporter exporter = new TimerEventExporter(tempDir, 1024 * 1024, true, 10, 1024)) {
+            exporter.publish(TimerEventExporter.EventType.PAUSE, 3, 900, 1500);
+        }
+
+        assertTrue(listFiles().get(0).getFileName().toString().endsWith(".jsonl.gz"));
+        List<String> lines = readAllLines(true);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"type\":\"pause\""));
+    }
+
+    @Test
+    @DisplayName("リングバッファが満杯の場合、読み出されるまで書き込みが拒否されること")
+    void testRing_RejectsWhenFull() {
+        TimerEventRing ring = new TimerEventRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(0, 1, 0, i, 4));
+        }
+        assertFalse(ring.offer(0, 1, 0, 4, 4)); // 読み出されるまで書き込めない
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(4, ring.drain((type, session, ts, remaining, total) -> drained.add(remaining), 16));
+        assertEquals(List.of(0L, 1L, 2L, 3L), drained);
+        assertTrue(ring.offer(0, 1, 0, 4, 4)); // 読み出し後は再び書き込める
+    }
+
+    @Test
+    @DisplayName("タイマーサービスに登録すると状態変化がイベントとして書き出されること")
+    void testAttach_ExportsStateChanges() throws Exception {
+        TimerService timerService = new TimerService(1, null);
+        CountDownLatch started = new CountDownLatch(1);
+        try (TimerEventExporter exporter = new TimerEventExporter(tempDir)) {
+            exporter.attach(timerService, 42);
+            // エクスポーターの後に登録したリスナーで、開始イベントが積まれたことを検知する
+            timerService.addListener(new TimerListener() {
+                @Override
+                public void onTick(long remainingSeconds, long totalSeconds) {
+                }
+
+                @Override
+                public void onFinish() {
+                }
+
+                @Override
+                public void onStateChange() {
+                    started.countDown();
+                }
+            });
+            Thread thread = new Thread(timerService);
+            thread.start();
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            timerService.pause();
+            timerService.start();
+            thread.interrupt();
+            thread.join();
+        }
+
+        List<String> lines = readAllLines(false);
+        assertTrue(lines.get(0).contains("\"session\":42,\"type\":\"start\""));
+        assertTrue(lines.get(1).contains("\"type\":\"pause\""));
+        assertTrue(lines.get(2).contains("\"type\":\"resume\""));
+    }
+
+    // 出力ディレクトリ内のファイルを名前順に取得するヘルパー
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    // 出力されたすべてのファイルから行を読み込むヘルパー
+    private List<String> readAllLines(boolean gzip) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Path file : listFiles()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    gzip ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file),
+                    StandardCharsets.UTF_8))) {
+                reader.lines().forEach(lines::add);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,92 @@
+package com.yoshitaka.pomodoro;
+
+import java.util.Arrays;
+
+/*
+ * 「残りN分」の通知タイミング（しきい値）を管理するクラス
+ *
+ * しきい値を残り秒数の降順に並べて保持し、次に到達するしきい値の位置だけを覚えておく
+ * 残り時間は減る一方なので、tickごとには「次のしきい値に到達したか」を1回比較するだけでよい
+ * （登録されているアラームの数に関係なく O(1) で判定できる）
+ *
+ * しきい値は残り秒数で表すため、一時停止中は残り時間が減らず、再開後も正しいタイミングで通知される
+ */
+final class AlarmIndex {
+
+    // 次のしきい値がない場合の値（どの残り秒数とも一致しない）
+    static final long NONE = Long.MIN_VALUE;
+
+    // しきい値（残り秒数の降順）
+    private long[] thresholds = new long[0];
+    // 次に到達するしきい値の位置
+    private int cursor = 0;
+    // 次に到達するしきい値（tickごとの比較をロックなしで行うためvolatileで公開する）
+    private volatile long next = NONE;
+
+    /*
+     * しきい値を登録するメソッド
+     * 既に通過したしきい値（現在の残り秒数以上）は通知済みとして扱う
+     *
+     * @param thresholdSeconds 通知する残り秒数
+     *
+     * @param remainingSeconds 登録時点の残り秒数
+     */
+    synchronized void add(long thresholdSeconds, long remainingSeconds) {
+        if (thresholdSeconds < 0 || thresholdSeconds >= remainingSeconds) {
+            return; // 既に通過しているか、到達しないしきい値
+        }
+        // 未到達のしきい値の中に同じ値があれば登録しない
+        for (int i = cursor; i < thresholds.length; i++) {
+            if (thresholds[i] == thresholdSeconds) {
+                return;
+            }
+        }
+        // 降順を保つ位置に挿入する（通知済みの部分は捨てて詰め直す）
+        int pending = thresholds.length - cursor;
+        long[] updated = new long[pending + 1];
+        int position = 0;
+        while (position < pending && thresholds[cursor + position] > thresholdSeconds) {
+            updated[position] = thresholds[cursor + position];
+            position++;
+        }
+        updated[position] = thresholdSeconds;
+        System.arraycopy(thresholds, cursor + position, updated, position + 1, pending - position);
+        thresholds = updated;
+        cursor = 0;
+        next = thresholds[0];
+    }
+
+    /*
+     * 次に到達するしきい値を取得するメソッド（tickごとに呼ばれる）
+     *
+     * @return 次のしきい値（残り秒数）。ない場合は NONE
+     */
+    long next() {
+        return next;
+    }
+
+    /*
+     * 残り秒数が到達したしきい値を1つ取り出すメソッド
+     *
+     * @param remainingSeconds 現在の残り秒数
+     *
+     * @return 到達したしきい値。到達していない場合は NONE
+     */
+    synchronized long poll(long remainingSeconds) {
+        if (cursor >= thresholds.length || thresholds[cursor] < remainingSeconds) {
+            return NONE;
+        }
+        long reached = thresholds[cursor++];
+        next = (cursor < thresholds.length) ? thresholds[cursor] : NONE;
+        return reached;
+    }
+
+    /*
+     * 未到達のしきい値を取得するメソッド
+     *
+     * @return 未到達のしきい値（残り秒数の降順）
+     */
+    synchronized long[] pending() {
+        return Arrays.copyOfRange(thresholds, cursor, thresholds.length);
+    }
+}
@@ -0,0 +1,215 @@
+package com.yoshitaka.pomodoro;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 通知をタイマースレッドではなく、別のスレッド（Executor）で元のリスナーに渡すリスナー
+ *
+ * 時間のかかるリスナー（ファイルへの書き込みやロックの取得待ちなど）をタイマースレッドから外し、
+ * 他のリスナーへの通知や次のtickが遅れないようにする。TickWatchdogが、何度も遅れの原因になったリスナーを自動で差し替える。
+ *
+ * - 通知は受け取った順に1つずつ元のリスナーに渡す（同じリスナーが同時に呼ばれることはない）
+ * - 元のリスナーが追いつかない間に届いたtick（onTick・onFineTick）は、最新の残り時間の1件にまとめる
+ * - Executorが停止している場合は、呼び出したスレッドでそのまま通知する
+ * - 元のリスナーが例外を投げても、スレッドのUncaughtExceptionHandlerに渡して回数を数え、残りの通知を渡し続ける
+ * - tickResolution() は元のリスナーの値をそのまま返す（タイマーのロックを持ったまま呼ばれる）
+ */
+public final class AsyncTimerListener implements TimerListener {
+
+    // 通知の種類
+    private static final int TICK = 0;
+    private static final int FINE_TICK = 1;
+    private static final int FINISH = 2;
+    private static final int STATE_CHANGE = 3;
+    private static final int ALARM = 4;
+    private static final int STALL = 5;
+
+    // 元のリスナー
+    private final TimerListener delegate;
+    // 通知を渡すスレッド
+    private final Executor executor;
+    // まだ渡していない通知（queue自身で同期する）
+    private final ArrayDeque<Event> queue = new ArrayDeque<>();
+    // 通知を渡す処理をExecutorに依頼済みかどうか（queueで保護）
+    private boolean scheduled;
+    // 元のリスナーの呼び出しで例外が発生した回数
+    private final AtomicLong failedCount = new AtomicLong();
+
+    /*
+     * コンストラクタ
+     *
+     * @param delegate 元のリスナー
+     *
+     * @param executor 通知を渡すスレッド
+     */
+    public AsyncTimerListener(TimerListener delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /*
+     * 元のリスナーを取得するメソッド
+     */
+    public TimerListener getDelegate() {
+        return delegate;
+    }
+
+    /*
+     * candidate が listener を別スレッドで呼び出すリスナーかどうかを判定するメソッド
+     * （差し替えた後に元のリスナーで removeListener された場合に使用する）
+     */
+    static boolean wraps(TimerListener candidate, TimerListener listener) {
+        return candidate instanceof AsyncTimerListener && ((AsyncTimerListener) candidate).delegate == listener;
+    }
+
+    @Override
+    public void onTick(long remainingSeconds, long totalSeconds) {
+        enqueue(TICK, remainingSeconds, totalSeconds);
+    }
+
+    @Override
+    public void onFineTick(long remainingMillis, long totalMillis) {
+        enqueue(FINE_TICK, remainingMillis, totalMillis);
+    }
+
+    @Override
+    public void onFinish() {
+        enqueue(FINISH, 0, 0);
+    }
+
+    @Override
+    public void onStateChange() {
+        enqueue(STATE_CHANGE, 0, 0);
+    }
+
+    @Override
+    public void onAlarm(long thresholdSeconds, long remainingSeconds) {
+        enqueue(ALARM, thresholdSeconds, remainingSeconds);
+    }
+
+    @Override
+    public void onStall(long lateMillis, long remainingSeconds) {
+        enqueue(STALL, lateMillis, remainingSeconds);
+    }
+
+    @Override
+    public TickResolution tickResolution() {
+        return delegate.tickResolution();
+    }
+
+    /*
+     * 通知をキューに追加し、必要であれば渡す処理をExecutorに依頼するメソッド
+     */
+    private void enqueue(int type, long first, long second) {
+        synchronized (queue) {
+            Event last = queue.peekLast();
+            if (last != null && last.type == type && (type == TICK || type == FINE_TICK)) {
+                last.first = first; // まだ渡していないtickを最新の残り時間で上書きする
+                last.second = second;
+                return;
+            }
+            queue.addLast(new Event(type, first, second));
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            drain(); // Executorが停止している場合は、このスレッドで渡す
+        }
+    }
+
+    /*
+     * キューの通知を順に元のリスナーに渡すメソッド
+     */
+    private void drain() {
+        while (true) {
+            Event event;
+            synchronized (queue) {
+                event = queue.pollFirst();
+                if (event == null) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            try {
+                deliver(event);
+            } catch (RuntimeException e) {
+                // 1件の失敗で、後ろに並んでいる完了や状態変更の通知を止めない
+                failedCount.incrementAndGet();
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } catch (Error e) {
+                resubmit(); // 残りの通知は、別のタスクで渡す
+                throw e;
+            }
+        }
+    }
+
+    /*
+     * 残りの通知を渡す処理を、もう一度Executorに依頼するメソッド
+     */
+    private void resubmit() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) {
+                scheduled = false; // 残りの通知は、次の通知が届いた時に渡す
+            }
+        }
+    }
+
+    /*
+     * 元のリスナーの呼び出しで例外が発生した回数を取得するメソッド
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /*
+     * 通知を1件、元のリスナーに渡すメソッド
+     */
+    private void deliver(Event event) {
+        switch (event.type) {
+            case TICK:
+                delegate.onTick(event.first, event.second);
+                break;
+            case FINE_TICK:
+                delegate.onFineTick(event.first, event.second);
+                break;
+            case FINISH:
+                delegate.onFinish();
+                break;
+            case STATE_CHANGE:
+                delegate.onStateChange();
+                break;
+            case ALARM:
+                delegate.onAlarm(event.first, event.second);
+                break;
+            case STALL:
+                delegate.onStall(event.first, event.second);
+                break;
+        }
+    }
+
+    /*
+     * まだ渡していない通知
+     */
+    private static final class Event {
+
+        private final int type;
+        private long first;
+        private long second;
+
+        Event(int type, long first, long second) {
+            this.type = type;
+            this.first = first;
+            this.second = second;
+        }
+    }
+}
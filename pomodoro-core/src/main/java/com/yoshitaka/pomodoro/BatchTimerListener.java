@@ -0,0 +1,52 @@
+package com.yoshitaka.pomodoro;
+
+/*
+ * TimerSchedulerが動かす多数のタイマーの通知を、まとめて受け取るためのリスナーインターフェース
+ *
+ * TimerListenerはタイマー1つにつき1回ずつ呼び出されるため、数千のセッションを1つの処理（画面表示やエクスポーターなど）で
+ * 監視すると、1秒間に数千回の呼び出しとロックの取得が必要になる。
+ * このインターフェースでは、1回のスケジューリングで進んだ全てのタイマーのtickを、
+ * ハンドルと残り時間のプリミティブ配列（TickBatch）として1回で受け取れる。
+ * ロックの取得は1回で済み、配列を順に読むだけでまとめて処理できる。
+ *
+ * タイマーは TimerScheduler.register で登録した時のハンドル（整数）で区別する
+ */
+public interface BatchTimerListener {
+
+    /*
+     * 1回のスケジューリングで進んだ全てのタイマーのtickを受け取るメソッド
+     * TimerSchedulerのスレッドから呼ばれる。TickBatchの配列は次の呼び出しで再利用されるため、
+     * このメソッドの中で読み終える（保持する場合はコピーする）
+     *
+     * @param batch tickの一覧（size() 件）
+     */
+    void onTicks(TickBatch batch);
+
+    /*
+     * タイマーが完了したときに呼び出されるメソッド
+     * 同じスケジューリングのtick（残り0秒を含む）を onTicks で渡した後に呼ばれる
+     *
+     * @param handle 完了したタイマーのハンドル
+     */
+    default void onFinish(int handle) {
+    }
+
+    /*
+     * タイマーの状態が変更されたときに呼び出されるメソッド（開始・一時停止・再開）
+     * 状態を変更したスレッドから呼ばれる
+     *
+     * @param handle 状態が変わったタイマーのハンドル
+     */
+    default void onStateChange(int handle) {
+    }
+
+    /*
+     * このリスナーが必要とするtickの細かさを返すメソッド
+     * FINE は SECOND として扱う（100ミリ秒ごとの通知はまとめない）
+     *
+     * @return tickの細かさ（デフォルトは1秒ごと）
+     */
+    default TickResolution tickResolution() {
+        return TickResolution.SECOND;
+    }
+}
@@ -0,0 +1,109 @@
+package com.yoshitaka.pomodoro;
+
+/*
+ * CyclePlanの全てのフェーズ（作業・短い休憩・長い休憩）を、1つのスレッドで続けて動かすクラス
+ *
+ * フェーズごとにスレッドやスレッドプールを作り直さず、run() を実行しているスレッドで
+ * 各フェーズのTimerServiceを順に動かす。次のフェーズは、前のフェーズの完了予定時刻に開始したものとして始めるため
+ * （TimerService.beginAt）、完了の通知や画面の更新に時間がかかっても、フェーズの間に隙間ができず、時間もずれない。
+ * 一時停止した場合は、その分だけ以降のフェーズが後ろにずれる。
+ *
+ * 使い方:
+ * 1. getCurrent() で最初のフェーズのタイマーを取得し、リスナーを登録する
+ * 2. run() をスレッドプールなどで実行する
+ * 3. 2つ目以降のフェーズのタイマーは CycleListener.onNextPhase で受け取る
+ */
+public final class CycleEngine implements Runnable {
+
+    // サイクルの予定
+    private final CyclePlan plan;
+    // フェーズの切り替えを受け取るリスナー
+    private final CycleListener listener;
+    // 現在のフェーズの位置
+    private volatile int index;
+    // 現在のフェーズのタイマー
+    private volatile TimerService current;
+    // cancel()が呼ばれたかどうか
+    private volatile boolean cancelled;
+
+    /*
+     * コンストラクタ
+     * 最初のフェーズのタイマーを作成する（開始はしない）
+     *
+     * @param plan サイクルの予定
+     *
+     * @param listener フェーズの切り替えを受け取るリスナー
+     */
+    public CycleEngine(CyclePlan plan, CycleListener listener) {
+        this.plan = plan;
+        this.listener = listener;
+        this.current = new TimerService(plan.getStep(0).getDuration(), null);
+    }
+
+    /*
+     * 全てのフェーズを順に動かすメソッド
+     * 最後のフェーズが完了するか、キャンセル・中断されるまで戻らない
+     */
+    @Override
+    public void run() {
+        TimerService service = current;
+        service.run(); // 最初のフェーズ（既に beginNow で開始している場合は、そのまま続ける）
+        for (int i = 1; ; i++) {
+            long finishedAt = service.getFinishedAtNanos();
+            if (finishedAt == TimerService.FINISHED) {
+                return; // キャンセル・中断された
+            }
+            listener.onPhaseFinish(plan.getStep(i - 1), finishedAt);
+            if (i == plan.size()) {
+                break;
+            }
+            if (cancelled || Thread.currentThread().isInterrupted()) {
+                return; // キャンセル・中断された
+            }
+            CyclePlan.Step step = plan.getStep(i);
+            service = new TimerService(step.getDuration(), null);
+            index = i;
+            current = service;
+            if (cancelled) {
+                service.cancel(); // 切り替えの途中でキャンセルされた（cancel()が前のタイマーを見ていた）
+                return;
+            }
+            listener.onNextPhase(step, service);
+            service.beginAt(finishedAt); // 前のフェーズの完了予定時刻から続けて開始する
+            service.run();
+        }
+        listener.onCycleFinish();
+    }
+
+    /*
+     * サイクルをキャンセルするメソッド（リセット時に使用する）
+     * 現在のフェーズのタイマーをキャンセルし、次のフェーズには進まない
+     */
+    public void cancel() {
+        cancelled = true;
+        current.cancel();
+    }
+
+    /*
+     * 現在のフェーズのタイマーを取得するメソッド
+     *
+     * @return 現在のフェーズのタイマー（run() の前は最初のフェーズのタイマー）
+     */
+    public TimerService getCurrent() {
+        return current;
+    }
+
+    /*
+     * 現在のフェーズを取得するメソッド
+     */
+    public CyclePlan.Step getCurrentStep() {
+        return plan.getStep(index);
+    }
+
+    /*
+     * サイクルの予定を取得するメソッド
+     */
+    public CyclePlan getPlan() {
+        return plan;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yoshitaka.pomodoro;
+
+/*
+ * CycleEngineのフェーズの切り替えを受け取るためのリスナーインターフェース
+ *
+ * 各フェーズのtick・完了・状態変更は、フェーズごとのTimerServiceにTimerListenerを登録して受け取る。
+ * このインターフェースでは、各フェーズが完了したこと、次のフェーズのタイマーが作られたこと
+ * （リスナーを登録する機会）と、サイクル全体が完了したことを受け取る
+ */
+public interface CycleListener {
+
+    /*
+     * フェーズが完了した時に呼び出されるメソッド
+     * CycleEngineのスレッドから、そのフェーズの onFinish の後、onNextPhase・onCycleFinish の前に呼ばれる。
+     * TimerListenerと違い、TickWatchdogによって別スレッドに移されることはないため、
+     * 完了したフェーズの記録など、フェーズの切り替えより前に終わらせたい処理はここで行う。
+     * キャンセルや中断で途中で終わったフェーズでは呼ばれない
+     *
+     * @param step 完了したフェーズ
+     *
+     * @param finishedAtNanos 完了した時刻（System.nanoTime基準の完了予定時刻）
+     */
+    default void onPhaseFinish(CyclePlan.Step step, long finishedAtNanos) {
+    }
+
+    /*
+     * 次のフェーズに移る時に呼び出されるメソッド
+     * CycleEngineのスレッドから、前のフェーズの onFinish の後、次のフェーズのタイマーを開始する前に呼ばれる。
+     * ここで service にリスナーやアラームを登録すると、開始の通知から受け取れる
+     *
+     * @param step 次のフェーズ
+     *
+     * @param service 次のフェーズのタイマー（まだ開始していない）
+     */
+    void onNextPhase(CyclePlan.Step step, TimerService service);
+
+    /*
+     * 最後のフェーズ（長い休憩）が完了した時に呼び出されるメソッド
+     * キャンセルや中断で途中で終わった場合は呼ばれない
+     */
+    default void onCycleFinish() {
+    }
+}
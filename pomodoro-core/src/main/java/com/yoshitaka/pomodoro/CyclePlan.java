@@ -0,0 +1,176 @@
+package com.yoshitaka.pomodoro;
+
+import java.time.Duration;
+
+/*
+ * 作業・短い休憩・長い休憩からなる1サイクルの予定
+ *
+ * 「作業 → 短い休憩」を繰り返し、最後の作業の後だけ長い休憩をとる。
+ * 例えば作業の回数が4回の場合は、以下の8つのフェーズになる
+ * 作業 → 短い休憩 → 作業 → 短い休憩 → 作業 → 短い休憩 → 作業 → 長い休憩
+ *
+ * 不変オブジェクトのため、複数のスレッドから共有できる
+ */
+public final class CyclePlan {
+
+    /*
+     * フェーズの種類を表す列挙型
+     */
+    public enum Phase {
+        WORK("作業"), // 作業
+        SHORT_BREAK("短い休憩"), // 作業と作業の間の休憩
+        LONG_BREAK("長い休憩"); // サイクルの最後の休憩
+
+        // 画面に表示する名前
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /*
+         * 画面に表示する名前を取得するメソッド
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /*
+     * サイクルの中の1つのフェーズ（種類・長さ・サイクルの中の位置）
+     */
+    public static final class Step {
+
+        // フェーズの種類
+        private final Phase phase;
+        // フェーズの長さ
+        private final Duration duration;
+        // サイクルの中の位置（0から始まる）
+        private final int index;
+        // 何回目の作業か、またはその作業の後の休憩か（1から始まる）
+        private final int round;
+        // 1サイクルの作業の回数
+        private final int rounds;
+
+        private Step(Phase phase, Duration duration, int index, int round, int rounds) {
+            this.phase = phase;
+            this.duration = duration;
+            this.index = index;
+            this.round = round;
+            this.rounds = rounds;
+        }
+
+        /*
+         * フェーズの種類を取得するメソッド
+         */
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /*
+         * フェーズの長さを取得するメソッド
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /*
+         * サイクルの中の位置（0から始まる）を取得するメソッド
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /*
+         * 何回目の作業か（休憩の場合は直前の作業の回数）を取得するメソッド（1から始まる）
+         */
+        public int getRound() {
+            return round;
+        }
+
+        /*
+         * 1サイクルの作業の回数を取得するメソッド
+         */
+        public int getRounds() {
+            return rounds;
+        }
+    }
+
+    // 作業の長さのデフォルト値（25分）
+    public static final Duration DEFAULT_WORK = Duration.ofMinutes(25);
+    // 短い休憩の長さのデフォルト値（5分）
+    public static final Duration DEFAULT_SHORT_BREAK = Duration.ofMinutes(5);
+    // 長い休憩の長さのデフォルト値（15分）
+    public static final Duration DEFAULT_LONG_BREAK = Duration.ofMinutes(15);
+    // 1サイクルの作業の回数のデフォルト値
+    public static final int DEFAULT_ROUNDS = 4;
+
+    // フェーズの一覧（作成時に全て作っておき、サイクルの途中では生成しない）
+    private final Step[] steps;
+
+    /*
+     * コンストラクタ
+     *
+     * @param work 作業の長さ
+     *
+     * @param shortBreak 短い休憩の長さ
+     *
+     * @param longBreak 長い休憩の長さ
+     *
+     * @param rounds 1サイクルの作業の回数（1以上）
+     *
+     * @throws IllegalArgumentException 長さが負、または作業の回数が1未満の場合
+     */
+    public CyclePlan(Duration work, Duration shortBreak, Duration longBreak, int rounds) {
+        if (work.isNegative() || shortBreak.isNegative() || longBreak.isNegative()) {
+            throw new IllegalArgumentException("durations must not be negative");
+        }
+        if (rounds < 1) {
+            throw new IllegalArgumentException("rounds must be at least 1: " + rounds);
+        }
+        this.steps = new Step[rounds * 2];
+        for (int round = 1; round <= rounds; round++) {
+            int index = (round - 1) * 2;
+            steps[index] = new Step(Phase.WORK, work, index, round, rounds);
+            if (round < rounds) {
+                steps[index + 1] = new Step(Phase.SHORT_BREAK, shortBreak, index + 1, round, rounds);
+            } else {
+                steps[index + 1] = new Step(Phase.LONG_BREAK, longBreak, index + 1, round, rounds); // 最後の作業の後
+            }
+        }
+    }
+
+    /*
+     * デフォルトの予定（作業25分・短い休憩5分・長い休憩15分・作業4回）を作成するメソッド
+     */
+    public static CyclePlan standard() {
+        return new CyclePlan(DEFAULT_WORK, DEFAULT_SHORT_BREAK, DEFAULT_LONG_BREAK, DEFAULT_ROUNDS);
+    }
+
+    /*
+     * フェーズの数を取得するメソッド（作業の回数の2倍）
+     */
+    public int size() {
+        return steps.length;
+    }
+
+    /*
+     * 指定した位置のフェーズを取得するメソッド
+     *
+     * @param index サイクルの中の位置（0から size() - 1 まで）
+     */
+    public Step getStep(int index) {
+        return steps[index];
+    }
+
+    /*
+     * 1サイクル全体の長さを取得するメソッド
+     */
+    public Duration getTotalDuration() {
+        Duration total = Duration.ZERO;
+        for (Step step : steps) {
+            total = total.plus(step.duration);
+        }
+        return total;
+    }
+}
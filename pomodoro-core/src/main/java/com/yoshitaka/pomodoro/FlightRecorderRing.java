@@ -0,0 +1,194 @@
+package com.yoshitaka.pomodoro;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * 直近N件のタイマーの動作記録を保持する、メモリ上のフライトレコーダー
+ *
+ * セッションの完了が遅れた原因を後から調べられるよう、tick・状態変化・リスナー呼び出し・
+ * 画面描画・コマンド処理を固定サイズのリングバッファに記録し続ける。
+ * 古い記録は新しい記録で上書きされるため、メモリ使用量は一定のまま。
+ * 必要な時（dumpコマンドや異常終了時）にテキストとして書き出す。
+ *
+ * 複数のスレッドから同時に記録できる。各スロットのシーケンス番号で、
+ * 書き出し中に上書きされた記録を読み飛ばす。
+ * スロットはシーケンス番号のCASで確保するため、1つのスロットを同時に書き込むのは1スレッドだけになる。
+ * 1周前の記録がまだ書き込み中のスロットに当たった場合（容量を超える数のスレッドが同時に記録した場合）は、
+ * 待たずにその記録を捨てる。
+ */
+public final class FlightRecorderRing {
+
+    /*
+     * 記録の種類
+     */
+    public enum Kind {
+        TICK, // tickの通知（arg1: 残り秒数、arg2: 総秒数）
+        STATE_CHANGE, // 状態変化（arg1: 変化前の状態、arg2: 変化後の状態）
+        LISTENER_CALLBACK, // リスナーの呼び出し（label: リスナーのクラス名とメソッド名）
+        DISPLAY_FRAME, // 画面描画（label: 描画した画面）
+        COMMAND, // コマンド処理（label: コマンド）
+        STALL // tickの遅れの検知（処理時間: 遅れ、arg1: 残り秒数）
+    }
+
+    // 記録の種類の配列（ordinalから引くため、values()の複製を避けてキャッシュする）
+    private static final Kind[] KINDS = Kind.values();
+    // 状態の配列（状態変化の記録を表示するため）
+    private static final TimerService.State[] STATES = TimerService.State.values();
+    // シーケンス番号の特別な値（書き込み中・未記録）
+    private static final long WRITING = -1;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    // スロット数
+    private final int capacity;
+    // 次に書き込む位置
+    private final AtomicLong next = new AtomicLong();
+    // 各スロットのシーケンス番号（書き込み中は WRITING、未記録は EMPTY）
+    private final AtomicLongArray sequences;
+    // スロットを確保できずに捨てた記録の件数
+    private final AtomicLong dropped = new AtomicLong();
+    // 記録の各項目
+    private final int[] kinds;
+    private final long[] timestamps;
+    private final long[] durations;
+    private final long[] firstArgs;
+    private final long[] secondArgs;
+    private final String[] labels;
+    private final String[] threads;
+
+    /*
+     * コンストラクタ
+     *
+     * @param capacity 保持する記録の件数
+     */
+    public FlightRecorderRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, EMPTY);
+        }
+        this.kinds = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.durations = new long[capacity];
+        this.firstArgs = new long[capacity];
+        this.secondArgs = new long[capacity];
+        this.labels = new String[capacity];
+        this.threads = new String[capacity];
+    }
+
+    /*
+     * 記録を1件追加するメソッド（複数スレッドから呼び出し可能、ブロックしない）
+     *
+     * @param kind 記録の種類
+     *
+     * @param durationNanos 処理にかかった時間（ナノ秒）
+     *
+     * @param firstArg 種類ごとの値1
+     *
+     * @param secondArg 種類ごとの値2
+     *
+     * @param label 種類ごとの文字列（なければnull）
+     */
+    public void record(Kind kind, long durationNanos, long firstArg, long secondArg, String label) {
+        long position = next.getAndIncrement();
+        int index = (int) (position % capacity);
+        long previous = sequences.get(index);
+        if (previous == WRITING || previous > position || !sequences.compareAndSet(index, previous, WRITING)) {
+            dropped.incrementAndGet(); // 他のスレッドが書き込み中、または既に新しい記録で上書きされた
+            return;
+        }
+        VarHandle.storeStoreFence(); // 書き込み中の印より前に各項目が書き込まれないようにする
+        kinds[index] = kind.ordinal();
+        timestamps[index] = System.currentTimeMillis();
+        durations[index] = durationNanos;
+        firstArgs[index] = firstArg;
+        secondArgs[index] = secondArg;
+        labels[index] = label;
+        threads[index] = Thread.currentThread().getName();
+        sequences.setRelease(index, position); // 書き込み完了
+    }
+
+    /*
+     * これまでに記録した件数（上書きされたものを含む）を取得するメソッド
+     */
+    public long getRecordedCount() {
+        return next.get();
+    }
+
+    /*
+     * スロットを確保できずに捨てた記録の件数を取得するメソッド
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /*
+     * 保持している記録を古い順にテキストとして書き出すメソッド
+     *
+     * @param out 書き出し先
+     */
+    public void dump(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        long end = next.get();
+        long start = Math.max(0, end - capacity);
+        writer.printf("# pomodoro flight recorder: %d of %d events%n", end - start, end);
+        for (long position = start; position < end; position++) {
+            int index = (int) (position % capacity);
+            if (sequences.getAcquire(index) != position) {
+                continue; // 書き込み中、または既に上書きされた
+            }
+            int kind = kinds[index];
+            long timestamp = timestamps[index];
+            long duration = durations[index];
+            long firstArg = firstArgs[index];
+            long secondArg = secondArgs[index];
+            String label = labels[index];
+            String thread = threads[index];
+            VarHandle.loadLoadFence(); // 各項目を読んでから番号を読み直す
+            if (sequences.getOpaque(index) != position) {
+                continue; // 読んでいる間に上書きされた
+            }
+            writer.printf("%s %-17s %9.3fms [%s] %s%n", Instant.ofEpochMilli(timestamp), KINDS[kind],
+                    duration / 1e6, thread, describe(KINDS[kind], firstArg, secondArg, label));
+        }
+        writer.flush();
+    }
+
+    /*
+     * 保持している記録をファイルに書き出すメソッド
+     *
+     * @param file 書き出し先のファイル
+     */
+    public void dump(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            dump(out);
+        }
+    }
+
+    /*
+     * 記録の種類に応じて値を説明する文字列を作るメソッド
+     */
+    private static String describe(Kind kind, long firstArg, long secondArg, String label) {
+        switch (kind) {
+            case TICK:
+                return "remaining=" + firstArg + "s total=" + secondArg + "s";
+            case STATE_CHANGE:
+                return STATES[(int) firstArg] + " -> " + STATES[(int) secondArg];
+            case STALL:
+                return "remaining=" + firstArg + "s";
+            default:
+                return (label != null) ? label : "";
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.yoshitaka.pomodoro;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * チームで共有するポモドーロ（グループセッション）を管理するクラス
+ *
+ * 参加者ごとにTimerServiceとスレッドを持つと、参加者の数だけスレッドが必要になり、
+ * 各タイマーの開始時刻や一時停止のタイミングもずれていく。
+ * このクラスでは、1つのTimerServiceを正としてグループ全体を動かす：
+ * 1. tickは1回だけスケジュールされ、参加者全員のリスナーに配信（ファンアウト）される
+ * 2. 参加者が多い場合は、一定数ずつのバッチに分けて並列に配信する
+ * 3. 一時停止・再開はタイマー1つに対する操作なので、グループ全体に一度に反映される
+ *
+ * 参加者の一覧はコピーオンライトの配列で保持するため、配信中に参加・退出しても安全に動作する
+ */
+public class GroupSession implements Runnable, TimerListener {
+
+    // 1つのバッチで配信する参加者の数
+    static final int BATCH_SIZE = 1024;
+
+    // グループ全体を動かすタイマー
+    private final TimerService timerService;
+    // 大人数への配信に使用するスレッドプール
+    private final ForkJoinPool fanOutPool;
+    // 参加者のリスナー一覧（コピーオンライトの配列）
+    private volatile TimerListener[] members = new TimerListener[0];
+    // 参加者全体で必要なtickの細かさ（参加・退出のたびに計算し直す）
+    private volatile TickResolution requiredResolution = TickResolution.FINISH_ONLY;
+    // 参加者のリスナーで例外が発生した回数
+    private final AtomicLong failedDeliveries = new AtomicLong();
+    // 前回のtickで配信した残り秒数（参加者ごとの細かさで配信するかどうかの判定に使用）
+    private long previousTickSeconds;
+
+    /*
+     * 共通のスレッドプールで配信するグループセッションを作成するコンストラクタ
+     *
+     * @param duration タイマーの継続時間
+     */
+    public GroupSession(Duration duration) {
+        this(duration, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * 配信に使用するスレッドプールを指定してグループセッションを作成するコンストラクタ
+     *
+     * @param duration タイマーの継続時間
+     *
+     * @param fanOutPool 大人数への配信に使用するスレッドプール
+     */
+    public GroupSession(Duration duration, ForkJoinPool fanOutPool) {
+        this.timerService = new TimerService(duration, this);
+        this.fanOutPool = fanOutPool;
+        this.previousTickSeconds = timerService.getTotalSeconds();
+    }
+
+    /*
+     * グループのタイマーを実行するメソッド
+     * PomodoroAppと同様に、ExecutorServiceなどの別スレッドで実行する
+     */
+    @Override
+    public void run() {
+        timerService.run();
+    }
+
+    /*
+     * グループに参加するメソッド
+     * 実行中のグループに参加した場合は、現在の状態を知らせるためにonStateChangeを呼び出す
+     *
+     * @param member 参加者のリスナー
+     */
+    public synchronized void join(TimerListener member) {
+        TimerListener[] current = members;
+        TimerListener[] updated = Arrays.copyOf(current, current.length + 1); // 配列をコピーして末尾に追加
+        updated[current.length] = member;
+        members = updated;
+        updateResolution(updated);
+        if (timerService.getState() != TimerService.State.IDLE) {
+            member.onStateChange(); // 途中参加の参加者に現在の状態を知らせる
+        }
+    }
+
+    /*
+     * グループから退出するメソッド
+     *
+     * @param member 退出する参加者のリスナー
+     */
+    public synchronized void leave(TimerListener member) {
+        TimerListener[] current = members;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == member) {
+                TimerListener[] updated = new TimerListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                members = updated;
+                updateResolution(updated);
+                return;
+            }
+        }
+    }
+
+    /*
+     * グループ全体のタイマーを一時停止するメソッド
+     */
+    public void pause() {
+        timerService.pause();
+    }
+
+    /*
+     * 一時停止中のグループ全体のタイマーを再開するメソッド
+     */
+    public void resume() {
+        timerService.start();
+    }
+
+    /*
+     * グループのタイマーを取得するメソッド（アラームの登録や残り時間の取得に使用する）
+     */
+    public TimerService getTimerService() {
+        return timerService;
+    }
+
+    /*
+     * 参加者の数を取得するメソッド
+     */
+    public int getMemberCount() {
+        return members.length;
+    }
+
+    /*
+     * 参加者のリスナーで例外が発生した回数を取得するメソッド
+     */
+    public long getFailedDeliveries() {
+        return failedDeliveries.get();
+    }
+
+    /*
+     * 参加者全体で必要なtickの細かさを計算し直すメソッド
+     */
+    private void updateResolution(TimerListener[] current) {
+        TickResolution required = TickResolution.FINISH_ONLY;
+        for (TimerListener member : current) {
+            TickResolution resolution = member.tickResolution();
+            if (resolution == null) {
+                resolution = TickResolution.SECOND; // 未指定の場合は1秒ごと
+            }
+            if (resolution.ordinal() < required.ordinal()) {
+                required = resolution;
+            }
+        }
+        if (required != requiredResolution) {
+            requiredResolution = required;
+            timerService.resolutionChanged(); // 実行中のタイマーに、新しい細かさで待機時間を計算し直させる
+        }
+    }
+
+    @Override
+    public TickResolution tickResolution() {
+        return requiredResolution; // 最も細かい参加者に合わせてタイマーを起床させる
+    }
+
+    @Override
+    public void onTick(long remainingSeconds, long totalSeconds) {
+        fanOut(Event.TICK, remainingSeconds, totalSeconds);
+        previousTickSeconds = remainingSeconds; // 配信が終わってから更新する（配信中は参照される）
+    }
+
+    @Override
+    public void onFineTick(long remainingMillis, long totalMillis) {
+        fanOut(Event.FINE_TICK, remainingMillis, totalMillis); // FINE を指定した参加者にのみ配信される
+    }
+
+    @Override
+    public void onFinish() {
+        fanOut(Event.FINISH, 0, timerService.getTotalSeconds());
+    }
+
+    @Override
+    public void onStateChange() {
+        fanOut(Event.STATE_CHANGE, 0, 0);
+    }
+
+    @Override
+    public void onAlarm(long thresholdSeconds, long remainingSeconds) {
+        fanOut(Event.ALARM, thresholdSeconds, remainingSeconds);
+    }
+
+    /*
+     * 1つのイベントを参加者全員に配信するメソッド
+     * 参加者が1バッチ分以下ならタイマースレッドでそのまま配信し、
+     * それより多い場合はバッチに分けてスレッドプールで並列に配信する（全員に届くまで待つ）
+     */
+    private void fanOut(Event event, long first, long second) {
+        TimerListener[] snapshot = members; // 配信中の参加・退出の影響を受けないよう、配列を固定する
+        if (snapshot.length <= BATCH_SIZE) {
+            deliver(snapshot, 0, snapshot.length, event, first, second);
+        } else {
+            fanOutPool.invoke(new FanOutTask(snapshot, 0, snapshot.length, event, first, second));
+        }
+    }
+
+    /*
+     * 参加者の一部（from〜to）にイベントを配信するメソッド
+     * 1人のリスナーの例外で他の参加者への配信が止まらないよう、例外は記録して続行する
+     */
+    private void deliver(TimerListener[] targets, int from, int to, Event event, long first, long second) {
+        for (int i = from; i < to; i++) {
+            TimerListener member = targets[i];
+            try {
+                switch (event) {
+                    case TICK:
+                        TickResolution resolution = member.tickResolution();
+                        if (resolution == null || resolution.crossed(first, previousTickSeconds)) {
+                            member.onTick(first, second); // 参加者が必要とする細かさの区切りを通過した場合のみ配信
+                        }
+                        break;
+                    case FINE_TICK:
+                        if (member.tickResolution() == TickResolution.FINE) {
+                            member.onFineTick(first, second);
+                        }
+                        break;
+                    case FINISH:
+                        member.onFinish();
+                        break;
+                    case STATE_CHANGE:
+                        member.onStateChange();
+                        break;
+                    case ALARM:
+                        member.onAlarm(first, second);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                failedDeliveries.incrementAndGet();
+            }
+        }
+    }
+
+    /*
+     * 配信するイベントの種類
+     */
+    private enum Event {
+        TICK, FINE_TICK, FINISH, STATE_CHANGE, ALARM
+    }
+
+    /*
+     * 参加者の配列をバッチの大きさになるまで分割して並列に配信するタスク
+     */
+    private final class FanOutTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TimerListener[] targets;
+        private final int from;
+        private final int to;
+        private final Event event;
+        private final long first;
+        private final long second;
+
+        FanOutTask(TimerListener[] targets, int from, int to, Event event, long first, long second) {
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+            this.event = event;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                deliver(targets, from, to, event, first, second);
+                return;
+            }
+            int middle = (from + to) >>> 1; // 半分に分割する
+            invokeAll(new FanOutTask(targets, from, middle, event, first, second),
+                    new FanOutTask(targets, middle, to, event, first, second));
+        }
+    }
+}
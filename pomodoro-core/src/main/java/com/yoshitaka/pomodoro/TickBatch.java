@@ -0,0 +1,76 @@
+package com.yoshitaka.pomodoro;
+
+import java.util.Arrays;
+
+/*
+ * 1回のスケジューリングで進んだタイマーのtickの一覧
+ *
+ * ハンドル・残り時間・総時間を別々のプリミティブ配列で保持する（オブジェクトを作らず、配列を順に読むだけで処理できる）。
+ * 配列は容量が足りなくなった時だけ大きくし、以降のスケジューリングでも再利用する。
+ * 各配列の有効な要素は先頭から size() 件まで
+ */
+public final class TickBatch {
+
+    // 配列の初期容量
+    private static final int INITIAL_CAPACITY = 64;
+
+    // tickの件数
+    private int size;
+    // tickしたタイマーのハンドル
+    private int[] handles = new int[INITIAL_CAPACITY];
+    // 残り時間（秒）
+    private long[] remainingSeconds = new long[INITIAL_CAPACITY];
+    // 総時間（秒）
+    private long[] totalSeconds = new long[INITIAL_CAPACITY];
+
+    /*
+     * tickの件数を取得するメソッド
+     */
+    public int size() {
+        return size;
+    }
+
+    /*
+     * tickしたタイマーのハンドルの配列を取得するメソッド（有効な要素は size() 件まで）
+     */
+    public int[] handles() {
+        return handles;
+    }
+
+    /*
+     * 残り時間（秒）の配列を取得するメソッド（有効な要素は size() 件まで）
+     */
+    public long[] remainingSeconds() {
+        return remainingSeconds;
+    }
+
+    /*
+     * 総時間（秒）の配列を取得するメソッド（有効な要素は size() 件まで）
+     */
+    public long[] totalSeconds() {
+        return totalSeconds;
+    }
+
+    /*
+     * tickを1件追加するメソッド
+     */
+    void add(int handle, long remaining, long total) {
+        if (size == handles.length) {
+            int capacity = size * 2;
+            handles = Arrays.copyOf(handles, capacity);
+            remainingSeconds = Arrays.copyOf(remainingSeconds, capacity);
+            totalSeconds = Arrays.copyOf(totalSeconds, capacity);
+        }
+        handles[size] = handle;
+        remainingSeconds[size] = remaining;
+        totalSeconds[size] = total;
+        size++;
+    }
+
+    /*
+     * 次のスケジューリングのために空にするメソッド（配列は再利用する）
+     */
+    void clear() {
+        size = 0;
+    }
+}
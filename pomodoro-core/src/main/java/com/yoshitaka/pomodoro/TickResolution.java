@@ -0,0 +1,76 @@
+package com.yoshitaka.pomodoro;
+
+/*
+ * リスナーが必要とするtickの細かさを表す列挙型
+ *
+ * TimerServiceは、登録されているリスナーのうち最も細かい細かさに合わせて起床する
+ * 例えば、画面表示がなく完了通知だけが必要な場合は FINISH_ONLY を指定すると、
+ * 25分のタイマーでも起床は完了時の1回だけになる
+ * 逆に FINE を指定すると、1秒ごとのonTickに加えて、100ミリ秒ごとにonFineTickを受け取れる
+ */
+public enum TickResolution {
+    FINE(1, 100), // 1秒ごとのonTickに加えて、100ミリ秒ごとにonFineTickを受け取る（高解像度の画面表示など）
+    SECOND(1, 0), // 1秒ごとにonTickを受け取る（画面表示など）
+    MINUTE(60, 0), // 残り時間が1分区切りになるたびにonTickを受け取る
+    FINISH_ONLY(0, 0); // onTickを受け取らない（onFinishとonAlarmのみ）
+
+    // tickの間隔（秒）。0の場合はtickなし
+    private final long intervalSeconds;
+    // onFineTickの間隔（ミリ秒）。0の場合はonFineTickなし
+    private final long fineIntervalMillis;
+
+    TickResolution(long intervalSeconds, long fineIntervalMillis) {
+        this.intervalSeconds = intervalSeconds;
+        this.fineIntervalMillis = fineIntervalMillis;
+    }
+
+    /*
+     * tickの間隔を取得するメソッド
+     *
+     * @return tickの間隔（秒）。tickを受け取らない場合は0
+     */
+    public long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /*
+     * onFineTickの間隔を取得するメソッド
+     *
+     * @return onFineTickの間隔（ミリ秒）。onFineTickを受け取らない場合は0
+     */
+    public long getFineIntervalMillis() {
+        return fineIntervalMillis;
+    }
+
+    /*
+     * 残り秒数が previousSeconds から remainingSeconds に減った間に、
+     * この細かさのtickの区切りを通過したかどうかを判定するメソッド
+     *
+     * @param remainingSeconds 現在の残り秒数
+     *
+     * @param previousSeconds 前回通知した残り秒数
+     *
+     * @return 区切りを通過した場合 true
+     */
+    boolean crossed(long remainingSeconds, long previousSeconds) {
+        if (intervalSeconds == 0 || remainingSeconds >= previousSeconds) {
+            return false;
+        }
+        // previousSecondsより小さい最大の区切りが、現在の残り秒数以上かどうか
+        return (previousSeconds - 1) / intervalSeconds * intervalSeconds >= remainingSeconds;
+    }
+
+    /*
+     * previousSeconds の次に到達する区切りの残り秒数を取得するメソッド
+     *
+     * @param previousSeconds 前回通知した残り秒数
+     *
+     * @return 次の区切りの残り秒数（tickを受け取らない場合は0 = 完了時）
+     */
+    long nextBoundary(long previousSeconds) {
+        if (intervalSeconds == 0 || previousSeconds <= 0) {
+            return 0;
+        }
+        return (previousSeconds - 1) / intervalSeconds * intervalSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package com.yoshitaka.pomodoro;
+
+/*
+ * タイマースレッドで同期的に呼び出す必要があるリスナーを表すインターフェース
+ *
+ * TickWatchdogは、何度も遅れの原因になったリスナーを別スレッドで呼び出すリスナー（AsyncTimerListener）に差し替えるが、
+ * このインターフェースを実装したリスナーは差し替えない。
+ * 例えば、TimerSchedulerのリスナーはadvance()の中で呼ばれる前提でtickを集めるため、別スレッドに移すとtickを取りこぼす
+ */
+public interface TickThreadListener extends TimerListener {
+}
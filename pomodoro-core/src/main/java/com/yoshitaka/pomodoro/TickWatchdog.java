@@ -0,0 +1,198 @@
+package com.yoshitaka.pomodoro;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * タイマースレッドが予定どおりに起床・通知できているかを監視するクラス
+ *
+ * GC・CPUの制限・時間のかかるリスナーなどでタイマースレッドが止まると、TimerServiceは何も知らせずに通知が遅れる。
+ * このクラスは監視スレッドから一定間隔で、各タイマーが次に起床する予定の時刻と現在時刻を比べ、
+ * しきい値を超えて遅れているタイマーを見つけると以下を行う：
+ * 1. 遅れを記録する（TimerService.getStallCount()・TickWatchdog.getStallCount()・フライトレコーダー・JFRのpomodoro.Stallイベント）
+ * 2. タイマースレッドを起こし、完了予定時刻（単調増加する時計）から残り時間を計算し直させる
+ * 3. リスナーの onStall を通知用のスレッドから呼び出す
+ * 4. 遅れた時にタイマースレッドが呼び出していたリスナーを記録し、SLOW_STRIKES 回原因になったリスナーは
+ *    AsyncTimerListenerに差し替えて、以降はタイマースレッドの外で呼び出す
+ *
+ * 1回の遅れ（同じ起床予定に対する遅れ）は、どれだけ長く続いても1回として数える
+ */
+public final class TickWatchdog implements AutoCloseable {
+
+    // 遅れとみなすしきい値のデフォルト値（1回分のtickを丸ごと逃した場合）
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofSeconds(1);
+    // 別スレッドに移すまでに、遅れの原因になった回数
+    static final int SLOW_STRIKES = 3;
+    // 監視スレッドの名前
+    static final String THREAD_NAME = "pomodoro-watchdog";
+    // 確認する間隔の最小値（ミリ秒）
+    private static final long MIN_CHECK_MILLIS = 10;
+
+    // 遅れとみなすしきい値（ナノ秒）
+    private final long thresholdNanos;
+    // 監視しているタイマー
+    private final CopyOnWriteArrayList<Watch> watches = new CopyOnWriteArrayList<>();
+    // 一定間隔で確認するスレッド（check()を直接呼ぶテストではnull）
+    private final ScheduledExecutorService checker;
+    // onStallの通知と、別スレッドに移したリスナーの呼び出しに使うスレッド
+    private final ExecutorService notifier = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME + "-notify");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 検知した遅れの合計回数
+    private final AtomicLong stallCount = new AtomicLong();
+    // 別スレッドに移したリスナーの数
+    private final AtomicInteger offloadedCount = new AtomicInteger();
+
+    /*
+     * コンストラクタ
+     * しきい値の4分の1の間隔で確認する監視スレッドを開始する
+     *
+     * @param threshold 遅れとみなすしきい値
+     */
+    public TickWatchdog(Duration threshold) {
+        this(threshold, true);
+    }
+
+    /*
+     * 監視スレッドを開始するかどうかを指定するコンストラクタ（テストでは check() を直接呼び出す）
+     */
+    TickWatchdog(Duration threshold, boolean startChecker) {
+        if (threshold.isNegative() || threshold.isZero()) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.thresholdNanos = threshold.toNanos();
+        if (startChecker) {
+            long interval = Math.max(threshold.toMillis() / 4, MIN_CHECK_MILLIS);
+            this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true); // 監視のためにJVMの終了を妨げない
+                return thread;
+            });
+            checker.scheduleWithFixedDelay(() -> check(System.nanoTime()), interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.checker = null;
+        }
+    }
+
+    /*
+     * タイマーの監視を開始するメソッド
+     *
+     * @param service 監視するタイマー
+     */
+    public void watch(TimerService service) {
+        watches.add(new Watch(service));
+        service.setWatched(true);
+    }
+
+    /*
+     * タイマーの監視を終了するメソッド（別スレッドに移したリスナーはそのまま）
+     *
+     * @param service 監視を終了するタイマー
+     */
+    public void unwatch(TimerService service) {
+        if (watches.removeIf(watch -> watch.service == service)) {
+            service.setWatched(false);
+        }
+    }
+
+    /*
+     * 監視している全てのタイマーの遅れを確認するメソッド（監視スレッドから呼ばれる）
+     *
+     * @param nowNanos 現在時刻（System.nanoTime基準）
+     */
+    void check(long nowNanos) {
+        for (Watch watch : watches) {
+            TimerService service = watch.service;
+            long late = service.getLateNanos(nowNanos);
+            if (late <= thresholdNanos) {
+                continue;
+            }
+            long expected = service.getExpectedWakeNanos();
+            if (expected == watch.reportedWakeNanos) {
+                continue; // この遅れは報告済み
+            }
+            watch.reportedWakeNanos = expected;
+            stallCount.incrementAndGet();
+            service.recordStall(late); // 記録して、眠ったままのタイマースレッドを起こす
+            notifier.execute(() -> service.notifyStall(late)); // 止まっているリスナーに監視スレッドを止められないようにする
+            TimerListener culprit = service.getNotifyingListener();
+            if (culprit != null) {
+                blame(watch, culprit);
+            }
+        }
+    }
+
+    /*
+     * 遅れた時にタイマースレッドが呼び出していたリスナーを記録し、何度も原因になった場合は別スレッドに移すメソッド
+     */
+    private void blame(Watch watch, TimerListener culprit) {
+        if (culprit instanceof AsyncTimerListener || culprit instanceof TickThreadListener) {
+            return; // 既に別スレッドで呼び出している、またはタイマースレッドで呼び出す必要がある
+        }
+        int strikes = watch.strikes.merge(culprit, 1, Integer::sum);
+        if (strikes < SLOW_STRIKES) {
+            return;
+        }
+        watch.strikes.remove(culprit);
+        if (watch.service.replaceListener(culprit, new AsyncTimerListener(culprit, notifier))) {
+            offloadedCount.incrementAndGet();
+        }
+    }
+
+    /*
+     * 検知した遅れの合計回数を取得するメソッド
+     */
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    /*
+     * 別スレッドに移したリスナーの数を取得するメソッド
+     */
+    public int getOffloadedCount() {
+        return offloadedCount.get();
+    }
+
+    /*
+     * 監視を終了するメソッド
+     * 別スレッドに移したリスナーは、以降は呼び出したスレッド（タイマースレッド）で通知される
+     */
+    @Override
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        notifier.shutdown(); // 渡し終えていない通知は渡してから終了する
+        for (Watch watch : watches) {
+            watch.service.setWatched(false);
+        }
+        watches.clear();
+    }
+
+    /*
+     * 1つのタイマーの監視の状態（監視スレッドのみが使用する）
+     */
+    private static final class Watch {
+
+        // 監視するタイマー
+        private final TimerService service;
+        // 最後に報告した遅れの起床予定時刻（同じ遅れを2回報告しないため）
+        private long reportedWakeNanos;
+        // リスナーごとの、遅れの原因になった回数
+        private final Map<TimerListener, Integer> strikes = new IdentityHashMap<>();
+
+        Watch(TimerService service) {
+            this.service = service;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.yoshitaka.pomodoro;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * タイマーの動作を計測して、JDK Flight Recorder（JFR）とフライトレコーダーに記録するクラス
+ *
+ * tick・状態変化・リスナー呼び出し・画面描画・コマンド処理のそれぞれについて、
+ * かかった時間をJFRのカスタムイベントの継続時間として記録する。TickWatchdogが検知したtickの遅れも記録する。
+ * また、-Dpomodoro.flight.size=N を指定すると、直近N件をメモリ上のリング（FlightRecorderRing）にも記録する。
+ *
+ * 使い方:
+ * TimerEvents.Span start = TimerEvents.startListenerCallback(); // 計測の開始（記録が無効な場合はnull）
+ * listener.onTick(...);
+ * TimerEvents.listenerCallback(start, listener, "onTick"); // startがnullの場合は何もしない
+ *
+ * JFRのイベントは計測の開始時に作成して begin() を呼ぶため、JFRの継続時間の列や threshold の設定がそのまま使える。
+ * JFRの記録中でもリングが有効でもない場合、start系のメソッドはvolatile変数を1つ読むだけで何も作らないので、
+ * 計測のための負荷はほとんどかからない
+ *
+ * JFRの記録の開始を検知するため、初めて使われた時にJFRにリスナーを登録する（JFRのクラスを数十個読み込む）。
+ * 組み込み先でJFRを使わない場合は -Dpomodoro.jfr=false で登録を省略し、起動を速くできる
+ */
+public final class TimerEvents {
+
+    // フライトレコーダーに保持する件数を指定するシステムプロパティ（0または未指定の場合は無効）
+    static final String FLIGHT_SIZE_PROPERTY = "pomodoro.flight.size";
+    // JFRへの記録を無効にするシステムプロパティ（falseを指定するとJFRの記録の開始を監視しない）
+    static final String JFR_PROPERTY = "pomodoro.jfr";
+
+    // JFRの記録が実行中かどうか
+    private static volatile boolean jfrRecording;
+    // メモリ上のフライトレコーダー（無効な場合はnull）
+    private static volatile FlightRecorderRing ring = createRing();
+    // JFRかフライトレコーダーのどちらかで記録するかどうか（計測の要否の判定に使用）
+    private static volatile boolean enabled = (ring != null);
+
+    static {
+        if (!"false".equals(System.getProperty(JFR_PROPERTY)) && FlightRecorder.isAvailable()) {
+            FlightRecorder.addListener(new RecordingWatcher()); // JFRの記録の開始・終了を監視する
+        }
+    }
+
+    private TimerEvents() {
+    }
+
+    /*
+     * tickの通知の計測を開始するメソッド
+     *
+     * @return 計測中の処理。記録が無効な場合はnull
+     */
+    public static Span startTick() {
+        return enabled ? new Span(jfrRecording ? new Tick() : null) : null;
+    }
+
+    /*
+     * 状態変化の計測を開始するメソッド
+     *
+     * @return 計測中の処理。記録が無効な場合はnull
+     */
+    public static Span startStateChange() {
+        return enabled ? new Span(jfrRecording ? new StateChange() : null) : null;
+    }
+
+    /*
+     * リスナーの呼び出しの計測を開始するメソッド
+     *
+     * @return 計測中の処理。記録が無効な場合はnull
+     */
+    public static Span startListenerCallback() {
+        return enabled ? new Span(jfrRecording ? new ListenerCallback() : null) : null;
+    }
+
+    /*
+     * 画面の描画の計測を開始するメソッド
+     *
+     * @return 計測中の処理。記録が無効な場合はnull
+     */
+    public static Span startDisplayFrame() {
+        return enabled ? new Span(jfrRecording ? new DisplayFrame() : null) : null;
+    }
+
+    /*
+     * コマンドの処理の計測を開始するメソッド
+     *
+     * @return 計測中の処理。記録が無効な場合はnull
+     */
+    public static Span startCommand() {
+        return enabled ? new Span(jfrRecording ? new Command() : null) : null;
+    }
+
+    /*
+     * メモリ上のフライトレコーダーを取得するメソッド
+     *
+     * @return フライトレコーダー（無効な場合はnull）
+     */
+    public static FlightRecorderRing getRing() {
+        return ring;
+    }
+
+    /*
+     * メモリ上のフライトレコーダーを差し替えるメソッド（テスト用）
+     *
+     * @param replacement 新しいフライトレコーダー（nullで無効にする）
+     */
+    static void setRing(FlightRecorderRing replacement) {
+        ring = replacement;
+        updateEnabled();
+    }
+
+    /*
+     * tickの通知を記録するメソッド
+     *
+     * @param start startTick()の戻り値
+     *
+     * @param remainingSeconds 残り秒数
+     *
+     * @param totalSeconds 総秒数
+     */
+    public static void tick(Span start, long remainingSeconds, long totalSeconds) {
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start.startNanos;
+        FlightRecorderRing current = ring;
+        if (current != null) {
+            current.record(FlightRecorderRing.Kind.TICK, elapsed, remainingSeconds, totalSeconds, null);
+        }
+        if (start.event != null) {
+            Tick event = (Tick) start.event;
+            event.remainingSeconds = remainingSeconds;
+            event.totalSeconds = totalSeconds;
+            event.commit();
+        }
+    }
+
+    /*
+     * 状態変化を記録するメソッド（かかった時間は状態変化をリスナーに通知し終えるまで）
+     *
+     * @param start startStateChange()の戻り値
+     *
+     * @param from 変化前の状態
+     *
+     * @param to 変化後の状態
+     */
+    public static void stateChange(Span start, TimerService.State from, TimerService.State to) {
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start.startNanos;
+        FlightRecorderRing current = ring;
+        if (current != null) {
+            current.record(FlightRecorderRing.Kind.STATE_CHANGE, elapsed, from.ordinal(), to.ordinal(), null);
+        }
+        if (start.event != null) {
+            StateChange event = (StateChange) start.event;
+            event.from = from.name();
+            event.to = to.name();
+            event.commit();
+        }
+    }
+
+    /*
+     * リスナーの呼び出しを記録するメソッド
+     *
+     * @param start startListenerCallback()の戻り値
+     *
+     * @param listener 呼び出したリスナー
+     *
+     * @param callback 呼び出したメソッド名
+     */
+    public static void listenerCallback(Span start, TimerListener listener, String callback) {
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start.startNanos;
+        String listenerName = listener.getClass().getName();
+        FlightRecorderRing current = ring;
+        if (current != null) {
+            current.record(FlightRecorderRing.Kind.LISTENER_CALLBACK, elapsed, 0, 0, listenerName + "." + callback);
+        }
+        if (start.event != null) {
+            ListenerCallback event = (ListenerCallback) start.event;
+            event.listener = listenerName;
+            event.callback = callback;
+            event.commit();
+        }
+    }
+
+    /*
+     * 画面の描画を記録するメソッド
+     *
+     * @param start startDisplayFrame()の戻り値
+     *
+     * @param frame 描画した画面（メソッド名）
+     */
+    public static void displayFrame(Span start, String frame) {
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start.startNanos;
+        FlightRecorderRing current = ring;
+        if (current != null) {
+            current.record(FlightRecorderRing.Kind.DISPLAY_FRAME, elapsed, 0, 0, frame);
+        }
+        if (start.event != null) {
+            DisplayFrame event = (DisplayFrame) start.event;
+            event.frame = frame;
+            event.commit();
+        }
+    }
+
+    /*
+     * コマンドの処理を記録するメソッド
+     *
+     * @param start startCommand()の戻り値
+     *
+     * @param command 処理したコマンド
+     */
+    public static void command(Span start, String command) {
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start.startNanos;
+        FlightRecorderRing current = ring;
+        if (current != null) {
+            current.record(FlightRecorderRing.Kind.COMMAND, elapsed, 0, 0, command);
+        }
+        if (start.event != null) {
+            Command event = (Command) start.event;
+            event.command = command;
+            event.commit();
+        }
+    }
+
+    /*
+     * TickWatchdogが検知したtickの遅れを記録するメソッド
+     * 検知した時だけ呼ばれるため、start()による計測の要否の判定は行わない
+     *
+     * @param lateNanos 起床する予定の時刻からの遅れ（ナノ秒）
+     *
+     * @param remainingSeconds 検知した時点の残り秒数
+     */
+    public static void stall(long lateNanos, long remainingSeconds) {
+        FlightRecorderRing current = ring;
+        if (current != null) {
+            current.record(FlightRecorderRing.Kind.STALL, lateNanos, remainingSeconds, 0, null);
+        }
+        if (jfrRecording) {
+            Stall event = new Stall();
+            if (event.isEnabled()) {
+                event.late = lateNanos;
+                event.remainingSeconds = remainingSeconds;
+                event.commit();
+            }
+        }
+    }
+
+    /*
+     * システムプロパティに応じてフライトレコーダーを作成するメソッド
+     */
+    private static FlightRecorderRing createRing() {
+        int size = Integer.getInteger(FLIGHT_SIZE_PROPERTY, 0);
+        return (size > 0) ? new FlightRecorderRing(size) : null;
+    }
+
+    /*
+     * 記録が有効かどうかを計算し直すメソッド
+     */
+    private static void updateEnabled() {
+        enabled = jfrRecording || ring != null;
+    }
+
+    /*
+     * JFRの記録の開始・終了を監視し、実行中の記録があるかどうかを更新するリスナー
+     */
+    private static final class RecordingWatcher implements FlightRecorderListener {
+
+        @Override
+        public void recorderInitialized(FlightRecorder recorder) {
+            update(recorder);
+        }
+
+        @Override
+        public void recordingStateChanged(Recording recording) {
+            update(FlightRecorder.getFlightRecorder());
+        }
+
+        private static void update(FlightRecorder recorder) {
+            boolean running = false;
+            for (Recording recording : recorder.getRecordings()) {
+                if (recording.getState() == RecordingState.RUNNING) {
+                    running = true;
+                    break;
+                }
+            }
+            jfrRecording = running;
+            updateEnabled();
+        }
+    }
+
+    /*
+     * 計測中の1つの処理（start系のメソッドで作成し、記録するメソッドに渡す）
+     */
+    public static final class Span {
+
+        // 計測の開始時刻（System.nanoTime基準、フライトレコーダーに記録する時間の計算に使用）
+        private final long startNanos;
+        // begin() を呼んだJFRのイベント（JFRに記録しない場合はnull）
+        private final Event event;
+
+        private Span(Event event) {
+            if (event != null && event.isEnabled()) {
+                event.begin(); // イベントの継続時間は、ここから commit() まで
+                this.event = event;
+            } else {
+                this.event = null;
+            }
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    /*
+     * 以下、JFRのカスタムイベント
+     * JDK Mission Control などでは「Pomodoro」カテゴリに表示される
+     * Stall以外は、かかった時間をイベントの継続時間（Duration）として記録する
+     */
+
+    @Name("pomodoro.Tick")
+    @Label("Timer Tick")
+    @Description("TimerServiceがリスナーにtickを通知した")
+    @Category("Pomodoro")
+    @StackTrace(false)
+    public static final class Tick extends Event {
+        @Label("Remaining Seconds")
+        long remainingSeconds;
+        @Label("Total Seconds")
+        long totalSeconds;
+    }
+
+    @Name("pomodoro.StateChange")
+    @Label("Timer State Change")
+    @Description("TimerServiceの状態が変わり、リスナーに通知した")
+    @Category("Pomodoro")
+    @StackTrace(false)
+    public static final class StateChange extends Event {
+        @Label("From")
+        String from;
+        @Label("To")
+        String to;
+    }
+
+    @Name("pomodoro.ListenerCallback")
+    @Label("Listener Callback")
+    @Description("TimerListenerのメソッドを1回呼び出した")
+    @Category("Pomodoro")
+    @StackTrace(false)
+    public static final class ListenerCallback extends Event {
+        @Label("Listener")
+        String listener;
+        @Label("Callback")
+        String callback;
+    }
+
+    @Name("pomodoro.Stall")
+    @Label("Tick Stall")
+    @Description("TickWatchdogが、タイマーの通知が予定より遅れていることを検知した")
+    @Category("Pomodoro")
+    @StackTrace(false)
+    public static final class Stall extends Event {
+        @Label("Late")
+        @Timespan(Timespan.NANOSECONDS)
+        long late;
+        @Label("Remaining Seconds")
+        long remainingSeconds;
+    }
+
+    @Name("pomodoro.DisplayFrame")
+    @Label("Display Frame")
+    @Description("Displayが画面を1回描画した")
+    @Category("Pomodoro")
+    @StackTrace(false)
+    public static final class DisplayFrame extends Event {
+        @Label("Frame")
+        String frame;
+    }
+
+    @Name("pomodoro.Command")
+    @Label("Command")
+    @Description("PomodoroAppがコマンドを1つ処理した")
+    @Category("Pomodoro")
+    @StackTrace(false)
+    public static final class Command extends Event {
+        @Label("Command")
+        String command;
+    }
+}
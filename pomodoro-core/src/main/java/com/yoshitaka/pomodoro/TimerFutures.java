@@ -0,0 +1,119 @@
+package com.yoshitaka.pomodoro;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * TimerServiceの完了・「残りN秒」の到達を待つFutureをまとめて管理するクラス
+ *
+ * Futureを使わない場合（リスナーだけで使う場合）にCompletableFutureなどのクラスを読み込まず、
+ * TimerServiceごとのメモリも増やさないよう、TimerServiceは最初に必要になった時にこのクラスを作成する
+ */
+final class TimerFutures {
+
+    // タイマーが完了した時に完了し、キャンセル・中断された時にキャンセルされるFuture
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    // 待たれている残り秒数を管理するインデックス（リスナーのアラームとは別に管理する）
+    private final AlarmIndex thresholds = new AlarmIndex();
+    // 待たれている残り秒数ごとのFuture（呼び出し元ごとに別のFutureを返すため、キューで保持する）
+    private final Map<Long, Queue<CompletableFuture<Long>>> waiting = new ConcurrentHashMap<>();
+
+    /*
+     * 完了を表すFutureを取得するメソッド
+     */
+    CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    /*
+     * 次に到達する待たれている残り秒数を取得するメソッド（tickごとに呼ばれる）
+     *
+     * @return 次の残り秒数。ない場合は AlarmIndex.NONE
+     */
+    long nextThreshold() {
+        return thresholds.next();
+    }
+
+    /*
+     * 残り秒数の到達を待つFutureを登録するメソッド
+     *
+     * @param thresholdSeconds 待つ残り秒数
+     *
+     * @param remainingSeconds 登録時点の残り秒数
+     *
+     * @return 到達時の残り秒数で完了するFuture
+     */
+    CompletableFuture<Long> register(long thresholdSeconds, long remainingSeconds) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        waiting.computeIfAbsent(thresholdSeconds, threshold -> new ConcurrentLinkedQueue<>()).add(future);
+        thresholds.add(thresholdSeconds, remainingSeconds);
+        return future;
+    }
+
+    /*
+     * 登録している間に到達・キャンセルされた場合に、タイマースレッドが見落としたFutureを完了するメソッド
+     *
+     * @param thresholdSeconds 登録した残り秒数
+     *
+     * @param future 登録したFuture
+     *
+     * @param remainingSeconds 現在の残り秒数
+     */
+    void settle(long thresholdSeconds, CompletableFuture<Long> future, long remainingSeconds) {
+        if (remainingSeconds <= thresholdSeconds) {
+            remove(thresholdSeconds, future);
+            future.complete(remainingSeconds);
+        } else if (completion.isCancelled()) {
+            remove(thresholdSeconds, future);
+            future.cancel(false);
+        }
+    }
+
+    /*
+     * 到達した残り秒数を待っているFutureを完了するメソッド（タイマースレッドから呼ばれる）
+     *
+     * @param remainingSeconds 現在の残り秒数
+     */
+    void reach(long remainingSeconds) {
+        long reached;
+        while ((reached = thresholds.poll(remainingSeconds)) != AlarmIndex.NONE) {
+            Queue<CompletableFuture<Long>> futures = waiting.remove(reached);
+            if (futures != null) {
+                futures.forEach(future -> future.complete(remainingSeconds));
+            }
+        }
+    }
+
+    /*
+     * タイマーの完了時に呼ばれるメソッド（リスナーへの通知の後に、完了を待っている処理を続行させる）
+     */
+    void complete() {
+        completion.complete(null);
+    }
+
+    /*
+     * 完了・残り時間を待っているFutureをすべてキャンセルするメソッド
+     */
+    void cancel() {
+        completion.cancel(false);
+        for (Long threshold : waiting.keySet()) {
+            Queue<CompletableFuture<Long>> futures = waiting.remove(threshold);
+            if (futures != null) {
+                futures.forEach(future -> future.cancel(false));
+            }
+        }
+    }
+
+    /*
+     * 登録したFutureを1つ取り除くメソッド
+     */
+    private void remove(long thresholdSeconds, CompletableFuture<Long> future) {
+        Queue<CompletableFuture<Long>> futures = waiting.get(thresholdSeconds);
+        if (futures != null) {
+            futures.remove(future);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.yoshitaka.pomodoro;
+
+/*
+ * TimerServiceの状態変化を通知するためのリスナーインターフェース
+ *
+ * このインターフェースを実装することで、タイマーの状態変化を監視できる
+ * TimerServiceから以下のタイミングで通知を受け取ることができる：
+ * 1. タイマーが1秒進むたび（tickResolutionで細かさを変更できる）
+ * 2. タイマーが完了した時
+ * 3. タイマーの状態が変更された時（開始・停止・一時停止・再開など）
+ * 4. 登録したアラームのしきい値（「残り5分」など）に到達した時
+ * 5. 100ミリ秒ごと（tickResolutionで FINE を返した場合のみ）
+ *
+ * オブザーバーパターンの実装例として使用されている
+ */
+public interface TimerListener {
+
+    /*
+     * タイマーが1秒進むごとに呼び出されるメソッド
+     * 画面の更新やプログレスバーの更新などに使用する
+     *
+     * @param remainingSeconds 残り時間（秒）
+     *
+     * @param totalSeconds 合計時間（秒）
+     */
+    void onTick(long remainingSeconds, long totalSeconds);
+
+    /*
+     * タイマーが完了したときに呼び出されるメソッド
+     * 完了メッセージの表示や次の処理への移行などに使用する
+     */
+    void onFinish();
+
+    /*
+     * タイマーの状態が変更されたときに呼び出されるメソッド
+     * 開始・停止・一時停止・再開などの状態変化を検知できる
+     */
+    void onStateChange();
+
+    /*
+     * 登録したアラームのしきい値に残り時間が到達したときに呼び出されるメソッド
+     * 「残り5分」「残り1分」「半分経過」などの通知に使用する
+     * アラームを使用しないリスナーは実装しなくてよい
+     *
+     * @param thresholdSeconds 到達したしきい値（残り秒数）
+     *
+     * @param remainingSeconds 現在の残り時間（秒）
+     */
+    default void onAlarm(long thresholdSeconds, long remainingSeconds) {
+    }
+
+    /*
+     * 高解像度モードで100ミリ秒ごとに呼び出されるメソッド
+     * tickResolutionで FINE を返したリスナーにのみ呼び出される（1秒ごとのonTickも引き続き呼び出される）
+     * 「MM:SS.t」形式の表示や滑らかなプログレスバーなどに使用する
+     *
+     * @param remainingMillis 残り時間（ミリ秒）
+     *
+     * @param totalMillis 合計時間（ミリ秒）
+     */
+    default void onFineTick(long remainingMillis, long totalMillis) {
+    }
+
+    /*
+     * タイマーの通知が予定より遅れていることを、TickWatchdogが検知したときに呼び出されるメソッド
+     * GC・CPUの制限・時間のかかるリスナーなどでタイマースレッドが止まっている間に呼ばれるため、
+     * タイマースレッドではなくTickWatchdogの通知用のスレッドから呼び出される
+     * 残り時間は完了予定時刻から計算しているため、遅れが解消すると次のtickで正しい残り時間に戻る
+     *
+     * @param lateMillis 起床する予定の時刻からの遅れ（ミリ秒）
+     *
+     * @param remainingSeconds 検知した時点の残り時間（秒）
+     */
+    default void onStall(long lateMillis, long remainingSeconds) {
+    }
+
+    /*
+     * このリスナーが必要とするtickの細かさを返すメソッド
+     * TimerServiceは全リスナーのうち最も細かい細かさに合わせて起床し、
+     * 各リスナーには指定した細かさでonTickを呼び出す
+     * 画面表示をしないリスナーは MINUTE や FINISH_ONLY を返すことで、不要な起床を減らせる
+     *
+     * @return tickの細かさ（デフォルトは1秒ごと）
+     */
+    default TickResolution tickResolution() {
+        return TickResolution.SECOND;
+    }
+}
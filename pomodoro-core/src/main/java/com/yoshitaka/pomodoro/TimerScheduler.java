@@ -0,0 +1,369 @@
+package com.yoshitaka.pomodoro;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 多数のTimerServiceを1つのスレッドで動かし、tickをまとめてBatchTimerListenerに通知するスケジューラー
+ *
+ * タイマーごとにスレッドを持つ代わりに、次に起床が必要な時刻の順に並べたヒープで全てのタイマーを管理する。
+ * 1回のスケジューリング（ラウンド）では、起床時刻を迎えた全てのタイマーを advance で進め、
+ * その間に発生したtickをTickBatchに集めて、最後に1回だけ onTicks を呼び出す。
+ *
+ * 使い方:
+ * 1. register でタイマーを登録し、ハンドルを受け取る
+ * 2. run() を1つのスレッドで実行する（登録したタイマーの run() を別に実行してはいけない）
+ * 3. start(ハンドル) で開始・再開する。一時停止は TimerService.pause() をそのまま呼び出せる
+ *
+ * 一時停止中・完了したタイマーはヒープから外れ、状態が変わった時（onStateChange）に戻る
+ */
+public final class TimerScheduler implements Runnable {
+
+    // 配列の初期容量
+    private static final int INITIAL_CAPACITY = 64;
+
+    // tickをまとめて受け取るリスナー
+    private final BatchTimerListener listener;
+    // 登録・起床の依頼を保護するロック
+    private final ReentrantLock lock = new ReentrantLock();
+    // 起床の依頼を通知する条件
+    private final Condition woken = lock.newCondition();
+
+    // ハンドルごとのタイマー（解除したハンドルはnull。作り直す時だけ差し替える）
+    private volatile TimerService[] services = new TimerService[INITIAL_CAPACITY];
+    // ハンドルごとのリスナー（ロックで保護）
+    private Collector[] collectors = new Collector[INITIAL_CAPACITY];
+    // 再利用できるハンドル（ロックで保護）
+    private int[] freeHandles = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    // まだ使っていない最小のハンドル（ロックで保護）
+    private int nextHandle;
+    // 起床を依頼されたハンドル（ロックで保護）
+    private int[] wakeups = new int[INITIAL_CAPACITY];
+    private int wakeupCount;
+
+    // 以下はスケジューラーのスレッドのみが使用する
+    // 依頼されたハンドルを取り出すための作業用の配列
+    private int[] draining = new int[INITIAL_CAPACITY];
+    // ハンドルごとの次の起床時刻（ヒープに入っていない場合は0）
+    private long[] dueNanos = new long[INITIAL_CAPACITY];
+    // 起床時刻の順に並べたヒープ（起床時刻とハンドル）
+    private long[] heapDue = new long[INITIAL_CAPACITY];
+    private int[] heapHandle = new int[INITIAL_CAPACITY];
+    private int heapSize;
+    // このラウンドのtick
+    private final TickBatch batch = new TickBatch();
+    // このラウンドで完了したタイマーのハンドル
+    private int[] finished = new int[INITIAL_CAPACITY];
+    private int finishedCount;
+
+    /*
+     * コンストラクタ
+     *
+     * @param listener tickをまとめて受け取るリスナー
+     */
+    public TimerScheduler(BatchTimerListener listener) {
+        this.listener = listener;
+    }
+
+    /*
+     * タイマーを登録するメソッド
+     * 既に実行中のタイマーを登録した場合も、次のラウンドから動かす
+     *
+     * @param service 登録するタイマー（他のスレッドで run() を実行していないもの）
+     *
+     * @return タイマーのハンドル（解除されたハンドルは再利用される）
+     */
+    public int register(TimerService service) {
+        int handle;
+        Collector collector;
+        lock.lock();
+        try {
+            handle = (freeCount > 0) ? freeHandles[--freeCount] : nextHandle++;
+            if (handle >= collectors.length) {
+                int capacity = collectors.length * 2;
+                collectors = Arrays.copyOf(collectors, capacity);
+                services = Arrays.copyOf(services, capacity);
+            }
+            collector = new Collector(handle);
+            collectors[handle] = collector;
+            services[handle] = service;
+        } finally {
+            lock.unlock();
+        }
+        service.addListener(collector);
+        wake(handle);
+        return handle;
+    }
+
+    /*
+     * タイマーの登録を解除するメソッド（解除したタイマーの通知は、以降は届かない）
+     *
+     * @param handle register で受け取ったハンドル
+     */
+    public void unregister(int handle) {
+        TimerService service;
+        Collector collector;
+        lock.lock();
+        try {
+            service = services[handle];
+            collector = collectors[handle];
+            if (service == null) {
+                return; // 既に解除されている
+            }
+            collector.active = false;
+            services[handle] = null;
+            collectors[handle] = null;
+            if (freeCount == freeHandles.length) {
+                freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+            }
+            freeHandles[freeCount++] = handle;
+        } finally {
+            lock.unlock();
+        }
+        service.removeListener(collector);
+    }
+
+    /*
+     * ハンドルのタイマーを取得するメソッド
+     *
+     * @return 登録されているタイマー。解除されている場合はnull
+     */
+    public TimerService getService(int handle) {
+        TimerService[] current = services;
+        return (handle < current.length) ? current[handle] : null;
+    }
+
+    /*
+     * タイマーを開始または再開するメソッド
+     * 開始前のタイマーは呼び出したスレッドで開始し、一時停止中のタイマーは再開する
+     *
+     * @param handle register で受け取ったハンドル
+     */
+    public void start(int handle) {
+        TimerService service = getService(handle);
+        if (service == null) {
+            return;
+        }
+        if (service.getState() == TimerService.State.IDLE) {
+            service.beginNow(); // onStateChangeでヒープに入る
+        } else {
+            service.start();
+        }
+    }
+
+    /*
+     * 登録されたタイマーを動かすメソッド（中断されるまで戻らない）
+     */
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long waitNanos = runRound(System.nanoTime());
+            lock.lock();
+            try {
+                if (wakeupCount > 0) {
+                    continue; // ラウンドの間に起床を依頼された
+                }
+                if (waitNanos == Long.MAX_VALUE) {
+                    woken.await(); // 動いているタイマーがない
+                } else {
+                    woken.awaitNanos(waitNanos); // 次の起床時刻まで待つ
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // 中断状態を再設定
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /*
+     * 1回分のスケジューリングを行うメソッド
+     * 起床時刻を迎えた全てのタイマーを進め、発生したtickをまとめて通知する
+     *
+     * @param nowNanos 現在時刻（System.nanoTime基準）
+     *
+     * @return 次のラウンドまでの時間（ナノ秒）。動いているタイマーがない場合は Long.MAX_VALUE
+     */
+    long runRound(long nowNanos) {
+        drainWakeups(nowNanos);
+        TimerService[] current = services;
+        while (heapSize > 0 && heapDue[0] <= nowNanos) {
+            long due = heapDue[0];
+            int handle = heapHandle[0];
+            pop();
+            if (due != dueNanos[handle]) {
+                continue; // 起床時刻が変わった後の古い予定
+            }
+            TimerService service = (handle < current.length) ? current[handle] : null;
+            if (service == null) {
+                dueNanos[handle] = 0; // 解除された
+                continue;
+            }
+            long waitNanos = service.advance(nowNanos); // tickはCollectorがbatchに追加する
+            if (waitNanos == TimerService.FINISHED || waitNanos == Long.MAX_VALUE) {
+                dueNanos[handle] = 0; // 完了・一時停止（再開時にonStateChangeで戻る）
+            } else {
+                schedule(handle, nowNanos + waitNanos);
+            }
+        }
+
+        // このラウンドのtickをまとめて通知してから、完了を通知する
+        if (batch.size() > 0) {
+            listener.onTicks(batch);
+            batch.clear();
+        }
+        for (int i = 0; i < finishedCount; i++) {
+            listener.onFinish(finished[i]);
+        }
+        finishedCount = 0;
+        return (heapSize > 0) ? Math.max(heapDue[0] - nowNanos, 0) : Long.MAX_VALUE;
+    }
+
+    /*
+     * 次のラウンドでタイマーを進めるよう依頼するメソッド（どのスレッドからでも呼び出せる）
+     */
+    private void wake(int handle) {
+        lock.lock();
+        try {
+            if (wakeupCount == wakeups.length) {
+                wakeups = Arrays.copyOf(wakeups, wakeupCount * 2);
+            }
+            wakeups[wakeupCount++] = handle;
+            woken.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 起床を依頼されたタイマーを、現在時刻に起床するようヒープに入れるメソッド
+     */
+    private void drainWakeups(long nowNanos) {
+        int count;
+        lock.lock();
+        try {
+            count = wakeupCount;
+            if (count == 0) {
+                return;
+            }
+            if (draining.length < count) {
+                draining = new int[wakeups.length];
+            }
+            System.arraycopy(wakeups, 0, draining, 0, count);
+            wakeupCount = 0;
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < count; i++) {
+            schedule(draining[i], nowNanos);
+        }
+    }
+
+    /*
+     * タイマーの起床時刻を設定してヒープに入れるメソッド
+     * 以前の予定はヒープに残るが、取り出した時に起床時刻が一致しないため無視される
+     */
+    private void schedule(int handle, long due) {
+        if (handle >= dueNanos.length) {
+            dueNanos = Arrays.copyOf(dueNanos, Math.max(dueNanos.length * 2, handle + 1));
+        }
+        dueNanos[handle] = due;
+        if (heapSize == heapDue.length) {
+            heapDue = Arrays.copyOf(heapDue, heapSize * 2);
+            heapHandle = Arrays.copyOf(heapHandle, heapSize * 2);
+        }
+        // 末尾に追加して、親より早い間は上に移動する
+        int index = heapSize++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapDue[parent] <= due) {
+                break;
+            }
+            heapDue[index] = heapDue[parent];
+            heapHandle[index] = heapHandle[parent];
+            index = parent;
+        }
+        heapDue[index] = due;
+        heapHandle[index] = handle;
+    }
+
+    /*
+     * ヒープの先頭（最も早い予定）を取り除くメソッド
+     */
+    private void pop() {
+        heapSize--;
+        if (heapSize == 0) {
+            return;
+        }
+        // 末尾の予定を先頭に置き、子より遅い間は下に移動する
+        long due = heapDue[heapSize];
+        int handle = heapHandle[heapSize];
+        int index = 0;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapDue[child + 1] < heapDue[child]) {
+                child++;
+            }
+            if (due <= heapDue[child]) {
+                break;
+            }
+            heapDue[index] = heapDue[child];
+            heapHandle[index] = heapHandle[child];
+            index = child;
+        }
+        heapDue[index] = due;
+        heapHandle[index] = handle;
+    }
+
+    /*
+     * 1つのタイマーに登録し、通知をこのラウンドのtickとして集めるリスナー
+     * onTick・onFinish は advance を呼び出すスケジューラーのスレッドからのみ呼ばれる（TickWatchdogも別スレッドに移さない）
+     */
+    private final class Collector implements TickThreadListener {
+
+        // タイマーのハンドル
+        private final int handle;
+        // 登録が解除されていないかどうか
+        private volatile boolean active = true;
+
+        Collector(int handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            if (active) {
+                batch.add(handle, remainingSeconds, totalSeconds);
+            }
+        }
+
+        @Override
+        public void onFinish() {
+            if (active) {
+                if (finishedCount == finished.length) {
+                    finished = Arrays.copyOf(finished, finishedCount * 2);
+                }
+                finished[finishedCount++] = handle;
+            }
+        }
+
+        @Override
+        public void onStateChange() {
+            if (active) {
+                listener.onStateChange(handle);
+                wake(handle); // 開始・再開されたタイマーをヒープに戻す
+            }
+        }
+
+        @Override
+        public TickResolution tickResolution() {
+            TickResolution resolution = listener.tickResolution();
+            return (resolution == TickResolution.FINE) ? TickResolution.SECOND : resolution;
+        }
+    }
+}
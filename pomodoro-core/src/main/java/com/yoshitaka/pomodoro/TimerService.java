@@ -0,0 +1,962 @@
+package com.yoshitaka.pomodoro;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * ポモドーロタイマーの動作を管理するクラス
+ * 指定された時間（通常25分）のカウントダウンタイマーを提供する
+ *
+ * このクラスは以下の機能を提供する：
+ * 1. タイマーの開始・一時停止・再開・リセット
+ * 2. カウントダウン処理（リスナーが必要とする細かさでtickを通知する）
+ * 3. タイマー完了時の通知
+ * 4. 状態変更時の通知
+ * 5. 完了・「残りN秒」の到達を待つためのCompletableFuture（リスナーを実装せずに待てる）
+ */
+public class TimerService implements Runnable {
+
+    /*
+     * タイマーの状態を表す列挙型
+     */
+    public enum State {
+        IDLE, // 停止状態（初期状態）
+        RUNNING, // 実行中
+        PAUSED // 一時停止中
+    }
+
+    // run()が完了した（または中断された）ことを表すadvance()の戻り値
+    static final long FINISHED = -1;
+    // 1秒あたりのナノ秒数
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    // onFineTickの間隔（ナノ秒）
+    private static final long FINE_INTERVAL_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(TickResolution.FINE.getFineIntervalMillis());
+
+    // タイマーの総時間（秒）
+    private final long totalSeconds;
+    // 状態と残り時間を保護するロック
+    private final ReentrantLock lock = new ReentrantLock();
+    // 一時停止・再開をタイマースレッドに知らせるための条件
+    private final Condition stateChanged = lock.newCondition();
+    // 完了予定時刻（System.nanoTime基準、RUNNING中のみ有効）
+    private long deadlineNanos;
+    // 残り時間（ナノ秒、IDLE・PAUSED中のみ有効。RUNNING中は完了予定時刻から計算する）
+    private long remainingNanos;
+    // 最後にリスナーへ通知した残り秒数（タイマースレッドのみが更新する）
+    private long lastNotifiedSeconds;
+    // 最後にonFineTickで通知した残り時間（onFineTickの間隔単位、タイマースレッドのみが更新する）
+    private long lastNotifiedFineSteps;
+    // 一時停止・再開のたびに増える番号（待機中に状態が変わったかどうかの判定に使用）
+    private long version;
+    // タイマースレッドが最後に確認したversion
+    private long observedVersion;
+    // タイマースレッドが待機から起床した回数
+    private long wakeupCount;
+    // 現在のタイマー状態（volatileで複数スレッドからの安全なアクセスを保証）
+    private volatile State state;
+    // タイマーの状態変化を通知するためのリスナー一覧
+    // 通知のたびにイテレータを生成しないよう、コピーオンライトの配列で保持する
+    private volatile TimerListener[] listeners;
+    // 「残りN分」の通知タイミングを管理するインデックス
+    private final AlarmIndex alarms = new AlarmIndex();
+    // 完了・残り時間を待つFuture（最初に必要になった時に作成する。リスナーだけで使う場合はnullのまま）
+    private volatile TimerFutures futures;
+    // cancel()が呼ばれたかどうか
+    private boolean cancelled;
+    // 残り時間が0秒に到達したかどうか（到達した後のcancel()は何もしない）
+    private boolean finished;
+    // 完了をリスナーに通知し終えたかどうか（完了のFutureを完了させてよいかどうか）
+    private boolean finishNotified;
+    // 完了せずに終わったかどうか（キャンセル、またはタイマースレッドの中断。Futureをキャンセルする）
+    private boolean abandoned;
+    // TickWatchdogに監視されているかどうか（監視されていない場合は、以下の2つを更新しない）
+    private volatile boolean watched;
+    // タイマースレッドが次に起床する予定の時刻（System.nanoTime基準。待機していない場合は0）
+    private volatile long expectedWakeNanos;
+    // タイマースレッドが呼び出し中のリスナー（呼び出していない場合はnull）
+    private volatile TimerListener notifying;
+    // TickWatchdogが検知した遅れの回数
+    private long stallCount;
+
+    /*
+     * タイマーサービスのコンストラクタ
+     *
+     * @param durationMinutes タイマーの継続時間（分）
+     *
+     * @param listener タイマーの状態変化を通知するリスナー
+     */
+    public TimerService(int durationMinutes, TimerListener listener) {
+        this(Duration.ofMinutes(durationMinutes), listener); // 分をDurationに変換
+    }
+
+    /*
+     * 継続時間をDurationで指定するコンストラクタ
+     * 分単位以外の長さ（短い休憩やテスト用の数秒のタイマーなど）を指定する場合に使用する
+     *
+     * @param duration タイマーの継続時間（秒未満は切り捨て）
+     *
+     * @param listener タイマーの状態変化を通知するリスナー
+     */
+    public TimerService(Duration duration, TimerListener listener) {
+        this.totalSeconds = duration.getSeconds(); // 秒に変換
+        this.listeners = (listener != null) ? new TimerListener[] { listener } : new TimerListener[0]; // リスナーを設定
+        this.state = State.IDLE; // 初期状態をIDLEに設定
+        this.remainingNanos = TimeUnit.SECONDS.toNanos(totalSeconds); // 残り時間を総時間で初期化
+        this.lastNotifiedSeconds = totalSeconds;
+        this.lastNotifiedFineSteps = toFineSteps(remainingNanos);
+    }
+
+    /*
+     * 残り時間を指定して、途中から再開するためのコンストラクタ
+     * 別のノードやプロセスから引き継いだタイマーのように、総時間の一部が既に経過している場合に使用する
+     *
+     * @param duration タイマーの継続時間（秒未満は切り捨て）
+     *
+     * @param remaining 残り時間（0以上、継続時間以下）
+     *
+     * @param listener タイマーの状態変化を通知するリスナー
+     *
+     * @throws IllegalArgumentException 残り時間が負、または継続時間より長い場合
+     */
+    public TimerService(Duration duration, Duration remaining, TimerListener listener) {
+        this(duration, listener);
+        if (remaining.isNegative() || remaining.toNanos() > remainingNanos) {
+            throw new IllegalArgumentException("remaining must be between 0 and duration: " + remaining);
+        }
+        this.remainingNanos = remaining.toNanos();
+        this.lastNotifiedSeconds = toSeconds(remainingNanos);
+        this.lastNotifiedFineSteps = toFineSteps(remainingNanos);
+    }
+
+    /*
+     * Runnableインターフェースの実装メソッド
+     * タイマーのカウントダウン処理を実行する
+     * このメソッドは別スレッドで実行される
+     *
+     * 1秒ごとに起床するのではなく、リスナーが必要とする次の通知時刻（次の100ミリ秒・次の秒・次の分・アラーム・完了）
+     * まで待機する。一時停止中は再開されるまで起床しない
+     */
+    @Override
+    public void run() {
+        // タイマーが開始されると、まず状態をRUNNINGにする
+        if (begin()) {
+            notifyStateChange(State.IDLE, State.RUNNING); // 状態変更をリスナーに通知
+        }
+
+        // 完了するか中断されるまでループ
+        while (!Thread.currentThread().isInterrupted()) {
+            long waitNanos = advance(System.nanoTime()); // 期限を迎えた通知を行い、次の待機時間を求める
+            if (waitNanos == FINISHED) {
+                break; // 完了した
+            }
+            if (!await(waitNanos)) {
+                break; // 待機中に中断された
+            }
+        }
+        abandon(); // 完了せずに中断された場合は、待っているFutureをキャンセルする
+    }
+
+    /*
+     * run()を別のスレッドに渡す前に、呼び出し元のスレッドでタイマーを開始するメソッド
+     * スレッドプールがrun()を実行し始めるまでの間に呼ばれたpause()を取りこぼさないために使用する
+     * （run()は既にRUNNINGの場合、開始の通知をせずにカウントダウンを始める）
+     */
+    void beginNow() {
+        if (begin()) {
+            notifyStateChange(State.IDLE, State.RUNNING); // 状態変更をリスナーに通知
+        }
+    }
+
+    /*
+     * 指定した時刻に開始したものとしてタイマーを開始するメソッド
+     * 前のタイマーの完了予定時刻から続けて開始する場合に使用する（CycleEngine）。
+     * 開始の処理が遅れても完了予定時刻は変わらないため、フェーズを繰り返しても時間がずれない
+     *
+     * @param startNanos 開始した時刻（System.nanoTime基準。過去の時刻も指定できる）
+     */
+    void beginAt(long startNanos) {
+        if (begin(startNanos)) {
+            notifyStateChange(State.IDLE, State.RUNNING); // 状態変更をリスナーに通知
+        }
+    }
+
+    /*
+     * 現在時刻に開始したものとして、IDLE状態からRUNNING状態に変更するメソッド
+     *
+     * @return 状態が変わった場合 true
+     */
+    private boolean begin() {
+        return begin(System.nanoTime());
+    }
+
+    /*
+     * IDLE状態からRUNNING状態に変更し、完了予定時刻を決めるメソッド
+     *
+     * @param startNanos 開始した時刻（System.nanoTime基準）
+     *
+     * @return 状態が変わった場合 true
+     */
+    private boolean begin(long startNanos) {
+        lock.lock();
+        try {
+            if (state != State.IDLE || cancelled) {
+                return false; // 実行中、またはキャンセルされたタイマーは開始しない
+            }
+            deadlineNanos = startNanos + remainingNanos; // 完了予定時刻を決める
+            state = State.RUNNING; // 状態を実行中に変更
+            version++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 現在時刻までに期限を迎えた通知（tick・アラーム・完了）を行うメソッド
+     * タイマースレッドから呼び出される
+     *
+     * @param nowNanos 現在時刻（System.nanoTime基準）
+     *
+     * @return 次に起床するまでの時間（ナノ秒）。一時停止中は Long.MAX_VALUE、完了した場合は FINISHED
+     */
+    long advance(long nowNanos) {
+        long remainingSeconds;
+        long previousSeconds;
+        long remainingMillis = 0;
+        boolean fineDue = false;
+        lock.lock();
+        try {
+            observedVersion = version;
+            if (cancelled) {
+                return expectWake(nowNanos, FINISHED); // キャンセルされた
+            }
+            if (state == State.PAUSED) {
+                return expectWake(nowNanos, Long.MAX_VALUE); // 再開されるまで待機
+            }
+            if (state != State.RUNNING) {
+                return expectWake(nowNanos, FINISHED);
+            }
+            long nanos = deadlineNanos - nowNanos;
+            remainingSeconds = toSeconds(nanos);
+            previousSeconds = lastNotifiedSeconds;
+            TickResolution required = requiredResolution();
+            boolean fine = (required == TickResolution.FINE);
+            long fineSteps = 0;
+            if (fine) {
+                fineSteps = toFineSteps(nanos);
+                fineDue = fineSteps < lastNotifiedFineSteps; // 100ミリ秒の区切りを通過した
+            }
+            if (remainingSeconds >= previousSeconds && remainingSeconds > 0 && !fineDue) {
+                // まだ通知するものがないので、次に通知が必要になる残り秒数まで待つ
+                long waitNanos = nanos - nextNotificationSeconds(previousSeconds, required) * NANOS_PER_SECOND;
+                if (fine) {
+                    waitNanos = Math.min(waitNanos, nanos - (fineSteps - 1) * FINE_INTERVAL_NANOS); // 次の100ミリ秒の区切り
+                }
+                return expectWake(nowNanos, waitNanos);
+            }
+            lastNotifiedSeconds = remainingSeconds;
+            if (fine) {
+                lastNotifiedFineSteps = fineSteps;
+                remainingMillis = toMillis(nanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // ロックの外でリスナーに通知する（リスナーからpause()などを呼べるようにするため）
+        if (fineDue) {
+            notifyFineTick(remainingMillis); // 100ミリ秒ごとの通知
+        }
+        if (remainingSeconds < previousSeconds) {
+            TimerEvents.Span tickStart = TimerEvents.startTick();
+            notifyTick(remainingSeconds, previousSeconds);
+            TimerEvents.tick(tickStart, remainingSeconds, totalSeconds); // 通知にかかった時間を記録
+        }
+        if (remainingSeconds <= alarms.next()) { // 次のしきい値だけを比較する
+            notifyAlarms(remainingSeconds); // しきい値への到達をリスナーに通知
+        }
+        TimerFutures pending = futures;
+        if (pending != null && remainingSeconds <= pending.nextThreshold()) {
+            pending.reach(remainingSeconds); // whenRemaining()のFutureを完了する
+        }
+        if (remainingSeconds > 0) {
+            return expectWake(nowNanos, 0); // 次の待機時間は改めて計算する
+        }
+
+        // タイマーが完了した場合
+        lock.lock();
+        try {
+            if (cancelled) {
+                return expectWake(nowNanos, FINISHED); // 通知している間にキャンセルされた
+            }
+            state = State.IDLE; // 状態をIDLEに戻す
+            remainingNanos = 0;
+            finished = true;
+            version++;
+        } finally {
+            lock.unlock();
+        }
+        TimerEvents.Span finishStart = TimerEvents.startStateChange();
+        for (TimerListener listener : listeners) {
+            TimerEvents.Span start = TimerEvents.startListenerCallback();
+            enter(listener);
+            listener.onFinish(); // 完了をリスナーに通知
+            TimerEvents.listenerCallback(start, listener, "onFinish");
+        }
+        leave();
+        TimerEvents.stateChange(finishStart, State.RUNNING, State.IDLE);
+        lock.lock();
+        try {
+            finishNotified = true;
+            pending = futures;
+        } finally {
+            lock.unlock();
+        }
+        if (pending != null) {
+            pending.complete(); // リスナーへの通知の後に、完了を待っている処理を続行させる
+        }
+        return expectWake(nowNanos, FINISHED);
+    }
+
+    /*
+     * advance()の戻り値から、タイマースレッドが次に起床する予定の時刻を記録するメソッド
+     * TickWatchdogに監視されている場合のみ記録する（監視していない場合はvolatileの書き込みを省く）
+     *
+     * @param nowNanos advance()に渡された現在時刻
+     *
+     * @param waitNanos advance()の戻り値
+     *
+     * @return waitNanos（そのまま返す）
+     */
+    private long expectWake(long nowNanos, long waitNanos) {
+        if (watched) {
+            boolean waiting = (waitNanos != FINISHED && waitNanos != Long.MAX_VALUE);
+            expectedWakeNanos = waiting ? nowNanos + waitNanos : 0; // 一時停止中・完了後は遅れを検知しない
+        }
+        return waitNanos;
+    }
+
+    /*
+     * これから呼び出すリスナーを記録するメソッド（遅れの原因のリスナーをTickWatchdogが特定するため）
+     */
+    private void enter(TimerListener listener) {
+        if (watched) {
+            notifying = listener;
+        }
+    }
+
+    /*
+     * リスナーの呼び出しが終わったことを記録するメソッド
+     */
+    private void leave() {
+        if (watched) {
+            notifying = null;
+        }
+    }
+
+    /*
+     * 次の通知時刻まで待機するメソッド
+     * 待機中に一時停止・再開された場合は、すぐに戻って待機時間を計算し直す
+     *
+     * @param waitNanos 待機する時間（ナノ秒）。Long.MAX_VALUEの場合は状態が変わるまで待つ
+     *
+     * @return 中断された場合 false
+     */
+    private boolean await(long waitNanos) {
+        if (waitNanos <= 0) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (version != observedVersion) {
+                return true; // 待機時間を計算した後に状態が変わった
+            }
+            if (waitNanos == Long.MAX_VALUE) {
+                stateChanged.await(); // 再開されるまで待つ
+            } else {
+                stateChanged.awaitNanos(waitNanos); // 次の通知時刻まで待つ
+            }
+            wakeupCount++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 中断状態を再設定
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 前回通知した残り秒数から、次に通知が必要になる残り秒数を求めるメソッド
+     * リスナーが必要とする最も細かいtickの区切り・次のアラーム・完了（0秒）のうち最も早いもの
+     *
+     * @param previousSeconds 前回通知した残り秒数
+     *
+     * @param required リスナーが必要とする最も細かいtickの細かさ
+     *
+     * @return 次に通知が必要になる残り秒数
+     */
+    private long nextNotificationSeconds(long previousSeconds, TickResolution required) {
+        long next = required.nextBoundary(previousSeconds);
+        TimerFutures pending = futures;
+        long awaited = (pending != null) ? pending.nextThreshold() : AlarmIndex.NONE; // whenRemaining()で待たれている残り秒数
+        long alarm = Math.min(Math.max(alarms.next(), awaited), previousSeconds - 1); // 次のアラーム
+        return Math.max(next, Math.max(alarm, 0));
+    }
+
+    /*
+     * 登録されているリスナーのうち、最も細かいtickの細かさを求めるメソッド
+     *
+     * @return 必要なtickの細かさ
+     */
+    TickResolution requiredResolution() {
+        TickResolution required = TickResolution.FINISH_ONLY;
+        for (TimerListener listener : listeners) {
+            TickResolution resolution = resolutionOf(listener);
+            if (resolution.ordinal() < required.ordinal()) {
+                required = resolution;
+            }
+        }
+        return required;
+    }
+
+    /*
+     * リスナーのtickの細かさを取得するメソッド（未指定の場合は1秒ごと）
+     */
+    private static TickResolution resolutionOf(TimerListener listener) {
+        TickResolution resolution = listener.tickResolution();
+        return (resolution != null) ? resolution : TickResolution.SECOND;
+    }
+
+    /*
+     * ナノ秒を秒に切り上げて変換するメソッド（負の値は0とする）
+     * 例: 残り1499.2秒は「残り1500秒」と表示する
+     */
+    private static long toSeconds(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+
+    /*
+     * ナノ秒をミリ秒に切り上げて変換するメソッド（負の値は0とする）
+     */
+    private static long toMillis(long nanos) {
+        long nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+        return (nanos <= 0) ? 0 : (nanos + nanosPerMilli - 1) / nanosPerMilli;
+    }
+
+    /*
+     * ナノ秒をonFineTickの間隔の数に切り上げて変換するメソッド（負の値は0とする）
+     */
+    private static long toFineSteps(long nanos) {
+        return (nanos <= 0) ? 0 : (nanos + FINE_INTERVAL_NANOS - 1) / FINE_INTERVAL_NANOS;
+    }
+
+    /*
+     * タイマーを開始または再開するメソッド
+     * PAUSED状態からRUNNING状態に変更する
+     *
+     * @return タイマーが完了した時に完了するFuture（getCompletion()と同じ）
+     */
+    public CompletableFuture<Void> start() {
+        lock.lock();
+        try {
+            if (state != State.PAUSED) { // 一時停止中の場合のみ再開
+                return futures().completion();
+            }
+            deadlineNanos = System.nanoTime() + remainingNanos; // 残り時間から完了予定時刻を決め直す
+            state = State.RUNNING; // 状態を実行中に変更
+            version++;
+            stateChanged.signalAll(); // 待機中のタイマースレッドを起こす
+        } finally {
+            lock.unlock();
+        }
+        notifyStateChange(State.PAUSED, State.RUNNING); // 状態変更をリスナーに通知
+        return futures().completion();
+    }
+
+    /*
+     * タイマーをキャンセルするメソッド（リセット時に使用する）
+     * タイマースレッドを終了させ、完了・残り時間を待っているFutureをキャンセルする
+     * リスナーには通知しない（リセット後は新しいTimerServiceが状態を通知するため）
+     * 既に0秒に到達している場合は、完了の通知中であっても何もしない（完了のFutureはそのまま完了する）
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            if (cancelled || finished) {
+                return;
+            }
+            cancelled = true;
+            if (state == State.RUNNING) {
+                remainingNanos = Math.max(deadlineNanos - System.nanoTime(), 0); // リセットした時点の残り時間を残す
+            }
+            state = State.IDLE; // 状態をIDLEに戻す
+            version++;
+            stateChanged.signalAll(); // 待機中のタイマースレッドを起こして終了させる
+        } finally {
+            lock.unlock();
+        }
+        abandon();
+    }
+
+    /*
+     * タイマーが完了した時に完了するFutureを取得するメソッド
+     * リセット（cancel()）やタイマースレッドの中断で完了しなかった場合はキャンセルされる
+     * 依存する処理はタイマースレッドで実行されるため、時間のかかる処理は thenRunAsync などで別スレッドに渡す
+     *
+     * 例: 作業が終わったら休憩を始める
+     * work.getCompletion().thenRun(() -> executor.submit(breakTimer));
+     *
+     * @return 完了を表すFuture
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return futures().completion();
+    }
+
+    /*
+     * 残り時間が指定した秒数に到達した時に完了するFutureを取得するメソッド
+     * 既に到達している場合は、すぐに完了したFutureを返す
+     * リセットや中断で到達しなかった場合はキャンセルされる
+     *
+     * @param thresholdSeconds 待つ残り秒数（0で完了時）
+     *
+     * @return 到達時の残り秒数で完了するFuture（呼び出しごとに別のFutureを返すため、キャンセルしても他には影響しない）
+     */
+    public CompletableFuture<Long> whenRemaining(long thresholdSeconds) {
+        if (thresholdSeconds < 0) {
+            throw new IllegalArgumentException("thresholdSeconds must not be negative: " + thresholdSeconds);
+        }
+        TimerFutures pending = futures();
+        if (pending.completion().isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException()); // 既にキャンセルされている
+        }
+        long remaining = getRemainingSeconds();
+        if (remaining <= thresholdSeconds) {
+            return CompletableFuture.completedFuture(remaining); // 既に到達している
+        }
+        CompletableFuture<Long> future = pending.register(thresholdSeconds, remaining);
+        lock.lock();
+        try {
+            version++;
+            stateChanged.signalAll(); // 待機時間を計算し直させる
+        } finally {
+            lock.unlock();
+        }
+        // 登録している間に到達した、またはキャンセルされた場合は、タイマースレッドが見落とすことがあるためここで完了する
+        pending.settle(thresholdSeconds, future, getRemainingSeconds());
+        return future;
+    }
+
+    /*
+     * タイマーを一時停止するメソッド
+     * RUNNING状態からPAUSED状態に変更する
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            if (state != State.RUNNING) { // 実行中の場合のみ一時停止
+                return;
+            }
+            remainingNanos = Math.max(deadlineNanos - System.nanoTime(), 0); // 残り時間を記録
+            state = State.PAUSED; // 状態を一時停止中に変更
+            version++;
+            stateChanged.signalAll(); // 待機中のタイマースレッドを起こす
+        } finally {
+            lock.unlock();
+        }
+        notifyStateChange(State.RUNNING, State.PAUSED); // 状態変更をリスナーに通知
+    }
+
+    /*
+     * リスナーを追加するメソッド
+     * コンストラクタで渡したリスナーに加えて、エクスポーターなどの監視役を登録できる
+     *
+     * @param listener 追加するリスナー
+     */
+    public synchronized void addListener(TimerListener listener) {
+        if (listener == null) {
+            return;
+        }
+        TimerListener[] current = listeners;
+        TimerListener[] updated = Arrays.copyOf(current, current.length + 1); // 配列をコピーして末尾に追加
+        updated[current.length] = listener;
+        listeners = updated; // volatile書き込みでタイマースレッドに公開
+        resolutionChanged(); // より細かいtickが必要になった場合に、待機中のタイマースレッドを起こす
+    }
+
+    /*
+     * リスナーを削除するメソッド
+     *
+     * @param listener 削除するリスナー
+     */
+    public synchronized void removeListener(TimerListener listener) {
+        TimerListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener || AsyncTimerListener.wraps(current[i], listener)) { // 別スレッドに移した場合も削除する
+                TimerListener[] updated = new TimerListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                resolutionChanged();
+                return;
+            }
+        }
+    }
+
+    /*
+     * 登録されているリスナーを別のリスナーに差し替えるメソッド
+     * TickWatchdogが、時間のかかるリスナーを別スレッドで呼び出すリスナー（AsyncTimerListener）に差し替える時に使用する
+     *
+     * @return 差し替えた場合 true（登録されていない場合は false）
+     */
+    synchronized boolean replaceListener(TimerListener listener, TimerListener replacement) {
+        TimerListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                TimerListener[] updated = current.clone();
+                updated[i] = replacement;
+                listeners = updated; // 呼び出し中の通知は元のリスナーのまま、次の通知から差し替わる
+                resolutionChanged();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * 必要なtickの細かさが変わったことをタイマースレッドに知らせるメソッド
+     * 待機中のタイマースレッドは、前の細かさで求めた待機時間のまま眠っているため、起こして計算し直させる
+     * リスナーの追加・削除では自動的に呼ばれる。GroupSessionのように、登録済みのリスナーの tickResolution() が
+     * 途中で変わる場合は、そのリスナーが呼び出す
+     */
+    void resolutionChanged() {
+        lock.lock();
+        try {
+            version++;
+            stateChanged.signalAll(); // 待機時間を計算し直させる
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * TickWatchdogによる監視の開始・終了を設定するメソッド
+     */
+    void setWatched(boolean watched) {
+        this.watched = watched;
+        if (!watched) {
+            expectedWakeNanos = 0;
+            notifying = null;
+        }
+    }
+
+    /*
+     * タイマースレッドが起床する予定の時刻からの遅れを求めるメソッド
+     *
+     * @param nowNanos 現在時刻（System.nanoTime基準）
+     *
+     * @return 遅れ（ナノ秒）。待機していない、または遅れていない場合は0
+     */
+    long getLateNanos(long nowNanos) {
+        long expected = expectedWakeNanos;
+        if (expected == 0 || state != State.RUNNING) {
+            return 0;
+        }
+        return Math.max(nowNanos - expected, 0);
+    }
+
+    /*
+     * タイマースレッドが次に起床する予定の時刻を取得するメソッド（同じ遅れを1回だけ報告するために使用する）
+     */
+    long getExpectedWakeNanos() {
+        return expectedWakeNanos;
+    }
+
+    /*
+     * タイマースレッドが呼び出し中のリスナーを取得するメソッド
+     *
+     * @return 呼び出し中のリスナー（呼び出していない場合はnull）
+     */
+    TimerListener getNotifyingListener() {
+        return notifying;
+    }
+
+    /*
+     * TickWatchdogが検知した遅れを記録し、タイマースレッドに待機時間を計算し直させるメソッド
+     * 残り時間は完了予定時刻から計算しているため、起床したタイマースレッドは正しい残り時間で1回だけtickを通知する
+     * （遅れた間のtickをまとめて通知し直すことはしない）
+     *
+     * @param lateNanos 遅れ（ナノ秒）
+     */
+    void recordStall(long lateNanos) {
+        lock.lock();
+        try {
+            stallCount++;
+            version++;
+            stateChanged.signalAll(); // 待機時間を過ぎても眠っている場合に起こす
+        } finally {
+            lock.unlock();
+        }
+        TimerEvents.stall(lateNanos, getRemainingSeconds());
+    }
+
+    /*
+     * 検知した遅れをリスナーに通知するメソッド（TickWatchdogの通知用のスレッドから呼ばれる）
+     *
+     * @param lateNanos 遅れ（ナノ秒）
+     */
+    void notifyStall(long lateNanos) {
+        long lateMillis = TimeUnit.NANOSECONDS.toMillis(lateNanos);
+        long remainingSeconds = getRemainingSeconds();
+        for (TimerListener listener : listeners) {
+            listener.onStall(lateMillis, remainingSeconds);
+        }
+    }
+
+    /*
+     * 「残りN秒」になった時に通知するアラームを登録するメソッド
+     * 既に通過した残り秒数を指定した場合は通知されない
+     *
+     * @param thresholdSeconds 通知する残り秒数（例: 300 で残り5分）
+     */
+    public void addAlarm(long thresholdSeconds) {
+        alarms.add(thresholdSeconds, getRemainingSeconds());
+        lock.lock();
+        try {
+            version++;
+            stateChanged.signalAll(); // 待機時間を計算し直させる
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 総時間の半分が経過した時に通知するアラームを登録するメソッド
+     */
+    public void addHalfwayAlarm() {
+        addAlarm(totalSeconds / 2);
+    }
+
+    /*
+     * 到達したしきい値をすべてリスナーに通知するメソッド
+     * 1回のtickで複数のしきい値を通過した場合も、残り秒数の大きい順に通知する
+     */
+    private void notifyAlarms(long remainingSeconds) {
+        long threshold;
+        while ((threshold = alarms.poll(remainingSeconds)) != AlarmIndex.NONE) {
+            for (TimerListener listener : listeners) {
+                TimerEvents.Span start = TimerEvents.startListenerCallback();
+                enter(listener);
+                listener.onAlarm(threshold, remainingSeconds);
+                TimerEvents.listenerCallback(start, listener, "onAlarm");
+            }
+        }
+        leave();
+    }
+
+    /*
+     * 完了・残り時間を待つFutureを取得するメソッド（初めて呼ばれた時に作成する）
+     * 作成した時点で既に完了・キャンセルしている場合は、その結果を反映する
+     */
+    private TimerFutures futures() {
+        TimerFutures current = futures;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (futures == null) {
+                TimerFutures created = new TimerFutures();
+                if (finishNotified) {
+                    created.complete();
+                } else if (abandoned) {
+                    created.cancel();
+                }
+                futures = created;
+            }
+            return futures;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 完了せずに終わったことを記録し、待っているFutureをキャンセルするメソッド
+     */
+    private void abandon() {
+        TimerFutures pending;
+        lock.lock();
+        try {
+            if (finishNotified || abandoned) {
+                return;
+            }
+            abandoned = true;
+            pending = futures;
+        } finally {
+            lock.unlock();
+        }
+        if (pending != null) {
+            pending.cancel();
+        }
+    }
+
+    /*
+     * 残り秒数の変化を、各リスナーが必要とする細かさでリスナーに通知するメソッド
+     *
+     * @param remainingSeconds 現在の残り秒数
+     *
+     * @param previousSeconds 前回通知した残り秒数
+     */
+    private void notifyTick(long remainingSeconds, long previousSeconds) {
+        for (TimerListener listener : listeners) {
+            if (resolutionOf(listener).crossed(remainingSeconds, previousSeconds)) {
+                TimerEvents.Span start = TimerEvents.startListenerCallback();
+                enter(listener);
+                listener.onTick(remainingSeconds, totalSeconds); // 経過をリスナーに通知
+                TimerEvents.listenerCallback(start, listener, "onTick");
+            }
+        }
+        leave();
+    }
+
+    /*
+     * 100ミリ秒ごとの残り時間を、FINE を指定したリスナーに通知するメソッド
+     *
+     * @param remainingMillis 現在の残り時間（ミリ秒）
+     */
+    private void notifyFineTick(long remainingMillis) {
+        long totalMillis = TimeUnit.SECONDS.toMillis(totalSeconds);
+        for (TimerListener listener : listeners) {
+            if (resolutionOf(listener) == TickResolution.FINE) {
+                TimerEvents.Span start = TimerEvents.startListenerCallback();
+                enter(listener);
+                listener.onFineTick(remainingMillis, totalMillis);
+                TimerEvents.listenerCallback(start, listener, "onFineTick");
+            }
+        }
+        leave();
+    }
+
+    /*
+     * 登録されているすべてのリスナーに状態変更を通知するメソッド
+     *
+     * @param from 変化前の状態（記録用）
+     *
+     * @param to 変化後の状態（記録用）
+     */
+    private void notifyStateChange(State from, State to) {
+        TimerEvents.Span changeStart = TimerEvents.startStateChange();
+        for (TimerListener listener : listeners) {
+            TimerEvents.Span start = TimerEvents.startListenerCallback();
+            enter(listener);
+            listener.onStateChange();
+            TimerEvents.listenerCallback(start, listener, "onStateChange");
+        }
+        leave();
+        TimerEvents.stateChange(changeStart, from, to); // 通知し終えるまでの時間を記録
+    }
+
+    /*
+     * 現在のタイマー状態を取得するメソッド
+     *
+     * @return 現在の状態（IDLE, RUNNING, PAUSED）
+     */
+    public State getState() {
+        return state;
+    }
+
+    /*
+     * 残り時間を取得するメソッド
+     * 実行中は、呼び出した時点の時刻から正確な残り時間を計算する（tickの細かさに依存しない）
+     *
+     * @return 残り時間（秒、1秒未満は切り上げ）
+     */
+    public long getRemainingSeconds() {
+        return toSeconds(getRemainingNanos());
+    }
+
+    /*
+     * 残り時間をミリ秒単位で取得するメソッド
+     *
+     * @return 残り時間（ミリ秒、1ミリ秒未満は切り上げ）
+     */
+    public long getRemainingMillis() {
+        return toMillis(getRemainingNanos());
+    }
+
+    /*
+     * 残り時間をナノ秒単位で取得するメソッド
+     */
+    private long getRemainingNanos() {
+        lock.lock();
+        try {
+            if (state == State.RUNNING) {
+                return Math.max(deadlineNanos - System.nanoTime(), 0); // 完了予定時刻から計算
+            }
+            return remainingNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * タイマースレッドが待機から起床した回数を取得するメソッド
+     * tickの細かさの設定によって、起床回数がどれだけ減ったかを確認するために使用する
+     *
+     * @return 起床した回数
+     */
+    public long getWakeupCount() {
+        lock.lock();
+        try {
+            return wakeupCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 残り時間が0秒に到達した時刻を取得するメソッド（次のフェーズを続けて開始するために使用する）
+     *
+     * @return 完了した時刻（System.nanoTime基準の完了予定時刻）。完了していない場合は FINISHED
+     */
+    long getFinishedAtNanos() {
+        lock.lock();
+        try {
+            return finished ? deadlineNanos : FINISHED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * TickWatchdogがこのタイマーの遅れを検知した回数を取得するメソッド
+     *
+     * @return 遅れを検知した回数
+     */
+    public long getStallCount() {
+        lock.lock();
+        try {
+            return stallCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * 総時間を取得するメソッド
+     *
+     * @return 総時間（秒）
+     */
+    public long getTotalSeconds() {
+        return totalSeconds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * AlarmIndexクラスのテスト
+ */
+class AlarmIndexTest {
+
+    @Test
+    @DisplayName("登録順に関係なく、残り秒数の大きい順に取り出されること")
+    void testPoll_DescendingOrder() {
+        AlarmIndex index = new AlarmIndex();
+        index.add(60, 1500);
+        index.add(750, 1500);
+        index.add(300, 1500);
+
+        assertEquals(750, index.next());
+        assertEquals(AlarmIndex.NONE, index.poll(751)); // まだ到達していない
+        assertEquals(750, index.poll(750));
+        assertEquals(300, index.next());
+        assertEquals(300, index.poll(300));
+        assertEquals(60, index.poll(59)); // 通過していれば取り出せる
+        assertEquals(AlarmIndex.NONE, index.next());
+    }
+
+    @Test
+    @DisplayName("通過済み・重複したしきい値は登録されないこと")
+    void testAdd_IgnoresPassedAndDuplicate() {
+        AlarmIndex index = new AlarmIndex();
+        index.add(300, 200); // 既に通過している
+        index.add(60, 200);
+        index.add(60, 200); // 重複
+        index.add(-1, 200); // 負の値
+
+        assertArrayEquals(new long[] { 60 }, index.pending());
+    }
+
+    @Test
+    @DisplayName("通知後に追加したしきい値も正しい位置に挿入されること")
+    void testAdd_AfterPoll() {
+        AlarmIndex index = new AlarmIndex();
+        index.add(300, 1500);
+        index.add(60, 1500);
+        assertEquals(300, index.poll(300));
+
+        index.add(120, 299);
+        assertArrayEquals(new long[] { 120, 60 }, index.pending());
+        assertEquals(120, index.next());
+    }
+}
@@ -0,0 +1,116 @@
+package com.yoshitaka.pomodoro;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多数のセッションのtickを1つの処理で受け取る場合の負荷を、通知の方法ごとに計測するベンチマーク
+ *
+ * 以下の2つを比較する（どちらもTimerSchedulerで同じ数のセッションを進める）：
+ * - per-session: セッションごとにTimerListenerを登録し、tickのたびに集計先のロックを取得する
+ * - batch: BatchTimerListenerで1ラウンド分のtickをまとめて受け取り、ロックは1回だけ取得する
+ *
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する
+ *
+ * ./mvnw -pl pomodoro-core test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath com.yoshitaka.pomodoro.BatchTickBenchmark"
+ *
+ * 引数: [セッション数] [ラウンド数]
+ */
+public class BatchTickBenchmark {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    public static void main(String[] args) {
+        int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 500;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        threads.getCurrentThreadAllocatedBytes();
+
+        // JITのウォームアップ（結果は捨てる）
+        for (int i = 0; i < 3; i++) {
+            measure("per-session", sessions, rounds, false, threads, false);
+            measure("batch", sessions, rounds, true, threads, false);
+        }
+        measure("per-session", sessions, rounds, false, threads, true);
+        measure("batch", sessions, rounds, true, threads, true);
+    }
+
+    // sessions個のセッションをroundsラウンド進め、tick 1件あたりの時間と1ラウンドあたりの確保量を計測する
+    private static void measure(String name, int sessions, int rounds, boolean batched,
+            com.sun.management.ThreadMXBean threads, boolean print) {
+        Consumer consumer = new Consumer();
+        TimerScheduler scheduler = new TimerScheduler(batched ? consumer : new BatchTimerListener() {
+            @Override
+            public void onTicks(TickBatch batch) {
+            }
+        });
+        Duration duration = Duration.ofSeconds(rounds + 10L); // 計測中に完了しない長さ
+        for (int i = 0; i < sessions; i++) {
+            TimerService service = new TimerService(duration, batched ? null : new SessionListener(consumer));
+            scheduler.start(scheduler.register(service));
+        }
+        long base = System.nanoTime();
+        scheduler.runRound(base); // 登録したセッションをヒープに入れる
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int r = 1; r <= rounds; r++) {
+            scheduler.runRound(base + r * SECOND + SECOND / 10);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        if (print) {
+            System.out.printf("%-12s %,d sessions x %d rounds: %.1f ns/tick, %,d bytes/round allocated (ticks=%,d)%n",
+                    name, sessions, rounds, (double) elapsed / consumer.ticks, allocated / rounds, consumer.ticks);
+        }
+    }
+
+    // tickを集計する処理（画面表示やエクスポーターの代わり）
+    private static final class Consumer implements BatchTimerListener {
+
+        private long ticks;
+        private long remainingSum;
+
+        @Override
+        public void onTicks(TickBatch batch) {
+            synchronized (this) {
+                long[] remaining = batch.remainingSeconds();
+                for (int i = 0; i < batch.size(); i++) {
+                    remainingSum += remaining[i];
+                }
+                ticks += batch.size();
+            }
+        }
+
+        synchronized void accept(long remainingSeconds) {
+            remainingSum += remainingSeconds;
+            ticks++;
+        }
+    }
+
+    // セッションごとに登録し、tickのたびに集計先のロックを取得するリスナー
+    private static final class SessionListener implements TimerListener {
+
+        private final Consumer consumer;
+
+        SessionListener(Consumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            consumer.accept(remainingSeconds);
+        }
+
+        @Override
+        public void onFinish() {
+        }
+
+        @Override
+        public void onStateChange() {
+        }
+    }
+}
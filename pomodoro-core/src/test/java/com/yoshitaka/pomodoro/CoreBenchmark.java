@@ -0,0 +1,109 @@
+package com.yoshitaka.pomodoro;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pomodoro-coreを組み込んだ場合の負荷を計測するベンチマーク
+ *
+ * 以下の3つを計測する：
+ * - 起動時間: TimerServiceを初めて使うまでにかかる時間と、読み込まれるクラスの数
+ * - フットプリント: TimerService 1つあたりに確保されるメモリ
+ * - tickのスループット: 1秒あたりに処理できるtick（advance）の数
+ *
+ * 起動時間はJVMで最初に計測しないと意味がないため、新しいJVMで実行する。
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する
+ *
+ * ./mvnw -pl pomodoro-core test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath com.yoshitaka.pomodoro.CoreBenchmark"
+ *
+ * 引数: [フットプリントを計測するインスタンス数] [スループットを計測するtick数]
+ */
+public class CoreBenchmark {
+
+    public static void main(String[] args) {
+        int instances = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        long ticks = (args.length > 1) ? Long.parseLong(args[1]) : 50_000_000L;
+
+        // 計測に使うMXBeanを先に読み込んでおく（起動時間の計測に含めないため）
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        threads.getCurrentThreadAllocatedBytes();
+
+        measureStartup(classLoading);
+        measureFootprint(threads, instances);
+        measureThroughput(ticks);
+    }
+
+    // TimerServiceのクラスを読み込んで、0秒のタイマーを1回完了させるまでの時間を計測する
+    private static void measureStartup(ClassLoadingMXBean classLoading) {
+        long classesBefore = classLoading.getTotalLoadedClassCount();
+        long start = System.nanoTime();
+        TimerService service = new TimerService(Duration.ZERO, new CountingListener());
+        service.run();
+        long elapsed = System.nanoTime() - start;
+        long classes = classLoading.getTotalLoadedClassCount() - classesBefore;
+        System.out.printf("startup: first timer finished in %.2f ms, %d classes loaded%n", elapsed / 1e6, classes);
+    }
+
+    // TimerService 1つあたりに確保されるメモリを計測する（リスナー1つ、アラームなし）
+    private static void measureFootprint(com.sun.management.ThreadMXBean threads, int instances) {
+        TimerListener listener = new CountingListener();
+        TimerService[] services = new TimerService[instances]; // 計測中に回収されないよう保持する
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < instances; i++) {
+            services[i] = new TimerService(Duration.ofMinutes(25), listener);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.printf("footprint: %d bytes per TimerService (%d instances)%n", allocated / instances,
+                services.length);
+    }
+
+    // 1秒ごとに進めたtickを、1秒あたり何回処理できるかを計測する（リスナーの呼び出しを含む）
+    private static void measureThroughput(long ticks) {
+        CountingListener listener = new CountingListener();
+        long second = TimeUnit.SECONDS.toNanos(1);
+        // ウォームアップ（JITコンパイルを済ませる）
+        advance(listener, ticks / 10, second);
+        long start = System.nanoTime();
+        advance(listener, ticks, second);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("throughput: %.1f M ticks/s (%.1f ns per tick, %d callbacks)%n",
+                ticks / (elapsed / 1e9) / 1e6, (double) elapsed / ticks, listener.ticks);
+    }
+
+    // 長いタイマーを作り、指定した回数だけ1秒ずつ進める
+    private static void advance(CountingListener listener, long ticks, long stepNanos) {
+        TimerService service = new TimerService(Duration.ofSeconds(ticks + 1), listener);
+        service.beginNow();
+        long now = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            now += stepNanos;
+            service.advance(now);
+        }
+    }
+
+    /*
+     * 通知の回数だけを数えるリスナー
+     */
+    private static final class CountingListener implements TimerListener {
+
+        private long ticks;
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            ticks++;
+        }
+
+        @Override
+        public void onFinish() {
+        }
+
+        @Override
+        public void onStateChange() {
+        }
+    }
+}
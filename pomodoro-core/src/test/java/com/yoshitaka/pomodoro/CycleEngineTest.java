@@ -0,0 +1,157 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CyclePlan・CycleEngineクラスのテスト
+ */
+class CycleEngineTest {
+
+    @Test
+    @DisplayName("作業と短い休憩を繰り返し、最後の作業の後に長い休憩が入ること")
+    void testStandardPlan() {
+        CyclePlan plan = CyclePlan.standard();
+
+        assertEquals(8, plan.size());
+        StringBuilder phases = new StringBuilder();
+        for (int i = 0; i < plan.size(); i++) {
+            CyclePlan.Step step = plan.getStep(i);
+            assertEquals(i, step.getIndex());
+            assertEquals(i / 2 + 1, step.getRound());
+            phases.append(step.getPhase()).append(' ');
+        }
+        assertEquals("WORK SHORT_BREAK WORK SHORT_BREAK WORK SHORT_BREAK WORK LONG_BREAK ", phases.toString());
+        assertEquals(Duration.ofMinutes(25 * 4 + 5 * 3 + 15), plan.getTotalDuration());
+    }
+
+    @Test
+    @DisplayName("負の長さや1未満の作業の回数は指定できないこと")
+    void testInvalidPlan() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CyclePlan(Duration.ofSeconds(-1), Duration.ZERO, Duration.ZERO, 4));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CyclePlan(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0));
+    }
+
+    @Test
+    @DisplayName("全てのフェーズが同じスレッドで順に動き、最後にサイクルの完了が通知されること")
+    void testRunAllPhasesOnOneThread() {
+        CyclePlan plan = new CyclePlan(Duration.ZERO, Duration.ZERO, Duration.ZERO, 3);
+        RecordingListener listener = new RecordingListener();
+        CycleEngine engine = new CycleEngine(plan, listener);
+        TimerService first = engine.getCurrent();
+
+        engine.run();
+
+        assertEquals(5, listener.steps.size()); // 最初のフェーズ以外
+        for (int i = 0; i < listener.steps.size(); i++) {
+            assertSame(plan.getStep(i + 1), listener.steps.get(i));
+            assertSame(Thread.currentThread(), listener.threads.get(i));
+        }
+        assertEquals(1, listener.cycleFinishes.get());
+        assertEquals("F0 N1 F1 N2 F2 N3 F3 N4 F4 N5 F5 C ", listener.events.toString()); // 完了の後に次のフェーズ
+        assertTrue(first.getCompletion().isDone());
+        assertSame(plan.getStep(5), engine.getCurrentStep());
+    }
+
+    @Test
+    @DisplayName("次のフェーズの開始が遅れても、前のフェーズの完了予定時刻から続けて開始し、時間がずれないこと")
+    void testNoDriftBetweenPhases() {
+        CyclePlan plan = new CyclePlan(Duration.ofSeconds(1), Duration.ZERO, Duration.ofSeconds(1), 1);
+        List<TimerService> services = new ArrayList<>();
+        List<Long> finishes = new ArrayList<>();
+        CycleEngine engine = new CycleEngine(plan, new CycleListener() {
+            @Override
+            public void onPhaseFinish(CyclePlan.Step step, long finishedAtNanos) {
+                finishes.add(finishedAtNanos);
+            }
+
+            @Override
+            public void onNextPhase(CyclePlan.Step step, TimerService service) {
+                services.add(service);
+                sleep(300); // 切り替えの処理に時間がかかる
+            }
+        });
+        services.add(engine.getCurrent());
+        long start = System.nanoTime();
+
+        engine.run();
+
+        long elapsed = System.nanoTime() - start;
+        long work = services.get(0).getFinishedAtNanos();
+        long rest = services.get(1).getFinishedAtNanos();
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rest - work); // 休憩は作業の完了予定時刻からちょうど1秒
+        assertEquals(List.of(work, rest), finishes); // 各フェーズの完了予定時刻が渡される
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(2250), "切り替えの遅れが積み重なった: " + elapsed);
+    }
+
+    @Test
+    @DisplayName("キャンセルすると次のフェーズに進まず、サイクルの完了も通知されないこと")
+    void testCancel() throws InterruptedException {
+        CyclePlan plan = new CyclePlan(Duration.ofSeconds(10), Duration.ZERO, Duration.ZERO, 2);
+        RecordingListener listener = new RecordingListener();
+        CycleEngine engine = new CycleEngine(plan, listener);
+        engine.getCurrent().beginNow();
+        Thread thread = new Thread(engine);
+        thread.start();
+
+        engine.cancel();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(thread.isAlive());
+        assertEquals(0, listener.steps.size());
+        assertEquals(0, listener.cycleFinishes.get());
+        assertEquals("", listener.events.toString()); // キャンセルしたフェーズは完了として通知しない
+        assertTrue(engine.getCurrent().getCompletion().isCancelled());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * フェーズの切り替えを記録するリスナー
+     */
+    private static final class RecordingListener implements CycleListener {
+
+        private final List<CyclePlan.Step> steps = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicInteger cycleFinishes = new AtomicInteger();
+        private final StringBuffer events = new StringBuffer();
+
+        @Override
+        public void onPhaseFinish(CyclePlan.Step step, long finishedAtNanos) {
+            events.append('F').append(step.getIndex()).append(' ');
+        }
+
+        @Override
+        public void onNextPhase(CyclePlan.Step step, TimerService service) {
+            steps.add(step);
+            threads.add(Thread.currentThread());
+            events.append('N').append(step.getIndex()).append(' ');
+        }
+
+        @Override
+        public void onCycleFinish() {
+            cycleFinishes.incrementAndGet();
+            events.append("C ");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FlightRecorderRingクラスのテスト
+ */
+class FlightRecorderRingTest {
+
+    @Test
+    @DisplayName("記録が古い順に書き出されること")
+    void testDump_OldestFirst() {
+        FlightRecorderRing ring = new FlightRecorderRing(8);
+        ring.record(FlightRecorderRing.Kind.COMMAND, 1_000_000, 0, 0, "start");
+        ring.record(FlightRecorderRing.Kind.STATE_CHANGE, 0, TimerService.State.IDLE.ordinal(),
+                TimerService.State.RUNNING.ordinal(), null);
+        ring.record(FlightRecorderRing.Kind.TICK, 0, 1499, 1500, null);
+
+        String dump = dump(ring);
+        assertTrue(dump.startsWith("# pomodoro flight recorder: 3 of 3 events"));
+        int command = dump.indexOf("COMMAND");
+        int stateChange = dump.indexOf("IDLE -> RUNNING");
+        int tick = dump.indexOf("remaining=1499s total=1500s");
+        assertTrue(command > 0 && command < stateChange && stateChange < tick, dump);
+        assertTrue(dump.contains("1.000ms"), dump); // かかった時間はミリ秒で表示される
+    }
+
+    @Test
+    @DisplayName("容量を超えると古い記録から上書きされること")
+    void testRecord_OverwritesOldest() {
+        FlightRecorderRing ring = new FlightRecorderRing(4);
+        for (int i = 0; i < 10; i++) {
+            ring.record(FlightRecorderRing.Kind.COMMAND, 0, 0, 0, "command-" + i);
+        }
+
+        String dump = dump(ring);
+        assertEquals(10, ring.getRecordedCount());
+        assertTrue(dump.startsWith("# pomodoro flight recorder: 4 of 10 events"));
+        assertFalse(dump.contains("command-5"), dump);
+        for (int i = 6; i < 10; i++) {
+            assertTrue(dump.contains("command-" + i), dump);
+        }
+    }
+
+    @Test
+    @DisplayName("tickの遅れが、遅れた時間と残り秒数とともに書き出されること")
+    void testDump_Stall() {
+        FlightRecorderRing ring = new FlightRecorderRing(4);
+        ring.record(FlightRecorderRing.Kind.STALL, 1_500_000_000L, 42, 0, null);
+
+        String dump = dump(ring);
+        assertTrue(dump.contains("STALL"), dump);
+        assertTrue(dump.contains("1500.000ms"), dump);
+        assertTrue(dump.contains("remaining=42s"), dump);
+    }
+
+    @Test
+    @DisplayName("複数のスレッドが同じスロットに書き込んでも、項目が混ざった記録は書き出されないこと")
+    void testConcurrentRecord_NoTornRecords() throws InterruptedException {
+        FlightRecorderRing ring = new FlightRecorderRing(4);
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int writer = w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    long value = writer * 1_000_000L + i;
+                    // 処理時間と値1・ラベルに同じ値を書き、書き出した記録で一致するかを確かめる
+                    ring.record(FlightRecorderRing.Kind.COMMAND, value * 1_000_000, value, value, Long.toString(value));
+                }
+            });
+            writers[w].start();
+        }
+        while (isAlive(writers)) {
+            for (String line : dump(ring).split("\n")) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                String label = line.substring(line.lastIndexOf(' ') + 1);
+                assertTrue(line.contains(" " + label + ".000ms "), line);
+            }
+        }
+        assertEquals(writers.length * 20_000L, ring.getRecordedCount());
+    }
+
+    @Test
+    @DisplayName("容量が0以下の場合は例外が発生すること")
+    void testConstructor_InvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new FlightRecorderRing(0));
+    }
+
+    private static String dump(FlightRecorderRing ring) {
+        StringWriter out = new StringWriter();
+        ring.dump(out);
+        return out.toString();
+    }
+
+    private static boolean isAlive(Thread[] threads) {
+        for (Thread thread : threads) {
+            if (thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,139 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * GroupSessionクラスのテスト
+ */
+@ExtendWith(MockitoExtension.class)
+class GroupSessionTest {
+
+    @Mock
+    private TimerListener memberA;
+
+    @Mock
+    private TimerListener memberB;
+
+    @Test
+    @DisplayName("1つのタイマーのtickと完了が参加者全員に配信されること")
+    void testFanOut_AllMembers() throws InterruptedException {
+        GroupSession group = new GroupSession(Duration.ofSeconds(2));
+        group.join(memberA);
+        group.join(memberB);
+
+        Thread thread = new Thread(group);
+        thread.start();
+        thread.join();
+
+        for (TimerListener member : new TimerListener[] { memberA, memberB }) {
+            verify(member).onTick(1, 2);
+            verify(member).onTick(0, 2);
+            verify(member).onFinish();
+        }
+    }
+
+    @Test
+    @DisplayName("一時停止・再開がグループ全体に一度に反映されること")
+    void testPauseAndResume_AppliesToGroup() throws InterruptedException {
+        GroupSession group = new GroupSession(Duration.ofMinutes(1));
+        group.join(memberA);
+        group.join(memberB);
+
+        Thread thread = new Thread(group);
+        thread.start();
+        verify(memberA, timeout(100)).onStateChange(); // 開始
+
+        group.pause();
+        assertEquals(TimerService.State.PAUSED, group.getTimerService().getState());
+        group.resume();
+
+        // 開始・一時停止・再開の3回が、全員に同じ回数だけ配信される
+        verify(memberA, timeout(100).times(3)).onStateChange();
+        verify(memberB, timeout(100).times(3)).onStateChange();
+
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Test
+    @DisplayName("実行中のグループに1秒ごとのtickが必要な参加者が加わると、すぐにtickが配信されること")
+    void testJoinRunningGroup_FinerResolution() throws InterruptedException {
+        when(memberA.tickResolution()).thenReturn(TickResolution.MINUTE);
+        GroupSession group = new GroupSession(Duration.ofMinutes(5));
+        group.join(memberA);
+
+        Thread thread = new Thread(group);
+        thread.start();
+        verify(memberA, timeout(100)).onStateChange(); // 開始
+        Thread.sleep(200); // 次の1分の区切りまで眠るのを待つ
+
+        when(memberB.tickResolution()).thenReturn(TickResolution.SECOND);
+        group.join(memberB);
+
+        verify(memberB, timeout(3000).atLeast(2)).onTick(anyLong(), eq(300L));
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Test
+    @DisplayName("バッチの大きさを超える参加者にも全員に配信されること")
+    void testFanOut_LargeGroup() throws InterruptedException {
+        GroupSession group = new GroupSession(Duration.ofSeconds(1));
+        AtomicInteger finished = new AtomicInteger();
+        int memberCount = GroupSession.BATCH_SIZE * 10 + 1;
+        for (int i = 0; i < memberCount; i++) {
+            group.join(new TimerListener() {
+                @Override
+                public void onTick(long remainingSeconds, long totalSeconds) {
+                }
+
+                @Override
+                public void onFinish() {
+                    finished.incrementAndGet();
+                }
+
+                @Override
+                public void onStateChange() {
+                }
+
+                @Override
+                public TickResolution tickResolution() {
+                    return TickResolution.FINISH_ONLY;
+                }
+            });
+        }
+
+        Thread thread = new Thread(group);
+        thread.start();
+        thread.join();
+
+        assertEquals(memberCount, finished.get());
+        assertEquals(1, group.getTimerService().getWakeupCount()); // 全員が完了のみなので起床は1回
+    }
+
+    @Test
+    @DisplayName("参加者のリスナーで例外が発生しても他の参加者に配信されること")
+    void testFanOut_FailingMember() throws InterruptedException {
+        GroupSession group = new GroupSession(Duration.ofSeconds(1));
+        doThrow(new IllegalStateException("boom")).when(memberA).onFinish();
+        group.join(memberA);
+        group.join(memberB);
+
+        Thread thread = new Thread(group);
+        thread.start();
+        thread.join();
+
+        verify(memberB).onFinish();
+        assertEquals(1, group.getFailedDeliveries());
+    }
+}
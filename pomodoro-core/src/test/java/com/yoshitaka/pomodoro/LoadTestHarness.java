@@ -0,0 +1,398 @@
+package com.yoshitaka.pomodoro;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 複数のTimerServiceを同時に動かして負荷をかける負荷試験ツール
+ *
+ * PomodoroApp.handleCommandと同じように start / stop / reset をランダムに送り、
+ * セッション数を増やしながら以下の値を計測する：
+ * - tickの間隔のずれ（ジッター）のパーセンタイル
+ * - CPU使用量（使用コア数）
+ * - スレッド数とヒープ使用量のピーク
+ * - 完了通知（onFinish）が届かなかったセッション数
+ *
+ * 通常のテスト実行には含まれないため、以下のコマンドで個別に実行する
+ *
+ * ./mvnw -pl pomodoro-core test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.yoshitaka.pomodoro.LoadTestHarness
+ * -Dexec.args="--sessions 1,10,100,1000,10000,100000 --duration 10"
+ *
+ * オプション:
+ * --sessions セッション数（カンマ区切りで複数指定すると順に計測する）
+ * --duration 1セッションのタイマーの長さ（秒）
+ * --commands 1秒あたりに送るコマンド数（セッション数に比例させる場合は --commands-per-session）
+ * --commands-per-session 1セッションあたり1秒間に送るコマンド数
+ * --seed 乱数のシード
+ */
+public class LoadTestHarness {
+
+    // 完了通知を待つ猶予時間（ミリ秒）
+    private static final long FINISH_GRACE_MILLIS = 3000;
+    // リソース使用量を記録する間隔（ミリ秒）
+    private static final long SAMPLE_INTERVAL_MILLIS = 500;
+
+    // 計測するセッション数の一覧
+    private final int[] sessionCounts;
+    // タイマーの長さ（秒）
+    private final long durationSeconds;
+    // 1秒あたりに送るコマンド数（固定値）
+    private final double commandsPerSecond;
+    // 1セッションあたり1秒間に送るコマンド数
+    private final double commandsPerSessionSecond;
+    // 乱数のシード
+    private final long seed;
+
+    LoadTestHarness(int[] sessionCounts, long durationSeconds, double commandsPerSecond,
+            double commandsPerSessionSecond, long seed) {
+        this.sessionCounts = sessionCounts;
+        this.durationSeconds = durationSeconds;
+        this.commandsPerSecond = commandsPerSecond;
+        this.commandsPerSessionSecond = commandsPerSessionSecond;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] sessions = { 1, 10, 100, 1000, 10000, 100000 };
+        long duration = 10;
+        double commands = 0;
+        double commandsPerSession = 0.05;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sessions":
+                    String[] values = args[i + 1].split(",");
+                    sessions = new int[values.length];
+                    for (int j = 0; j < values.length; j++) {
+                        sessions[j] = Integer.parseInt(values[j].trim());
+                    }
+                    break;
+                case "--duration":
+                    duration = Long.parseLong(args[i + 1]);
+                    break;
+                case "--commands":
+                    commands = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--commands-per-session":
+                    commandsPerSession = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+        new LoadTestHarness(sessions, duration, commands, commandsPerSession, seed).run();
+    }
+
+    /*
+     * セッション数ごとに負荷試験を実行し、結果を表形式で出力する
+     */
+    void run() throws InterruptedException {
+        System.out.printf("duration=%ds cpus=%d maxHeap=%dMB%n", durationSeconds,
+                Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("%8s %8s %9s %9s %9s %9s %9s %7s %8s %9s %7s %s%n", "sessions", "started", "p50(ms)",
+                "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "cores", "threads", "heap(MB)", "missed", "error");
+        for (int sessions : sessionCounts) {
+            Result result = runOnce(sessions);
+            System.out.printf("%8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %7.2f %8d %9d %7d %s%n", sessions,
+                    result.started, result.jitter.percentileMillis(0.50), result.jitter.percentileMillis(0.90),
+                    result.jitter.percentileMillis(0.99), result.jitter.percentileMillis(0.999),
+                    result.jitter.maxMillis(), result.coresUsed, result.peakThreads, result.peakHeapBytes >> 20,
+                    result.missedFinishes, (result.error != null) ? result.error : "");
+            System.gc(); // 次の計測に前回のヒープ使用量を持ち越さない
+            TimeUnit.SECONDS.sleep(1);
+        }
+    }
+
+    /*
+     * 指定したセッション数で1回分の負荷試験を行う
+     */
+    private Result runOnce(int sessionCount) throws InterruptedException {
+        Result result = new Result();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ResourceSampler sampler = new ResourceSampler(threads, memory);
+        Thread samplerThread = new Thread(sampler, "load-test-sampler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+
+        long cpuStart = processCpuNanos();
+        long wallStart = System.nanoTime();
+        List<Session> sessions = new ArrayList<>(sessionCount);
+        try {
+            // 1. すべてのセッションを開始する（スレッドが作れなくなった時点で打ち切る）
+            for (int i = 0; i < sessionCount; i++) {
+                Session session = new Session(result.jitter);
+                sessions.add(session);
+                session.launch();
+                result.started++;
+            }
+
+            // 2. タイマーの長さの間、ランダムなコマンドを送り続ける
+            SplittableRandom random = new SplittableRandom(seed);
+            double rate = (commandsPerSecond > 0) ? commandsPerSecond : commandsPerSessionSecond * sessionCount;
+            long intervalNanos = (rate > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : Long.MAX_VALUE;
+            long trafficEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+            long nextCommand = System.nanoTime();
+            while (System.nanoTime() < trafficEnd) {
+                if (System.nanoTime() >= nextCommand) {
+                    Session target = sessions.get(random.nextInt(sessions.size()));
+                    target.handleCommand(random.nextInt(10)); // start/stop/resetをランダムに送る
+                    nextCommand += intervalNanos;
+                } else {
+                    TimeUnit.MICROSECONDS.sleep(200);
+                }
+            }
+
+            // 3. 一時停止中のセッションを再開し、すべて完了するはずの時刻まで待つ
+            long latestDeadline = System.currentTimeMillis();
+            for (Session session : sessions) {
+                latestDeadline = Math.max(latestDeadline, session.resumeAndGetDeadline());
+            }
+            long waitMillis = latestDeadline + FINISH_GRACE_MILLIS - System.currentTimeMillis();
+            if (waitMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(waitMillis);
+            }
+            for (Session session : sessions) {
+                if (!session.isFinished()) {
+                    result.missedFinishes++;
+                }
+            }
+        } catch (OutOfMemoryError e) {
+            // スレッドを作成できなくなった場合（スレッド数の上限・メモリ不足）
+            result.error = e.getMessage();
+        } finally {
+            result.coresUsed = (double) (processCpuNanos() - cpuStart) / (System.nanoTime() - wallStart);
+            for (Session session : sessions) {
+                session.shutdown();
+            }
+            sampler.stop();
+            samplerThread.join();
+            result.peakThreads = sampler.peakThreads;
+            result.peakHeapBytes = sampler.peakHeapBytes;
+        }
+        return result;
+    }
+
+    /*
+     * プロセスが使用したCPU時間（ナノ秒）を取得する
+     */
+    private static long processCpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    /*
+     * 1つのタイマーセッション
+     * PomodoroAppと同じく、タイマーごとに単一スレッドのExecutorServiceで実行する
+     */
+    private final class Session {
+
+        // tick間隔のずれを記録するヒストグラム
+        private final JitterHistogram jitter;
+        // 現在のタイマー
+        private volatile TimerService timerService;
+        // 現在のタイマーを実行しているスレッドプール
+        private ExecutorService executorService;
+        // 現在のタイマーが完了したかどうか
+        private volatile boolean finished;
+        // 現在のタイマーの世代（リセット前のタイマーからの通知を無視するため）
+        private volatile int generation;
+
+        Session(JitterHistogram jitter) {
+            this.jitter = jitter;
+        }
+
+        /*
+         * 新しいタイマーを作成して開始する（PomodoroApp.handleStart / resetTimer 相当）
+         */
+        synchronized void launch() {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+            finished = false;
+            timerService = new TimerService(Duration.ofSeconds(durationSeconds), new RunListener(++generation));
+            executorService = Executors.newSingleThreadExecutor();
+            executorService.submit(timerService);
+        }
+
+        /*
+         * ランダムなコマンドを処理する（PomodoroApp.handleCommand 相当）
+         *
+         * @param dice 0〜9の乱数。0〜5: start、6〜8: stop、9: reset
+         */
+        synchronized void handleCommand(int dice) {
+            if (finished) {
+                return; // 完了したセッションには送らない
+            }
+            if (dice <= 5) {
+                timerService.start();
+            } else if (dice <= 8) {
+                timerService.pause();
+            } else {
+                launch();
+            }
+        }
+
+        /*
+         * 一時停止中なら再開し、完了するはずの時刻を返す
+         *
+         * @return 完了予定時刻（エポックミリ秒）
+         */
+        synchronized long resumeAndGetDeadline() {
+            timerService.start();
+            return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timerService.getRemainingSeconds());
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        synchronized void shutdown() {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+        }
+
+        /*
+         * タイマー1回分の通知を受け取るリスナー
+         */
+        private final class RunListener implements TimerListener {
+
+            // このリスナーを作成した時の世代
+            private final int runGeneration;
+            // 直前のtickの時刻（ナノ秒）。一時停止・再開の直後は0
+            private long lastTickNanos;
+
+            RunListener(int runGeneration) {
+                this.runGeneration = runGeneration;
+            }
+
+            @Override
+            public void onTick(long remainingSeconds, long totalSeconds) {
+                long now = System.nanoTime();
+                if (lastTickNanos != 0) {
+                    jitter.record(Math.abs(now - lastTickNanos - TimeUnit.SECONDS.toNanos(1)));
+                }
+                lastTickNanos = now;
+            }
+
+            @Override
+            public void onFinish() {
+                if (runGeneration == generation) {
+                    finished = true; // リセットされていないタイマーの完了のみ数える
+                }
+            }
+
+            @Override
+            public void onStateChange() {
+                lastTickNanos = 0; // 一時停止をまたいだ間隔はジッターに含めない
+            }
+        }
+    }
+
+    /*
+     * tick間隔のずれを100マイクロ秒単位で集計するヒストグラム
+     * 複数のタイマースレッドから同時に記録できる
+     */
+    static final class JitterHistogram {
+
+        // 1バケットの幅（ナノ秒）
+        private static final long BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+        // バケット数（10秒まで記録し、それ以上は最後のバケットにまとめる）
+        private static final int BUCKETS = 100_000;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long jitterNanos) {
+            counts.incrementAndGet((int) Math.min(jitterNanos / BUCKET_NANOS, BUCKETS - 1));
+            total.incrementAndGet();
+            max.accumulateAndGet(jitterNanos, Math::max);
+        }
+
+        double percentileMillis(double percentile) {
+            long target = (long) Math.ceil(total.get() * percentile);
+            if (target == 0) {
+                return 0;
+            }
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= target) {
+                    return (i + 1) * BUCKET_NANOS / 1e6; // バケットの上限値
+                }
+            }
+            return maxMillis();
+        }
+
+        double maxMillis() {
+            return max.get() / 1e6;
+        }
+    }
+
+    /*
+     * スレッド数とヒープ使用量のピークを定期的に記録する
+     */
+    private static final class ResourceSampler implements Runnable {
+
+        private final ThreadMXBean threads;
+        private final MemoryMXBean memory;
+        private volatile boolean running = true;
+        private volatile int peakThreads;
+        private volatile long peakHeapBytes;
+
+        ResourceSampler(ThreadMXBean threads, MemoryMXBean memory) {
+            this.threads = threads;
+            this.memory = memory;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+                peakHeapBytes = Math.max(peakHeapBytes, memory.getHeapMemoryUsage().getUsed());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        void stop() {
+            running = false;
+        }
+    }
+
+    /*
+     * 1回分の計測結果
+     */
+    private static final class Result {
+        final JitterHistogram jitter = new JitterHistogram();
+        int started;
+        double coresUsed;
+        int peakThreads;
+        long peakHeapBytes;
+        int missedFinishes;
+        String error;
+    }
+}
@@ -0,0 +1,49 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TickResolution列挙型のテスト
+ */
+class TickResolutionTest {
+
+    @Test
+    @DisplayName("1秒ごとの場合、残り秒数が減るたびに区切りを通過すること")
+    void testSecond() {
+        assertTrue(TickResolution.SECOND.crossed(1499, 1500));
+        assertFalse(TickResolution.SECOND.crossed(1500, 1500));
+        assertEquals(1499, TickResolution.SECOND.nextBoundary(1500));
+    }
+
+    @Test
+    @DisplayName("1分ごとの場合、1分区切りを通過した時だけ区切りを通過すること")
+    void testMinute() {
+        assertFalse(TickResolution.MINUTE.crossed(1499, 1500));
+        assertTrue(TickResolution.MINUTE.crossed(1440, 1441));
+        assertTrue(TickResolution.MINUTE.crossed(1430, 1445)); // 遅れて起床した場合も通過を検知する
+        assertEquals(1440, TickResolution.MINUTE.nextBoundary(1500));
+        assertEquals(1380, TickResolution.MINUTE.nextBoundary(1440));
+    }
+
+    @Test
+    @DisplayName("高解像度の場合、1秒ごとの区切りは SECOND と同じで、100ミリ秒ごとの通知があること")
+    void testFine() {
+        assertTrue(TickResolution.FINE.crossed(1499, 1500));
+        assertFalse(TickResolution.FINE.crossed(1500, 1500));
+        assertEquals(1499, TickResolution.FINE.nextBoundary(1500));
+        assertEquals(100, TickResolution.FINE.getFineIntervalMillis());
+        assertEquals(0, TickResolution.SECOND.getFineIntervalMillis());
+    }
+
+    @Test
+    @DisplayName("完了通知のみの場合、区切りを通過せず次の区切りは完了時であること")
+    void testFinishOnly() {
+        assertFalse(TickResolution.FINISH_ONLY.crossed(0, 1500));
+        assertEquals(0, TickResolution.FINISH_ONLY.nextBoundary(1500));
+    }
+}
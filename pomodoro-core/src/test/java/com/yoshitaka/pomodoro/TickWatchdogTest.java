@@ -0,0 +1,257 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TickWatchdog・AsyncTimerListenerクラスのテスト
+ */
+class TickWatchdogTest {
+
+    @Test
+    @DisplayName("リスナーでタイマースレッドが止まると遅れが1回だけ通知され、再開後は遅れた間のtickを飛ばして正しい残り時間を通知すること")
+    void testStallDetectedAndResynced() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TimerListener stuck = new TimerListener() {
+            @Override
+            public void onTick(long remainingSeconds, long totalSeconds) {
+                if (remainingSeconds == 29) {
+                    blocked.countDown();
+                    await(release); // 最初のtickで止まる
+                }
+            }
+
+            @Override
+            public void onFinish() {
+            }
+
+            @Override
+            public void onStateChange() {
+            }
+        };
+        RecordingListener recorder = new RecordingListener();
+        TimerService service = new TimerService(Duration.ofSeconds(30), stuck);
+        service.addListener(recorder);
+        try (TickWatchdog watchdog = new TickWatchdog(Duration.ofMillis(200))) {
+            watchdog.watch(service);
+            Thread thread = new Thread(service);
+            thread.start();
+
+            assertTrue(blocked.await(3, TimeUnit.SECONDS));
+            waitUntil(() -> recorder.stalls.size() == 1);
+            TimeUnit.MILLISECONDS.sleep(2500); // 止まったまま、28秒のtickの時刻を過ぎる
+            release.countDown();
+            waitUntil(() -> recorder.ticks.size() >= 2);
+
+            assertEquals(1, service.getStallCount()); // 同じ遅れは1回だけ数える
+            assertEquals(1, watchdog.getStallCount());
+            assertTrue(recorder.stalls.get(0) >= 200, "遅れ: " + recorder.stalls.get(0));
+            assertEquals(List.of(29L, 27L), recorder.ticks.subList(0, 2)); // 28秒は通知し直さない
+            assertEquals(0, watchdog.getOffloadedCount()); // 1回だけでは別スレッドに移さない
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    @Test
+    @DisplayName("何度も遅れの原因になるリスナーは、別スレッドで呼び出すように差し替えられること")
+    void testSlowListenerOffloaded() throws InterruptedException {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        TimerListener slow = new TimerListener() {
+            @Override
+            public void onTick(long remainingSeconds, long totalSeconds) {
+                threads.add(Thread.currentThread().getName());
+                sleep(450); // 毎回しきい値を超えてタイマースレッドを止める
+            }
+
+            @Override
+            public void onFinish() {
+            }
+
+            @Override
+            public void onStateChange() {
+            }
+        };
+        TimerService service = new TimerService(Duration.ofSeconds(30), slow);
+        try (TickWatchdog watchdog = new TickWatchdog(Duration.ofMillis(200))) {
+            watchdog.watch(service);
+            Thread thread = new Thread(service, "tick-thread");
+            thread.start();
+
+            waitUntil(() -> watchdog.getOffloadedCount() == 1);
+            long stalls = watchdog.getStallCount();
+            assertTrue(stalls >= TickWatchdog.SLOW_STRIKES);
+            int before = threads.size();
+            waitUntil(() -> threads.size() >= before + 2);
+
+            assertEquals(stalls, watchdog.getStallCount()); // 差し替えた後はタイマースレッドが止まらない
+            assertTrue(threads.get(threads.size() - 1).startsWith(TickWatchdog.THREAD_NAME), threads.toString());
+            assertEquals("tick-thread", threads.get(0));
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    @Test
+    @DisplayName("一時停止中や監視していないタイマーは、遅れとして検知されないこと")
+    void testPausedAndUnwatchedNotFlagged() {
+        TimerService paused = new TimerService(Duration.ofSeconds(30), null);
+        TimerService unwatched = new TimerService(Duration.ofSeconds(30), null);
+        try (TickWatchdog watchdog = new TickWatchdog(Duration.ofMillis(200), false)) {
+            watchdog.watch(paused);
+            watchdog.watch(unwatched);
+            long now = System.nanoTime();
+            paused.beginNow();
+            paused.advance(now);
+            paused.pause();
+            unwatched.beginNow();
+            unwatched.advance(now);
+            watchdog.unwatch(unwatched);
+
+            watchdog.check(now + TimeUnit.SECONDS.toNanos(10));
+
+            assertEquals(0, watchdog.getStallCount());
+            assertEquals(0, paused.getStallCount());
+            assertEquals(0, unwatched.getStallCount());
+        }
+    }
+
+    @Test
+    @DisplayName("別スレッドで呼び出すリスナーは、通知を順に渡し、追いつかない間のtickを最新の1件にまとめること")
+    void testAsyncListenerCoalescesTicks() {
+        List<Runnable> tasks = new ArrayList<>();
+        RecordingListener recorder = new RecordingListener();
+        AsyncTimerListener async = new AsyncTimerListener(recorder, tasks::add);
+
+        async.onTick(10, 30);
+        async.onTick(9, 30);
+        async.onStateChange();
+        async.onTick(8, 30);
+        async.onFinish();
+        assertEquals(1, tasks.size()); // 渡す処理の依頼は1回だけ
+        assertTrue(recorder.events.isEmpty());
+
+        tasks.get(0).run();
+        assertEquals(List.of("tick 9", "state", "tick 8", "finish"), recorder.events);
+    }
+
+    @Test
+    @DisplayName("元のリスナーが例外を投げても、後ろに並んでいる完了の通知が渡されること")
+    void testAsyncListenerContinuesAfterFailure() throws InterruptedException {
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> events = new CopyOnWriteArrayList<>();
+        TimerListener failing = new TimerListener() {
+            @Override
+            public void onTick(long remainingSeconds, long totalSeconds) {
+                throw new IllegalStateException("tick failed");
+            }
+
+            @Override
+            public void onFinish() {
+                events.add("finish");
+            }
+
+            @Override
+            public void onStateChange() {
+                events.add("state");
+            }
+        };
+        AsyncTimerListener async = new AsyncTimerListener(failing, tasks::add);
+        async.onTick(1, 30);
+        async.onStateChange();
+        async.onFinish();
+
+        List<Throwable> reported = new CopyOnWriteArrayList<>();
+        Thread thread = new Thread(tasks.get(0));
+        thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+        thread.start();
+        thread.join();
+
+        assertEquals(List.of("state", "finish"), events);
+        assertEquals(1, async.getFailedCount());
+        assertEquals(1, reported.size()); // 例外は握りつぶさずに報告する
+        assertEquals(1, tasks.size()); // 次の通知を待たずに最後まで渡した
+    }
+
+    @Test
+    @DisplayName("別スレッドに移したリスナーも、元のリスナーで削除できること")
+    void testRemoveOffloadedListener() {
+        RecordingListener recorder = new RecordingListener();
+        TimerService service = new TimerService(Duration.ofSeconds(30), recorder);
+        assertTrue(service.replaceListener(recorder, new AsyncTimerListener(recorder, Runnable::run)));
+
+        service.removeListener(recorder);
+        service.beginNow();
+
+        assertTrue(recorder.events.isEmpty());
+        assertFalse(service.replaceListener(recorder, recorder));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "条件が満たされない");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * 通知を記録するリスナー
+     */
+    private static final class RecordingListener implements TimerListener {
+
+        private final List<Long> ticks = new CopyOnWriteArrayList<>();
+        private final List<Long> stalls = new CopyOnWriteArrayList<>();
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+            ticks.add(remainingSeconds);
+            events.add("tick " + remainingSeconds);
+        }
+
+        @Override
+        public void onFinish() {
+            events.add("finish");
+        }
+
+        @Override
+        public void onStateChange() {
+            events.add("state");
+        }
+
+        @Override
+        public void onStall(long lateMillis, long remainingSeconds) {
+            stalls.add(lateMillis);
+        }
+    }
+}
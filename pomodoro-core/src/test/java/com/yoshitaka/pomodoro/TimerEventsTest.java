@@ -0,0 +1,117 @@
+package com.yoshitaka.pomodoro;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TimerEventsクラスのテスト
+ */
+class TimerEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TimerEvents.setRing(null); // 他のテストに影響しないよう無効に戻す
+    }
+
+    @Test
+    @DisplayName("記録が無効な場合はstart系のメソッドがnullを返し、何も記録されないこと")
+    void testStart_Disabled() {
+        TimerEvents.setRing(null);
+        assertNull(TimerEvents.startTick());
+        assertNull(TimerEvents.startListenerCallback());
+    }
+
+    @Test
+    @DisplayName("タイマーの状態変化・tick・リスナー呼び出しがフライトレコーダーに記録されること")
+    void testTimer_RecordedToRing() {
+        FlightRecorderRing ring = new FlightRecorderRing(64);
+        TimerEvents.setRing(ring);
+
+        new TimerService(Duration.ofSeconds(1), new SilentListener()).run(); // 1秒で完了する
+
+        StringWriter out = new StringWriter();
+        ring.dump(out);
+        String dump = out.toString();
+        assertTrue(dump.contains("IDLE -> RUNNING"), dump);
+        assertTrue(dump.contains("remaining=0s total=1s"), dump);
+        assertTrue(dump.contains("SilentListener.onFinish"), dump);
+        assertTrue(dump.contains("RUNNING -> IDLE"), dump);
+    }
+
+    @Test
+    @DisplayName("JFRの記録中はカスタムイベントが、かかった時間を継続時間として記録されること")
+    void testTimer_RecordedToJfr() throws IOException {
+        Path file = tempDir.resolve("timer.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TimerEvents.StateChange.class);
+            recording.enable(TimerEvents.ListenerCallback.class);
+            recording.enable(TimerEvents.Tick.class);
+            recording.start();
+            assertNotNull(TimerEvents.startTick()); // 記録の開始を検知している
+
+            new TimerService(Duration.ofSeconds(1), new SilentListener() {
+                @Override
+                public void onFinish() {
+                    sleep(20);
+                }
+            }).run();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("pomodoro.StateChange")
+                && e.getString("from").equals("RUNNING") && e.getString("to").equals("IDLE")));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("pomodoro.ListenerCallback")
+                && e.getString("callback").equals("onFinish") && e.getDuration().toMillis() >= 20));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("pomodoro.StateChange")
+                && e.getString("to").equals("IDLE") && e.getDuration().toMillis() >= 20)); // 通知し終えるまで
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("pomodoro.Tick")
+                && e.getLong("remainingSeconds") == 0));
+        assertNull(TimerEvents.startTick()); // 記録の終了後は計測しない
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 何もしないリスナー（記録されるクラス名を確認するため）
+     */
+    private static class SilentListener implements TimerListener {
+        @Override
+        public void onTick(long remainingSeconds, long totalSeconds) {
+        }
+
+        @Override
+        public void onFinish() {
+        }
+
+        @Override
+        public void onStateChange() {
+        }
+    }
+}
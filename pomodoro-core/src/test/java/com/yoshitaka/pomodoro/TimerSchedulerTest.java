@@ -0,0 +1,156 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TimerSchedulerクラスのテスト
+ * runRoundに時刻を渡して、実際の時間を待たずにラウンドごとの通知を検証
+ */
+class TimerSchedulerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("同じラウンドで進んだ全てのタイマーのtickが、1回の呼び出しでまとめて通知されること")
+    void testTicksDeliveredOncePerRound() {
+        RecordingListener listener = new RecordingListener();
+        TimerScheduler scheduler = new TimerScheduler(listener);
+        int[] handles = new int[3];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = scheduler.register(new TimerService(Duration.ofSeconds(10), null));
+            scheduler.start(handles[i]);
+        }
+        long start = System.nanoTime();
+        scheduler.runRound(start);
+        assertEquals(0, listener.rounds.size()); // まだ1秒経っていない
+
+        scheduler.runRound(start + SECOND + SECOND / 10);
+        assertEquals(1, listener.rounds.size());
+        long[][] round = listener.rounds.get(0);
+        int[] ticked = new int[round.length];
+        for (int i = 0; i < round.length; i++) {
+            ticked[i] = (int) round[i][0];
+            assertEquals(9, round[i][1]);
+            assertEquals(10, round[i][2]);
+        }
+        Arrays.sort(ticked);
+        assertArrayEquals(handles, ticked);
+    }
+
+    @Test
+    @DisplayName("完了したタイマーは、残り0秒のtickを渡した後にonFinishで通知されること")
+    void testFinishAfterLastTick() {
+        RecordingListener listener = new RecordingListener();
+        TimerScheduler scheduler = new TimerScheduler(listener);
+        int handle = scheduler.register(new TimerService(Duration.ofSeconds(1), null));
+        scheduler.start(handle);
+        long start = System.nanoTime();
+
+        assertEquals(Long.MAX_VALUE, scheduler.runRound(start + SECOND * 2)); // 動いているタイマーがなくなる
+        assertEquals(List.of("ticks", "finish " + handle), listener.events);
+        assertEquals(0, listener.rounds.get(0)[0][1]);
+    }
+
+    @Test
+    @DisplayName("一時停止中のタイマーは進まず、再開すると次のラウンドから進むこと")
+    void testPauseAndResume() {
+        RecordingListener listener = new RecordingListener();
+        TimerScheduler scheduler = new TimerScheduler(listener);
+        int handle = scheduler.register(new TimerService(Duration.ofSeconds(60), null));
+        scheduler.start(handle);
+        scheduler.getService(handle).pause();
+        long start = System.nanoTime();
+
+        assertEquals(Long.MAX_VALUE, scheduler.runRound(start + SECOND * 5));
+        assertEquals(0, listener.rounds.size());
+
+        scheduler.start(handle);
+        long resumed = System.nanoTime();
+        scheduler.runRound(resumed);
+        scheduler.runRound(resumed + SECOND * 2 + SECOND / 10);
+        assertEquals(1, listener.rounds.size());
+        assertTrue(listener.rounds.get(0)[0][1] >= 57); // 一時停止中の時間は進まない
+        assertEquals(3, listener.stateChanges); // 開始・一時停止・再開
+    }
+
+    @Test
+    @DisplayName("登録を解除したタイマーの通知は届かず、ハンドルが再利用されること")
+    void testUnregister() {
+        RecordingListener listener = new RecordingListener();
+        TimerScheduler scheduler = new TimerScheduler(listener);
+        int handle = scheduler.register(new TimerService(Duration.ofSeconds(10), null));
+        scheduler.start(handle);
+        scheduler.unregister(handle);
+
+        scheduler.runRound(System.nanoTime() + SECOND * 2);
+        assertEquals(0, listener.rounds.size());
+        assertEquals(handle, scheduler.register(new TimerService(Duration.ofSeconds(10), null)));
+    }
+
+    @Test
+    @DisplayName("スケジューラーのスレッドで、多数のタイマーが全て完了すること")
+    void testRun_AllFinish() throws InterruptedException {
+        int sessions = 1000;
+        CountDownLatch finished = new CountDownLatch(sessions);
+        TimerScheduler scheduler = new TimerScheduler(new BatchTimerListener() {
+            @Override
+            public void onTicks(TickBatch batch) {
+            }
+
+            @Override
+            public void onFinish(int handle) {
+                finished.countDown();
+            }
+        });
+        Thread thread = new Thread(scheduler, "timer-scheduler");
+        thread.start();
+        for (int i = 0; i < sessions; i++) {
+            scheduler.start(scheduler.register(new TimerService(Duration.ofSeconds(1), null)));
+        }
+        assertTrue(finished.await(3, TimeUnit.SECONDS));
+        thread.interrupt();
+        thread.join();
+    }
+
+    /*
+     * 通知を記録するリスナー（ラウンドごとに [ハンドル, 残り秒数, 総秒数] の配列を記録する）
+     */
+    private static final class RecordingListener implements BatchTimerListener {
+
+        private final List<long[][]> rounds = new ArrayList<>();
+        private final List<String> events = new ArrayList<>();
+        private int stateChanges;
+
+        @Override
+        public void onTicks(TickBatch batch) {
+            long[][] round = new long[batch.size()][];
+            for (int i = 0; i < batch.size(); i++) {
+                round[i] = new long[] { batch.handles()[i], batch.remainingSeconds()[i], batch.totalSeconds()[i] };
+            }
+            rounds.add(round);
+            events.add("ticks");
+        }
+
+        @Override
+        public void onFinish(int handle) {
+            events.add("finish " + handle);
+        }
+
+        @Override
+        public void onStateChange(int handle) {
+            stateChanges++;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.yoshitaka.pomodoro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * TimerServiceクラスのテスト
+ */
+@ExtendWith(MockitoExtension.class)
+class TimerServiceTest {
+
+    @Mock
+    private TimerListener listenerMock;
+
+    @Test
+    @DisplayName("タイマーが開始されるとonTickが呼ばれること")
+    void testTimerRun_ticks() throws InterruptedException {
+        TimerService timerService = new TimerService(1, listenerMock); // 1-minute timer
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+
+        // onStateChangeが呼ばれてRUNNING状態になるのを待つ
+        verify(listenerMock, timeout(100).atLeastOnce()).onStateChange();
+        assertEquals(TimerService.State.RUNNING, timerService.getState());
+
+        // onTickが少なくとも1回呼ばれるのを待つ (1秒待つ)
+        verify(listenerMock, timeout(1100).atLeastOnce()).onTick(anyLong(), anyLong());
+
+        // スレッドを中断してテストを終了
+        thread.interrupt();
+        thread.join();
+
+        // onFinishが呼ばれていないことを確認
+        verify(listenerMock, never()).onFinish();
+    }
+
+    @Test
+    @DisplayName("タイマーが0分の時、onFinishのみが呼ばれること")
+    void testTimerRun_ZeroDuration() throws InterruptedException {
+        TimerService timerService = new TimerService(0, listenerMock);
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+        thread.join(); // すぐに終了するはず
+
+        // onTickは一度も呼ばれない
+        verify(listenerMock, never()).onTick(anyLong(), anyLong());
+        // onFinishが1回呼ばれる
+        verify(listenerMock, times(1)).onFinish();
+    }
+
+    @Test
+    @DisplayName("pauseとstartで状態が変化し、リスナーが呼ばれること")
+    void testPauseAndStart() throws InterruptedException {
+        TimerService timerService = new TimerService(1, listenerMock);
+
+        // 初期状態はIDLE
+        assertEquals(TimerService.State.IDLE, timerService.getState());
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+
+        // onStateChangeが呼ばれてRUNNING状態になるのを待つ
+        verify(listenerMock, timeout(100).atLeastOnce()).onStateChange();
+        assertEquals(TimerService.State.RUNNING, timerService.getState());
+
+        timerService.pause();
+        assertEquals(TimerService.State.PAUSED, timerService.getState());
+
+        timerService.start();
+        assertEquals(TimerService.State.RUNNING, timerService.getState());
+
+        // 状態変化のたびにonStateChangeが呼ばれることを確認
+        // start(IDLE->RUNNING), pause(RUNNING->PAUSED), start(PAUSED->RUNNING) の3回
+        verify(listenerMock, timeout(100).times(3)).onStateChange();
+
+        // スレッドを停止
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Test
+    @DisplayName("登録したアラームのしきい値に到達するとonAlarmが呼ばれること")
+    void testAlarm() throws InterruptedException {
+        TimerService timerService = new TimerService(Duration.ofSeconds(2), listenerMock);
+        timerService.addAlarm(1); // 残り1秒
+        timerService.addAlarm(5); // 到達しない（総時間より大きい）
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+        thread.join(); // 2秒で完了する
+
+        verify(listenerMock, times(1)).onAlarm(1, 1);
+        verify(listenerMock, never()).onAlarm(eq(5L), anyLong());
+        verify(listenerMock, times(1)).onFinish();
+    }
+
+    @Test
+    @DisplayName("完了通知のみを必要とするリスナーの場合、起床が完了時の1回だけになること")
+    void testFinishOnlyResolution_WakesOnce() throws InterruptedException {
+        when(listenerMock.tickResolution()).thenReturn(TickResolution.FINISH_ONLY);
+        TimerService timerService = new TimerService(Duration.ofSeconds(2), listenerMock);
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+        thread.join();
+
+        verify(listenerMock, never()).onTick(anyLong(), anyLong());
+        verify(listenerMock, times(1)).onFinish();
+        assertEquals(1, timerService.getWakeupCount());
+    }
+
+    @Test
+    @DisplayName("実行中のタイマーに、より細かいtickが必要なリスナーを追加すると、すぐにtickが通知されること")
+    void testAddListener_WakesForFinerResolution() throws InterruptedException {
+        when(listenerMock.tickResolution()).thenReturn(TickResolution.FINISH_ONLY);
+        TimerService timerService = new TimerService(Duration.ofMinutes(5), listenerMock);
+        Thread thread = new Thread(timerService);
+        thread.start();
+        verify(listenerMock, timeout(100).atLeastOnce()).onStateChange();
+        TimeUnit.MILLISECONDS.sleep(200); // 完了時まで眠るのを待つ
+
+        TimerListener added = mock(TimerListener.class);
+        when(added.tickResolution()).thenReturn(TickResolution.SECOND);
+        timerService.addListener(added);
+
+        verify(added, timeout(3000).atLeast(2)).onTick(anyLong(), eq(300L));
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Test
+    @DisplayName("一時停止中も残り時間が保持され、再開後に正確な残り時間が取得できること")
+    void testRemainingTime_ExactOnDemand() throws InterruptedException {
+        TimerService timerService = new TimerService(1, listenerMock);
+        Thread thread = new Thread(timerService);
+        thread.start();
+        verify(listenerMock, timeout(100).atLeastOnce()).onStateChange();
+
+        TimeUnit.MILLISECONDS.sleep(300);
+        timerService.pause();
+        long pausedMillis = timerService.getRemainingMillis();
+        assertTrue(pausedMillis <= 59_700 && pausedMillis > 59_000);
+        assertEquals(60, timerService.getRemainingSeconds()); // 1秒未満は切り上げ
+
+        TimeUnit.MILLISECONDS.sleep(300);
+        assertEquals(pausedMillis, timerService.getRemainingMillis()); // 一時停止中は減らない
+
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Test
+    @DisplayName("高解像度の場合、100ミリ秒ごとにonFineTickが呼ばれ、最後に0ミリ秒が通知されること")
+    void testFineResolution_TicksEveryTenth() throws InterruptedException {
+        when(listenerMock.tickResolution()).thenReturn(TickResolution.FINE);
+        TimerService timerService = new TimerService(Duration.ofSeconds(1), listenerMock);
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+        thread.join();
+
+        // 900, 800, ..., 100, 0 の10回（遅れて起床した場合は区切りをまとめて通知するため、それより少ないこともある）
+        verify(listenerMock, atLeast(8)).onFineTick(anyLong(), eq(1000L));
+        verify(listenerMock, atMost(10)).onFineTick(anyLong(), eq(1000L));
+        verify(listenerMock).onFineTick(0, 1000);
+        verify(listenerMock, times(1)).onTick(0, 1); // 1秒ごとのonTickも呼ばれる
+        verify(listenerMock, times(1)).onFinish();
+        assertTrue(timerService.getWakeupCount() <= 10); // 100ミリ秒ごとより多くは起床しない
+    }
+
+    @Test
+    @DisplayName("高解像度のリスナーがいない場合、onFineTickは呼ばれないこと")
+    void testSecondResolution_NoFineTick() throws InterruptedException {
+        TimerService timerService = new TimerService(Duration.ofSeconds(1), listenerMock);
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+        thread.join();
+
+        verify(listenerMock, never()).onFineTick(anyLong(), anyLong());
+        assertEquals(1, timerService.getWakeupCount());
+    }
+
+    @Test
+    @DisplayName("start()のFutureはタイマーの完了時に、onFinishの通知の後で完了すること")
+    void testCompletion_CompletesOnFinish() throws Exception {
+        TimerService timerService = new TimerService(Duration.ofSeconds(1), listenerMock);
+        CompletableFuture<Void> completion = timerService.getCompletion();
+        CompletableFuture<Void> afterFinish = completion.thenRun(() -> verify(listenerMock).onFinish());
+
+        new Thread(timerService).start();
+
+        afterFinish.get(2, TimeUnit.SECONDS);
+        assertTrue(completion.isDone());
+        assertFalse(completion.isCancelled());
+    }
+
+    @Test
+    @DisplayName("whenRemaining()のFutureは、指定した残り秒数に到達した時に完了すること")
+    void testWhenRemaining_CompletesAtThreshold() throws Exception {
+        TimerService timerService = new TimerService(Duration.ofSeconds(2), listenerMock);
+        CompletableFuture<Long> oneLeft = timerService.whenRemaining(1);
+
+        new Thread(timerService).start();
+
+        assertEquals(1L, oneLeft.get(2, TimeUnit.SECONDS));
+        assertFalse(timerService.getCompletion().isDone()); // 完了より前に到達する
+        assertTrue(timerService.whenRemaining(5).isDone()); // 既に到達している場合はすぐに完了する
+        assertThrows(IllegalArgumentException.class, () -> timerService.whenRemaining(-1));
+        timerService.getCompletion().get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("cancel()で、完了と残り時間を待っているFutureがキャンセルされ、リスナーには通知されないこと")
+    void testCancel_CancelsFutures() throws InterruptedException {
+        TimerService timerService = new TimerService(1, listenerMock);
+        Thread thread = new Thread(timerService);
+        thread.start();
+        verify(listenerMock, timeout(100).atLeastOnce()).onStateChange();
+        CompletableFuture<Long> halfway = timerService.whenRemaining(30);
+
+        timerService.cancel();
+        thread.join(1000);
+
+        assertFalse(thread.isAlive()); // タイマースレッドが終了する
+        assertTrue(timerService.getCompletion().isCancelled());
+        assertTrue(halfway.isCancelled());
+        assertEquals(TimerService.State.IDLE, timerService.getState());
+        verify(listenerMock, never()).onFinish();
+    }
+
+    @Test
+    @DisplayName("実行中にcancel()すると、その時点の残り時間が保持されること")
+    void testCancel_KeepsRemainingTime() throws InterruptedException {
+        TimerService timerService = new TimerService(Duration.ofSeconds(10), listenerMock);
+        timerService.beginNow();
+        TimeUnit.MILLISECONDS.sleep(1200);
+
+        timerService.cancel();
+        long remaining = timerService.getRemainingMillis();
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        assertTrue(remaining <= 8800 && remaining > 0, "残り: " + remaining); // 総時間に戻らない
+        assertEquals(remaining, timerService.getRemainingMillis()); // キャンセル後は減らない
+        assertEquals((remaining + 999) / 1000, timerService.getRemainingSeconds());
+    }
+
+    @Test
+    @DisplayName("タイマースレッドが中断された場合、完了のFutureがキャンセルされること")
+    void testInterrupt_CancelsCompletion() throws InterruptedException {
+        TimerService timerService = new TimerService(1, listenerMock);
+        Thread thread = new Thread(timerService);
+        thread.start();
+        verify(listenerMock, timeout(100).atLeastOnce()).onStateChange();
+
+        thread.interrupt();
+        thread.join();
+
+        assertTrue(timerService.getCompletion().isCancelled());
+    }
+
+    @Test
+    @DisplayName("残り時間を指定したタイマーは、総時間を保ったまま残り時間から再開して完了すること")
+    void testResumeFromRemaining() throws InterruptedException {
+        TimerService timerService = new TimerService(Duration.ofMinutes(25), Duration.ofMillis(300), listenerMock);
+        assertEquals(1500, timerService.getTotalSeconds());
+        assertEquals(300, timerService.getRemainingMillis());
+
+        Thread thread = new Thread(timerService);
+        thread.start();
+        thread.join(1000);
+
+        verify(listenerMock, times(1)).onFinish();
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimerService(Duration.ofSeconds(1), Duration.ofSeconds(2), listenerMock));
+    }
+}